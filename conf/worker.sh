@@ -32,6 +32,9 @@ JVM_ARGS="-Dlog4j2.configurationFile=log4j.xml"
 # Include the member/client-worker jvm options
 JVM_ARGS="$JVM_OPTIONS $JVM_ARGS"
 
+# Include the Class Data Sharing archive that is created by the agent (see WORKER_CDS in simulator.properties)
+JVM_ARGS="$CDS_ARGS $JVM_ARGS"
+
 MAIN=com.hazelcast.simulator.worker.Worker
 
 java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
@@ -97,6 +100,19 @@ java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
 # It will bind members to node 0.
 # numactl -m 0 -N 0 java -classpath $CLASSPATH $JVM_ARGS $MAIN
 #
+# When members and clients run on the same machine, they can be placed on
+# different NUMA nodes using the WORKER_TYPE:
+#
+# if [ "$WORKER_TYPE" = "member" ]; then
+#     NUMA_CONTROL="numactl -m 0 -N 0"
+# else
+#     NUMA_CONTROL="numactl -m 1 -N 1"
+# fi
+# $NUMA_CONTROL java -classpath "$CLASSPATH" ${JVM_ARGS} ${MAIN}
+#
+# Within a worker, the timestep threads can be pinned to CPUs using the
+# 'cpuAffinity' test property.
+#
 
 #########################################################################
 # OpenOnload
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the cost of recording a latency; which is paid on every timestep invocation that measures latency.
+ *
+ * Run with '-t 4' to see the effect of contention on the shared recorder versus the per thread stripes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HdrLatencyProbeBenchmark {
+
+    // a power of 2; so the index can be masked
+    private static final int LATENCY_COUNT = 1024;
+
+    @State(Scope.Benchmark)
+    public static class ProbeState {
+        final HdrLatencyProbe probe = new HdrLatencyProbe("benchmark", true);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final long[] latencies = new long[LATENCY_COUNT];
+        HdrLatencyProbe.Stripe stripe;
+        int index;
+
+        @Setup
+        public void setup(ProbeState probeState) {
+            stripe = probeState.probe.newStripe();
+            // latencies between 10us and 10ms; so multiple buckets of the histogram are hit
+            for (int k = 0; k < latencies.length; k++) {
+                latencies[k] = ThreadLocalRandom.current().nextLong(10_000, 10_000_000);
+            }
+        }
+
+        long nextLatency() {
+            return latencies[index++ & (LATENCY_COUNT - 1)];
+        }
+    }
+
+    @Benchmark
+    public void recordValue(ProbeState probeState, ThreadState threadState) {
+        probeState.probe.recordValue(threadState.nextLatency());
+    }
+
+    @Benchmark
+    public void recordValue_stripe(ThreadState threadState) {
+        threadState.stripe.recordValue(threadState.nextLatency());
+    }
+
+    @Benchmark
+    public void done(ProbeState probeState) {
+        probeState.probe.done(System.nanoTime() - 1000);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures {@link Metronome#waitForNext()}.
+ *
+ * For the sleeping and busy spinning metronome the average time should be equal to the interval; the difference is the
+ * overhead of the metronome, or for small intervals, the rate the metronome can't keep up with. The empty metronome is
+ * the baseline of a test without a configured rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetronomeBenchmark {
+
+    @Param({"empty", "sleeping", "busySpinning"})
+    public String metronomeType;
+
+    @Param({"1000", "100000"})
+    public long intervalNanos;
+
+    private Metronome metronome;
+
+    @Setup
+    public void setup() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("metronome"));
+        switch (metronomeType) {
+            case "empty":
+                metronome = EmptyMetronome.INSTANCE;
+                break;
+            case "sleeping":
+                metronome = new SleepingMetronome(intervalNanos, 1, binding, "");
+                break;
+            case "busySpinning":
+                metronome = new BusySpinningMetronome(intervalNanos, 1, binding, "");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown metronomeType " + metronomeType);
+        }
+    }
+
+    @Benchmark
+    public long waitForNext() {
+        return metronome.waitForNext();
+    }
+}
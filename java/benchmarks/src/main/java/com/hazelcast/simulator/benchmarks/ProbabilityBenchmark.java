@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.utils.FastRandom;
+import com.hazelcast.simulator.worker.testcontainer.AliasTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the selection of the timestep method to call when a test has multiple timestep methods with a probability.
+ *
+ * The generated TimeStepLoop selects a method using an {@link AliasTable} and the {@link FastRandom} of the thread; so
+ * the cost doesn't depend on the number of methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProbabilityBenchmark {
+
+    @Param({"2", "4", "16"})
+    public int methodCount;
+
+    private final FastRandom random = new FastRandom(42);
+    private AliasTable aliasTable;
+
+    @Setup
+    public void setup() {
+        // a skewed distribution; e.g. 1 put for every 9 gets
+        double[] probabilities = new double[methodCount];
+        for (int k = 0; k < methodCount; k++) {
+            probabilities[k] = k == 0 ? 0.9 : 0.1 / (methodCount - 1);
+        }
+        aliasTable = AliasTable.create(probabilities);
+    }
+
+    @Benchmark
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Benchmark
+    public int select() {
+        return aliasTable.select(random.nextLong());
+    }
+}
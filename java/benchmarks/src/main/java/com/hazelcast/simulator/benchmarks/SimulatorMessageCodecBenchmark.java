@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.protocol.message.MessageType;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+import com.hazelcast.simulator.protocol.message.SimulatorMessageCodec;
+import com.hazelcast.simulator.worker.messages.PerformanceStatsMessage;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Measures the encoding and decoding of the {@link PerformanceStatsMessage}; which every worker sends to the coordinator
+ * every performance monitor interval and which contains the interval histograms of the probes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorMessageCodecBenchmark {
+
+    @Param({"1", "4"})
+    public int probeCount;
+
+    private PerformanceStatsMessage msg;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        Map<String, Histogram> histograms = new HashMap<>();
+        for (int k = 0; k < probeCount; k++) {
+            Histogram histogram = new Histogram(MICROSECONDS.toNanos(1), 60_000_000_000L, 3);
+            for (int i = 0; i < 100_000; i++) {
+                histogram.recordValue(ThreadLocalRandom.current().nextLong(10_000, 10_000_000));
+            }
+            histograms.put("probe" + k, histogram);
+        }
+
+        PerformanceStats performanceStats = new PerformanceStats(1_000_000, 100_000, 90_000, 1000, 50_000, 100_000);
+        performanceStats.setIntervalHistograms(histograms);
+        msg = new PerformanceStatsMessage();
+        msg.addPerformanceStats("test", performanceStats);
+        encoded = SimulatorMessageCodec.encode(msg);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return SimulatorMessageCodec.encode(msg);
+    }
+
+    @Benchmark
+    public SimulatorMessage decode() {
+        return SimulatorMessageCodec.decode(encoded, MessageType.PERFORMANCE_STATE);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.testcontainer.TestContainer;
+import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the overhead of the generated TimeStepLoop per timestep invocation; so the cost of the harness itself and not
+ * of the test. Every invocation runs a test with empty timestep methods on a single thread for a fixed number of
+ * iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(TimeStepLoopBenchmark.ITERATIONS)
+public class TimeStepLoopBenchmark {
+
+    static final int ITERATIONS = 1_000_000;
+
+    /**
+     * 'single' is a test with a single timestep method, 'mixed' a test with 3 timestep methods with a probability.
+     */
+    @Param({"single", "mixed"})
+    public String test;
+
+    @Param({"true", "false"})
+    public boolean measureLatency;
+
+    private TestContainer container;
+
+    @Setup(Level.Trial)
+    public void setupUserDir() throws Exception {
+        // the generated TimeStepLoop classes are written to the user dir
+        File userDir = Files.createTempDirectory("timestep-loop-benchmark").toFile();
+        System.setProperty("user.dir.test", userDir.getAbsolutePath());
+    }
+
+    @Setup(Level.Invocation)
+    public void setupContainer() throws Exception {
+        Object testInstance = "single".equals(test) ? new SingleTimeStepTest() : new MixedTimeStepTest();
+        TestCase testCase = new TestCase("benchmark")
+                .setProperty("class", testInstance.getClass())
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", ITERATIONS)
+                .setProperty("measureLatency", measureLatency);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", null);
+        container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+    }
+
+    @Benchmark
+    public void run() throws Exception {
+        container.invoke(RUN);
+    }
+
+    public static class SingleTimeStepTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
+    }
+
+    public static class MixedTimeStepTest {
+
+        @TimeStep(prob = 0.8)
+        public void get() {
+        }
+
+        @TimeStep(prob = 0.15)
+        public void put() {
+        }
+
+        @TimeStep(prob = 0.05)
+        public void remove() {
+        }
+    }
+}
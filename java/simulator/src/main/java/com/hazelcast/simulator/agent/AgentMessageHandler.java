@@ -18,6 +18,7 @@ package com.hazelcast.simulator.agent;
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
 import com.hazelcast.simulator.agent.messages.StartTimeoutDetectionMessage;
 import com.hazelcast.simulator.agent.messages.StopTimeoutDetectionMessage;
+import com.hazelcast.simulator.agent.messages.WorkerReadyMessage;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessFailureMonitor;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessManager;
 import com.hazelcast.simulator.protocol.MessageHandler;
@@ -41,6 +42,9 @@ class AgentMessageHandler implements MessageHandler {
     public void process(SimulatorMessage msg, SimulatorAddress source, Promise promise) throws Exception {
         if (msg instanceof CreateWorkerMessage) {
             processManager.launch((CreateWorkerMessage) msg, promise);
+        } else if (msg instanceof WorkerReadyMessage) {
+            processManager.workerReady(source, (WorkerReadyMessage) msg);
+            promise.answer("ok");
         } else if (msg instanceof StartTimeoutDetectionMessage) {
             failureMonitor.startTimeoutDetection();
             promise.answer("ok");
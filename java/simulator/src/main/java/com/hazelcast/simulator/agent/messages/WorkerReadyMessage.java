@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.messages;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+
+/**
+ * Sent by a Simulator Worker to its Simulator Agent once the worker has started; so the agent doesn't need to poll for
+ * the startup of the {@link com.hazelcast.simulator.agent.workerprocess.WorkerProcess}.
+ */
+public class WorkerReadyMessage implements SimulatorMessage {
+
+    /**
+     * The uptime of the worker JVM when it was ready.
+     */
+    @SerializedName("jvmUptimeMillis")
+    private final long jvmUptimeMillis;
+
+    public WorkerReadyMessage(long jvmUptimeMillis) {
+        this.jvmUptimeMillis = jvmUptimeMillis;
+    }
+
+    public long getJvmUptimeMillis() {
+        return jvmUptimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerReadyMessage{jvmUptimeMillis=" + jvmUptimeMillis + '}';
+    }
+}
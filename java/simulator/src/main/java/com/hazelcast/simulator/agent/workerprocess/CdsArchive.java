@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.workerprocess;
+
+import com.hazelcast.simulator.worker.CdsTraining;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.rename;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The Class Data Sharing (AppCDS) archive that is shared by the worker JVMs with the same classpath.
+ *
+ * The archive is created once by a training run; a short lived JVM running {@link CdsTraining} with the classpath of the
+ * workers and '-XX:ArchiveClassesAtExit'. The workers then map the archive using '-XX:SharedArchiveFile' instead of
+ * loading and verifying the classes from the jars, which reduces the startup time of the workers and the latency of the
+ * first test. The training run is done in the background; so the launch of the workers isn't blocked by it and the workers
+ * that are launched before the archive exists run without it.
+ *
+ * This requires Java 13+. If the archive can't be created, or it doesn't match the JVM of a worker, the worker just runs
+ * without it.
+ */
+class CdsArchive {
+
+    static final int MIN_JAVA_VERSION = 13;
+
+    private static final int TRAINING_TIMEOUT_SECONDS = 120;
+    private static final Logger LOGGER = LogManager.getLogger(CdsArchive.class);
+
+    private final File file;
+    private final AtomicBoolean trainingStarted = new AtomicBoolean();
+    private volatile Thread trainingThread;
+
+    CdsArchive(File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the JVM arguments for a worker to use the archive. If the archive doesn't exist yet, the training run is
+     * started in the background and no arguments are returned.
+     *
+     * This method is thread-safe.
+     *
+     * @param javaHome  the Java home of the worker
+     * @param classpath the classpath of the worker
+     * @return the JVM arguments; empty if there is no archive (yet)
+     */
+    String jvmArgs(String javaHome, String classpath) {
+        // the archive is renamed into place when the training run completes; so it is never used half written
+        if (file.exists()) {
+            return "-XX:SharedArchiveFile=" + file.getAbsolutePath();
+        }
+
+        if (trainingStarted.compareAndSet(false, true)) {
+            Thread thread = new Thread(() -> train(javaHome, classpath), "CdsTraining-" + file.getName());
+            thread.setDaemon(true);
+            trainingThread = thread;
+            thread.start();
+        }
+        return "";
+    }
+
+    /**
+     * Waits till the training run, if started, has completed.
+     */
+    void awaitTraining() {
+        joinThread(trainingThread);
+    }
+
+    private void train(String javaHome, String classpath) {
+        ensureExistingDirectory(file.getParentFile());
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        File logFile = new File(file.getParentFile(), file.getName() + ".log");
+        deleteQuiet(tmpFile);
+
+        List<String> command = new ArrayList<>();
+        command.add(javaHome + "/bin/java");
+        command.add("-XX:ArchiveClassesAtExit=" + tmpFile.getAbsolutePath());
+        command.add("-cp");
+        command.add(classpath);
+        command.add(CdsTraining.class.getName());
+
+        long started = System.nanoTime();
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logFile)
+                    .start();
+            if (!process.waitFor(TRAINING_TIMEOUT_SECONDS, SECONDS)) {
+                process.destroy();
+                LOGGER.warn(format("CDS training run didn't complete within %d seconds, see %s", TRAINING_TIMEOUT_SECONDS,
+                        logFile.getAbsolutePath()));
+                return;
+            }
+
+            if (process.exitValue() != 0 || !tmpFile.exists()) {
+                LOGGER.warn(format("CDS training run failed with exit code %d, workers run without CDS archive, see %s",
+                        process.exitValue(), logFile.getAbsolutePath()));
+                return;
+            }
+
+            rename(tmpFile, file);
+            LOGGER.info(format("Created CDS archive %s in %d ms", file.getAbsolutePath(),
+                    NANOSECONDS.toMillis(System.nanoTime() - started)));
+        } catch (Exception e) {
+            LOGGER.warn("CDS training run failed, workers run without CDS archive", e);
+        } finally {
+            deleteQuiet(tmpFile);
+        }
+    }
+
+    /**
+     * Returns the major version of the Java specification of this JVM, e.g. 8 for '1.8' and 17 for '17'.
+     *
+     * @return the major Java version
+     */
+    static int javaMajorVersion() {
+        return javaMajorVersion(System.getProperty("java.specification.version"));
+    }
+
+    static int javaMajorVersion(String specificationVersion) {
+        String version = specificationVersion.startsWith("1.") ? specificationVersion.substring(2) : specificationVersion;
+        int index = version.indexOf('.');
+        try {
+            return Integer.parseInt(index == -1 ? version : version.substring(0, index));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -18,6 +18,8 @@ package com.hazelcast.simulator.agent.workerprocess;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 
 import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.System.currentTimeMillis;
 
@@ -33,6 +35,9 @@ public class WorkerProcess {
     private volatile boolean oomeDetected;
     private volatile boolean isFinished;
     private volatile Process process;
+    // is counted down when the worker is ready or when the process has exited
+    private final CountDownLatch startupLatch = new CountDownLatch(1);
+    private volatile boolean ready;
 
     public WorkerProcess(SimulatorAddress address, String id, File workerHome) {
         this.address = address;
@@ -80,6 +85,37 @@ public class WorkerProcess {
         isFinished = true;
     }
 
+    /**
+     * Marks the worker as ready; so it has successfully started.
+     */
+    public void setReady() {
+        ready = true;
+        startupLatch.countDown();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Wakes up the threads waiting for the startup of the worker, e.g. because the process has exited.
+     */
+    void signalStartupWaiters() {
+        startupLatch.countDown();
+    }
+
+    /**
+     * Waits for the worker to become ready or for {@link #signalStartupWaiters()} to be called.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return <tt>false</tt> if the timeout expired
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    boolean awaitStartup(long timeout, TimeUnit unit) throws InterruptedException {
+        return startupLatch.await(timeout, unit);
+    }
+
     public Process getProcess() {
         return process;
     }
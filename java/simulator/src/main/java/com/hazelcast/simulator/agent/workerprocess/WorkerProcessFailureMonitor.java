@@ -23,15 +23,20 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 import static com.hazelcast.simulator.common.FailureType.WORKER_ABNORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
 import static com.hazelcast.simulator.common.FailureType.WORKER_NORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_OOME;
 import static com.hazelcast.simulator.common.FailureType.WORKER_TIMEOUT;
-import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
+import static com.hazelcast.simulator.utils.NativeUtils.onProcessExit;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -87,6 +92,15 @@ public class WorkerProcessFailureMonitor {
         private final WorkerProcessManager workerProcessManager;
         private final int lastSeenTimeoutSeconds;
         private final int checkIntervalMillis;
+        // is released when a worker process exits; so the exit is detected directly instead of on the next check
+        private final Semaphore exitSignal = new Semaphore(0);
+        private final Set<Process> watchedProcesses = Collections.newSetFromMap(new IdentityHashMap<Process, Boolean>());
+        private final Runnable exitCallback = new Runnable() {
+            @Override
+            public void run() {
+                exitSignal.release();
+            }
+        };
 
         private volatile boolean running = true;
         private volatile boolean detectTimeouts;
@@ -108,17 +122,36 @@ public class WorkerProcessFailureMonitor {
             while (running) {
                 try {
                     for (WorkerProcess workerProcess : workerProcessManager.getWorkerProcesses()) {
+                        watchExit(workerProcess);
 
                         detectFailures(workerProcess);
 
                         if (workerProcess.isFinished()) {
                             workerProcessManager.remove(workerProcess);
+                            watchedProcesses.remove(workerProcess.getProcess());
                         }
                     }
                 } catch (Exception e) {
                     LOGGER.fatal("Failed to scan for failures", e);
                 }
-                sleepMillis(checkIntervalMillis);
+                awaitNextCheck();
+            }
+        }
+
+        private void watchExit(WorkerProcess workerProcess) {
+            Process process = workerProcess.getProcess();
+            if (process != null && watchedProcesses.add(process)) {
+                onProcessExit(process, exitCallback);
+            }
+        }
+
+        private void awaitNextCheck() {
+            try {
+                if (exitSignal.tryAcquire(checkIntervalMillis, MILLISECONDS)) {
+                    exitSignal.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                ignore(e);
             }
         }
 
@@ -142,6 +175,8 @@ public class WorkerProcessFailureMonitor {
             detectUnexpectedExit(workerProcess);
         }
 
+        // the worker sends its exceptions to the coordinator directly; the exception files are only the fallback for when
+        // sending isn't possible, e.g. when the worker is crashing or the connection to the broker is lost
         private void detectExceptions(WorkerProcess workerProcess) {
             File workerHome = workerProcess.getWorkerHome();
             if (!workerHome.exists()) {
@@ -27,14 +27,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
 import static com.hazelcast.simulator.utils.FileUtils.ensureFreshDirectory;
-import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
-import static com.hazelcast.simulator.utils.NativeUtils.execute;
+import static com.hazelcast.simulator.utils.NativeUtils.onProcessExit;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -44,7 +43,6 @@ public class WorkerProcessLauncher {
 
     public static final String WORKERS_HOME_NAME = "workers";
 
-    private static final int WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS = 500;
     private static final String CLASSPATH = System.getProperty("java.class.path");
     private static final String CLASSPATH_SEPARATOR = System.getProperty("path.separator");
     private static final Logger LOGGER = LogManager.getLogger(WorkerProcessLauncher.class);
@@ -74,10 +72,11 @@ public class WorkerProcessLauncher {
             LOGGER.info(format("Starting a Java Virtual Machine for %s Worker %s", type, workerAddress));
 
             LOGGER.info("Launching Worker using: " + parameters);
+            long startNanos = System.nanoTime();
             process = startWorker();
             LOGGER.info(format("Finished starting a for %s Worker %s ", type, workerAddress));
 
-            waitForWorkersStartup(process);
+            waitForWorkersStartup(process, startNanos);
             process = null;
         } finally {
             if (process != null) {
@@ -98,7 +97,18 @@ public class WorkerProcessLauncher {
         String workerDirName = parameters.get("WORKER_DIR_NAME");
         File workerHome = ensureFreshDirectory(new File(runId, workerDirName));
 
-        copyResourcesToWorkerHome(workerDirName);
+        String javaHome = getJavaHome();
+        String cdsArgs = "";
+        String classpath;
+        if (isCdsEnabled()) {
+            // CDS doesn't support non-empty directories on the classpath of the training run, so the upload directory is
+            // excluded from the archive and appended to the end of the classpath; the JVM accepts appended entries
+            classpath = getClasspath(false);
+            cdsArgs = getCdsArgs(javaHome, classpath);
+            classpath += uploadDirToClassPath();
+        } else {
+            classpath = getClasspath(true);
+        }
 
         WorkerProcess workerProcess = new WorkerProcess(workerAddress, workerDirName, workerHome);
 
@@ -120,44 +130,44 @@ public class WorkerProcessLauncher {
                 sb.append(key).append("=").append(value).append("\n");
             }
         }
-        sb.append("CLASSPATH=").append(getClasspath(workerHome)).append("\n");
+        sb.append("CLASSPATH=").append(classpath).append("\n");
 
         writeText(sb.toString(), new File(workerHome, "parameters"));
 
         environment.putAll(System.getenv());
-        String javaHome = getJavaHome();
         String path = javaHome + "/bin:" + environment.get("PATH");
         environment.put("PATH", path);
         environment.put("JAVA_HOME", javaHome);
-        environment.put("CLASSPATH", getClasspath(workerHome));
+        environment.put("CLASSPATH", classpath);
         environment.put("SIMULATOR_HOME", getSimulatorHome().getAbsolutePath());
+        environment.put("CDS_ARGS", cdsArgs);
 
         Process process = processBuilder.start();
 
         workerProcess.setProcess(process);
         processManager.add(workerAddress, workerProcess);
+        // if the process exits during startup, the launcher doesn't need to wait for the timeout
+        onProcessExit(process, workerProcess::signalStartupWaiters);
 
         return workerProcess;
     }
 
-    private void waitForWorkersStartup(WorkerProcess worker) {
+    // the worker sends a WorkerReadyMessage once it has started; so there is no need to poll for the startup
+    private void waitForWorkersStartup(WorkerProcess worker, long startNanos) throws InterruptedException {
         int timeout = parameters.intGet("WORKER_STARTUP_TIMEOUT_SECONDS");
 
-        int loopCount = (int) SECONDS.toMillis(timeout) / WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS;
-        for (int i = 0; i < loopCount; i++) {
-            if (hasExited(worker)) {
-                throw new CreateWorkerFailedException(format(
-                        "Startup of Worker %s on Agent %s failed, check log files in %s for more information!",
-                        worker.getAddress(), processManager.getPublicAddress(), worker.getWorkerHome()));
-            }
+        worker.awaitStartup(timeout, SECONDS);
 
-            String pid = readPid(worker);
-            if (pid != null) {
-                LOGGER.info(format("Worker %s started", worker.getId()));
-                return;
-            }
+        if (worker.isReady()) {
+            long startupMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            LOGGER.info(format("Worker %s started in %d ms", worker.getId(), startupMillis));
+            return;
+        }
 
-            sleepMillis(WAIT_FOR_WORKER_STARTUP_INTERVAL_MILLIS);
+        if (hasExited(worker)) {
+            throw new CreateWorkerFailedException(format(
+                    "Startup of Worker %s on Agent %s failed, check log files in %s for more information!",
+                    worker.getAddress(), processManager.getPublicAddress(), worker.getWorkerHome()));
         }
 
         throw new CreateWorkerFailedException(format(
@@ -165,6 +175,17 @@ public class WorkerProcessLauncher {
                 worker.getAddress(), processManager.getPublicAddress(), timeout, worker.getWorkerHome()));
     }
 
+    private boolean isCdsEnabled() {
+        return parameters.asMap().containsKey("WORKER_CDS") && Boolean.parseBoolean(parameters.get("WORKER_CDS"))
+                && CdsArchive.javaMajorVersion() >= CdsArchive.MIN_JAVA_VERSION;
+    }
+
+    private String getCdsArgs(String javaHome, String classpath) {
+        // the workers of a run with the same classpath share the archive; the classpath contains the run directory
+        String archiveName = format("worker-%08x.jsa", (javaHome + classpath).hashCode());
+        return processManager.getCdsArchive(new File(runId, "cds/" + archiveName)).jvmArgs(javaHome, classpath);
+    }
+
     private String getJavaHome() {
         String javaHome = System.getProperty("java.home");
         String jre = "/jre";
@@ -178,25 +199,6 @@ public class WorkerProcessLauncher {
         return javaHome;
     }
 
-    private void copyResourcesToWorkerHome(String workerId) {
-        File workersHome = new File(getSimulatorHome(), WORKERS_HOME_NAME);
-        String runId = parameters.get("RUN_ID");
-        File uploadDirectory = new File(workersHome, runId + "/upload/").getAbsoluteFile();
-        if (!uploadDirectory.exists() || !uploadDirectory.isDirectory()) {
-            LOGGER.debug("Skip copying upload directory to workers since no upload directory was found");
-            return;
-        }
-
-        String copyCommand = format("cp -rfv %s/%s/upload %s/%s/%s/ || true",
-                workersHome,
-                runId,
-                workersHome,
-                runId,
-                workerId);
-        execute(copyCommand);
-        LOGGER.info(format("Finished copying '%s' to Worker", uploadDirectory));
-    }
-
     private boolean hasExited(WorkerProcess workerProcess) {
         try {
             workerProcess.getProcess().exitValue();
@@ -206,21 +208,12 @@ public class WorkerProcessLauncher {
         }
     }
 
-    private String readPid(WorkerProcess workerProcess) {
-        File pidFile = new File(workerProcess.getWorkerHome(), "worker.pid");
-        if (!pidFile.exists()) {
-            return null;
-        }
-
-        return fileAsText(pidFile);
-    }
-
-    private String getClasspath(File workerHome) {
+    private String getClasspath(boolean includeUploadDir) {
         String simulatorHome = getSimulatorHome().getAbsolutePath();
-        String classpath = new File(getRunId(), "lib/*").getAbsolutePath()
-                + CLASSPATH_SEPARATOR + workerHome.getAbsolutePath() + "/upload/*"
+        String classpath = new File(runId, "lib/*").getAbsolutePath()
+                + CLASSPATH_SEPARATOR + new File(runId, "upload").getAbsolutePath() + "/*"
                 + CLASSPATH_SEPARATOR + simulatorHome + "/user-lib/*"
-                + uploadDirToClassPath(workerHome)
+                + (includeUploadDir ? uploadDirToClassPath() : "")
                 + CLASSPATH_SEPARATOR + CLASSPATH;
 
         String driver = parameters.get("DRIVER");
@@ -245,9 +238,11 @@ public class WorkerProcessLauncher {
         return classpath;
     }
 
-    private String uploadDirToClassPath(File workerHome) {
+    // the shared upload directory of the run is used; so all workers of a run have the same classpath and can share the
+    // CDS archive
+    private String uploadDirToClassPath() {
         String uploadClassPath = "";
-        File uploadDirectory = new File(workerHome, "upload").getAbsoluteFile();
+        File uploadDirectory = new File(runId, "upload").getAbsoluteFile();
         if (uploadDirectory.exists() && uploadDirectory.isDirectory()) {
             File[] files = uploadDirectory.listFiles();
             if (files != null && files.length > 0) {
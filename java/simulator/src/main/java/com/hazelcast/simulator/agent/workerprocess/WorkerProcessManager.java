@@ -16,6 +16,7 @@
 package com.hazelcast.simulator.agent.workerprocess;
 
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
+import com.hazelcast.simulator.agent.messages.WorkerReadyMessage;
 import com.hazelcast.simulator.coordinator.messages.FailureMessage;
 import com.hazelcast.simulator.protocol.Promise;
 import com.hazelcast.simulator.protocol.Server;
@@ -26,6 +27,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
@@ -48,6 +50,8 @@ public class WorkerProcessManager {
 
     private final ConcurrentMap<SimulatorAddress, WorkerProcess> workerProcesses
             = new ConcurrentHashMap<>();
+    // the key is the archive file
+    private final ConcurrentMap<File, CdsArchive> cdsArchives = new ConcurrentHashMap<>();
     private final Server server;
     private final SimulatorAddress agentAddress;
     private final String publicAddress;
@@ -86,6 +90,27 @@ public class WorkerProcessManager {
         workerProcesses.remove(process.getAddress());
     }
 
+    /**
+     * Marks a worker as ready after it has sent its {@link WorkerReadyMessage}.
+     *
+     * @param workerAddress the address of the worker
+     * @param msg           the WorkerReadyMessage
+     */
+    public void workerReady(SimulatorAddress workerAddress, WorkerReadyMessage msg) {
+        WorkerProcess workerProcess = workerProcesses.get(workerAddress);
+        if (workerProcess == null) {
+            LOGGER.warn("Ready message for unknown Worker: " + workerAddress);
+            return;
+        }
+
+        LOGGER.info(format("Worker %s is ready (JVM uptime %d ms)", workerAddress, msg.getJvmUptimeMillis()));
+        workerProcess.setReady();
+    }
+
+    CdsArchive getCdsArchive(File file) {
+        return cdsArchives.computeIfAbsent(file, CdsArchive::new);
+    }
+
     Collection<WorkerProcess> getWorkerProcesses() {
         return workerProcesses.values();
     }
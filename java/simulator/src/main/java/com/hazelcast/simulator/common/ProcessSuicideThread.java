@@ -20,6 +20,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static com.hazelcast.simulator.utils.NativeUtils.isProcessAlive;
+import static com.hazelcast.simulator.utils.NativeUtils.onProcessExit;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -27,6 +29,9 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  *
  * This helps to prevent 'orphan' workers which especially in a local setup are a problem since one can't just kill all
  * java processes since this would also kill the IDE.
+ *
+ * On Java 9+ the exit of the parent is detected using the ProcessHandle onExit future. Otherwise the parent is checked every
+ * interval using the /proc filesystem; only if that isn't available, a 'ps' command is forked.
  */
 public final class ProcessSuicideThread extends Thread {
     private static final Logger LOGGER = LogManager.getLogger(ProcessSuicideThread.class);
@@ -47,24 +52,44 @@ public final class ProcessSuicideThread extends Thread {
             return;
         }
 
+        long pid = Long.parseLong(parentPid.trim());
+        if (onProcessExit(pid, this::terminate)) {
+            return;
+        }
+
         try {
             for (; ; ) {
                 SECONDS.sleep(intervalSeconds);
-                BashCommand bashCommand = new BashCommand("ps -p " + parentPid);
-                bashCommand.setThrowsExceptionOnError(true);
-
-                try {
-                    bashCommand.execute();
-                } catch (Exception e) {
-                    String msg = "Process terminating; parent process with pid [" + parentPid + "] is not alive";
-                    LOGGER.error(msg);
-                    LOGGER.debug("The ps command execution resulted in an Exception", e);
-                    System.err.println(msg);
-                    System.exit(1);
+                if (!isParentAlive(pid)) {
+                    terminate();
                 }
             }
         } catch (InterruptedException e) {
             ignore(e);
         }
     }
+
+    private boolean isParentAlive(long pid) {
+        Boolean alive = isProcessAlive(pid);
+        if (alive != null) {
+            return alive;
+        }
+
+        BashCommand bashCommand = new BashCommand("ps -p " + pid);
+        bashCommand.setThrowsExceptionOnError(true);
+        try {
+            bashCommand.execute();
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("The ps command execution resulted in an Exception", e);
+            return false;
+        }
+    }
+
+    private void terminate() {
+        String msg = "Process terminating; parent process with pid [" + parentPid + "] is not alive";
+        LOGGER.error(msg);
+        System.err.println(msg);
+        System.exit(1);
+    }
 }
@@ -41,6 +41,8 @@ import java.util.Map;
 
 import static com.hazelcast.simulator.coordinator.AgentUtils.startAgents;
 import static com.hazelcast.simulator.coordinator.AgentUtils.stopAgents;
+import static com.hazelcast.simulator.coordinator.PerformanceStatsCollector.DEFAULT_LATENCY_PERCENTILES;
+import static com.hazelcast.simulator.coordinator.PerformanceStatsCollector.parseLatencyPercentiles;
 import static com.hazelcast.simulator.drivers.Driver.loadDriver;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
@@ -53,8 +55,7 @@ public class Coordinator implements Closeable {
 
     private static final Logger LOGGER = LogManager.getLogger(Coordinator.class);
 
-    private final PerformanceStatsCollector performanceStatsCollector = new PerformanceStatsCollector();
-
+    private final PerformanceStatsCollector performanceStatsCollector;
     private final Registry registry;
     private final CoordinatorParameters parameters;
     private final FailureCollector failureCollector;
@@ -68,6 +69,7 @@ public class Coordinator implements Closeable {
         this.failureCollector = new FailureCollector(parameters.getRunPath(), registry);
         this.properties = parameters.getSimulatorProperties();
         this.testCompletionTimeoutSeconds = properties.getTestCompletionTimeoutSeconds();
+        this.performanceStatsCollector = newPerformanceStatsCollector(properties);
 
         this.client = new CoordinatorClient()
                 .setAgentBrokerPort(properties.getAgentPort())
@@ -75,6 +77,16 @@ public class Coordinator implements Closeable {
                 .setFailureCollector(failureCollector);
     }
 
+    private static PerformanceStatsCollector newPerformanceStatsCollector(SimulatorProperties properties) {
+        String percentiles = properties.get("PERFORMANCE_MONITOR_PERCENTILES", DEFAULT_LATENCY_PERCENTILES);
+        boolean probeTable = Boolean.parseBoolean(properties.get("PERFORMANCE_MONITOR_PROBE_TABLE", "true"));
+        try {
+            return new PerformanceStatsCollector(parseLatencyPercentiles(percentiles), probeTable);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLineExitException("PERFORMANCE_MONITOR_PERCENTILES is invalid: " + e.getMessage());
+        }
+    }
+
     FailureCollector getFailureCollector() {
         return failureCollector;
     }
@@ -42,6 +42,7 @@ import static com.hazelcast.simulator.drivers.Driver.loadDriver;
 import static com.hazelcast.simulator.utils.CliUtils.initOptionsWithHelp;
 import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
 import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
+import static com.hazelcast.simulator.utils.CommonUtils.toSHA1;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.SimulatorUtils.loadSimulatorProperties;
@@ -231,7 +232,7 @@ final class CoordinatorCli {
                     registry,
                     properties.asMap(),
                     new File(runPath),
-                    CoordinatorParameters.toSHA1(runPath)).run();
+                    toSHA1(runPath)).run();
         } else if (options.has(cleanSpec)) {
             new AgentsClearTask(registry).run();
         } else {
@@ -19,11 +19,9 @@ import com.hazelcast.simulator.common.SimulatorProperties;
 import com.hazelcast.simulator.common.TestPhase;
 
 import java.io.File;
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
+import static com.hazelcast.simulator.utils.CommonUtils.toSHA1;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 
 /**
@@ -51,18 +49,6 @@ public class CoordinatorParameters {
         return runId;
     }
 
-    public static String toSHA1(String s) {
-        MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-        md.reset();
-        md.update(s.getBytes());
-        return String.format("%040x", new BigInteger(1, md.digest()));
-    }
-
     public CoordinatorParameters setRunPath(String runPath) {
         checkNotNull(runPath, "runPath can't be null");
 
@@ -27,6 +27,7 @@ import java.io.File;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.simulator.common.FailureType.WORKER_CREATE_ERROR;
 import static com.hazelcast.simulator.common.FailureType.WORKER_NORMAL_EXIT;
@@ -48,6 +49,7 @@ public class FailureCollector {
 
     private final AtomicInteger nonCriticalFailureCounter = new AtomicInteger();
     private final AtomicInteger criticalFailureCounter = new AtomicInteger();
+    private final AtomicLong duplicateCounter = new AtomicLong();
     private final ConcurrentMap<String, Boolean> hasCriticalFailuresMap = new ConcurrentHashMap<>();
 
     private final File file;
@@ -62,6 +64,10 @@ public class FailureCollector {
         listenerMap.put(listener, false);
     }
 
+    public void removeListener(FailureListener listener) {
+        listenerMap.remove(listener);
+    }
+
     public void notify(FailureMessage failure) {
         failure = enrich(failure);
 
@@ -86,6 +92,13 @@ public class FailureCollector {
             }
         }
 
+        duplicateCounter.addAndGet(failure.getDuplicateCount());
+        if (failure.isDuplicateReport()) {
+            // the duplicates of a failure that has already been reported; so it isn't a new failure
+            appendText(failure.getDuplicateReportMessage(), file);
+            return;
+        }
+
         int failureCount = criticalFailureCounter.incrementAndGet();
         String testId = failure.getTestId();
         if (testId != null) {
@@ -141,6 +154,10 @@ public class FailureCollector {
         return criticalFailureCounter.get() + nonCriticalFailureCounter.get();
     }
 
+    long getDuplicateCount() {
+        return duplicateCounter.get();
+    }
+
     public boolean hasCriticalFailure() {
         return criticalFailureCounter.get() > 0;
     }
@@ -155,11 +172,11 @@ public class FailureCollector {
         if (criticalFailureCount > 0 || nonCriticalFailureCount > 0) {
             if (criticalFailureCount > 0) {
                 LOGGER.warn(HORIZONTAL_RULER);
-                LOGGER.warn(criticalFailureCount + " critical failures have been detected!!!");
+                LOGGER.warn(criticalFailureCount + " critical failures have been detected!!!" + duplicatesInfo());
                 LOGGER.warn(HORIZONTAL_RULER);
             } else {
                 LOGGER.warn(HORIZONTAL_RULER);
-                LOGGER.warn(nonCriticalFailureCount + " non-critical failures have been detected!");
+                LOGGER.warn(nonCriticalFailureCount + " non-critical failures have been detected!" + duplicatesInfo());
                 LOGGER.warn(HORIZONTAL_RULER);
             }
             return;
@@ -168,4 +185,9 @@ public class FailureCollector {
         LOGGER.info("No failures have been detected!");
         LOGGER.info(HORIZONTAL_RULER);
     }
+
+    private String duplicatesInfo() {
+        long duplicateCount = duplicateCounter.get();
+        return duplicateCount == 0 ? "" : format(" (%d duplicates)", duplicateCount);
+    }
 }
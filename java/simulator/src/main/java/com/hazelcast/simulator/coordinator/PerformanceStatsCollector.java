@@ -17,13 +17,16 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 
+import java.math.BigDecimal;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -47,12 +50,58 @@ public class PerformanceStatsCollector {
     public static final int OPERATION_COUNT_FORMAT_LENGTH = 14;
     public static final int THROUGHPUT_FORMAT_LENGTH = 12;
     public static final int LATENCY_FORMAT_LENGTH = 10;
+    public static final int ALLOCATION_FORMAT_LENGTH = 10;
 
     private static final long DISPLAY_LATENCY_AS_MICROS_MAX_VALUE = MILLISECONDS.toMicros(10);
+    static final String DEFAULT_LATENCY_PERCENTILES = "50,90,99,99.9,99.99";
+    private static final double SWEEP_SLO_PERCENTILE = 99;
 
     // holds a map per Worker SimulatorAddress which contains the lastDelta PerformanceStats per testCaseId
     private final ConcurrentMap<SimulatorAddress, WorkerPerformance> workerPerformanceInfoMap
             = new ConcurrentHashMap<>();
+    private final double[] latencyPercentiles;
+    private final boolean probeTable;
+
+    public PerformanceStatsCollector() {
+        this(parseLatencyPercentiles(DEFAULT_LATENCY_PERCENTILES), true);
+    }
+
+    /**
+     * Creates a PerformanceStatsCollector.
+     *
+     * @param latencyPercentiles the latency percentiles to show, e.g. {50, 99, 99.9, 99.99}
+     * @param probeTable         {@code true} if the interval performance numbers should include a line per probe if a test
+     *                           has multiple probes; e.g. to see the latency of the puts separately from the gets
+     */
+    public PerformanceStatsCollector(double[] latencyPercentiles, boolean probeTable) {
+        this.latencyPercentiles = latencyPercentiles;
+        this.probeTable = probeTable;
+    }
+
+    /**
+     * Parses a comma separated list of latency percentiles, e.g. '50,99,99.9,99.99'.
+     *
+     * @param value the value to parse
+     * @return the percentiles
+     * @throws IllegalArgumentException if a percentile isn't a number or isn't between 0 and 100
+     */
+    public static double[] parseLatencyPercentiles(String value) {
+        String[] items = value.split(",");
+        double[] percentiles = new double[items.length];
+        for (int k = 0; k < items.length; k++) {
+            String item = items[k].trim();
+            try {
+                percentiles[k] = Double.parseDouble(item);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(format("Invalid latency percentile [%s] in [%s]", item, value));
+            }
+            if (percentiles[k] <= 0 || percentiles[k] > 100) {
+                throw new IllegalArgumentException(
+                        format("Latency percentile [%s] in [%s] must be larger than 0 and at most 100", item, value));
+            }
+        }
+        return percentiles;
+    }
 
     public void update(SimulatorAddress workerAddress, Map<String, PerformanceStats> performanceStatsMap) {
         WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
@@ -71,11 +120,24 @@ public class PerformanceStatsCollector {
             return "";
         }
 
+        Map<String, Histogram> probeHistograms = getHistograms(testId, false);
+        Histogram histogram = mergeProbes(probeHistograms);
+        if (histogram != null) {
+            // the histograms of all workers are merged; so the percentiles are the real percentiles of the interval.
+            return format("%s ops %s ops/s %s%s%s%s",
+                    formatLong(latest.getOperationCount(), OPERATION_COUNT_FORMAT_LENGTH),
+                    formatDouble(latest.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH),
+                    formatLatency(histogram),
+                    formatAllocations(latest),
+                    formatLateOperations(latest),
+                    probeTable ? formatProbeTable(probeHistograms, histogram.getTotalCount(), latest) : "");
+        }
+
         double latencyAvgNs = latest.getIntervalLatencyAvgNanos();
         double latency999PercentileNs = latest.getIntervalLatency999PercentileNanos();
         double latencyMaxNs = latest.getIntervalLatencyMaxNanos();
 
-        return format("%s ops %s ops/s %s %s (avg) %s %s (%sth) %s %s (max)",
+        return format("%s ops %s ops/s %s %s (avg) %s %s (%sth) %s %s (max)%s%s",
                 formatLong(latest.getOperationCount(), OPERATION_COUNT_FORMAT_LENGTH),
                 formatDouble(latest.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH),
                 formatLong(toPrettyValue(latencyAvgNs), LATENCY_FORMAT_LENGTH),
@@ -84,7 +146,85 @@ public class PerformanceStatsCollector {
                 toPrettyUnit(latency999PercentileNs),
                 INTERVAL_LATENCY_PERCENTILE,
                 formatLong(toPrettyValue(latencyMaxNs), LATENCY_FORMAT_LENGTH),
-                toPrettyUnit(latencyMaxNs));
+                toPrettyUnit(latencyMaxNs),
+                formatAllocations(latest),
+                formatLateOperations(latest));
+    }
+
+    /**
+     * Formats the bytes allocated per operation by the timestep threads; an empty string is returned if the Workers
+     * can't measure the allocations.
+     */
+    private static String formatAllocations(PerformanceStats performanceStats) {
+        double bytesPerOperation = performanceStats.getAllocatedBytesPerOperation();
+        if (bytesPerOperation < 0) {
+            return "";
+        }
+        return format(" %s B/op", formatDouble(bytesPerOperation, ALLOCATION_FORMAT_LENGTH));
+    }
+
+    /**
+     * Formats the number of operations that started more than an interval after their intended start time; an empty string
+     * is returned if the late operations aren't tracked, which is the case if the OpenLoopMetronome isn't used.
+     */
+    private static String formatLateOperations(PerformanceStats performanceStats) {
+        long lateOperationCount = performanceStats.getLateOperationCount();
+        if (lateOperationCount < 0) {
+            return "";
+        }
+        return format(" %s late", formatLong(lateOperationCount, OPERATION_COUNT_FORMAT_LENGTH));
+    }
+
+    /**
+     * Formats a line per probe with the throughput and latency of the last interval; so the latency of a single operation
+     * type doesn't disappear in the merged latency of a test with multiple probes. An empty string is returned if there
+     * are less than 2 probes with measurements.
+     *
+     * The Workers only send the operation count of the test; so the throughput of a probe is the share of the probe in the
+     * measurements of all probes.
+     */
+    private String formatProbeTable(Map<String, Histogram> probeHistograms, long totalCount, PerformanceStats latest) {
+        int probeCount = 0;
+        int nameLength = 0;
+        for (Map.Entry<String, Histogram> entry : probeHistograms.entrySet()) {
+            if (entry.getValue().getTotalCount() > 0) {
+                probeCount++;
+                nameLength = Math.max(nameLength, entry.getKey().length());
+            }
+        }
+        if (probeCount < 2) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : probeHistograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            double throughput = latest.getIntervalThroughput() * histogram.getTotalCount() / totalCount;
+            sb.append(format("%n  Probe %-" + nameLength + "s %s ops/s %s",
+                    entry.getKey(),
+                    formatDouble(throughput, THROUGHPUT_FORMAT_LENGTH),
+                    formatLatency(histogram)));
+        }
+        return sb.toString();
+    }
+
+    private String formatLatency(Histogram histogram) {
+        StringBuilder sb = new StringBuilder();
+        double meanNs = histogram.getMean();
+        sb.append(format("%s %s (avg)", formatLong(toPrettyValue(meanNs), LATENCY_FORMAT_LENGTH), toPrettyUnit(meanNs)));
+        for (double percentile : latencyPercentiles) {
+            long valueNs = histogram.getValueAtPercentile(percentile);
+            sb.append(format(" %s %s (%sth)",
+                    formatLong(toPrettyValue(valueNs), LATENCY_FORMAT_LENGTH),
+                    toPrettyUnit(valueNs),
+                    BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString()));
+        }
+        long maxNs = histogram.getMaxValue();
+        sb.append(format(" %s %s (max)", formatLong(toPrettyValue(maxNs), LATENCY_FORMAT_LENGTH), toPrettyUnit(maxNs)));
+        return sb.toString();
     }
 
     /**
@@ -125,6 +265,44 @@ public class PerformanceStatsCollector {
         return result;
     }
 
+    /**
+     * Returns the latency histograms per probe, merged over all Workers.
+     *
+     * @param testCaseId the id of the test
+     * @param aggregated {@code true} for the histograms of the whole run, {@code false} for the last interval
+     * @return the histograms sorted on probe name; the map is empty if the Workers didn't send histograms
+     */
+    Map<String, Histogram> getHistograms(String testCaseId, boolean aggregated) {
+        Map<String, Histogram> result = new TreeMap<>();
+        for (WorkerPerformance workerPerformance : workerPerformanceInfoMap.values()) {
+            for (Map.Entry<String, Histogram> entry : workerPerformance.getHistograms(testCaseId, aggregated).entrySet()) {
+                // a copy is made since reading a histogram, e.g. getMean, isn't thread-safe
+                Histogram current = result.get(entry.getKey());
+                result.put(entry.getKey(), current == null ? entry.getValue().copy() : merge(current, entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private static Histogram mergeProbes(Map<String, Histogram> histograms) {
+        Histogram result = null;
+        for (Histogram histogram : histograms.values()) {
+            result = merge(result, histogram);
+        }
+        return result == null || result.getTotalCount() == 0 ? null : result;
+    }
+
+    // the histograms are never modified after they have been received; so a merge always creates a new histogram
+    private static Histogram merge(Histogram histogram, Histogram other) {
+        if (histogram == null) {
+            return other;
+        }
+        Histogram result = histogram.copy();
+        result.setAutoResize(true);
+        result.add(other);
+        return result;
+    }
+
     public String detailedPerformanceInfo(String testId, long runningTimeMs) {
         PerformanceStats totalPerformanceStats = new PerformanceStats();
         Map<SimulatorAddress, PerformanceStats> agentPerformanceStatsMap = new HashMap<>();
@@ -159,6 +337,96 @@ public class PerformanceStatsCollector {
                     formatLong(operationCount, OPERATION_COUNT_FORMAT_LENGTH),
                     formatDouble(operationCount / runningTimeSeconds, THROUGHPUT_FORMAT_LENGTH)));
         }
+
+        double bytesPerOperation = totalPerformanceStats.getAllocatedBytesPerOperation();
+        if (bytesPerOperation >= 0) {
+            sb.append(format("Total allocations       %s B/op\n", formatDouble(bytesPerOperation, ALLOCATION_FORMAT_LENGTH)));
+        }
+
+        long lateOperationCount = totalPerformanceStats.getLateOperationCount();
+        if (lateOperationCount >= 0) {
+            sb.append(format("Total late operations   %s%% %s ops\n",
+                    formatPercentage(lateOperationCount, totalOperationCount),
+                    formatLong(lateOperationCount, OPERATION_COUNT_FORMAT_LENGTH)));
+        }
+
+        Map<String, Histogram> probeHistograms = getHistograms(testId, true);
+        Histogram histogram = mergeProbes(probeHistograms);
+        if (histogram != null) {
+            sb.append(format("Total latency     %s\n", formatLatency(histogram)));
+            if (probeHistograms.size() > 1) {
+                for (Map.Entry<String, Histogram> entry : probeHistograms.entrySet()) {
+                    if (entry.getValue().getTotalCount() > 0) {
+                        sb.append(format("  Probe %-10s %s\n", entry.getKey(), formatLatency(entry.getValue())));
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats the latency-vs-throughput curve of a rate sweep and determines the highest throughput for which the 99th
+     * percentile latency stays within the SLO.
+     *
+     * The throughput of a step is the sum of the average interval throughput of every Worker in that step and the latency
+     * is determined from the histograms of all Workers in that step.
+     *
+     * @param testId           the id of the test
+     * @param sloP99LatencyNs  the SLO for the 99th percentile latency in nanoseconds; 0 or smaller if there is no SLO
+     * @return the formatted curve or an empty string if the test didn't run a rate sweep
+     */
+    public String rateSweepInfo(String testId, long sloP99LatencyNs) {
+        Map<Integer, double[]> throughputs = new TreeMap<>();
+        Map<Integer, Histogram> histograms = new TreeMap<>();
+        for (WorkerPerformance workerPerformance : workerPerformanceInfoMap.values()) {
+            for (Map.Entry<Integer, SweepStepPerformance> entry : workerPerformance.getSweepSteps(testId).entrySet()) {
+                SweepStepPerformance stepPerformance = entry.getValue();
+                double[] values = throughputs.computeIfAbsent(entry.getKey(), step -> new double[2]);
+                values[0] += stepPerformance.targetRatePerSecond;
+                values[1] += stepPerformance.throughput();
+                if (stepPerformance.histogram != null) {
+                    Histogram current = histograms.get(entry.getKey());
+                    histograms.put(entry.getKey(), current == null
+                            ? stepPerformance.histogram.copy() : merge(current, stepPerformance.histogram));
+                }
+            }
+        }
+
+        if (throughputs.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder("Rate sweep\n");
+        int sustainableStep = -1;
+        for (Map.Entry<Integer, double[]> entry : throughputs.entrySet()) {
+            int step = entry.getKey();
+            double[] values = entry.getValue();
+            Histogram histogram = histograms.get(step);
+            sb.append(format("  Step %-3d %s ops/s (target) %s ops/s%s\n",
+                    step + 1,
+                    formatDouble(values[0], THROUGHPUT_FORMAT_LENGTH),
+                    formatDouble(values[1], THROUGHPUT_FORMAT_LENGTH),
+                    histogram == null || histogram.getTotalCount() == 0 ? "" : " " + formatLatency(histogram)));
+
+            if (sloP99LatencyNs > 0 && histogram != null && histogram.getTotalCount() > 0
+                    && histogram.getValueAtPercentile(SWEEP_SLO_PERCENTILE) <= sloP99LatencyNs
+                    && (sustainableStep == -1 || values[1] > throughputs.get(sustainableStep)[1])) {
+                sustainableStep = step;
+            }
+        }
+
+        if (sloP99LatencyNs > 0) {
+            double sloMs = sloP99LatencyNs / (double) MILLISECONDS.toNanos(1);
+            if (sustainableStep == -1) {
+                sb.append(format("No step met the p99 latency SLO of %s ms\n", formatDouble(sloMs, 0)));
+            } else {
+                sb.append(format("Max sustainable throughput %s ops/s (step %d) with p99 latency within SLO of %s ms\n",
+                        formatDouble(throughputs.get(sustainableStep)[1], 0),
+                        sustainableStep + 1,
+                        formatDouble(sloMs, 0)));
+            }
+        }
         return sb.toString();
     }
 
@@ -205,14 +473,17 @@ public class PerformanceStatsCollector {
         }
 
         private void update(String testId, PerformanceStats delta) {
+            Map<String, Histogram> histograms = delta.getIntervalHistograms();
             for (; ; ) {
                 TestPerformance current = testPerformanceMap.get(testId);
                 if (current == null) {
-                    if (testPerformanceMap.putIfAbsent(testId, new TestPerformance(delta, delta)) == null) {
+                    TestPerformance update = new TestPerformance(delta, delta, histograms, histograms, new TreeMap<>())
+                            .updateSweep(delta, histograms);
+                    if (testPerformanceMap.putIfAbsent(testId, update) == null) {
                         return;
                     }
                 } else {
-                    TestPerformance update = current.update(delta);
+                    TestPerformance update = current.update(delta, histograms);
                     if (testPerformanceMap.replace(testId, current, update)) {
                         return;
                     }
@@ -227,6 +498,22 @@ public class PerformanceStatsCollector {
             }
             return aggregated ? testPerformance.aggregated : testPerformance.lastDelta;
         }
+
+        private Map<String, Histogram> getHistograms(String testId, boolean aggregated) {
+            TestPerformance testPerformance = testPerformanceMap.get(testId);
+            if (testPerformance == null) {
+                return new HashMap<>();
+            }
+            return aggregated ? testPerformance.totalHistograms : testPerformance.lastHistograms;
+        }
+
+        private Map<Integer, SweepStepPerformance> getSweepSteps(String testId) {
+            TestPerformance testPerformance = testPerformanceMap.get(testId);
+            if (testPerformance == null) {
+                return new TreeMap<>();
+            }
+            return testPerformance.sweepSteps;
+        }
     }
 
     /**
@@ -235,16 +522,77 @@ public class PerformanceStatsCollector {
     private final class TestPerformance {
         private final PerformanceStats aggregated;
         private final PerformanceStats lastDelta;
-
-        private TestPerformance(PerformanceStats aggregated, PerformanceStats lastDelta) {
+        // the histograms per probe of the whole run and of the last delta
+        private final Map<String, Histogram> totalHistograms;
+        private final Map<String, Histogram> lastHistograms;
+        // the performance per step of the rate sweep; the key is the step
+        private final Map<Integer, SweepStepPerformance> sweepSteps;
+
+        private TestPerformance(PerformanceStats aggregated, PerformanceStats lastDelta,
+                                Map<String, Histogram> totalHistograms, Map<String, Histogram> lastHistograms,
+                                Map<Integer, SweepStepPerformance> sweepSteps) {
             this.aggregated = aggregated;
             this.lastDelta = lastDelta;
+            this.totalHistograms = totalHistograms;
+            this.lastHistograms = lastHistograms;
+            this.sweepSteps = sweepSteps;
         }
 
-        private TestPerformance update(PerformanceStats delta) {
+        private TestPerformance update(PerformanceStats delta, Map<String, Histogram> histograms) {
             PerformanceStats newAggregated = new PerformanceStats(aggregated);
             newAggregated.add(delta, false);
-            return new TestPerformance(newAggregated, delta);
+
+            Map<String, Histogram> newTotalHistograms = new HashMap<>(totalHistograms);
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                String probeName = entry.getKey();
+                newTotalHistograms.put(probeName, merge(totalHistograms.get(probeName), entry.getValue()));
+            }
+            return new TestPerformance(newAggregated, delta, newTotalHistograms, histograms, sweepSteps)
+                    .updateSweep(delta, histograms);
+        }
+
+        private TestPerformance updateSweep(PerformanceStats delta, Map<String, Histogram> histograms) {
+            int step = delta.getSweepStep();
+            if (step < 0 || delta.isEmpty()) {
+                return this;
+            }
+
+            Map<Integer, SweepStepPerformance> newSweepSteps = new TreeMap<>(sweepSteps);
+            SweepStepPerformance current = sweepSteps.get(step);
+            Histogram histogram = mergeProbes(histograms);
+            newSweepSteps.put(step, current == null
+                    ? new SweepStepPerformance(delta.getSweepRatePerSecond(), delta.getIntervalThroughput(), 1, histogram)
+                    : current.update(delta.getIntervalThroughput(), histogram));
+            return new TestPerformance(aggregated, lastDelta, totalHistograms, lastHistograms, newSweepSteps);
+        }
+    }
+
+    /**
+     * Contains the performance of a single Worker for a step of the rate sweep.
+     */
+    private static final class SweepStepPerformance {
+        private final double targetRatePerSecond;
+        private final double throughputSum;
+        private final int intervalCount;
+        // the latency of all probes that are included in the throughput; null if no latency is measured
+        private final Histogram histogram;
+
+        private SweepStepPerformance(double targetRatePerSecond, double throughputSum, int intervalCount,
+                                     Histogram histogram) {
+            this.targetRatePerSecond = targetRatePerSecond;
+            this.throughputSum = throughputSum;
+            this.intervalCount = intervalCount;
+            this.histogram = histogram;
+        }
+
+        private SweepStepPerformance update(double intervalThroughput, Histogram intervalHistogram) {
+            Histogram newHistogram = intervalHistogram == null ? histogram : merge(histogram, intervalHistogram);
+            return new SweepStepPerformance(targetRatePerSecond, throughputSum + intervalThroughput, intervalCount + 1,
+                    newHistogram);
+        }
+
+        private double throughput() {
+            return throughputSum / intervalCount;
         }
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static java.lang.String.format;
+
+/**
+ * A request to retune a running test; see {@link RetuneMessage}.
+ *
+ * A request is made by writing a 'retune.properties' file in the run directory, e.g. using 'perftest retune'. The
+ * {@link TestCaseRunner} of the test polls for this file while the test is running and sends the request to its workers.
+ * The file contains the following properties:
+ * <ol>
+ * <li>testId: the id of the test to retune. Only needed when multiple tests run in parallel.</li>
+ * <li>executionGroup: the execution group to retune. Defaults to the default execution group.</li>
+ * <li>ratePerSecond: the new rate per second of every worker.</li>
+ * <li>rateFactor: the factor to multiply the current rate with.</li>
+ * <li>threadCount: the new number of active threads of every worker.</li>
+ * <li>durationSeconds: the number of seconds after which the previous settings are restored.</li>
+ * </ol>
+ * The file is removed once it has been picked up.
+ */
+final class RetuneRequest {
+
+    static final String FILE_NAME = "retune.properties";
+
+    private static final Logger LOGGER = LogManager.getLogger(RetuneRequest.class);
+
+    private RetuneRequest() {
+    }
+
+    /**
+     * Polls for a retune request for a test.
+     *
+     * @param runPath      the run directory
+     * @param testId       the id of the test
+     * @param parallelTest true if multiple tests are running in parallel
+     * @return the RetuneMessage or null if there is no (valid) request for the test
+     */
+    static RetuneMessage poll(File runPath, String testId, boolean parallelTest) {
+        File file = new File(runPath, FILE_NAME);
+        if (!file.exists()) {
+            return null;
+        }
+
+        Properties properties = load(file);
+        if (properties == null) {
+            return null;
+        }
+
+        String requestTestId = properties.getProperty("testId");
+        if (requestTestId == null && parallelTest) {
+            LOGGER.warn(format("Ignoring retune request %s, testId is required when running tests in parallel", properties));
+            deleteQuiet(file);
+            return null;
+        } else if (requestTestId != null && !requestTestId.equals(testId)) {
+            // the request is for another test
+            return null;
+        }
+
+        // the request is claimed by renaming the file; so it is picked up only once
+        File claimedFile = new File(runPath, FILE_NAME + "." + testId);
+        if (!file.renameTo(claimedFile)) {
+            return null;
+        }
+        properties = load(claimedFile);
+        deleteQuiet(claimedFile);
+        if (properties == null) {
+            return null;
+        }
+
+        try {
+            return new RetuneMessage(
+                    testId,
+                    properties.getProperty("executionGroup", ""),
+                    Double.parseDouble(properties.getProperty("ratePerSecond", "0")),
+                    Double.parseDouble(properties.getProperty("rateFactor", "0")),
+                    Integer.parseInt(properties.getProperty("threadCount", "0")),
+                    Integer.parseInt(properties.getProperty("durationSeconds", "0")));
+        } catch (NumberFormatException e) {
+            LOGGER.warn(format("Ignoring invalid retune request %s: %s", properties, e.getMessage()));
+            return null;
+        }
+    }
+
+    private static Properties load(File file) {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            // e.g. the file has been claimed in between
+            LOGGER.debug(format("Failed to read retune request [%s]: %s", file, e.getMessage()));
+            return null;
+        }
+    }
+}
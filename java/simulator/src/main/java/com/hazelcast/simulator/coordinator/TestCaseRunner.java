@@ -25,17 +25,21 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.message.SimulatorMessage;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_PREPARE;
 import static com.hazelcast.simulator.common.TestPhase.GLOBAL_TEARDOWN;
@@ -51,13 +55,15 @@ import static com.hazelcast.simulator.utils.CommonUtils.await;
 import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
-import static com.hazelcast.simulator.utils.CommonUtils.sleepUntilMs;
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.padRight;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.anyOf;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -65,10 +71,15 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * Responsible for running a single {@link TestCase}.
  * <p>
  * Multiple TestCases can be run in parallel, by having multiple TestCaseRunners in parallel.
+ * <p>
+ * The completion of a phase is driven by the futures of the replies of the Workers; so the next phase starts as soon as
+ * the last Worker has replied. A critical failure or a stop request wakes up the waiting thread as well.
  */
 public final class TestCaseRunner {
 
     private static final int RUN_PHASE_LOG_INTERVAL_SECONDS = 30;
+    private static final int RETUNE_POLL_INTERVAL_MS = 1000;
+    private static final int RETUNE_TIMEOUT_SECONDS = 30;
     private static final int WAIT_FOR_PHASE_COMPLETION_LOG_INTERVAL_SECONDS = 30;
     private static final int WAIT_FOR_PHASE_COMPLETION_LOG_VERBOSE_DELAY_SECONDS = 300;
     private static final Logger LOGGER = LogManager.getLogger(TestCaseRunner.class);
@@ -88,6 +99,15 @@ public final class TestCaseRunner {
     private final int logRunPhaseIntervalSeconds;
     private final List<WorkerData> targets;
     private final WorkerData globalTarget;
+    private final File runPath;
+    private final boolean parallel;
+    // completed when a critical failure for this test has been detected
+    private final CompletableFuture<Void> failureFuture = new CompletableFuture<>();
+    private final FailureListener failureListener = (failure, isFinishedFailure, isCritical) -> {
+        if (hasFailure()) {
+            failureFuture.complete(null);
+        }
+    };
 
     @SuppressWarnings("checkstyle:parameternumber")
     public TestCaseRunner(TestData test,
@@ -109,6 +129,8 @@ public final class TestCaseRunner {
         this.targets = targets;
         this.globalTarget = targets.iterator().next();
         this.isVerifyEnabled = testSuite.isVerifyEnabled();
+        this.runPath = coordinatorParameters.getRunPath();
+        this.parallel = testSuite.isParallel() && testSuite.size() > 1;
         this.targetType = testSuite.getWorkerQuery().getTargetType().resolvePreferClient(registry.hasClientWorkers());
         this.targetCount = targets.size();
         this.performanceMonitorIntervalSeconds
@@ -124,6 +146,11 @@ public final class TestCaseRunner {
         logDetails();
 
         test.initStartTime();
+        failureCollector.addListener(failureListener);
+        if (hasFailure()) {
+            // the failure was detected before the listener was registered
+            failureFuture.complete(null);
+        }
         try {
             run0();
         } catch (TestCaseAbortedException e) {
@@ -137,6 +164,7 @@ public final class TestCaseRunner {
         } catch (Exception e) {
             throw rethrow(e);
         } finally {
+            failureCollector.removeListener(failureListener);
             test.setCompletedStatus(hasFailure() ? FAILED : SUCCESS);
         }
 
@@ -175,19 +203,19 @@ public final class TestCaseRunner {
     }
 
     private void invokeOnTargets(SimulatorMessage msg) {
-        Map<WorkerData, Future> futures = submitToTargets(false, msg);
+        Map<WorkerData, CompletableFuture<String>> futures = submitToTargets(false, msg);
         awaitCompletion(futures);
     }
 
-    private Map<WorkerData, Future> submitToTargets(boolean singleTarget, SimulatorMessage msg) {
-        Map<WorkerData, Future> futures = new HashMap<>();
+    private Map<WorkerData, CompletableFuture<String>> submitToTargets(boolean singleTarget, SimulatorMessage msg) {
+        Map<WorkerData, CompletableFuture<String>> futures = new HashMap<>();
 
         if (singleTarget) {
-            Future f = client.submit(globalTarget.getAddress(), msg);
+            CompletableFuture<String> f = client.submit(globalTarget.getAddress(), msg);
             futures.put(globalTarget, f);
         } else {
             for (WorkerData worker : targets) {
-                Future f = client.submit(worker.getAddress(), msg);
+                CompletableFuture<String> f = client.submit(worker.getAddress(), msg);
                 futures.put(worker, f);
             }
         }
@@ -195,8 +223,8 @@ public final class TestCaseRunner {
         return futures;
     }
 
-    private void awaitCompletion(Map<WorkerData, Future> futures) {
-        for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
+    private void awaitCompletion(Map<WorkerData, CompletableFuture<String>> futures) {
+        for (Map.Entry<WorkerData, CompletableFuture<String>> entry : futures.entrySet()) {
             Future f = entry.getValue();
             try {
                 f.get();
@@ -216,7 +244,7 @@ public final class TestCaseRunner {
         log("Starting Test " + phase.desc());
         test.setTestPhase(phase);
 
-        Map<WorkerData, Future> futures = submitToTargets(
+        Map<WorkerData, CompletableFuture<String>> futures = submitToTargets(
                 phase.isGlobal(), new StartPhaseMessage(phase, testCase.getId()));
 
         waitForPhaseCompletion(phase, futures);
@@ -232,7 +260,7 @@ public final class TestCaseRunner {
         }
 
         test.setTestPhase(RUN);
-        Map<WorkerData, Future> futures = startRun();
+        Map<WorkerData, CompletableFuture<String>> futures = startRun();
 
         long startMs = currentTimeMillis();
 
@@ -249,11 +277,12 @@ public final class TestCaseRunner {
             timeoutMs = startMs + durationMs;
         }
 
-        long nextSleepUntilMs = startMs;
-        int iteration = 0;
+        // wakes up when all workers are done, a critical failure is detected or a stop is requested
+        CompletableFuture<Object> wakeup = anyOf(allOf(toArray(futures)), failureFuture, test.getStopRequestedFuture());
+        long nextLogMs = startMs + SECONDS.toMillis(logRunPhaseIntervalSeconds);
+        long nextRetunePollMs = startMs + RETUNE_POLL_INTERVAL_MS;
         for (; ; ) {
-            nextSleepUntilMs += SECONDS.toMillis(1);
-            sleepUntilMs(nextSleepUntilMs);
+            awaitQuietly(wakeup, min(min(nextLogMs, nextRetunePollMs), timeoutMs) - currentTimeMillis());
 
             if (hasFailure()) {
                 log("Critical failure detected, aborting RUN phase");
@@ -261,14 +290,19 @@ public final class TestCaseRunner {
             }
 
             long nowMs = currentTimeMillis();
-            if (nowMs > timeoutMs || isAllDone(futures) || test.isStopRequested()) {
+            if (nowMs >= timeoutMs || wakeup.isDone() || test.isStopRequested()) {
                 log("Test finished run");
                 break;
             }
 
-            iteration++;
-            if (iteration % logRunPhaseIntervalSeconds == 0) {
+            if (nowMs >= nextLogMs) {
                 logProgress(nowMs - startMs, durationMs);
+                nextLogMs += SECONDS.toMillis(logRunPhaseIntervalSeconds);
+            }
+
+            if (nowMs >= nextRetunePollMs) {
+                retune();
+                nextRetunePollMs = nowMs + RETUNE_POLL_INTERVAL_MS;
             }
         }
 
@@ -281,14 +315,26 @@ public final class TestCaseRunner {
         waitForGlobalTestPhaseCompletion(RUN);
     }
 
-    private boolean isAllDone(Map<WorkerData, Future> futures) {
-        for (Future f : futures.values()) {
-            if (!f.isDone()) {
-                return false;
-            }
+    private static CompletableFuture[] toArray(Map<WorkerData, CompletableFuture<String>> futures) {
+        return futures.values().toArray(new CompletableFuture[0]);
+    }
+
+    /**
+     * Waits till the future completes or the timeout expires; the outcome of the future is ignored.
+     */
+    private static void awaitQuietly(Future future, long timeoutMs) {
+        if (timeoutMs <= 0) {
+            return;
         }
 
-        return true;
+        try {
+            future.get(timeoutMs, MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw rethrow(e);
+        } catch (ExecutionException | TimeoutException ignore) {
+            // the caller checks the state it is interested in
+            ignore(ignore);
+        }
     }
 
     private void logFinalPerformanceInfo(long startMs) {
@@ -306,6 +352,25 @@ public final class TestCaseRunner {
             String performanceInfo = performanceStatsCollector.detailedPerformanceInfo(testCase.getId(), durationMillis);
             LOGGER.info("Performance " + testCase.getId() + "\n"
                     + performanceInfo);
+
+            String rateSweepInfo = performanceStatsCollector.rateSweepInfo(testCase.getId(), getSweepP99SloNanos());
+            if (!rateSweepInfo.isEmpty()) {
+                LOGGER.info("Performance " + testCase.getId() + "\n" + rateSweepInfo);
+            }
+        }
+    }
+
+    // the SLO is validated by the Worker when the test is created; so an invalid value is just ignored here
+    private long getSweepP99SloNanos() {
+        String value = testCase.getProperty("sweepP99SloMs");
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.round(Double.parseDouble(value) * MILLISECONDS.toNanos(1));
+        } catch (NumberFormatException e) {
+            ignore(e);
+            return 0;
         }
     }
 
@@ -313,7 +378,7 @@ public final class TestCaseRunner {
      * Starts running the test. This call is asynchronous. It will not wait for the running to complete. It will
      * return a map of futures (one for each target worker) that can be used to sync on completion.
      */
-    private Map<WorkerData, Future> startRun() {
+    private Map<WorkerData, CompletableFuture<String>> startRun() {
         log(format("Starting run on %s workers", targetType.toString(targetCount)));
         log(format("Test run using workers %s", WorkerData.toAddressString(targets)));
         return submitToTargets(false, new StartPhaseMessage(RUN, testCase.getId()));
@@ -322,7 +387,7 @@ public final class TestCaseRunner {
     private void stopRun() {
         log("Stopping test");
 
-        Map<WorkerData, Future> futures = submitToTargets(false, new StopRunMessage(testCase.getId()));
+        Map<WorkerData, CompletableFuture<String>> futures = submitToTargets(false, new StopRunMessage(testCase.getId()));
 
         try {
             waitForPhaseCompletion(RUN, futures);
@@ -332,6 +397,35 @@ public final class TestCaseRunner {
         }
     }
 
+    /**
+     * Sends a retune request to the workers, if there is one. A failed retune doesn't fail the test; the workers keep
+     * running with their current settings.
+     */
+    private void retune() {
+        RetuneMessage msg = RetuneRequest.poll(runPath, testCase.getId(), parallel);
+        if (msg == null) {
+            return;
+        }
+
+        log("Retuning test " + msg);
+        Map<WorkerData, CompletableFuture<String>> futures = submitToTargets(false, msg);
+        int failedWorkers = 0;
+        for (Map.Entry<WorkerData, CompletableFuture<String>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().get(RETUNE_TIMEOUT_SECONDS, SECONDS);
+            } catch (InterruptedException e) {
+                throw rethrow(e);
+            } catch (ExecutionException e) {
+                failedWorkers++;
+                log(format("Failed to retune worker %s: %s", entry.getKey().getAddress(), e.getCause().getMessage()));
+            } catch (TimeoutException e) {
+                failedWorkers++;
+                log(format("Timeout retuning worker %s", entry.getKey().getAddress()));
+            }
+        }
+        log(format("Retuned test on %d/%d workers", futures.size() - failedWorkers, futures.size()));
+    }
+
     private void logProgress(long elapsedMs, long durationMs) {
         String msg;
         if (durationMs == Long.MAX_VALUE) {
@@ -349,37 +443,37 @@ public final class TestCaseRunner {
         LOGGER.info(prefix + msg);
     }
 
-    private void waitForPhaseCompletion(TestPhase testPhase, Map<WorkerData, Future> futures) {
-        int completedWorkers = 0;
-        int expectedWorkers = futures.size();
+    private void waitForPhaseCompletion(TestPhase testPhase, Map<WorkerData, CompletableFuture<String>> futures) {
+        CompletableFuture<Void> completed = allOf(toArray(futures));
+        CompletableFuture<Object> wakeup = anyOf(completed, failureFuture);
 
         long started = System.nanoTime();
-        while (completedWorkers < expectedWorkers) {
-            sleepSeconds(1);
+        for (; ; ) {
+            awaitQuietly(wakeup, SECONDS.toMillis(WAIT_FOR_PHASE_COMPLETION_LOG_INTERVAL_SECONDS));
 
             if (hasFailure()) {
                 throw new TestCaseAbortedException(
                         format("Waiting for %s completion aborted (critical failure)", testPhase.desc()), testPhase);
             }
 
-            completedWorkers = 0;
-            for (Future f : futures.values()) {
-                if (f.isDone()) {
-                    completedWorkers++;
-                }
+            if (completed.isDone()) {
+                return;
             }
 
-            logMissingWorkers(testPhase, completedWorkers, expectedWorkers, started, futures);
+            logMissingWorkers(testPhase, started, futures);
         }
     }
 
-    private void logMissingWorkers(TestPhase testPhase, int completedWorkers, int expectedWorkers,
-                                   long started, Map<WorkerData, Future> futures) {
-        long elapsed = getElapsedSeconds(started);
-        if (elapsed % WAIT_FOR_PHASE_COMPLETION_LOG_INTERVAL_SECONDS != 0) {
-            return;
+    private void logMissingWorkers(TestPhase testPhase, long started, Map<WorkerData, CompletableFuture<String>> futures) {
+        int completedWorkers = 0;
+        int expectedWorkers = futures.size();
+        for (Future f : futures.values()) {
+            if (f.isDone()) {
+                completedWorkers++;
+            }
         }
 
+        long elapsed = getElapsedSeconds(started);
         if (elapsed < WAIT_FOR_PHASE_COMPLETION_LOG_VERBOSE_DELAY_SECONDS || completedWorkers == expectedWorkers) {
             log(format("Waiting %s for %s completion (%d/%d workers)", secondsToHuman(elapsed), testPhase.desc(),
                     completedWorkers, expectedWorkers));
@@ -388,7 +482,7 @@ public final class TestCaseRunner {
 
         // verbose logging of missing workers
         List<SimulatorAddress> missingWorkers = new ArrayList<>();
-        for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
+        for (Map.Entry<WorkerData, CompletableFuture<String>> entry : futures.entrySet()) {
             if (!entry.getValue().isDone()) {
                 missingWorkers.add(entry.getKey().getAddress());
             }
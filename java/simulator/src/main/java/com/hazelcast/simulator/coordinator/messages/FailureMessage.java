@@ -39,6 +39,10 @@ public class FailureMessage implements SimulatorMessage {
     private TestCase testCase;
     private String cause;
     private long durationMs;
+    // the number of occurrences of the failure that were suppressed by the worker since they were duplicates
+    private int duplicateCount;
+    // true if the message only reports the duplicates of a failure that has been sent before; so it isn't a new failure
+    private boolean duplicateReport;
 
     public FailureMessage(String message) {
         this.message = message;
@@ -99,6 +103,20 @@ public class FailureMessage implements SimulatorMessage {
         this.durationMs = durationMs;
     }
 
+    public FailureMessage setDuplicates(int duplicateCount, boolean duplicateReport) {
+        this.duplicateCount = duplicateCount;
+        this.duplicateReport = duplicateReport;
+        return this;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public boolean isDuplicateReport() {
+        return duplicateReport;
+    }
+
     public FailureMessage setTestCase(TestCase testCase) {
         this.testCase = testCase;
         return this;
@@ -158,6 +176,26 @@ public class FailureMessage implements SimulatorMessage {
             }
         }
 
+        if (duplicateCount > 0) {
+            sb.append(" (").append(duplicateCount).append(" duplicates)");
+        }
+
+        return sb.toString();
+    }
+
+    public String getDuplicateReportMessage() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Duplicates[count=").append(duplicateCount)
+                .append(", timestamp=").append(timestamp)
+                .append(", workerAddress=").append(workerAddress)
+                .append(", test=").append(testId);
+        if (cause != null) {
+            String[] lines = cause.split(NEW_LINE);
+            if (lines.length > 0) {
+                sb.append(", cause=").append(lines[0].trim());
+            }
+        }
+        sb.append(']').append(NEW_LINE);
         return sb.toString();
     }
 
@@ -171,6 +209,7 @@ public class FailureMessage implements SimulatorMessage {
         sb.append("   workerAddress=").append(workerAddress).append(NEW_LINE);
         sb.append("   agentAddress=").append(agentAddress).append(NEW_LINE);
         sb.append("   workerId=").append(workerId).append(NEW_LINE);
+        sb.append("   duplicates=").append(duplicateCount).append(NEW_LINE);
 
         if (testCase != null) {
             String prefix = "   test=";
@@ -19,6 +19,8 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
 import com.hazelcast.simulator.coordinator.TestSuite;
 
+import java.util.concurrent.CompletableFuture;
+
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.FAILED;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.IN_PROGRESS;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.SUCCESS;
@@ -37,6 +39,7 @@ public class TestData {
     private volatile long startTimeMillis;
     private volatile TestPhase testPhase;
     private volatile boolean stopRequested;
+    private final CompletableFuture<Void> stopRequestedFuture = new CompletableFuture<>();
     private volatile CompletedStatus completedStatus = IN_PROGRESS;
 
     TestData(int testIndex,  TestCase testCase, TestSuite testSuite) {
@@ -59,12 +62,24 @@ public class TestData {
 
     public void setStopRequested(boolean stopRequested) {
         this.stopRequested = stopRequested;
+        if (stopRequested) {
+            stopRequestedFuture.complete(null);
+        }
     }
 
     public boolean isStopRequested() {
         return stopRequested;
     }
 
+    /**
+     * Returns a future that is completed when a stop is requested; so a waiting thread can be woken up.
+     *
+     * @return the future
+     */
+    public CompletableFuture<Void> getStopRequestedFuture() {
+        return stopRequestedFuture;
+    }
+
     public void setTestPhase(TestPhase testPhase) {
         this.testPhase = testPhase;
     }
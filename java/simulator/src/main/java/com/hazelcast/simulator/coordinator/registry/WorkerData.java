@@ -33,6 +33,7 @@ public class WorkerData {
     private final WorkerParameters parameters;
     private final Map<String, String> tags;
     private volatile boolean ignoreFailures;
+    private volatile long startupMillis = -1;
 
     WorkerData(WorkerParameters parameters) {
         this(parameters, new HashMap<>());
@@ -68,6 +69,19 @@ public class WorkerData {
         this.ignoreFailures = ignoreFailures;
     }
 
+    /**
+     * Returns the time it took to start the worker; so from the request to create the worker until the worker was ready.
+     *
+     * @return the startup time in milliseconds or -1 if unknown
+     */
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    public void setStartupMillis(long startupMillis) {
+        this.startupMillis = startupMillis;
+    }
+
     @Override
     public String toString() {
         return "WorkerData{address=" + address + '}';
@@ -38,7 +38,9 @@ import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
 import static com.hazelcast.simulator.utils.FormatUtils.HORIZONTAL_RULER;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedList;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Starts all Simulator Workers.
@@ -60,7 +62,8 @@ public class StartWorkersTask {
     private final Map<SimulatorAddress, List<WorkerParameters>> clientDeploymentPlan;
     private final Map<String, String> tags;
     private long started;
-    private List<WorkerData> result = new LinkedList<>();
+    // the workers are created in parallel
+    private final List<WorkerData> result = synchronizedList(new LinkedList<>());
     private int workerStartupIndex;
 
     public StartWorkersTask(
@@ -106,11 +109,21 @@ public class StartWorkersTask {
     private void echoStartComplete() {
         long elapsedSeconds = getElapsedSeconds(started);
         LOGGER.info(HORIZONTAL_RULER);
-        LOGGER.info(format("Finished starting of %s Worker JVMs (%s seconds)",
-                count(memberDeploymentPlan) + count(clientDeploymentPlan), elapsedSeconds));
+        LOGGER.info(format("Finished starting of %s Worker JVMs (%s seconds, slowest worker %d ms)",
+                count(memberDeploymentPlan) + count(clientDeploymentPlan), elapsedSeconds, maxStartupMillis()));
         LOGGER.info(HORIZONTAL_RULER);
     }
 
+    private long maxStartupMillis() {
+        long max = 0;
+        synchronized (result) {
+            for (WorkerData worker : result) {
+                max = Math.max(max, worker.getStartupMillis());
+            }
+        }
+        return max;
+    }
+
     private void startWorkers(Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan) {
         ThreadSpawner spawner = new ThreadSpawner("createWorkers", true);
         for (Map.Entry<SimulatorAddress, List<WorkerParameters>> entry : deploymentPlan.entrySet()) {
@@ -170,6 +183,7 @@ public class StartWorkersTask {
         @Override
         public void run() {
             CreateWorkerMessage msg = new CreateWorkerMessage(workerParameters, startupDelayMs);
+            long startNanos = System.nanoTime();
             Future<String> f = client.submit(agent.getAddress(), msg);
             String r;
             try {
@@ -191,8 +205,14 @@ public class StartWorkersTask {
             finalTags.putAll(agent.getTags());
             finalTags.putAll(tags);
 
-            LOGGER.info(format("    Created %s Worker %s", workerType, workerAddress));
+            // the startup delay is applied by the agent; it isn't part of the startup time of the worker
+            long startupMillis = Math.max(0, NANOSECONDS.toMillis(System.nanoTime() - startNanos) - startupDelayMs);
+
+            LOGGER.info(format("    Created %s Worker %s (%d ms)", workerType, workerAddress, startupMillis));
             List<WorkerData> createdWorkers = registry.addWorkers(asList(workerParameters), finalTags);
+            for (WorkerData worker : createdWorkers) {
+                worker.setStartupMillis(startupMillis);
+            }
             result.addAll(createdWorkers);
         }
     }
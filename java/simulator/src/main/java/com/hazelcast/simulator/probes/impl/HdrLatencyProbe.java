@@ -16,8 +16,12 @@
 package com.hazelcast.simulator.probes.impl;
 
 import com.hazelcast.simulator.probes.LatencyProbe;
+import org.HdrHistogram.Histogram;
 import org.HdrHistogram.Recorder;
+import org.HdrHistogram.SingleWriterRecorder;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.concurrent.TimeUnit.DAYS;
@@ -25,6 +29,10 @@ import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 /**
  * HDR-Histogram implementation of the {@link LatencyProbe}.
+ *
+ * The probe can be used by any number of threads. A thread that is the only writer of its values can record
+ * through its own {@link Stripe}; this prevents contention on the shared {@link Recorder}. The stripes are merged
+ * when the interval histogram is taken.
  */
 public class HdrLatencyProbe implements LatencyProbe {
     // we want to track up to 24-hour.
@@ -45,6 +53,7 @@ public class HdrLatencyProbe implements LatencyProbe {
             HIGHEST_TRACKABLE_VALUE_NANOS,
             NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
 
+    private final List<Stripe> stripes = new CopyOnWriteArrayList<>();
     private final boolean includeInThroughput;
     private final String name;
 
@@ -70,10 +79,14 @@ public class HdrLatencyProbe implements LatencyProbe {
 
     @Override
     public void recordValue(long latencyNanos) {
-
         if (latencyNanos < 0) {
             negativeCount.incrementAndGet();
+        }
+        recorder.recordValue(toTrackableValue(latencyNanos));
+    }
 
+    private static long toTrackableValue(long latencyNanos) {
+        if (latencyNanos < 0) {
             // Negative values should normally not happen.
             // But it could happen when the clock jump or when there is an
             // overflow. So lets convert it to a postive value and record it.
@@ -87,25 +100,120 @@ public class HdrLatencyProbe implements LatencyProbe {
         if (latencyNanos > HIGHEST_TRACKABLE_VALUE_NANOS) {
             latencyNanos = HIGHEST_TRACKABLE_VALUE_NANOS;
         }
-        recorder.recordValue(latencyNanos);
+        return latencyNanos;
+    }
+
+    /**
+     * Creates a new {@link Stripe} of this probe.
+     *
+     * The returned stripe should only be written by a single thread.
+     *
+     * @return the created stripe
+     */
+    public Stripe newStripe() {
+        Stripe stripe = new Stripe();
+        stripes.add(stripe);
+        return stripe;
     }
 
     public Recorder getRecorder() {
         return recorder;
     }
 
+    /**
+     * Gets the histogram of all values recorded since the last call; including the values recorded by the stripes.
+     *
+     * This method should not be called concurrently.
+     *
+     * @return the interval histogram
+     */
+    public Histogram getIntervalHistogram() {
+        Histogram intervalHistogram = recorder.getIntervalHistogram();
+        for (Stripe stripe : stripes) {
+            stripe.intervalHistogram = stripe.recorder.getIntervalHistogram(stripe.intervalHistogram);
+            intervalHistogram.add(stripe.intervalHistogram);
+        }
+        return intervalHistogram;
+    }
+
     @Override
     public void reset() {
         recorder.reset();
+        for (Stripe stripe : stripes) {
+            stripe.reset();
+        }
     }
 
     @Override
     public long negativeCount() {
-        return negativeCount.get();
+        long count = negativeCount.get();
+        for (Stripe stripe : stripes) {
+            count += stripe.negativeCount;
+        }
+        return count;
     }
 
     @Override
     public String name() {
         return name;
     }
+
+    /**
+     * A part of the {@link HdrLatencyProbe} that records using a {@link SingleWriterRecorder}.
+     *
+     * Recording on a stripe doesn't cause any contention, but it isn't safe to record concurrently.
+     */
+    public final class Stripe implements LatencyProbe {
+
+        private final SingleWriterRecorder recorder = new SingleWriterRecorder(
+                LOWEST_DISCERNIBLE_VALUE,
+                HIGHEST_TRACKABLE_VALUE_NANOS,
+                NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+
+        // only accessed by the thread calling getIntervalHistogram; recycled to prevent litter
+        private Histogram intervalHistogram;
+        private volatile long negativeCount;
+
+        private Stripe() {
+        }
+
+        @Override
+        public boolean includeInThroughput() {
+            return includeInThroughput;
+        }
+
+        @Override
+        public void done(long startNanos) {
+            if (startNanos <= 0) {
+                throw new IllegalArgumentException("startedNanos has to be a positive number");
+            }
+
+            recordValue(System.nanoTime() - startNanos);
+        }
+
+        @Override
+        @SuppressWarnings("NonAtomicOperationOnVolatileField")
+        public void recordValue(long latencyNanos) {
+            if (latencyNanos < 0) {
+                // there is only a single writer
+                negativeCount++;
+            }
+            recorder.recordValue(toTrackableValue(latencyNanos));
+        }
+
+        @Override
+        public void reset() {
+            recorder.reset();
+        }
+
+        @Override
+        public long negativeCount() {
+            return negativeCount;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+    }
 }
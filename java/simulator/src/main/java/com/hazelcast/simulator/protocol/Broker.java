@@ -47,10 +47,6 @@ import static java.util.Collections.singletonList;
  *
  * - Worker has not sent a message for 60 seconds: check this logic; since worker doesn't communicate with agent
  *
- * - Server.send inefficient because producer/session not recycled and potentially many requests
- * needed:
- * http://activemq.apache.org/how-do-i-use-jms-efficiently.html
- *
  * -----------------------------------------------------------
  * nice to have
  *
@@ -26,6 +26,7 @@ import com.hazelcast.simulator.utils.SimulatorUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
@@ -40,12 +41,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static com.hazelcast.simulator.common.SimulatorProperties.DEFAULT_AGENT_PORT;
@@ -123,7 +124,7 @@ public class CoordinatorClient implements Closeable {
         taskQueue.add(new SendTask(target, getRemoteBroker(target), msg, null));
     }
 
-    public Future<String> submit(SimulatorAddress target, SimulatorMessage msg) {
+    public CompletableFuture<String> submit(SimulatorAddress target, SimulatorMessage msg) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("sending " + msg + " to " + target);
         }
@@ -183,12 +184,15 @@ public class CoordinatorClient implements Closeable {
         remoteBrokers.clear();
     }
 
-    static class FutureImpl implements Future<String> {
+    /**
+     * The future of a submitted message; it is completed when the reply is received. Since it is a
+     * {@link CompletableFuture}, a caller can wait for multiple replies without polling.
+     */
+    static class FutureImpl extends CompletableFuture<String> {
         private final RemoteBroker agentBroker;
         private final String messageId = newUnsecureUuidString();
-        private volatile Object result;
 
-        public FutureImpl(RemoteBroker agentBroker) {
+        FutureImpl(RemoteBroker agentBroker) {
             this.agentBroker = agentBroker;
         }
 
@@ -196,63 +200,6 @@ public class CoordinatorClient implements Closeable {
         public boolean cancel(boolean mayInterruptIfRunning) {
             return false;
         }
-
-        @Override
-        public boolean isCancelled() {
-            return false;
-        }
-
-        @Override
-        public boolean isDone() {
-            return result != null;
-        }
-
-        @Override
-        public String get() throws InterruptedException, ExecutionException {
-            synchronized (this) {
-                while (result == null) {
-                    wait();
-                }
-            }
-
-            if (result instanceof Throwable) {
-                throw new ExecutionException((Throwable) result);
-            } else {
-                return (String) result;
-            }
-        }
-
-        @Override
-        public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            long deadlineMillis = currentTimeMillis() + unit.toMillis(timeout);
-
-            synchronized (this) {
-                while (result == null) {
-                    long remainingTime = deadlineMillis - currentTimeMillis();
-                    if (remainingTime <= 0) {
-                        throw new TimeoutException();
-                    }
-                    wait(deadlineMillis);
-                }
-            }
-
-            if (result instanceof Throwable) {
-                throw new ExecutionException((Throwable) result);
-            } else {
-                return (String) result;
-            }
-        }
-
-        public void complete(Object payload) {
-            synchronized (this) {
-                if (this.result != null) {
-                    return;
-                }
-
-                this.result = payload;
-                notifyAll();
-            }
-        }
     }
 
     class SendTask {
@@ -271,7 +218,7 @@ public class CoordinatorClient implements Closeable {
         }
 
         private void run() throws JMSException {
-            Message message = remoteBroker.session.createMessage();
+            BytesMessage message = remoteBroker.session.createBytesMessage();
 
             if (requestId != null) {
                 message.setJMSReplyTo(remoteBroker.replyQueue);
@@ -280,8 +227,8 @@ public class CoordinatorClient implements Closeable {
 
             message.setStringProperty("source", coordinatorAddress().toString());
             message.setStringProperty("target", target.toString());
-            message.setStringProperty("payload", SimulatorMessageCodec.toJson(msg));
             message.setIntProperty("msgType", getMessageType(msg).toInt());
+            message.writeBytes(SimulatorMessageCodec.encode(msg));
 
             switch (target.getAddressLevel()) {
                 case AGENT:
@@ -421,7 +368,8 @@ public class CoordinatorClient implements Closeable {
                 FutureImpl f = entry.getValue();
                 if (f.agentBroker.closed) {
                     futures.remove(entry.getKey());
-                    f.complete(new JMSException("Connection to broker " + f.agentBroker.agentAddress + "is closed"));
+                    f.completeExceptionally(
+                            new JMSException("Connection to broker " + f.agentBroker.agentAddress + " is closed"));
                 }
             }
         }
@@ -434,9 +382,7 @@ public class CoordinatorClient implements Closeable {
                 }
 
                 MessageType msgType = MessageType.fromInt(message.getIntProperty("msgType"));
-                String msgData = message.getStringProperty("payload");
-
-                SimulatorMessage msg = SimulatorMessageCodec.fromJson(msgData, msgType.getClassType());
+                SimulatorMessage msg = Server.decode((BytesMessage) message, msgType);
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("Received " + msg);
                 }
@@ -469,7 +415,7 @@ public class CoordinatorClient implements Closeable {
                     boolean error = replyMessage.getBooleanProperty("error");
                     if (error) {
                         String message = replyMessage.getStringProperty("message");
-                        future.complete(new Exception(message));
+                        future.completeExceptionally(new Exception(message));
                     } else {
                         future.complete(replyMessage.getStringProperty("payload"));
                     }
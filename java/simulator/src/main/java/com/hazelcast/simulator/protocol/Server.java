@@ -22,6 +22,7 @@ import com.hazelcast.simulator.protocol.message.SimulatorMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.Destination;
 import javax.jms.ExceptionListener;
@@ -61,6 +62,12 @@ public class Server implements Closeable {
     private MessageHandler processor;
     private MessageConsumer consumer;
     private Session session;
+    // sessions are single threaded; so sending uses its own session which is guarded by the producerLock
+    private final Object producerLock = new Object();
+    private Session producerSession;
+    private MessageProducer coordinatorProducer;
+    private MessageProducer agentProducer;
+    private MessageProducer replyProducer;
     private Topic destination;
     private Connection connection;
     private String brokerURL;
@@ -137,6 +144,18 @@ public class Server implements Closeable {
             String selector = "target='" + selfAddress + "'";
             LOGGER.info(format("Using messageSelector [%s]", selector));
             this.consumer = session.createConsumer(destination, selector);
+
+            // the producers are created once and recycled, instead of creating them for every message
+            this.producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            this.coordinatorProducer = producerSession.createProducer(producerSession.createTopic("coordinator"));
+            coordinatorProducer.setTimeToLive(MINUTES.toMillis(1));
+            coordinatorProducer.setDeliveryMode(NON_PERSISTENT);
+            this.agentProducer = producerSession.createProducer(producerSession.createTopic("agents"));
+            agentProducer.setTimeToLive(MINUTES.toMillis(1));
+            agentProducer.setDeliveryMode(NON_PERSISTENT);
+            // an anonymous producer; the destination is passed on send
+            this.replyProducer = producerSession.createProducer(null);
+
             serverThread.start();
 
             LOGGER.info("Successfully started server for " + selfAddressString);
@@ -156,25 +175,61 @@ public class Server implements Closeable {
         LOGGER.info("Server Stopped");
     }
 
-    public void sendCoordinator(SimulatorMessage msg) {
+    /**
+     * Sends a message to the coordinator.
+     *
+     * @param msg the message to send
+     * @return <tt>true</tt> if the message was sent, <tt>false</tt> if sending failed
+     */
+    public boolean sendCoordinator(SimulatorMessage msg) {
         try {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("sending [" + msg + "]");
             }
 
-            Destination topic = session.createTopic("coordinator");
-            MessageProducer producer = session.createProducer(topic);
-            producer.setTimeToLive(MINUTES.toMillis(1));
-            producer.setDeliveryMode(NON_PERSISTENT);
+            byte[] payload = SimulatorMessageCodec.encode(msg);
+            synchronized (producerLock) {
+                BytesMessage message = producerSession.createBytesMessage();
+                message.setStringProperty("source", selfAddressString);
+                message.setIntProperty("msgType", getMessageType(msg).toInt());
+                message.writeBytes(payload);
 
-            Message message = session.createMessage();
-            message.setStringProperty("source", selfAddressString);
-            message.setStringProperty("payload", SimulatorMessageCodec.toJson(msg));
-            message.setIntProperty("msgType", getMessageType(msg).toInt());
+                coordinatorProducer.send(message);
+            }
+            return true;
+        } catch (JMSException e) {
+            LOGGER.error(e);
+            return false;
+        }
+    }
+
+    /**
+     * Sends a message to the agent this server belongs to; so the parent of the self address. For example a worker can send
+     * a message to its agent.
+     *
+     * @param msg the message to send
+     * @return <tt>true</tt> if the message was sent, <tt>false</tt> if sending failed
+     */
+    public boolean sendAgent(SimulatorMessage msg) {
+        try {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("sending [" + msg + "] to agent");
+            }
 
-            producer.send(message);
+            byte[] payload = SimulatorMessageCodec.encode(msg);
+            synchronized (producerLock) {
+                BytesMessage message = producerSession.createBytesMessage();
+                message.setStringProperty("source", selfAddressString);
+                message.setStringProperty("target", selfAddress.getParent().toString());
+                message.setIntProperty("msgType", getMessageType(msg).toInt());
+                message.writeBytes(payload);
+
+                agentProducer.send(message);
+            }
+            return true;
         } catch (JMSException e) {
             LOGGER.error(e);
+            return false;
         }
     }
 
@@ -194,28 +249,37 @@ public class Server implements Closeable {
             }
 
             try {
-                Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-                Message message = session.createMessage();
-                message.setJMSCorrelationID(correlationId);
-                message.setStringProperty("source", selfAddressString);
-
-                if (o instanceof Throwable) {
-                    Throwable throwable = (Throwable) o;
-                    message.setBooleanProperty("error", true);
-                    message.setStringProperty("message", throwable.getMessage());
-                } else {
-                    message.setBooleanProperty("error", false);
-                    // hack
-                    message.setStringProperty("payload", "" + o);
+                synchronized (producerLock) {
+                    send(o);
                 }
-
-                MessageProducer producer = session.createProducer(replyTo);
-                producer.send(message);
-                session.close();
             } catch (JMSException e) {
                 LOGGER.error(e);
             }
         }
+
+        private void send(Object o) throws JMSException {
+            Message message = producerSession.createMessage();
+            message.setJMSCorrelationID(correlationId);
+            message.setStringProperty("source", selfAddressString);
+
+            if (o instanceof Throwable) {
+                Throwable throwable = (Throwable) o;
+                message.setBooleanProperty("error", true);
+                message.setStringProperty("message", throwable.getMessage());
+            } else {
+                message.setBooleanProperty("error", false);
+                // hack
+                message.setStringProperty("payload", "" + o);
+            }
+
+            replyProducer.send(replyTo, message);
+        }
+    }
+
+    static SimulatorMessage decode(BytesMessage message, MessageType msgType) throws JMSException {
+        byte[] payload = new byte[(int) message.getBodyLength()];
+        message.readBytes(payload);
+        return SimulatorMessageCodec.decode(payload, msgType);
     }
 
     private class ServerThread extends Thread {
@@ -239,8 +303,7 @@ public class Server implements Closeable {
             Message message = consumer.receive();
 
             MessageType msgType = MessageType.fromInt(message.getIntProperty("msgType"));
-            String msgData = message.getStringProperty("payload");
-            SimulatorMessage msg = SimulatorMessageCodec.fromJson(msgData, msgType.getClassType());
+            SimulatorMessage msg = decode((BytesMessage) message, msgType);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Received msg:" + msg);
             }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.message;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A {@link SimulatorMessage} that is encoded using a compact binary format instead of JSON.
+ * <p/>
+ * Should be implemented by messages that are sent frequently, e.g. during the measurement, to prevent creating a lot of
+ * litter. The implementation needs a public no-arg constructor, which is used before calling {@link #readFrom(DataInput)}.
+ * <p/>
+ * The format is the schema of the message. So when the format is changed, the version written by
+ * {@link #writeTo(DataOutput)} should be increased and {@link #readFrom(DataInput)} should reject unknown versions.
+ */
+public interface BinarySimulatorMessage extends SimulatorMessage {
+
+    /**
+     * Writes the content of this message.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException;
+
+    /**
+     * Reads the content of this message.
+     *
+     * @param in the input to read from
+     * @throws IOException if reading fails or the data has an unknown version
+     */
+    void readFrom(DataInput in) throws IOException;
+}
@@ -18,10 +18,12 @@ package com.hazelcast.simulator.protocol.message;
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
 import com.hazelcast.simulator.agent.messages.StartTimeoutDetectionMessage;
 import com.hazelcast.simulator.agent.messages.StopTimeoutDetectionMessage;
+import com.hazelcast.simulator.agent.messages.WorkerReadyMessage;
 import com.hazelcast.simulator.coordinator.messages.FailureMessage;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
 import com.hazelcast.simulator.worker.messages.ExecuteScriptMessage;
 import com.hazelcast.simulator.worker.messages.PerformanceStatsMessage;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
@@ -47,13 +49,15 @@ public enum MessageType {
     CREATE_WORKER(CreateWorkerMessage.class, 3000),
     START_TIMEOUT_DETECTION(StartTimeoutDetectionMessage.class, 3001),
     STOP_TIMEOUT_DETECTION(StopTimeoutDetectionMessage.class, 3002),
+    WORKER_READY(WorkerReadyMessage.class, 3003),
 
     // Worker-Messages
     TERMINATE_WORKER(TerminateWorkerMessage.class, 4001),
     CREATE_TEST(CreateTestMessage.class, 4002),
     EXECUTE_SCRIPT(ExecuteScriptMessage.class, 4003),
     START_TEST_PHASE(StartPhaseMessage.class, 4004),
-    STOP_TEST(StopRunMessage.class, 4005);
+    STOP_TEST(StopRunMessage.class, 4005),
+    RETUNE_TEST(RetuneMessage.class, 4006);
 
     private final Class<? extends SimulatorMessage> classType;
     private final int classId;
@@ -17,11 +17,26 @@ package com.hazelcast.simulator.protocol.message;
 
 import com.google.gson.Gson;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Encodes and decodes a {@link SimulatorMessage}.
+ * <p/>
+ * The encoded message starts with a byte for the format. A {@link BinarySimulatorMessage} is encoded using its own compact
+ * binary format, all other messages are encoded using JSON.
  */
 public final class SimulatorMessageCodec {
 
+    static final byte FORMAT_JSON = 0;
+    static final byte FORMAT_BINARY = 1;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
     private static final Gson GSON = new Gson();
 
     private SimulatorMessageCodec() {
@@ -34,4 +49,70 @@ public final class SimulatorMessageCodec {
     public static SimulatorMessage fromJson(String json, Class<? extends SimulatorMessage> classType) {
         return GSON.fromJson(json, classType);
     }
+
+    /**
+     * Encodes a {@link SimulatorMessage}.
+     *
+     * @param msg the message to encode
+     * @return the encoded message
+     */
+    public static byte[] encode(SimulatorMessage msg) {
+        if (!(msg instanceof BinarySimulatorMessage)) {
+            byte[] json = toJson(msg).getBytes(UTF_8);
+            byte[] bytes = new byte[json.length + 1];
+            bytes[0] = FORMAT_JSON;
+            System.arraycopy(json, 0, bytes, 1, json.length);
+            return bytes;
+        }
+
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            DataOutputStream out = new DataOutputStream(bos);
+            out.writeByte(FORMAT_BINARY);
+            ((BinarySimulatorMessage) msg).writeTo(out);
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode " + msg.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Decodes a {@link SimulatorMessage}.
+     *
+     * @param bytes   the encoded message
+     * @param msgType the type of the message
+     * @return the decoded message
+     * @throws IllegalArgumentException if the message can't be decoded
+     */
+    public static SimulatorMessage decode(byte[] bytes, MessageType msgType) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Can't decode an empty message of type " + msgType);
+        }
+
+        switch (bytes[0]) {
+            case FORMAT_JSON:
+                return fromJson(new String(bytes, 1, bytes.length - 1, UTF_8), msgType.getClassType());
+            case FORMAT_BINARY:
+                return decodeBinary(bytes, msgType);
+            default:
+                throw new IllegalArgumentException("Unknown format " + bytes[0] + " for message of type " + msgType);
+        }
+    }
+
+    private static SimulatorMessage decodeBinary(byte[] bytes, MessageType msgType) {
+        Class<? extends SimulatorMessage> classType = msgType.getClassType();
+        if (!BinarySimulatorMessage.class.isAssignableFrom(classType)) {
+            throw new IllegalArgumentException(classType.getName() + " doesn't support the binary format");
+        }
+
+        try {
+            BinarySimulatorMessage msg = (BinarySimulatorMessage) classType.newInstance();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            msg.readFrom(in);
+            return msg;
+        } catch (IOException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Failed to decode message of type " + msgType, e);
+        }
+    }
 }
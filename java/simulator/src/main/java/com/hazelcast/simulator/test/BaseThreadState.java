@@ -15,8 +15,9 @@
  */
 package com.hazelcast.simulator.test;
 
+import com.hazelcast.simulator.utils.FastRandom;
+
 import java.io.Serializable;
-import java.util.Random;
 
 /**
  * Implementations of this class should be public. This is required for the
@@ -25,12 +26,17 @@ import java.util.Random;
  * This class is called BaseThreadState instead of ThreadState, since in most
  * cases a test needs to subclass BaseThreadState. In this case the prettier and
  * shorter name ThreadState can be used.
+ * <p>
+ * The {@link #random} is a {@link FastRandom}; it isn't thread-safe, but since every
+ * timestep thread has its own thread state, that isn't a problem. If the test is
+ * configured with a 'randomSeed', the random is seeded so that the run can be
+ * replayed.
  */
 @SuppressWarnings("unused")
 public class BaseThreadState implements Serializable {
 
     @SuppressWarnings("checkstyle:visibilitymodifier")
-    public final Random random = new Random();
+    public final FastRandom random = new FastRandom();
 
     /**
      * @return random generated double
@@ -52,12 +58,7 @@ public class BaseThreadState implements Serializable {
      * @throws IllegalArgumentException if bound smaller or equal than 0.
      */
     public long randomLong(long bound) {
-        if (bound <= 0) {
-            throw new IllegalArgumentException("bound must be positive");
-        }
-
-        // rounding will always be down towards 0. So the result will be exclusive the bound.
-        return (long) (random.nextDouble() * bound);
+        return random.nextLong(bound);
     }
 
     /**
@@ -95,6 +95,17 @@ import java.lang.annotation.Target;
  * and the {@link AfterRun} can take care of some post processing. For a full
  * example see the AtomicLongTest.
  * <p/>
+ * The random of the {@link com.hazelcast.simulator.test.BaseThreadState} and the
+ * random used to select the timestep method are seeded per thread. By default a
+ * new seed is used for every run, and the seed is logged. A run can be replayed
+ * by configuring the seed:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     randomSeed=42
+ * }
+ * </pre>
+ * <p/>
  * <h1>Code generation</h1>
  * The timestep based tests rely on code generation for the actual code to call
  * the timestep methods. This prevents the need for reflection and and the motto
@@ -152,6 +163,40 @@ import java.lang.annotation.Target;
  *     consumerThreadCount=4
  * }
  * </pre>
+ * <p/>
+ * By default the timestep threads are platform threads. To simulate a large
+ * number of concurrent blocking clients, the timestep threads can be virtual
+ * threads:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     threadCount=10000
+ *     threadType=virtual
+ * }
+ * </pre>
+ * Virtual threads require Java 21 or higher; on older JVMs platform threads are
+ * used and a warning is logged. Like the threadCount, the threadType can be
+ * configured per execution group, e.g. 'consumerThreadType=virtual'.
+ *
+ * <h1>CPU affinity</h1>
+ * To prevent the OS from migrating the timestep threads between CPUs, the threads
+ * can be pinned to CPUs:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     threadCount=4
+ *     cpuAffinity=2-5
+ * }
+ * </pre>
+ * The CPUs are assigned round-robin; so each thread gets its own CPU. Instead of a
+ * CPU list, 'numa:N' can be used to select all CPUs of NUMA node N. With
+ * 'cpuAffinityMode=group' the threads are not pinned to a single CPU, but can run
+ * on any of the configured CPUs; which isolates them from e.g. the I/O threads of
+ * the driver if these run on other CPUs. The chosen CPUs are logged in the worker
+ * log. Like the threadCount, the cpuAffinity can be configured per execution
+ * group, e.g. 'consumerCpuAffinity=numa:1'. CPU affinity can't be combined with
+ * virtual threads. To place the whole worker process on a NUMA node, e.g. members
+ * and clients on different nodes, see the NUMA_CONTROL section in worker.sh.
  *
  * <h1>Iterations</h1>
  * TimeStep based tests have out of the box support for running a given number of
@@ -217,6 +262,48 @@ import java.lang.annotation.Target;
  * are based on completion of the timestep method, but that doesn't need to mean
  * completion of the async call.
  * <p/>
+ * <h1>Limiting in-flight async calls</h1>
+ * A timestep method can also return a {@link java.util.concurrent.CompletableFuture}.
+ * The latency is then recorded when the future completes, but the timestep
+ * thread doesn't wait for completion. Without a limit, a fast timestep thread
+ * will flood the system with requests. The number of outstanding calls can be
+ * limited using the maxInFlight property:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     threadCount=2
+ *     maxInFlight=100
+ * }
+ * </pre>
+ * In this example each timestep thread will have at most 100 calls pending. If
+ * the window is full, the thread waits till one of the calls completes. The
+ * time spent waiting for a free slot is recorded in the 'inFlightWait' probe.
+ * If a metronome is configured, the latency includes the time waiting for a
+ * free slot; so coordinated omission is still accounted for.
+ * <p/>
+ * By default the limit is per timestep thread. The limit can also be shared by
+ * all threads of the execution group:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     threadCount=2
+ *     maxInFlight=100
+ *     maxInFlightScope=group
+ * }
+ * </pre>
+ * In this case the 2 threads together will have at most 100 calls pending.
+ * <p/>
+ * The maxInFlight can be configured per execution group, e.g.
+ * 'producerMaxInFlight=100'. It can only be used for an execution group with
+ * timestep methods returning a CompletableFuture.
+ * <p/>
+ * If latency is measured and maxInFlight is configured, the callbacks recording
+ * the latency are created up front and reused. Without maxInFlight, every async
+ * call allocates a callback capturing the start time. In both cases the future
+ * allocates its own completion object when the callback is registered. These
+ * allocations happen on the timestep thread; so they show up in the allocated
+ * bytes per operation (B/op) reported for the test.
+ * <p/>
  * <h1>Logging</h1>
  * By default a timestep based thread will not log anything during the run/warmup
  * period. But sometimes some logging is required, e.g. when needing to do some
@@ -313,6 +400,43 @@ import java.lang.annotation.Target;
  * }
  * </pre>
  *
+ * <h2>Rate sweep</h2>
+ * To get the latency at multiple levels of throughput in a single run, the rate
+ * can be stepped through a list of rates using the ratePerSecondSweep property:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     ratePerSecondSweep=1000,2000,4000,8000
+ *     sweepStepSeconds=60
+ *     sweepP99SloMs=5
+ * }
+ * </pre>
+ * The run starts at the first rate and once the warmup has completed, the next
+ * rate is applied every sweepStepSeconds (default 30). After the last step the
+ * run continues at the last rate; so the duration of the test should be at least
+ * the warmup plus the number of rates times sweepStepSeconds. The interval
+ * histograms in the hdr files are tagged with the step, e.g. 'sweep-2', and the
+ * coordinator logs the throughput and latency of each step. If sweepP99SloMs is
+ * configured, the coordinator also logs the highest throughput for which the
+ * 99th percentile latency stays within the SLO. The ratePerSecondSweep can't be
+ * combined with interval or ratePerSecond and, just like ratePerSecond, the
+ * rates are per worker.
+ *
+ * <h2>Retuning a running test</h2>
+ * The rate and the number of active threads of an execution group can be changed
+ * while the test is running using 'perftest retune', e.g. a 2x burst for 30 seconds:
+ * <pre>
+ * {@code
+ *     perftest retune runs/yourtest/<date> --rateFactor 2 --duration 30
+ * }
+ * </pre>
+ * The rate can only be changed if interval or ratePerSecond is configured and
+ * the number of threads can't exceed the configured threadCount; the threads are
+ * deactivated instead of terminated. If no duration is given, the change is
+ * permanent. The rate of the execution group stays the same when the number of
+ * threads changes. Without a rate, a thread checks if it has been deactivated once
+ * every 1024 iterations; so the check doesn't add overhead to every call.
+ *
  * <h1>Stress testing</h1>
  * With stress testing you try to find the highest performance until you run
  * into the breaking point of the system. In Simulator this is done by increasing
@@ -333,6 +457,13 @@ import java.lang.annotation.Target;
  * on HDR or because reading out the clock can be expensive on certain
  * environments (e.g. EC2 with XEN clock. By adding 'measureLatency=false'
  * to the test, Simulator will not measure latency.
+ * <p/>
+ * To prevent contention, each timestep thread records the latency of its timestep
+ * methods on its own stripe of the probe and the stripes are merged once per
+ * interval. This doesn't apply to async timestep methods or timestep methods that
+ * receive the probe as an argument, since their latency can be recorded by any
+ * thread. Striping can be disabled by adding 'stripeLatencyProbes=false' to the
+ * test.
  *
  * <h2>Coordinated omission</h2>
  * A lot of testing frameworks are suffering from a problem called
@@ -351,7 +482,7 @@ import java.lang.annotation.Target;
  *
  * <h2>Different flavors of metronomes</h2>
  * Internally a {@link com.hazelcast.simulator.worker.metronome.Metronome} is
- * used to control the rate of requests. There are currently 3 out of the box
+ * used to control the rate of requests. There are currently 4 out of the box
  * implementations:
  * <ol>
  * <li>{@link com.hazelcast.simulator.worker.metronome.SleepingMetronome}: which
@@ -372,6 +503,15 @@ import java.lang.annotation.Target;
  * is a thread available, a requests will be made. THis prevents building up the
  * bubble and will give a more stable request rate.
  * </li>
+ * <li>{@link com.hazelcast.simulator.worker.metronome.OpenLoopMetronome}
+ * generates an open-loop load. The requests arrive at the configured rate,
+ * independent of the timestep threads, and the timestep threads claim them. So
+ * if the system stalls, the offered load doesn't drop; the overdue requests are
+ * claimed as soon as a thread is free and their latency is measured from their
+ * intended start time. The number of requests started more than an interval
+ * late is reported every interval. The arrivals can be evenly spaced or follow
+ * a Poisson distribution using 'arrivalDistribution=poisson'.
+ * </li>
  * </ol>
  *
  * The metronome type can be configured using:
@@ -22,6 +22,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
@@ -53,6 +56,24 @@ public final class CommonUtils {
         }
     }
 
+    /**
+     * Returns the SHA-1 hash of a String as a hexadecimal String.
+     *
+     * @param s the String to hash
+     * @return the hash
+     */
+    public static String toSHA1(String s) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        md.reset();
+        md.update(s.getBytes());
+        return String.format("%040x", new BigInteger(1, md.digest()));
+    }
+
     public static String throwableToString(Throwable throwable) {
         StringWriter stringWriter = new StringWriter();
         throwable.printStackTrace(new PrintWriter(stringWriter));
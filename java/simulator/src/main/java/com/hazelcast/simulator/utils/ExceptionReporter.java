@@ -29,27 +29,78 @@ import static com.hazelcast.simulator.utils.FileUtils.writeText;
 import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
 
 /**
- * Responsible for writing an exception to a file. Every exception file will have a unique name.
+ * Responsible for reporting an exception.
+ *
+ * If a {@link FailureSink} has been set, the exception is handed over to the sink; e.g. the worker sends it to the
+ * coordinator directly. Otherwise, or if the sink doesn't accept the exception, it is written to a file which is picked up
+ * by the agent. Every exception file will have a unique name.
  */
 public final class ExceptionReporter {
 
     static final int MAX_EXCEPTION_COUNT = 1000;
 
     static final AtomicLong FAILURE_ID = new AtomicLong(0);
+    static final AtomicLong FILE_ID = new AtomicLong(0);
 
     private static final Logger LOGGER = LogManager.getLogger(ExceptionReporter.class);
 
+    private static volatile FailureSink failureSink;
+
     private ExceptionReporter() {
     }
 
     /**
-     * Writes the cause to file.
+     * Receives the exceptions that are reported, instead of them being written to file.
+     */
+    public interface FailureSink {
+
+        /**
+         * Offers an exception to the sink.
+         *
+         * This method is called by the thread that ran into the exception; so it should not block.
+         *
+         * @param testId the id of the test that caused the exception. Can be <tt>null</tt>.
+         * @param cause  the Throwable that should be reported.
+         * @return <tt>true</tt> if the sink has taken care of the exception, <tt>false</tt> if it should be written to file.
+         */
+        boolean offer(String testId, Throwable cause);
+    }
+
+    /**
+     * Sets the FailureSink.
+     *
+     * @param sink the FailureSink. Is allowed to be <tt>null</tt> to write every exception to file again.
+     */
+    public static void setFailureSink(FailureSink sink) {
+        failureSink = sink;
+    }
+
+    /**
+     * Reports the cause.
      *
      * @param testId the id of the test that caused the exception. Is allowed to be <tt>null</tt> if it is not known which test
      *               caused the problem.
      * @param cause  the Throwable that should be reported.
      */
     public static void report(String testId, Throwable cause) {
+        report(testId, cause, true);
+    }
+
+    /**
+     * Reports a cause that is going to bring down the JVM.
+     *
+     * The cause is written to file directly; handing it over to the {@link FailureSink} could mean it gets lost when the JVM
+     * exits before the sink has processed it.
+     *
+     * @param testId the id of the test that caused the exception. Is allowed to be <tt>null</tt> if it is not known which test
+     *               caused the problem.
+     * @param cause  the Throwable that should be reported.
+     */
+    public static void reportCrash(String testId, Throwable cause) {
+        report(testId, cause, false);
+    }
+
+    private static void report(String testId, Throwable cause, boolean useSink) {
         if (cause == null) {
             LOGGER.fatal("Can't call report with a null exception");
             return;
@@ -65,7 +116,25 @@ public final class ExceptionReporter {
 
         LOGGER.warn("Exception #" + exceptionCount + " detected", cause);
 
-        String targetFileName = exceptionCount + ".exception";
+        // an OOME is written to file; the JVM is probably not going to survive it
+        FailureSink sink = failureSink;
+        if (useSink && sink != null && !(cause instanceof OutOfMemoryError) && sink.offer(testId, cause)) {
+            return;
+        }
+
+        writeToFile(testId, throwableToString(cause));
+    }
+
+    /**
+     * Writes an exception to file, so it is picked up by the agent.
+     *
+     * This is the fallback for a {@link FailureSink} that failed to deliver an exception it has accepted.
+     *
+     * @param testId the id of the test that caused the exception. Is allowed to be <tt>null</tt>.
+     * @param cause  the stacktrace of the exception.
+     */
+    public static void writeToFile(String testId, String cause) {
+        String targetFileName = FILE_ID.incrementAndGet() + ".exception";
 
         File dir = getUserDir();
         File tmpFile = new File(dir, targetFileName + ".tmp");
@@ -78,7 +147,7 @@ public final class ExceptionReporter {
             return;
         }
 
-        writeText(testId + NEW_LINE + throwableToString(cause), tmpFile);
+        writeText(testId + NEW_LINE + cause, tmpFile);
 
         File file = new File(dir, targetFileName);
         LOGGER.info(file.getAbsolutePath());
@@ -88,5 +157,7 @@ public final class ExceptionReporter {
     // just for testing
     public static void reset() {
         FAILURE_ID.set(0);
+        FILE_ID.set(0);
+        failureSink = null;
     }
 }
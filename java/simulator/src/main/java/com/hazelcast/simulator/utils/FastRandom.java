@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast pseudo random generator based on xoroshiro128**.
+ *
+ * Unlike {@link Random}, the state isn't stored in an AtomicLong which needs to be updated using a CAS; so this class is
+ * not thread-safe and an instance should only be used by a single thread. It extends {@link Random} so it can be used
+ * wherever a Random is expected.
+ *
+ * The bounded methods {@link #nextInt(int)} and {@link #nextLong(long)} are unbiased.
+ *
+ * Instances created with the same seed produce the same sequence of values, which makes it possible to replay a run.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+public class FastRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final AtomicLong SEED_UNIQUIFIER = new AtomicLong(System.nanoTime());
+
+    // not initialized using a field initializer since Random calls setSeed from its constructor
+    private long s0;
+    private long s1;
+
+    /**
+     * Creates a FastRandom with a unique seed.
+     */
+    public FastRandom() {
+        this(newSeed());
+    }
+
+    /**
+     * Creates a FastRandom with the given seed.
+     *
+     * @param seed the seed
+     */
+    public FastRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Creates a new unique seed.
+     *
+     * @return the created seed
+     */
+    public static long newSeed() {
+        return mix(SEED_UNIQUIFIER.getAndAdd(GOLDEN_GAMMA) ^ System.nanoTime());
+    }
+
+    /**
+     * Derives a seed from a base seed and an index; e.g. to give every thread its own reproducible seed.
+     *
+     * @param seed  the base seed
+     * @param index the index
+     * @return the derived seed
+     */
+    public static long deriveSeed(long seed, long index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    // the finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        // the state is initialized using SplitMix64; so similar seeds will still give uncorrelated sequences
+        long x = seed + GOLDEN_GAMMA;
+        s0 = mix(x);
+        s1 = mix(x + GOLDEN_GAMMA);
+        if ((s0 | s1) == 0) {
+            // the all zero state is not allowed
+            s1 = GOLDEN_GAMMA;
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        long q0 = s0;
+        long q1 = s1;
+        long result = Long.rotateLeft(q0 * 5, 7) * 9;
+
+        q1 ^= q0;
+        s0 = Long.rotateLeft(q0, 24) ^ q1 ^ (q1 << 16);
+        s1 = Long.rotateLeft(q1, 37);
+        return result;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed int between 0 (inclusive) and bound (exclusive).
+     *
+     * Uses the multiply and shift method of Lemire with rejection; so the result is unbiased and in the common case no
+     * division is needed.
+     *
+     * @param bound the upper bound (exclusive). Must be positive.
+     * @return the random int
+     * @throws IllegalArgumentException if bound is smaller or equal than 0
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (1L << 32) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed long between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound the upper bound (exclusive). Must be positive.
+     * @return the random long
+     * @throws IllegalArgumentException if bound is smaller or equal than 0
+     */
+    public long nextLong(long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        long mask = bound - 1;
+        if ((bound & mask) == 0) {
+            // bound is a power of 2
+            return nextLong() & mask;
+        }
+
+        // values from the incomplete last range are rejected; so the result is unbiased
+        long u = nextLong() >>> 1;
+        long r = u % bound;
+        while (u - r + mask < 0) {
+            u = nextLong() >>> 1;
+            r = u % bound;
+        }
+        return r;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+}
@@ -21,7 +21,10 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
@@ -30,6 +33,13 @@ public final class NativeUtils {
 
     private static final Logger LOGGER = LogManager.getLogger(NativeUtils.class);
 
+    private static final File PROC_DIR = new File("/proc/self");
+
+    // the ProcessHandle API is only available on Java 9+; so it is accessed using reflection
+    private static final Method PROCESS_HANDLE_OF = findMethod("java.lang.ProcessHandle", "of", long.class);
+    private static final Method PROCESS_HANDLE_ON_EXIT = findMethod("java.lang.ProcessHandle", "onExit");
+    private static final Method PROCESS_ON_EXIT = findMethod("java.lang.Process", "onExit");
+
     private NativeUtils() {
     }
 
@@ -107,6 +117,89 @@ public final class NativeUtils {
         }
     }
 
+    /**
+     * Checks if a process is alive without forking a process; so the process table is checked using the /proc filesystem.
+     *
+     * @param pid the id of the process
+     * @return <tt>true</tt> if the process is alive, <tt>false</tt> if it isn't, or <tt>null</tt> if it can't be determined
+     * because there is no /proc filesystem
+     */
+    public static Boolean isProcessAlive(long pid) {
+        if (!PROC_DIR.exists()) {
+            return null;
+        }
+        return new File("/proc/" + pid).exists();
+    }
+
+    /**
+     * Runs a callback when the process with the given pid exits, using the {@code ProcessHandle.onExit} future.
+     *
+     * If the process doesn't exist, the callback is run directly.
+     *
+     * @param pid      the id of the process
+     * @param callback the callback to run
+     * @return <tt>true</tt> if the callback was registered, <tt>false</tt> if the ProcessHandle API isn't available (Java 8)
+     */
+    public static boolean onProcessExit(long pid, Runnable callback) {
+        if (PROCESS_HANDLE_OF == null || PROCESS_HANDLE_ON_EXIT == null) {
+            return false;
+        }
+
+        try {
+            Optional<?> handle = (Optional<?>) PROCESS_HANDLE_OF.invoke(null, pid);
+            if (!handle.isPresent()) {
+                callback.run();
+                return true;
+            }
+            ((CompletableFuture<?>) PROCESS_HANDLE_ON_EXIT.invoke(handle.get())).thenRun(callback);
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to register exit callback for process " + pid, e);
+            return false;
+        }
+    }
+
+    /**
+     * Runs a callback when a child process exits, using the {@code Process.onExit} future.
+     *
+     * On Java 8 a daemon thread is started that waits for the process to exit.
+     *
+     * @param process  the child process
+     * @param callback the callback to run
+     */
+    public static void onProcessExit(final Process process, final Runnable callback) {
+        if (PROCESS_ON_EXIT != null) {
+            try {
+                ((CompletableFuture<?>) PROCESS_ON_EXIT.invoke(process)).thenRun(callback);
+                return;
+            } catch (Exception e) {
+                LOGGER.warn("Failed to register exit callback for process", e);
+            }
+        }
+
+        Thread thread = new Thread("ProcessExitWaiter") {
+            @Override
+            public void run() {
+                try {
+                    process.waitFor();
+                    callback.run();
+                } catch (InterruptedException e) {
+                    EmptyStatement.ignore(e);
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static Method findMethod(String className, String methodName, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(methodName, parameterTypes);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
     public static File writePid(File pidFile) {
         deleteQuiet(pidFile);
         writeText("" + getPID(), pidFile);
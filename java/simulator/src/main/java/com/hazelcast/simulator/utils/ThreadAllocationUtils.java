@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Utility methods to read the number of bytes allocated by a thread.
+ *
+ * Uses the HotSpot specific {@code com.sun.management.ThreadMXBean}; if it isn't available or thread allocated memory
+ * measurement is disabled, -1 is returned.
+ */
+public final class ThreadAllocationUtils {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = initThreadMXBean();
+
+    private ThreadAllocationUtils() {
+    }
+
+    private static com.sun.management.ThreadMXBean initThreadMXBean() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (!bean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the allocated bytes of a thread can be measured.
+     *
+     * @return {@code true} if supported, {@code false} otherwise
+     */
+    public static boolean isThreadAllocatedBytesSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Returns the total number of bytes allocated by a thread since it started.
+     *
+     * @param thread the thread
+     * @return the number of allocated bytes, or -1 if it isn't supported, the thread isn't alive or it is a virtual thread
+     */
+    public static long getThreadAllocatedBytes(Thread thread) {
+        if (THREAD_MX_BEAN == null) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(thread.getId());
+    }
+}
@@ -16,6 +16,7 @@
 package com.hazelcast.simulator.utils;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -38,6 +39,30 @@ import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
  */
 public class ThreadSpawner {
 
+    // the virtual thread API is only available on Java 21+; so it is accessed using reflection
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderUnstarted = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class);
+            builderUnstarted = builderClass.getMethod("unstarted", Runnable.class);
+            // on Java 19 and 20 virtual threads are a preview feature and creating the builder fails
+            ofVirtual.invoke(null);
+        } catch (Exception e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_UNSTARTED = builderUnstarted;
+    }
+
     private final List<Thread> threads = Collections.synchronizedList(new LinkedList<>());
     private final ConcurrentMap<String, AtomicInteger> idMap = new ConcurrentHashMap<>();
 
@@ -100,12 +125,28 @@ public class ThreadSpawner {
      * @return the created thread
      */
     public Thread spawn(String namePrefix, Runnable runnable) {
+        return spawn(namePrefix, runnable, false);
+    }
+
+    /**
+     * Spawns a new thread for the given {@link Runnable}.
+     *
+     * If a virtual thread is requested, but the JVM doesn't support virtual threads, a platform thread is spawned.
+     *
+     * @param namePrefix the name prefix for the thread
+     * @param runnable   the {@link Runnable} to execute
+     * @param virtual    <code>true</code> if a virtual thread should be spawned
+     * @return the created thread
+     */
+    public Thread spawn(String namePrefix, Runnable runnable, boolean virtual) {
         checkNotNull(namePrefix, "namePrefix can't be null");
         checkNotNull(runnable, "runnable can't be null");
 
         String name = newName(namePrefix);
         Thread thread;
-        if (throwException) {
+        if (virtual && isVirtualThreadSupported()) {
+            thread = newVirtualThread(name, runnable);
+        } else if (throwException) {
             thread = new ThrowExceptionThread(name, runnable);
             thread.setUncaughtExceptionHandler(exceptionHandler);
         } else {
@@ -116,6 +157,39 @@ public class ThreadSpawner {
         return thread;
     }
 
+    /**
+     * Checks if the JVM supports virtual threads.
+     *
+     * @return <code>true</code> if virtual threads are supported, <code>false</code> otherwise
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private Thread newVirtualThread(String name, Runnable runnable) {
+        // virtual threads are always daemon threads and the uncaught exception handling is done in the task itself
+        Runnable task = () -> {
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                if (!throwException) {
+                    ExceptionReporter.report(testId, t);
+                } else if (caughtException == null) {
+                    caughtException = t;
+                }
+            }
+        };
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, name);
+            return (Thread) BUILDER_UNSTARTED.invoke(builder, task);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
     /**
      * Waits for all threads to finish.
      *
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import com.hazelcast.simulator.protocol.message.LogMessage;
+import com.hazelcast.simulator.protocol.message.SimulatorMessageCodec;
+import freemarker.template.Configuration;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static com.hazelcast.simulator.protocol.message.MessageType.LOG;
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+
+/**
+ * The training run for the Class Data Sharing archive of the workers.
+ *
+ * It is started by the agent with the classpath of the workers and '-XX:ArchiveClassesAtExit'; so all classes loaded by
+ * this run end up in the archive. It loads the Simulator classes and exercises the libraries a worker needs during startup
+ * and test creation: log4j, the messaging (ActiveMQ and Gson), FreeMarker, HdrHistogram and javac.
+ */
+public final class CdsTraining {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Logger logger = LogManager.getLogger(CdsTraining.class);
+
+        int loaded = loadSimulatorClasses();
+
+        // no connection is made; there is no broker
+        new ActiveMQConnectionFactory("tcp://localhost:0").setUseAsyncSend(true);
+        SimulatorMessageCodec.decode(SimulatorMessageCodec.encode(new LogMessage("training")), LOG);
+
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_24);
+        configuration.setClassForTemplateLoading(CdsTraining.class, "/");
+        configuration.getTemplate("TimeStepLoop.ftl");
+
+        HdrLatencyProbe probe = new HdrLatencyProbe("training", false);
+        probe.recordValue(1);
+        probe.getRecorder().getIntervalHistogram().copy();
+
+        compile();
+
+        logger.info("CDS training run loaded " + loaded + " Simulator classes");
+    }
+
+    private static int loadSimulatorClasses() throws IOException, URISyntaxException {
+        CodeSource codeSource = CdsTraining.class.getProtectionDomain().getCodeSource();
+        File jar = codeSource == null ? null : new File(codeSource.getLocation().toURI());
+        if (jar == null || !jar.isFile()) {
+            return 0;
+        }
+
+        int loaded = 0;
+        ClassLoader classLoader = CdsTraining.class.getClassLoader();
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (!name.endsWith(CLASS_SUFFIX)) {
+                    continue;
+                }
+
+                String className = name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.');
+                try {
+                    Class.forName(className, false, classLoader);
+                    loaded++;
+                } catch (Throwable e) {
+                    // e.g. a class depending on an optional library
+                    ignore(e);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static void compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return;
+        }
+
+        File dir = File.createTempFile("cds-training", "");
+        deleteQuiet(dir);
+        try {
+            File source = new File(dir, "Training.java");
+            writeText("public class Training { public long run(long x) { return x * 31; } }", source);
+            compiler.run(null, null, null, "-d", dir.getAbsolutePath(), source.getAbsolutePath());
+        } finally {
+            deleteQuiet(dir);
+        }
+    }
+}
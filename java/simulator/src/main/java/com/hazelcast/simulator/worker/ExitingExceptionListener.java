@@ -27,7 +27,7 @@ import javax.jms.JMSException;
 public class ExitingExceptionListener implements ExceptionListener {
     @Override
     public void onException(JMSException e) {
-        ExceptionReporter.report(null, e);
+        ExceptionReporter.reportCrash(null, e);
         System.exit(1);
     }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.Closeable;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.simulator.common.FailureType.WORKER_OOME;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
+import static java.lang.management.MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED;
+import static java.lang.management.MemoryType.HEAP;
+
+/**
+ * Detects that the worker is running out of memory from within the worker; so without the agent needing to look for heap
+ * dumps or marker files.
+ *
+ * A collection usage threshold is set on the tenured heap memory pools; so the JVM notifies the detector if the usage of a
+ * pool after a GC exceeds a percentage of its maximum size. At that point the worker is effectively out of memory and an OOME
+ * failure is sent to the coordinator. If it can't be sent, the 'worker.oome' file is written so the agent still picks it up.
+ */
+class OomeDetector implements NotificationListener, Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(OomeDetector.class);
+
+    private final AtomicBoolean detected = new AtomicBoolean();
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    private final Server server;
+    private final SimulatorAddress workerAddress;
+    private final String agentAddress;
+    private final String workerId;
+    private final double thresholdPercentage;
+
+    OomeDetector(Server server, SimulatorAddress workerAddress, String agentAddress, String workerId,
+                 double thresholdPercentage) {
+        if (thresholdPercentage < 0 || thresholdPercentage > 100) {
+            throw new IllegalArgumentException("thresholdPercentage should be between 0 and 100, found " + thresholdPercentage);
+        }
+        this.server = server;
+        this.workerAddress = workerAddress;
+        this.agentAddress = agentAddress;
+        this.workerId = workerId;
+        this.thresholdPercentage = thresholdPercentage;
+    }
+
+    void start() {
+        if (thresholdPercentage == 0) {
+            return;
+        }
+
+        for (MemoryPoolMXBean pool : tenuredPools(ManagementFactory.getMemoryPoolMXBeans())) {
+            long max = pool.getUsage().getMax();
+            if (max <= 0) {
+                continue;
+            }
+            pool.setCollectionUsageThreshold((long) (max * thresholdPercentage / 100));
+            pools.add(pool);
+        }
+
+        if (pools.isEmpty()) {
+            LOGGER.warn("OOME detection is disabled; none of the tenured memory pools supports a collection usage threshold");
+            return;
+        }
+
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this, null, null);
+        LOGGER.info(format("OOME detection started with a threshold of %.1f%%", thresholdPercentage));
+    }
+
+    /**
+     * Returns the tenured heap memory pools, e.g. 'PS Old Gen', 'G1 Old Gen' or 'ZHeap' for non-generational collectors.
+     *
+     * Eden and survivor spaces are skipped; a survivor space is often full after a minor GC, so it would trigger the
+     * threshold on a healthy worker. The JVM only supports a usage threshold on the tenured pools, which is used to tell
+     * them apart.
+     *
+     * @param pools the memory pools
+     * @return the tenured heap memory pools
+     */
+    static List<MemoryPoolMXBean> tenuredPools(List<MemoryPoolMXBean> pools) {
+        List<MemoryPoolMXBean> result = new ArrayList<>();
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == HEAP && pool.isUsageThresholdSupported() && pool.isCollectionUsageThresholdSupported()) {
+                result.add(pool);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            return;
+        }
+
+        MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+        MemoryUsage usage = info.getUsage();
+        onOome(format("Worker ran into an OOME; memory pool [%s] is %.1f%% full after GC (%d of %d bytes)",
+                info.getPoolName(), usage.getUsed() * 100d / usage.getMax(), usage.getUsed(), usage.getMax()));
+    }
+
+    void onOome(String message) {
+        if (!detected.compareAndSet(false, true)) {
+            return;
+        }
+
+        LOGGER.fatal(message);
+        FailureMessage failure = new FailureMessage(message, WORKER_OOME, workerAddress, agentAddress, workerId, null, null);
+        if (!server.sendCoordinator(failure)) {
+            writeText(message, new File(getUserDir(), "worker.oome"));
+        }
+    }
+
+    boolean isDetected() {
+        return detected.get();
+    }
+
+    @Override
+    public void close() {
+        if (pools.isEmpty()) {
+            return;
+        }
+
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(this);
+        } catch (Exception e) {
+            LOGGER.debug("Failed to remove the OOME detection listener", e);
+        }
+        for (MemoryPoolMXBean pool : pools) {
+            pool.setCollectionUsageThreshold(0);
+        }
+        pools.clear();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.hazelcast.simulator.worker;
 
+import com.hazelcast.simulator.agent.messages.WorkerReadyMessage;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.common.ProcessSuicideThread;
 import com.hazelcast.simulator.common.ShutdownThread;
@@ -23,12 +24,16 @@ import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
+import com.hazelcast.simulator.worker.performance.OperationsLogFormat;
 import com.hazelcast.simulator.worker.performance.OperationsMonitor;
+import com.hazelcast.simulator.worker.performance.PrometheusEndpoint;
 import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.agent.workerprocess.WorkerParameters.loadParameters;
@@ -50,12 +55,15 @@ import static java.lang.String.format;
 
 public class Worker {
 
+    private static final double DEFAULT_OOME_DETECTION_THRESHOLD = 98;
     private static final String DASHES = "---------------------------";
     private static final Logger LOGGER = LogManager.getLogger(Worker.class);
 
     private final AtomicBoolean shutdownStarted = new AtomicBoolean();
     private final String publicAddress;
     private final OperationsMonitor performanceMonitor;
+    private final WorkerFailureSender failureSender;
+    private final OomeDetector oomeDetector;
     private final Server server;
     private final TestManager testManager;
     private final Driver driver;
@@ -73,6 +81,9 @@ public class Worker {
                 .setBrokerURL(localIp(), parseInt(parameters.get("AGENT_PORT")))
                 .setSelfAddress(workerAddress);
         this.testManager = new TestManager(server, driver);
+        this.failureSender = new WorkerFailureSender(server, workerAddress, publicAddress, parameters.get("WORKER_DIR_NAME"));
+        this.oomeDetector = new OomeDetector(server, workerAddress, publicAddress, parameters.get("WORKER_DIR_NAME"),
+                oomeDetectionThreshold());
 
         ScriptExecutor scriptExecutor = new ScriptExecutor(driver);
         server.setProcessor(new WorkerMessageHandler(this, testManager, scriptExecutor));
@@ -80,13 +91,39 @@ public class Worker {
         Runtime.getRuntime().addShutdownHook(new WorkerShutdownThread(true));
 
         int interval = Integer.parseInt(parameters.get("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS"));
-        this.performanceMonitor = new OperationsMonitor(server, testManager, interval);
+        OperationsLogFormat logFormat = OperationsLogFormat.fromString(parameters.get("WORKER_OPERATIONS_LOG_FORMAT"));
+        this.performanceMonitor = new OperationsMonitor(server, testManager, interval, logFormat, newPrometheusEndpoint());
+    }
+
+    private double oomeDetectionThreshold() {
+        String value = parameters.get("WORKER_OOME_DETECTION_THRESHOLD");
+        return value == null || value.trim().isEmpty() ? DEFAULT_OOME_DETECTION_THRESHOLD : Double.parseDouble(value.trim());
+    }
+
+    private PrometheusEndpoint newPrometheusEndpoint() {
+        String portValue = parameters.get("WORKER_PROMETHEUS_PORT");
+        int basePort = portValue == null || portValue.trim().isEmpty() ? 0 : parseInt(portValue.trim());
+        if (basePort <= 0) {
+            return null;
+        }
+
+        // every worker on the machine gets its own port
+        int port = basePort + workerAddress.getWorkerIndex() - 1;
+        try {
+            return new PrometheusEndpoint(port);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to create Prometheus endpoint on port " + port + ", continuing without it", e);
+            return null;
+        }
     }
 
     public void start() throws Exception {
         logInterestingJvmSettings();
 
         server.start();
+        failureSender.start();
+        ExceptionReporter.setFailureSink(failureSender);
+        oomeDetector.start();
         performanceMonitor.start();
         driver.startDriverInstance();
 
@@ -95,17 +132,26 @@ public class Worker {
         // we need to signal start after everything has completed. Otherwise messages could be send on the agent topic
         // without the agent being subscribed.
         writePid(new File(getUserDir(), "worker.pid"));
+        // the agent waits for this message to complete the creation of the worker
+        server.sendAgent(new WorkerReadyMessage(ManagementFactory.getRuntimeMXBean().getUptime()));
 
         logHeader("Successfully started Worker #" + workerAddress);
     }
 
     public void shutdown(TerminateWorkerMessage msg) {
         LOGGER.warn("Terminating worker");
+        // the pending failures need to be sent before the server is closed
+        closeFailureSender();
         closeQuietly(server);
         shutdownThread = new WorkerShutdownThread(msg.isRealShutdown());
         shutdownThread.start();
     }
 
+    private void closeFailureSender() {
+        ExceptionReporter.setFailureSink(null);
+        closeQuietly(failureSender);
+    }
+
     // just for testing
     void awaitShutdown() throws Exception {
         if (shutdownThread != null) {
@@ -126,7 +172,7 @@ public class Worker {
             Worker worker = new Worker(loadParameters(new File(getUserDir(), "parameters")));
             worker.start();
         } catch (Throwable e) {
-            ExceptionReporter.report(null, e);
+            ExceptionReporter.reportCrash(null, e);
             exitWithError(LOGGER, "Failed to start Hazelcast Simulator Worker!", e);
         }
     }
@@ -179,6 +225,8 @@ public class Worker {
 
         @Override
         public void doRun() {
+            closeFailureSender();
+            closeQuietly(oomeDetector);
             closeQuietly(driver);
             closeQuietly(performanceMonitor);
         }
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.utils.ExceptionReporter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
+import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static com.hazelcast.simulator.utils.CommonUtils.throwableToString;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sends the exceptions of the worker directly to the coordinator, instead of writing them to file and waiting for the agent
+ * to pick them up. So the coordinator gets notified within milliseconds.
+ *
+ * Exceptions are deduplicated by test and stacktrace fingerprint; the fingerprint ignores the exception messages, so a storm
+ * of the same exception doesn't flood the coordinator. The first occurrence is sent directly; the duplicates are counted and
+ * the count is sent once per report interval as a duplicate report, so the coordinator can still tell a single failure from
+ * thousands without counting the duplicates as new failures. If no duplicates were seen during an interval, the
+ * fingerprint is forgotten, so a later storm is reported again. The exceptions
+ * are sent by a dedicated thread which drains all pending exceptions in a single batch; so the threads running into
+ * exceptions never block on the messaging.
+ *
+ * If an exception can't be sent, it is written to file so the agent still picks it up.
+ */
+public class WorkerFailureSender implements ExceptionReporter.FailureSink, Closeable {
+
+    static final int MAX_BATCH_SIZE = 100;
+    static final long DEFAULT_REPORT_INTERVAL_MILLIS = SECONDS.toMillis(1);
+
+    private static final int MAX_CAUSE_DEPTH = 32;
+    private static final Logger LOGGER = LogManager.getLogger(WorkerFailureSender.class);
+
+    private final BlockingQueue<PendingFailure> queue = new LinkedBlockingQueue<>();
+    // the key is the test id and the fingerprint
+    private final ConcurrentMap<String, PendingFailure> fingerprints = new ConcurrentHashMap<>();
+    private final Server server;
+    private final SimulatorAddress workerAddress;
+    private final String agentAddress;
+    private final String workerId;
+    private final long reportIntervalMillis;
+    private final SenderThread thread = new SenderThread();
+    private volatile boolean closed;
+
+    public WorkerFailureSender(Server server, SimulatorAddress workerAddress, String agentAddress, String workerId) {
+        this(server, workerAddress, agentAddress, workerId, DEFAULT_REPORT_INTERVAL_MILLIS);
+    }
+
+    WorkerFailureSender(Server server, SimulatorAddress workerAddress, String agentAddress, String workerId,
+                        long reportIntervalMillis) {
+        this.server = server;
+        this.workerAddress = workerAddress;
+        this.agentAddress = agentAddress;
+        this.workerId = workerId;
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public boolean offer(String testId, Throwable cause) {
+        if (closed) {
+            return false;
+        }
+
+        String key = testId + ':' + Long.toHexString(fingerprint(cause));
+        PendingFailure failure = null;
+        for (; ; ) {
+            PendingFailure found = fingerprints.get(key);
+            if (found != null) {
+                if (found.addDuplicate()) {
+                    LOGGER.debug("Exception is a duplicate of an already reported exception");
+                    return true;
+                }
+                // the fingerprint has just been retired
+                fingerprints.remove(key, found);
+                continue;
+            }
+
+            if (failure == null) {
+                failure = new PendingFailure(key, testId, cause);
+            }
+            if (fingerprints.putIfAbsent(key, failure) == null) {
+                queue.add(failure);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Creates a fingerprint of the stacktrace of a Throwable, including its causes.
+     *
+     * The messages of the exceptions are not part of the fingerprint since they often contain variable content like keys.
+     *
+     * @param cause the Throwable
+     * @return the fingerprint
+     */
+    static long fingerprint(Throwable cause) {
+        long hash = 1;
+        Throwable current = cause;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            hash = 31 * hash + current.getClass().getName().hashCode();
+            for (StackTraceElement element : current.getStackTrace()) {
+                hash = 31 * hash + element.getClassName().hashCode();
+                hash = 31 * hash + element.getMethodName().hashCode();
+                hash = 31 * hash + element.getLineNumber();
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return hash;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        joinThread(thread);
+
+        sendPending();
+        // and the duplicates that have not been reported yet
+        reportDuplicates(false);
+    }
+
+    // sends the exceptions that have been accepted, but not yet sent
+    void sendPending() {
+        List<PendingFailure> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        send(batch);
+    }
+
+    private void send(List<PendingFailure> batch) {
+        for (PendingFailure failure : batch) {
+            send(failure, failure.takeDuplicates(), false);
+            failure.sent = true;
+        }
+    }
+
+    /**
+     * Sends the number of duplicates that have been seen since the last report, for every exception that has been sent.
+     *
+     * A fingerprint is forgotten if there were no duplicates during a whole report interval; so when there also were no
+     * duplicates at the previous report.
+     *
+     * @param retire {@code true} if the fingerprints without duplicates should be forgotten
+     */
+    void reportDuplicates(boolean retire) {
+        for (PendingFailure failure : fingerprints.values()) {
+            if (!failure.sent) {
+                continue;
+            }
+
+            int duplicates = failure.takeDuplicates();
+            if (duplicates > 0) {
+                failure.idle = false;
+                send(failure, duplicates, true);
+            } else if (!retire) {
+                continue;
+            } else if (!failure.idle) {
+                failure.idle = true;
+            } else if (failure.retire()) {
+                fingerprints.remove(failure.key, failure);
+            }
+        }
+    }
+
+    private void send(PendingFailure failure, int duplicates, boolean duplicateReport) {
+        FailureMessage msg = new FailureMessage("Worker ran into an unhandled exception", WORKER_EXCEPTION, workerAddress,
+                agentAddress, workerId, failure.testId, failure.cause)
+                .setDuplicates(duplicates, duplicateReport);
+
+        boolean sent;
+        try {
+            sent = server.sendCoordinator(msg);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to send failure to coordinator", e);
+            sent = false;
+        }
+
+        if (sent) {
+            return;
+        }
+
+        if (duplicateReport) {
+            // the agent would report the file as a new failure
+            LOGGER.warn(format("Failed to report %d duplicates of a failure of test %s", duplicates, failure.testId));
+        } else {
+            ExceptionReporter.writeToFile(failure.testId, failure.cause);
+        }
+    }
+
+    private static final class PendingFailure {
+
+        private static final int RETIRED = -1;
+
+        private final String key;
+        private final String testId;
+        private final String cause;
+        // the number of duplicates since the last report, or RETIRED if the fingerprint has been forgotten
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private volatile boolean sent;
+        // true if there were no duplicates at the last report; only accessed by the sender thread
+        private boolean idle;
+
+        private PendingFailure(String key, String testId, Throwable cause) {
+            this.key = key;
+            this.testId = testId;
+            this.cause = throwableToString(cause);
+        }
+
+        private boolean addDuplicate() {
+            for (; ; ) {
+                int current = duplicates.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (duplicates.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private int takeDuplicates() {
+            for (; ; ) {
+                int current = duplicates.get();
+                if (current <= 0) {
+                    return 0;
+                }
+                if (duplicates.compareAndSet(current, 0)) {
+                    return current;
+                }
+            }
+        }
+
+        private boolean retire() {
+            return duplicates.compareAndSet(0, RETIRED);
+        }
+    }
+
+    private final class SenderThread extends Thread {
+
+        private SenderThread() {
+            super("WorkerFailureSender");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<PendingFailure> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            long nextReportMillis = currentTimeMillis() + reportIntervalMillis;
+            while (!closed) {
+                try {
+                    PendingFailure failure = queue.poll(max(0, nextReportMillis - currentTimeMillis()), MILLISECONDS);
+                    if (failure != null) {
+                        batch.add(failure);
+                        queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                        send(batch);
+                        batch.clear();
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                if (currentTimeMillis() >= nextReportMillis) {
+                    reportDuplicates(true);
+                    nextReportMillis = currentTimeMillis() + reportIntervalMillis;
+                }
+            }
+        }
+    }
+}
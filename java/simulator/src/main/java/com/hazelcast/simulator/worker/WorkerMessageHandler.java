@@ -23,6 +23,7 @@ import com.hazelcast.simulator.protocol.message.SimulatorMessage;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
 import com.hazelcast.simulator.worker.messages.ExecuteScriptMessage;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import com.hazelcast.simulator.worker.messages.TerminateWorkerMessage;
@@ -58,6 +59,8 @@ public class WorkerMessageHandler implements MessageHandler {
             } else if (msg instanceof StopRunMessage) {
                 testManager.stopRun((StopRunMessage) msg);
                 promise.answer("ok");
+            } else if (msg instanceof RetuneMessage) {
+                retune((RetuneMessage) msg, promise);
             } else {
                 throw new HandleException("Unknown message:" + msg);
             }
@@ -67,4 +70,14 @@ public class WorkerMessageHandler implements MessageHandler {
             promise.answer(e);
         }
     }
+
+    private void retune(RetuneMessage msg, Promise promise) {
+        try {
+            testManager.retune(msg);
+            promise.answer("ok");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // an invalid retune is only answered; it isn't reported as failure since the test keeps running unchanged
+            promise.answer(e);
+        }
+    }
 }
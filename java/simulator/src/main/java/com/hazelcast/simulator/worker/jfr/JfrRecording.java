@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.jfr;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+import static java.lang.String.format;
+
+/**
+ * Records the run phase of a test using the Java Flight Recorder.
+ *
+ * The recording is split in a chunk for the warmup and a chunk for the actual run; these are written to
+ * '&lt;testId&gt;.warmup.jfr' and '&lt;testId&gt;.run.jfr' next to the '.hdr' files, so they are downloaded with the other
+ * artifacts of the worker. The phases are marked using {@link TestPhaseEvent} and intervals with a low throughput
+ * using {@link ThroughputDipEvent}.
+ *
+ * The jdk.jfr classes are only loaded when a recording is created; so this class should only be used if
+ * {@link #isAvailable()} returns true.
+ *
+ * This class is thread-safe.
+ */
+public final class JfrRecording {
+
+    static final String PHASE_WARMUP = "warmup";
+    static final String PHASE_RUN = "run";
+
+    private static final Logger LOGGER = LogManager.getLogger(JfrRecording.class);
+
+    private final String testId;
+    private final Configuration configuration;
+    private final File directory;
+    private Recording recording;
+    private TestPhaseEvent phaseEvent;
+    private boolean warmupCompleted;
+
+    /**
+     * Creates a JfrRecording.
+     *
+     * @param testId    the id of the test
+     * @param settings  the name of a JFR configuration like 'default' or 'profile', or the path of a .jfc file
+     * @param directory the directory to write the .jfr files to
+     * @throws IllegalTestException if the settings can't be loaded
+     */
+    public JfrRecording(String testId, String settings, File directory) {
+        this.testId = testId;
+        this.configuration = loadConfiguration(settings);
+        this.directory = directory;
+    }
+
+    private static Configuration loadConfiguration(String settings) {
+        try {
+            if (settings.endsWith(".jfc")) {
+                return Configuration.create(Paths.get(settings));
+            }
+            Configuration configuration = Configuration.getConfiguration(settings);
+            if (configuration == null) {
+                throw new IllegalTestException(format("recordJfrSettings [%s] is not a known JFR configuration", settings));
+            }
+            return configuration;
+        } catch (IOException | ParseException e) {
+            throw new IllegalTestException(format("Failed to load JFR configuration [%s]", settings), e);
+        }
+    }
+
+    /**
+     * Checks if the Java Flight Recorder is available in this JVM.
+     *
+     * @return true if available, false otherwise
+     */
+    public static boolean isAvailable() {
+        try {
+            Class<?> flightRecorderClass = Class.forName("jdk.jfr.FlightRecorder");
+            return (Boolean) flightRecorderClass.getMethod("isAvailable").invoke(null);
+        } catch (Exception | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts the recording; the first chunk is the warmup.
+     */
+    public synchronized void start() {
+        warmupCompleted = false;
+        startChunk(PHASE_WARMUP);
+        LOGGER.info(format("%s started JFR recording using configuration [%s]", testId, configuration.getName()));
+    }
+
+    /**
+     * Completes the warmup chunk and starts the run chunk.
+     *
+     * Calls are ignored if the recording isn't started or the warmup is already completed.
+     */
+    public synchronized void warmupCompleted() {
+        if (recording == null || warmupCompleted) {
+            return;
+        }
+
+        warmupCompleted = true;
+        completeChunk(PHASE_WARMUP);
+        startChunk(PHASE_RUN);
+    }
+
+    /**
+     * Stops the recording and writes the last chunk.
+     *
+     * Calls are ignored if the recording isn't started.
+     */
+    public synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+
+        completeChunk(warmupCompleted ? PHASE_RUN : PHASE_WARMUP);
+    }
+
+    /**
+     * Records a {@link ThroughputDipEvent}.
+     *
+     * @param intervalStartMillis the start of the interval
+     * @param intervalThroughput  the throughput of the interval
+     * @param averageThroughput   the average throughput
+     */
+    public void throughputDip(long intervalStartMillis, double intervalThroughput, double averageThroughput) {
+        ThroughputDipEvent event = new ThroughputDipEvent();
+        if (event.isEnabled()) {
+            event.testId = testId;
+            event.intervalStartMillis = intervalStartMillis;
+            event.intervalThroughput = intervalThroughput;
+            event.averageThroughput = averageThroughput;
+            event.commit();
+        }
+    }
+
+    File getFile(String phase) {
+        return new File(directory, testId + '.' + phase + ".jfr");
+    }
+
+    private void startChunk(String phase) {
+        recording = new Recording(configuration);
+        recording.setName(testId + '-' + phase);
+        recording.setToDisk(true);
+        recording.start();
+
+        phaseEvent = new TestPhaseEvent(testId, phase);
+        phaseEvent.begin();
+    }
+
+    private void completeChunk(String phase) {
+        phaseEvent.commit();
+        phaseEvent = null;
+
+        File file = getFile(phase);
+        try {
+            recording.stop();
+            recording.dump(file.toPath());
+            LOGGER.info(format("%s written JFR recording of the %s to [%s]", testId, phase, file.getAbsolutePath()));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(format("%s failed to write JFR recording to [%s]", testId, file.getAbsolutePath()), e);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event for a timestep method invocation with a latency above the 'recordSlowTimeStepThresholdNs'. It makes it
+ * possible to correlate outliers in the latency with e.g. GC, safepoints or lock contention.
+ *
+ * The event is emitted by the generated TimeStepLoop; the thread is recorded by JFR as the event thread.
+ */
+@Name("com.hazelcast.simulator.SlowTimeStep")
+@Label("Slow TimeStep")
+@Category("Simulator")
+@Description("A timestep method invocation with a latency above the threshold")
+@StackTrace(false)
+public class SlowTimeStepEvent extends Event {
+
+    @Label("Execution Group")
+    String executionGroup;
+
+    @Label("Method")
+    String method;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    /**
+     * Checks if the event is enabled; so if there is a running recording that records this event.
+     *
+     * @return true if enabled, false otherwise
+     */
+    public static boolean isEventEnabled() {
+        return new SlowTimeStepEvent().isEnabled();
+    }
+
+    /**
+     * Commits a SlowTimeStepEvent.
+     *
+     * @param executionGroup the execution group of the timestep method
+     * @param method         the name of the timestep method
+     * @param latencyNanos   the latency of the invocation in nanoseconds
+     */
+    public static void commit(String executionGroup, String method, long latencyNanos) {
+        SlowTimeStepEvent event = new SlowTimeStepEvent();
+        event.executionGroup = executionGroup;
+        event.method = method;
+        event.latency = latencyNanos;
+        event.commit();
+    }
+}
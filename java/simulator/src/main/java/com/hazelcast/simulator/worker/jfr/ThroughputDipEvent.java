@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * A JFR event that marks an interval in which the throughput of a test dropped significantly below its average.
+ */
+@Name("com.hazelcast.simulator.ThroughputDip")
+@Label("Throughput Dip")
+@Category("Simulator")
+@Description("An interval with a throughput significantly below the average throughput of the test")
+@StackTrace(false)
+public class ThroughputDipEvent extends Event {
+
+    @Label("Test ID")
+    String testId;
+
+    @Label("Interval Start")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long intervalStartMillis;
+
+    @Label("Interval Throughput")
+    @Description("The throughput of the interval in operations per second")
+    double intervalThroughput;
+
+    @Label("Average Throughput")
+    @Description("The average throughput of the test in operations per second")
+    double averageThroughput;
+}
@@ -16,9 +16,12 @@
 package com.hazelcast.simulator.worker.messages;
 
 import com.google.gson.annotations.SerializedName;
-import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+import com.hazelcast.simulator.protocol.message.BinarySimulatorMessage;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,8 +32,12 @@ import java.util.Map;
  * This Message is 'mandatory' to handke. The consequence of not implementing
  * it is no performance information is available on the coordinator for logging
  * purposes.
+ * <p/>
+ * This Message is sent by every Worker every interval; so it uses the binary format to keep the overhead low.
  */
-public class PerformanceStatsMessage implements SimulatorMessage {
+public class PerformanceStatsMessage implements BinarySimulatorMessage {
+
+    private static final byte VERSION = 3;
 
     /**
      * Map of {@link PerformanceStats} per Simulator Test.
@@ -48,4 +55,28 @@ public class PerformanceStatsMessage implements SimulatorMessage {
     public Map<String, PerformanceStats> getPerformanceStats() {
         return performanceStatsMap;
     }
+
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeInt(performanceStatsMap.size());
+        for (Map.Entry<String, PerformanceStats> entry : performanceStatsMap.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public void readFrom(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of " + getClass().getSimpleName());
+        }
+
+        int size = in.readInt();
+        for (int k = 0; k < size; k++) {
+            String testId = in.readUTF();
+            performanceStatsMap.put(testId, PerformanceStats.readFrom(in));
+        }
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.messages;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+
+/**
+ * Changes the rate and/or the number of active threads of an execution group of a Simulator Test while it is in the
+ * {@link TestPhase#RUN} phase; e.g. to see how the system behaves under a burst of load.
+ * <p/>
+ * A value of 0 leaves the setting unchanged. If a duration is set, the previous settings are restored after the duration
+ * has expired; so a 2x burst for 30 seconds is a rateFactor of 2 with a durationSeconds of 30.
+ */
+public class RetuneMessage implements SimulatorMessage {
+
+    /**
+     * The name of the test to retune.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The execution group to retune.
+     */
+    @SerializedName("executionGroup")
+    private final String executionGroup;
+
+    /**
+     * The new rate per second of the execution group.
+     */
+    @SerializedName("ratePerSecond")
+    private final double ratePerSecond;
+
+    /**
+     * The factor to multiply the current rate of the execution group with.
+     */
+    @SerializedName("rateFactor")
+    private final double rateFactor;
+
+    /**
+     * The new number of active threads of the execution group.
+     */
+    @SerializedName("threadCount")
+    private final int threadCount;
+
+    /**
+     * The number of seconds after which the previous settings are restored.
+     */
+    @SerializedName("durationSeconds")
+    private final int durationSeconds;
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public RetuneMessage(String testId, String executionGroup, double ratePerSecond, double rateFactor,
+                         int threadCount, int durationSeconds) {
+        this.testId = testId;
+        this.executionGroup = executionGroup;
+        this.ratePerSecond = ratePerSecond;
+        this.rateFactor = rateFactor;
+        this.threadCount = threadCount;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getExecutionGroup() {
+        return executionGroup;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public double getRateFactor() {
+        return rateFactor;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "RetuneMessage{"
+                + "testId='" + testId + '\''
+                + ", executionGroup='" + executionGroup + '\''
+                + ", ratePerSecond=" + ratePerSecond
+                + ", rateFactor=" + rateFactor
+                + ", threadCount=" + threadCount
+                + ", durationSeconds=" + durationSeconds
+                + '}';
+    }
+}
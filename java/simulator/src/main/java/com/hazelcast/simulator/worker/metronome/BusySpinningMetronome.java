@@ -35,27 +35,39 @@ import static org.apache.commons.lang3.RandomUtils.nextLong;
  */
 public final class BusySpinningMetronome implements Metronome {
 
-    private final long intervalNanos;
+    private final BusySpinningMetronome master;
+    private final int threadCount;
     private final boolean accountForCoordinatedOmission;
+    // only used on the master; the interval of a single thread, so the interval of the execution group * threadCount
+    private volatile long intervalNanos;
     private long nextNanos;
 
     BusySpinningMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
-        this.intervalNanos = intervalNanos;
+        this(intervalNanos, 1, accountForCoordinatedOmission);
+    }
+
+    private BusySpinningMetronome(long intervalNanos, int threadCount, boolean accountForCoordinatedOmission) {
+        this.master = this;
+        this.threadCount = threadCount;
+        this.intervalNanos = intervalNanos * threadCount;
         this.accountForCoordinatedOmission = accountForCoordinatedOmission;
     }
 
     public BusySpinningMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
-        this(intervalNanos * threadCount, binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+        this(intervalNanos, threadCount,
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
     }
 
     public BusySpinningMetronome(Metronome m) {
         BusySpinningMetronome master = (BusySpinningMetronome) m;
-        this.intervalNanos = master.intervalNanos;
+        this.master = master.master;
+        this.threadCount = master.threadCount;
         this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
     }
 
     @Override
     public long waitForNext() {
+        long intervalNanos = master.intervalNanos;
         // set random interval on the first run
         if (nextNanos == 0) {
             nextNanos = nanoTime() + nextLong(0, intervalNanos);
@@ -71,7 +83,20 @@ public final class BusySpinningMetronome implements Metronome {
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
+    @Override
+    public void setIntervalNanos(long intervalNanos) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("intervalNanos must be larger than 0, found " + intervalNanos);
+        }
+        master.intervalNanos = intervalNanos * threadCount;
+    }
+
+    /**
+     * Returns the interval between 2 executions of a single thread.
+     *
+     * @return the interval in nanoseconds
+     */
     public long getIntervalNanos() {
-        return intervalNanos;
+        return master.intervalNanos;
     }
 }
@@ -36,11 +36,14 @@ import static java.util.concurrent.locks.LockSupport.parkNanos;
  */
 public class ConstantCombinedRateMetronome implements Metronome {
 
-    private final long intervalNanos;
+    private final ConstantCombinedRateMetronome master;
     private final boolean accountForCoordinatedOmission;
     private final AtomicLong nextExpectedStartNanos;
+    // only used on the master
+    private volatile long intervalNanos;
 
     ConstantCombinedRateMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
+        this.master = this;
         this.intervalNanos = intervalNanos;
         this.accountForCoordinatedOmission = accountForCoordinatedOmission;
         this.nextExpectedStartNanos = new AtomicLong(nanoTime());
@@ -52,7 +55,7 @@ public class ConstantCombinedRateMetronome implements Metronome {
 
     public ConstantCombinedRateMetronome(Metronome m) {
         ConstantCombinedRateMetronome master = (ConstantCombinedRateMetronome) m;
-        this.intervalNanos = master.intervalNanos;
+        this.master = master.master;
         this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
         this.nextExpectedStartNanos = master.nextExpectedStartNanos;
     }
@@ -69,7 +72,7 @@ public class ConstantCombinedRateMetronome implements Metronome {
             }
 
             // if we manage to cas the item, we can execute the request, otherwise continue waiting.
-            if (nextExpectedStartNanos.compareAndSet(expectedStartNanos, expectedStartNanos + intervalNanos)) {
+            if (nextExpectedStartNanos.compareAndSet(expectedStartNanos, expectedStartNanos + master.intervalNanos)) {
                 break;
             }
         }
@@ -77,7 +80,15 @@ public class ConstantCombinedRateMetronome implements Metronome {
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
+    @Override
+    public void setIntervalNanos(long intervalNanos) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("intervalNanos must be larger than 0, found " + intervalNanos);
+        }
+        master.intervalNanos = intervalNanos;
+    }
+
     public long getIntervalNanos() {
-        return intervalNanos;
+        return master.intervalNanos;
     }
 }
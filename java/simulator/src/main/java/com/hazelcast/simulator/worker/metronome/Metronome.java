@@ -31,5 +31,18 @@ public interface Metronome {
      * @return the time the call was supposed to execute in nanos.
      */
     long waitForNext();
+
+    /**
+     * Changes the interval between executions of the execution group while the test is running; e.g. to ramp up the rate.
+     *
+     * The interval is set on the master metronome and is picked up by all metronomes created from it; so it is the same
+     * interval as passed to the constructor of the master metronome. This method is thread-safe.
+     *
+     * @param intervalNanos the new interval in nanoseconds. Must be larger than 0.
+     * @throws UnsupportedOperationException if the Metronome doesn't support changing the interval
+     */
+    default void setIntervalNanos(long intervalNanos) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support changing the interval");
+    }
 }
 
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.round;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link Metronome} that generates an open-loop load.
+ * <p>
+ * With the other metronomes the timestep threads determine the rate of requests. If the system being tested stalls, the
+ * threads stall as well and no new requests are issued; the offered load drops, even though the latency is corrected for
+ * coordinated omission.
+ * <p>
+ * With the OpenLoopMetronome the requests arrive at a fixed or Poisson arrival rate, independent of the timestep threads,
+ * and the timestep threads act as a pool of executors that claim them. Only the intended start time of the next unclaimed
+ * request is stored; every request before it has been claimed and every request after it is still to come. So if the
+ * executors fall behind, the backlog is the set of requests with an intended start time in the past, and none of them is
+ * lost: the executors claim them one by one as soon as they are free. The latency is determined from the intended start
+ * time of the request.
+ * <p>
+ * A request that is claimed more than a single interval after its intended start time is counted as late. The number of
+ * late requests is reported every interval.
+ * <p>
+ * The threadCount should be large enough to process the rate of requests, since that is the pool of executors.
+ */
+public final class OpenLoopMetronome implements Metronome, Closeable {
+
+    static final String FIXED = "fixed";
+    static final String POISSON = "poisson";
+
+    private static final Logger LOGGER = LogManager.getLogger(OpenLoopMetronome.class);
+    // the maximum time a waiting executor parks; so it notices a stop or close within a reasonable time
+    private static final long MAX_PARK_NANOS = MILLISECONDS.toNanos(100);
+
+    // shared by the master and all metronomes created from it
+    private final Schedule schedule;
+
+    OpenLoopMetronome(long intervalNanos, boolean poisson, boolean accountForCoordinatedOmission,
+                      TestContext testContext, String executionGroup) {
+        this.schedule = new Schedule(intervalNanos, poisson, accountForCoordinatedOmission, testContext, executionGroup);
+    }
+
+    public OpenLoopMetronome(long intervalNanos, PropertyBinding binding, String prefix) {
+        this(intervalNanos,
+                loadPoisson(binding, prefix),
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true),
+                binding.getTestContext(),
+                prefix);
+    }
+
+    public OpenLoopMetronome(Metronome m) {
+        this.schedule = ((OpenLoopMetronome) m).schedule;
+    }
+
+    private static boolean loadPoisson(PropertyBinding binding, String prefix) {
+        String property = toPropertyName(prefix, "arrivalDistribution");
+        String distribution = binding.load(property);
+        if (distribution == null || FIXED.equals(distribution)) {
+            return false;
+        } else if (POISSON.equals(distribution)) {
+            return true;
+        }
+        throw new IllegalTestException(format("%s has an invalid value [%s], valid values are [%s, %s]",
+                property, distribution, FIXED, POISSON));
+    }
+
+    @Override
+    public long waitForNext() {
+        Schedule schedule = this.schedule;
+        for (; ; ) {
+            long intendedStartNanos = schedule.nextArrivalNanos();
+            long now = nanoTime();
+            if (now < intendedStartNanos) {
+                if (schedule.isStopped()) {
+                    // we return to let the timestep thread detect that it needs to stop
+                    return now;
+                }
+                parkNanos(min(intendedStartNanos - now, MAX_PARK_NANOS));
+                continue;
+            }
+
+            // the request is due; if another executor claimed it first, we try the next one
+            if (schedule.claim(intendedStartNanos)) {
+                if (now - intendedStartNanos > schedule.intervalNanos) {
+                    schedule.late.increment();
+                }
+                return schedule.accountForCoordinatedOmission ? intendedStartNanos : now;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The new interval is used for the arrivals after the next unclaimed request.
+     */
+    @Override
+    public void setIntervalNanos(long intervalNanos) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("intervalNanos must be larger than 0, found " + intervalNanos);
+        }
+        schedule.intervalNanos = intervalNanos;
+    }
+
+    public long getIntervalNanos() {
+        return schedule.intervalNanos;
+    }
+
+    /**
+     * Returns the number of requests that were claimed more than a single interval after their intended start time.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of late requests
+     */
+    public long lateCount() {
+        return schedule.late.sum();
+    }
+
+    /**
+     * Returns the number of requests that were claimed by the executors.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of claimed requests
+     */
+    public long claimedCount() {
+        return schedule.claimed.sum();
+    }
+
+    @Override
+    public void close() {
+        Schedule schedule = this.schedule;
+        if (schedule.closed) {
+            return;
+        }
+        schedule.closed = true;
+
+        String summary = format("Open loop metronome of executionGroup [%s] completed: claimed=%d late=%d",
+                schedule.executionGroup, claimedCount(), lateCount());
+        LOGGER.info(summary);
+        if (lateCount() > 0 && schedule.testContext != null) {
+            schedule.testContext.echoCoordinator(summary);
+        }
+    }
+
+    /**
+     * The arrivals of an execution group; shared by all timestep threads of the group.
+     */
+    private static final class Schedule {
+
+        private static final long NOT_STARTED = Long.MIN_VALUE;
+
+        private final boolean poisson;
+        private final boolean accountForCoordinatedOmission;
+        private final TestContext testContext;
+        private final String executionGroup;
+        // the intended start time of the next request that hasn't been claimed
+        private final AtomicLong nextArrivalNanos = new AtomicLong(NOT_STARTED);
+        private final LongAdder late = new LongAdder();
+        private final LongAdder claimed = new LongAdder();
+        private volatile long intervalNanos;
+        private volatile boolean closed;
+
+        private Schedule(long intervalNanos, boolean poisson, boolean accountForCoordinatedOmission,
+                         TestContext testContext, String executionGroup) {
+            this.intervalNanos = intervalNanos;
+            this.poisson = poisson;
+            this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+            this.testContext = testContext;
+            this.executionGroup = executionGroup;
+        }
+
+        private long nextArrivalNanos() {
+            long next = nextArrivalNanos.get();
+            if (next == NOT_STARTED) {
+                // the arrivals start when the first executor asks for a request
+                nextArrivalNanos.compareAndSet(NOT_STARTED, nanoTime() + nextInterArrivalNanos());
+                next = nextArrivalNanos.get();
+            }
+            return next;
+        }
+
+        private boolean claim(long intendedStartNanos) {
+            if (nextArrivalNanos.compareAndSet(intendedStartNanos, intendedStartNanos + nextInterArrivalNanos())) {
+                claimed.increment();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isStopped() {
+            return closed || (testContext != null && testContext.isStopped());
+        }
+
+        private long nextInterArrivalNanos() {
+            long intervalNanos = this.intervalNanos;
+            if (!poisson) {
+                return intervalNanos;
+            }
+
+            // the inter-arrival times of a Poisson process are exponentially distributed
+            double uniform = ThreadLocalRandom.current().nextDouble();
+            return max(1, round(-log(1 - uniform) * intervalNanos));
+        }
+    }
+}
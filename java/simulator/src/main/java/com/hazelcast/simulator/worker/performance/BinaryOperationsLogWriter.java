@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the intervals in a compact binary format; which doesn't need any formatting of numbers.
+ *
+ * The file starts with the {@link #MAGIC} and the {@link #VERSION} followed by a length prefixed record per interval:
+ * <ol>
+ * <li>int: the length of the record excluding the length itself</li>
+ * <li>long: the epoch time in ms</li>
+ * <li>long: the total number of operations</li>
+ * <li>long: the number of operations of the interval</li>
+ * <li>double: the throughput of the interval</li>
+ * <li>double: the allocated bytes per operation; negative if it can't be measured</li>
+ * <li>byte: 1 if the interval is part of the warmup, 0 otherwise</li>
+ * <li>long: the number of late operations of the interval; negative if it isn't tracked. Missing in older files.</li>
+ * </ol>
+ * All values are big endian. Because of the length prefix, fields can be added to the end of a record without breaking
+ * readers of older versions. The human readable timestamp isn't stored since it can be derived from the epoch time.
+ *
+ * Use the {@link OperationsLogConverter} to convert a file to csv.
+ */
+final class BinaryOperationsLogWriter implements OperationsLogWriter {
+
+    static final int MAGIC = 0x53494d4f;
+    static final int VERSION = 1;
+    // the length of a record before the late operations were added
+    static final int MIN_RECORD_LENGTH = 3 * Long.BYTES + 2 * Double.BYTES + 1;
+    static final int RECORD_LENGTH = MIN_RECORD_LENGTH + Long.BYTES;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final File file;
+    private FileChannel channel;
+
+    BinaryOperationsLogWriter(File file) {
+        this.file = checkNotNull(file, "file can't be null");
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void write(long timeMillis,
+                      String timestamp,
+                      long operationsTotal,
+                      long operationsDelta,
+                      double operationsPerSecond,
+                      double allocatedBytesPerOperation,
+                      long lateOperationsDelta,
+                      boolean warmup) {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file.toPath(), CREATE, WRITE, APPEND);
+                if (channel.size() == 0) {
+                    buffer.putInt(MAGIC).putInt(VERSION);
+                }
+            }
+
+            if (buffer.remaining() < Integer.BYTES + RECORD_LENGTH) {
+                drain();
+            }
+
+            buffer.putInt(RECORD_LENGTH)
+                    .putLong(timeMillis)
+                    .putLong(operationsTotal)
+                    .putLong(operationsDelta)
+                    .putDouble(operationsPerSecond)
+                    .putDouble(allocatedBytesPerOperation)
+                    .put((byte) (warmup ? 1 : 0))
+                    .putLong(lateOperationsDelta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to [" + file + "]", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush [" + file + "]", e);
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close [" + file + "]", e);
+        } finally {
+            channel = null;
+            buffer.clear();
+        }
+    }
+}
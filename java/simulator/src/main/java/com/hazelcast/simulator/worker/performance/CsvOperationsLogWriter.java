@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes the intervals in csv format.
+ */
+final class CsvOperationsLogWriter implements OperationsLogWriter {
+
+    static final String HEADER
+            = "epoch,timestamp,operations,operations-delta,operations/second,allocated-bytes/operation,late-operations-delta,"
+            + "warmup\n";
+
+    private final StringBuilder sb = new StringBuilder();
+    private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+    private final File file;
+    private Writer writer;
+
+    CsvOperationsLogWriter(File file) {
+        this.file = checkNotNull(file, "file can't be null");
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void write(long timeMillis,
+                      String timestamp,
+                      long operationsTotal,
+                      long operationsDelta,
+                      double operationsPerSecond,
+                      double allocatedBytesPerOperation,
+                      long lateOperationsDelta,
+                      boolean warmup) {
+        sb.setLength(0);
+        // ms are expressed in epoch time after the decimal point
+        sb.append(format.format(timeMillis * 1d / SECONDS.toMillis(1)));
+        sb.append(',').append(timestamp);
+        sb.append(',').append(operationsTotal);
+        sb.append(',').append(operationsDelta);
+        sb.append(',').append(format.format(operationsPerSecond));
+        // left empty if the allocations can't be measured
+        sb.append(',');
+        if (allocatedBytesPerOperation >= 0) {
+            sb.append(format.format(allocatedBytesPerOperation));
+        }
+        // left empty if the late operations aren't tracked; they are only tracked for the OpenLoopMetronome
+        sb.append(',');
+        if (lateOperationsDelta >= 0) {
+            sb.append(lateOperationsDelta);
+        }
+        // 1 if the interval is part of the warmup; so the warmup boundary is visible in the file
+        sb.append(',').append(warmup ? 1 : 0);
+        sb.append('\n');
+
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+                writer.write(HEADER);
+            }
+            writer.append(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to [" + file + "]", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush [" + file + "]", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close [" + file + "]", e);
+        } finally {
+            writer = null;
+        }
+    }
+}
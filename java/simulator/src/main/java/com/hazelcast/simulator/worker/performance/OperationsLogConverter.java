@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.worker.performance.BinaryOperationsLogWriter.MAGIC;
+import static com.hazelcast.simulator.worker.performance.BinaryOperationsLogWriter.MIN_RECORD_LENGTH;
+import static com.hazelcast.simulator.worker.performance.BinaryOperationsLogWriter.RECORD_LENGTH;
+import static com.hazelcast.simulator.worker.performance.BinaryOperationsLogWriter.VERSION;
+import static com.hazelcast.simulator.worker.performance.OperationsMonitor.TIMESTAMP_PATTERN;
+import static java.lang.String.format;
+
+/**
+ * Converts an operations log file in the binary format to csv.
+ *
+ * A record that is only partially written, e.g. because the worker was killed, is ignored.
+ */
+public final class OperationsLogConverter {
+
+    private OperationsLogConverter() {
+    }
+
+    /**
+     * Converts an operations log file in the binary format to csv.
+     *
+     * @param binaryFile the file to convert
+     * @param csvFile    the csv file to write to; if it exists, it is overwritten
+     * @return the number of converted records
+     * @throws UncheckedIOException     if the files could not be read or written
+     * @throws IllegalArgumentException if the binary file isn't an operations log file or has an unsupported version
+     */
+    public static int convert(File binaryFile, File csvFile) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(TIMESTAMP_PATTERN);
+        int records = 0;
+        deleteQuiet(csvFile);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(binaryFile)));
+             OperationsLogWriter writer = new CsvOperationsLogWriter(csvFile)) {
+            readHeader(binaryFile, in);
+
+            byte[] record = new byte[RECORD_LENGTH];
+            for (; ; ) {
+                int length;
+                try {
+                    length = in.readInt();
+                    if (length < MIN_RECORD_LENGTH) {
+                        throw new IllegalArgumentException(format("[%s] contains a record with invalid length %d",
+                                binaryFile, length));
+                    }
+                    // a record of an older version is shorter; it doesn't contain the late operations
+                    in.readFully(record, 0, Math.min(length, RECORD_LENGTH));
+                    skipFully(in, length - RECORD_LENGTH);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                long timeMillis = buffer.getLong();
+                long operationsTotal = buffer.getLong();
+                long operationsDelta = buffer.getLong();
+                double operationsPerSecond = buffer.getDouble();
+                double allocatedBytesPerOperation = buffer.getDouble();
+                boolean warmup = buffer.get() == 1;
+                long lateOperationsDelta = length < RECORD_LENGTH ? -1 : buffer.getLong();
+                writer.write(
+                        timeMillis,
+                        dateFormat.format(new Date(timeMillis)),
+                        operationsTotal,
+                        operationsDelta,
+                        operationsPerSecond,
+                        allocatedBytesPerOperation,
+                        lateOperationsDelta,
+                        warmup);
+                records++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not convert [" + binaryFile + "] to [" + csvFile + "]", e);
+        }
+        return records;
+    }
+
+    private static void readHeader(File binaryFile, DataInputStream in) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException(format("[%s] isn't an operations log file", binaryFile));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(format("[%s] has unsupported version %d", binaryFile, version));
+            }
+        } catch (EOFException e) {
+            throw new IllegalArgumentException(format("[%s] isn't an operations log file", binaryFile));
+        }
+    }
+
+    private static void skipFully(DataInputStream in, int bytes) throws IOException {
+        // fields added by newer versions are skipped
+        for (int remaining = bytes; remaining > 0; remaining--) {
+            in.readByte();
+        }
+    }
+
+    /**
+     * Returns the csv file for a binary file; so 'operations.bin' becomes 'operations.csv'.
+     *
+     * @param binaryFile the binary file
+     * @return the csv file
+     */
+    public static File toCsvFile(File binaryFile) {
+        String name = binaryFile.getName();
+        if (name.endsWith(".bin")) {
+            name = name.substring(0, name.length() - ".bin".length());
+        }
+        return new File(binaryFile.getParentFile(), name + ".csv");
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: OperationsLogConverter <file.bin> [file.csv]");
+            System.exit(1);
+        }
+
+        File binaryFile = new File(args[0]);
+        File csvFile = args.length == 2 ? new File(args[1]) : toCsvFile(binaryFile);
+        int records = convert(binaryFile, csvFile);
+        System.out.println(format("Converted %d records from [%s] to [%s]", records, binaryFile, csvFile));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The format of the operations log files of the {@link OperationsMonitor}.
+ *
+ * It is configured using the 'WORKER_OPERATIONS_LOG_FORMAT' simulator property.
+ */
+public enum OperationsLogFormat {
+
+    /**
+     * Human readable csv; this is the default.
+     */
+    CSV(".csv"),
+
+    /**
+     * Compact length prefixed binary records; see {@link BinaryOperationsLogWriter}. The files are converted to csv when
+     * they are closed.
+     */
+    BINARY(".bin");
+
+    private final String extension;
+
+    OperationsLogFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Parses an OperationsLogFormat; the value is case insensitive.
+     *
+     * @param value the value to parse
+     * @return the parsed OperationsLogFormat or {@link #CSV} if value is null or empty
+     * @throws IllegalArgumentException if the value isn't a known format
+     */
+    public static OperationsLogFormat fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return CSV;
+        }
+
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown operations log format [%s], valid values are %s",
+                    value, Arrays.toString(values()).toLowerCase(Locale.ENGLISH)));
+        }
+    }
+
+    File file(File directory, String name) {
+        return new File(directory, name + extension);
+    }
+
+    OperationsLogWriter newWriter(File file) {
+        return this == BINARY ? new BinaryOperationsLogWriter(file) : new CsvOperationsLogWriter(file);
+    }
+}
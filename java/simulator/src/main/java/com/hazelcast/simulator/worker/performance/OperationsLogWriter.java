@@ -15,53 +15,62 @@
  */
 package com.hazelcast.simulator.worker.performance;
 
+import java.io.Closeable;
 import java.io.File;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Locale;
-
-import static com.hazelcast.simulator.utils.FileUtils.appendText;
-import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * Responsible for writing to performance stats to disk in csv format.
+ * Writes the operation counts of a test, or of all tests of the worker, to disk for every interval of the
+ * {@link OperationsMonitor}.
+ *
+ * A writer keeps its file open; so writing an interval doesn't need to open and close the file. Written intervals are
+ * buffered and only guaranteed to be on disk after {@link #flush()} or {@link #close()}.
+ *
+ * The format of the file is determined by the {@link OperationsLogFormat}. This class is not thread-safe.
  */
-final class OperationsLogWriter {
-
-    private final StringBuffer sb = new StringBuffer();
-    private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
-    private final File file;
-    private boolean headerWritten;
-
-    OperationsLogWriter(File file) {
-        this.file = checkNotNull(file, "file can't be null");
-    }
+interface OperationsLogWriter extends Closeable {
 
-    private void writeHeader() {
-        String columns = "epoch,timestamp,operations,operations-delta,operations/second\n";
-        appendText(columns, file);
-    }
+    /**
+     * Returns the file this writer writes to.
+     *
+     * @return the file
+     */
+    File getFile();
 
+    /**
+     * Writes an interval.
+     *
+     * @param timeMillis                 the epoch time of the interval in ms
+     * @param timestamp                  the human readable time of the interval
+     * @param operationsTotal            the total number of operations
+     * @param operationsDelta            the number of operations of the interval
+     * @param operationsPerSecond        the throughput of the interval
+     * @param allocatedBytesPerOperation the allocated bytes per operation or a negative value if it can't be measured
+     * @param lateOperationsDelta        the number of operations of the interval that started more than a single interval
+     *                                   after their intended start time or a negative value if it isn't tracked
+     * @param warmup                     true if the interval is part of the warmup
+     * @throws java.io.UncheckedIOException if the interval could not be written
+     */
     void write(long timeMillis,
                String timestamp,
                long operationsTotal,
                long operationsDelta,
-               double operationsPerSecond) {
+               double operationsPerSecond,
+               double allocatedBytesPerOperation,
+               long lateOperationsDelta,
+               boolean warmup);
 
-        if (!headerWritten) {
-            writeHeader();
-            headerWritten = true;
-        }
+    /**
+     * Writes the buffered intervals to disk.
+     *
+     * @throws java.io.UncheckedIOException if the intervals could not be written
+     */
+    void flush();
 
-        sb.setLength(0);
-        // ms are expressed in epoch time after the decimal point
-        sb.append(format.format(timeMillis * 1d / SECONDS.toMillis(1)));
-        sb.append(',').append(timestamp);
-        sb.append(',').append(operationsTotal);
-        sb.append(',').append(operationsDelta);
-        sb.append(',').append(format.format(operationsPerSecond));
-        sb.append('\n');
-        appendText(sb.toString(), file);
-    }
+    /**
+     * Flushes the buffered intervals and closes the file. Nothing happens if nothing was written.
+     *
+     * @throws java.io.UncheckedIOException if the intervals could not be written
+     */
+    @Override
+    void close();
 }
@@ -27,7 +27,12 @@ import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
@@ -46,6 +51,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  */
 public class OperationsMonitor implements Closeable {
 
+    static final String TIMESTAMP_PATTERN = "dd/MM/yyyy HH:mm:ss";
+
     private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
     private static final long WAIT_FOR_TEST_CONTAINERS_DELAY_NANOS = MILLISECONDS.toNanos(100);
     private static final Logger LOGGER = LogManager.getLogger(OperationsMonitor.class);
@@ -55,13 +62,35 @@ public class OperationsMonitor implements Closeable {
     private final TestManager testManager;
     private final Server server;
     private final int updateIntervalSeconds;
+    private final OperationsLogFormat logFormat;
+    private final PrometheusEndpoint prometheusEndpoint;
 
     public OperationsMonitor(Server server,
                              TestManager testManager,
                              int updateIntervalSeconds) {
+        this(server, testManager, updateIntervalSeconds, OperationsLogFormat.CSV, null);
+    }
+
+    /**
+     * Creates an OperationsMonitor.
+     *
+     * @param server                the Server to send the performance stats to the coordinator
+     * @param testManager           the TestManager with the running tests
+     * @param updateIntervalSeconds the update interval in seconds; 0 or smaller disables the monitor
+     * @param logFormat             the format of the operations log files
+     * @param prometheusEndpoint    the PrometheusEndpoint to update every interval; null if there is none. The endpoint is
+     *                              started and closed by the OperationsMonitor.
+     */
+    public OperationsMonitor(Server server,
+                             TestManager testManager,
+                             int updateIntervalSeconds,
+                             OperationsLogFormat logFormat,
+                             PrometheusEndpoint prometheusEndpoint) {
         this.testManager = testManager;
         this.server = server;
         this.updateIntervalSeconds = updateIntervalSeconds;
+        this.logFormat = logFormat;
+        this.prometheusEndpoint = prometheusEndpoint;
         this.thread = new OperationsMonitorThread();
         thread.setUncaughtExceptionHandler((t, e) -> LOGGER.fatal(e.getMessage(), e));
     }
@@ -69,10 +98,19 @@ public class OperationsMonitor implements Closeable {
     public void start() {
         if (updateIntervalSeconds < 1) {
             LOGGER.info("PerformanceMonitor disabled");
+            if (prometheusEndpoint != null) {
+                LOGGER.warn("Prometheus endpoint disabled since it requires the PerformanceMonitor");
+                prometheusEndpoint.close();
+            }
             return;
         }
-        LOGGER.info(format("PerformanceMonitor enabled with interval: %d seconds", updateIntervalSeconds));
+        LOGGER.info(format("PerformanceMonitor enabled with interval: %d seconds, operations log format: %s",
+                updateIntervalSeconds, logFormat));
         thread.start();
+        if (prometheusEndpoint != null) {
+            prometheusEndpoint.start();
+            LOGGER.info(format("Prometheus endpoint listening on port %d", prometheusEndpoint.getPort()));
+        }
     }
 
     @Override
@@ -81,6 +119,9 @@ public class OperationsMonitor implements Closeable {
             return;
         }
         LOGGER.info("Shutting down WorkerPerformanceMonitor");
+        if (prometheusEndpoint != null) {
+            prometheusEndpoint.close();
+        }
         joinThread(thread, MINUTES.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
     }
 
@@ -91,7 +132,9 @@ public class OperationsMonitor implements Closeable {
 
         private final long scanIntervalNanos = SECONDS.toNanos(1);
         private final OperationsLogWriter globalOperationsLogWriter;
-        private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+        // the files are kept open while a test is running; the key is the test id
+        private final Map<String, OperationsLogWriter> testOperationsLogWriters = new HashMap<>();
+        private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat(TIMESTAMP_PATTERN);
         private final long updateIntervalMillis;
         private final List<TestContainer> dirtyContainers = new ArrayList<>();
 
@@ -99,7 +142,7 @@ public class OperationsMonitor implements Closeable {
             super("WorkerOperationsMonitor");
             setDaemon(true);
             this.updateIntervalMillis = SECONDS.toMillis(updateIntervalSeconds);
-            this.globalOperationsLogWriter = new OperationsLogWriter(new File(getUserDir(), "operations.csv"));
+            this.globalOperationsLogWriter = logFormat.newWriter(logFormat.file(getUserDir(), "operations"));
         }
 
         @Override
@@ -116,6 +159,11 @@ public class OperationsMonitor implements Closeable {
                         persist(currentTimeMillis);
                     }
 
+                    if (prometheusEndpoint != null) {
+                        // also when nothing is dirty; so completed tests disappear from the endpoint
+                        prometheusEndpoint.update(testManager.getContainers());
+                    }
+
                     long elapsedNanos = nanoTime() - startNanos;
 
                     if (scanIntervalNanos > elapsedNanos) {
@@ -130,18 +178,49 @@ public class OperationsMonitor implements Closeable {
                 }
             } catch (Exception e){
                 LOGGER.warn(e);
+            } finally {
+                for (OperationsLogWriter writer : testOperationsLogWriters.values()) {
+                    close(writer);
+                }
+                testOperationsLogWriters.clear();
+                close(globalOperationsLogWriter);
             }
         }
 
         private void updateTrackers(long currentTimeMillis) {
             dirtyContainers.clear();
 
+            Set<String> runningTestIds = new HashSet<>();
             for (TestContainer container : testManager.getContainers()) {
+                runningTestIds.add(container.getTestCase().getId());
                 TestOperationsTracker tracker = container.getTestOperationsTracker();
                 if (tracker.update(updateIntervalMillis, currentTimeMillis)) {
                     dirtyContainers.add(container);
                 }
             }
+
+            // the files of completed tests are closed
+            Iterator<Map.Entry<String, OperationsLogWriter>> it = testOperationsLogWriters.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, OperationsLogWriter> entry = it.next();
+                if (!runningTestIds.contains(entry.getKey())) {
+                    close(entry.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        private void close(OperationsLogWriter writer) {
+            File file = writer.getFile();
+            try {
+                writer.close();
+                if (logFormat == OperationsLogFormat.BINARY && file.exists()) {
+                    // the report tooling reads the csv files
+                    OperationsLogConverter.convert(file, OperationsLogConverter.toCsvFile(file));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to close operations log [" + file + "]", e);
+            }
         }
 
         private void coordinatorUpdate() {
@@ -149,6 +228,9 @@ public class OperationsMonitor implements Closeable {
 
             for (TestContainer container : dirtyContainers) {
                 TestOperationsTracker tracker = container.getTestOperationsTracker();
+                if (tracker.isWarmupInterval()) {
+                    continue;
+                }
                 msg.addPerformanceStats(container.getTestCase().getId(), tracker.createPerformanceStats());
             }
 
@@ -162,14 +244,46 @@ public class OperationsMonitor implements Closeable {
             long globalIntervalOperationCount = 0;
             long globalOperationsCount = 0;
             double globalIntervalThroughput = 0;
+            long globalIntervalAllocatedBytes = 0;
+            long globalIntervalLateCount = -1;
+            int globalIntervalCount = 0;
 
             for (TestContainer container : dirtyContainers) {
                 TestOperationsTracker tracker = container.getTestOperationsTracker();
-                tracker.persist(currentTimestamp, dateString);
+                String testId = container.getTestCase().getId();
+                OperationsLogWriter writer = testOperationsLogWriters.get(testId);
+                if (writer == null) {
+                    writer = logFormat.newWriter(logFormat.file(getUserDir(), testId + ".operations"));
+                    testOperationsLogWriters.put(testId, writer);
+                }
+                tracker.persist(writer, currentTimestamp, dateString);
+                writer.flush();
+                if (tracker.isWarmupInterval()) {
+                    continue;
+                }
+                globalIntervalCount++;
 
                 globalIntervalOperationCount += tracker.intervalOperationCount();
                 globalOperationsCount += tracker.totalOperationCount();
                 globalIntervalThroughput += tracker.intervalThroughput();
+                long intervalAllocatedBytes = tracker.intervalAllocatedBytes();
+                if (intervalAllocatedBytes < 0 || globalIntervalAllocatedBytes < 0) {
+                    globalIntervalAllocatedBytes = -1;
+                } else {
+                    globalIntervalAllocatedBytes += intervalAllocatedBytes;
+                }
+                long intervalLateCount = tracker.intervalLateCount();
+                if (intervalLateCount >= 0) {
+                    // only the tests that track late operations are included
+                    globalIntervalLateCount = globalIntervalLateCount < 0
+                            ? intervalLateCount
+                            : globalIntervalLateCount + intervalLateCount;
+                }
+            }
+
+            if (globalIntervalCount == 0) {
+                // all tests are still warming up
+                return;
             }
 
             // global performance stats
@@ -178,7 +292,11 @@ public class OperationsMonitor implements Closeable {
                     dateString,
                     globalOperationsCount,
                     globalIntervalOperationCount,
-                    globalIntervalThroughput);
+                    globalIntervalThroughput,
+                    TestOperationsTracker.bytesPerOperation(globalIntervalAllocatedBytes, globalIntervalOperationCount),
+                    globalIntervalLateCount,
+                    false);
+            globalOperationsLogWriter.flush();
         }
     }
 }
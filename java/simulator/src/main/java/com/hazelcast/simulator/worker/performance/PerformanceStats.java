@@ -16,6 +16,16 @@
 package com.hazelcast.simulator.worker.performance;
 
 import com.hazelcast.simulator.common.TestPhase;
+import org.HdrHistogram.Histogram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
 
 import static java.lang.Math.max;
 
@@ -25,6 +35,10 @@ import static java.lang.Math.max;
  * Has methods to combine {@link PerformanceStats} instances by adding or setting maximum values.
  *
  * There is a lot of stuff in there, but the thing most important is the operationCount (in a given time window).
+ * <p>
+ * The latency values are the worst values of the probes of a single Worker; so combining them with other Workers only gives
+ * the worst Worker. That is why the interval histograms of the probes are also included using the compressed encoding of
+ * HdrHistogram, so the Coordinator can merge them and determine the real percentiles.
  */
 public class PerformanceStats {
 
@@ -32,6 +46,9 @@ public class PerformanceStats {
 
     private static final long EMPTY_OPERATION_COUNT = -1;
     private static final double EMPTY_THROUGHPUT = -1;
+    private static final long UNKNOWN_ALLOCATED_BYTES = -1;
+    private static final long UNKNOWN_LATE_OPERATION_COUNT = -1;
+    private static final int NO_SWEEP_STEP = -1;
 
     private long operationCount;
     private double intervalThroughput;
@@ -39,6 +56,16 @@ public class PerformanceStats {
     private double intervalLatencyAvgNanos;
     private long intervalLatencyMaxNanos;
     private long intervalLatency999PercentileNanos;
+    // the bytes allocated by the timestep threads in the same period as the operationCount; -1 if unknown
+    private long totalAllocatedBytes = UNKNOWN_ALLOCATED_BYTES;
+    // the operations in the same period as the operationCount that started more than an interval after their intended
+    // start time; -1 if not tracked, which is the case if the OpenLoopMetronome isn't used
+    private long lateOperationCount = UNKNOWN_LATE_OPERATION_COUNT;
+    // the step of the rate sweep the interval belongs to and its target rate; -1 if no rate sweep is running
+    private int sweepStep = NO_SWEEP_STEP;
+    private double sweepRatePerSecond;
+    // the compressed interval histograms per probe; the key is the name of the probe.
+    private Map<String, byte[]> intervalHistograms;
 
     /**
      * Creates an empty {@link PerformanceStats} instance.
@@ -81,6 +108,11 @@ public class PerformanceStats {
         this.intervalLatencyAvgNanos = original.intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = original.intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = original.intervalLatencyMaxNanos;
+        this.totalAllocatedBytes = original.totalAllocatedBytes;
+        this.lateOperationCount = original.lateOperationCount;
+        this.sweepStep = original.sweepStep;
+        this.sweepRatePerSecond = original.sweepRatePerSecond;
+        this.intervalHistograms = original.intervalHistograms;
     }
 
     /**
@@ -102,7 +134,7 @@ public class PerformanceStats {
      * For the total performance number and the performance per Simulator Agent, the added values should be set, so we get the
      * summed up operation count and throughput values.
      * <p>
-     * The method always sets the maximum values for latency.
+     * The method always sets the maximum values for latency. The interval histograms are not combined.
      *
      * @param other                          {@link PerformanceStats} which should be added to this instance
      * @param addOperationCountAndThroughput {@code true} if operation count and throughput should be added,
@@ -121,23 +153,52 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = other.intervalLatencyAvgNanos;
             intervalLatency999PercentileNanos = other.intervalLatency999PercentileNanos;
             intervalLatencyMaxNanos = other.intervalLatencyMaxNanos;
+            totalAllocatedBytes = other.totalAllocatedBytes;
+            lateOperationCount = other.lateOperationCount;
+            sweepStep = other.sweepStep;
+            sweepRatePerSecond = other.sweepRatePerSecond;
         } else {
             if (addOperationCountAndThroughput) {
                 operationCount += other.operationCount;
                 intervalThroughput += other.intervalThroughput;
                 totalThroughput += other.totalThroughput;
+                totalAllocatedBytes = addAllocatedBytes(totalAllocatedBytes, other.totalAllocatedBytes);
+                lateOperationCount = addLateOperationCount(lateOperationCount, other.lateOperationCount);
+                sweepRatePerSecond += other.sweepRatePerSecond;
             } else {
                 operationCount = max(operationCount, other.operationCount);
                 intervalThroughput = max(intervalThroughput, other.intervalThroughput);
                 totalThroughput = max(totalThroughput, other.totalThroughput);
+                totalAllocatedBytes = max(totalAllocatedBytes, other.totalAllocatedBytes);
+                lateOperationCount = max(lateOperationCount, other.lateOperationCount);
+                sweepRatePerSecond = max(sweepRatePerSecond, other.sweepRatePerSecond);
             }
 
+            sweepStep = max(sweepStep, other.sweepStep);
+
             intervalLatencyAvgNanos = max(intervalLatencyAvgNanos, other.intervalLatencyAvgNanos);
             intervalLatency999PercentileNanos = max(intervalLatency999PercentileNanos, other.intervalLatency999PercentileNanos);
             intervalLatencyMaxNanos = max(intervalLatencyMaxNanos, other.intervalLatencyMaxNanos);
         }
     }
 
+    private static long addAllocatedBytes(long allocatedBytes, long otherAllocatedBytes) {
+        if (allocatedBytes == UNKNOWN_ALLOCATED_BYTES || otherAllocatedBytes == UNKNOWN_ALLOCATED_BYTES) {
+            // if a Worker can't measure the allocations, the sum isn't known either
+            return UNKNOWN_ALLOCATED_BYTES;
+        }
+        return allocatedBytes + otherAllocatedBytes;
+    }
+
+    private static long addLateOperationCount(long lateOperationCount, long otherLateOperationCount) {
+        if (lateOperationCount == UNKNOWN_LATE_OPERATION_COUNT) {
+            return otherLateOperationCount;
+        } else if (otherLateOperationCount == UNKNOWN_LATE_OPERATION_COUNT) {
+            return lateOperationCount;
+        }
+        return lateOperationCount + otherLateOperationCount;
+    }
+
     /**
      * Returns if the {@link PerformanceStats} instance is still empty.
      *
@@ -171,6 +232,178 @@ public class PerformanceStats {
         return intervalLatencyMaxNanos;
     }
 
+    /**
+     * Returns the number of bytes allocated by the timestep threads while executing {@link #getOperationCount()}
+     * operations.
+     *
+     * @return the number of allocated bytes, or -1 if unknown
+     */
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    public void setTotalAllocatedBytes(long totalAllocatedBytes) {
+        this.totalAllocatedBytes = totalAllocatedBytes;
+    }
+
+    /**
+     * Returns the average number of bytes allocated per operation.
+     *
+     * @return the allocated bytes per operation, or -1 if unknown
+     */
+    public double getAllocatedBytesPerOperation() {
+        if (totalAllocatedBytes == UNKNOWN_ALLOCATED_BYTES || operationCount <= 0) {
+            return -1;
+        }
+        return totalAllocatedBytes / (double) operationCount;
+    }
+
+    /**
+     * Returns the number of operations, in the same period as {@link #getOperationCount()}, that started more than a single
+     * interval after their intended start time.
+     *
+     * @return the number of late operations, or -1 if late operations aren't tracked
+     */
+    public long getLateOperationCount() {
+        return lateOperationCount;
+    }
+
+    public void setLateOperationCount(long lateOperationCount) {
+        this.lateOperationCount = lateOperationCount;
+    }
+
+    /**
+     * Returns the step of the rate sweep the interval belongs to.
+     *
+     * @return the step, or -1 if no rate sweep is running
+     */
+    public int getSweepStep() {
+        return sweepStep;
+    }
+
+    /**
+     * Returns the target rate of the step of the rate sweep the interval belongs to.
+     *
+     * @return the rate per second, or 0 if no rate sweep is running
+     */
+    public double getSweepRatePerSecond() {
+        return sweepRatePerSecond;
+    }
+
+    /**
+     * Sets the step of the rate sweep the interval belongs to.
+     *
+     * @param sweepStep          the step
+     * @param sweepRatePerSecond the target rate of the step
+     */
+    public void setSweep(int sweepStep, double sweepRatePerSecond) {
+        this.sweepStep = sweepStep;
+        this.sweepRatePerSecond = sweepRatePerSecond;
+    }
+
+    /**
+     * Sets the interval histograms of the probes.
+     *
+     * @param histograms the interval histograms; the key is the name of the probe
+     */
+    public void setIntervalHistograms(Map<String, Histogram> histograms) {
+        Map<String, byte[]> encoded = new HashMap<>(histograms.size());
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            encoded.put(entry.getKey(), encode(entry.getValue()));
+        }
+        this.intervalHistograms = encoded;
+    }
+
+    /**
+     * Returns the interval histograms of the probes.
+     *
+     * @return the interval histograms; the key is the name of the probe. If no histograms are set, the map is empty.
+     */
+    public Map<String, Histogram> getIntervalHistograms() {
+        Map<String, Histogram> decoded = new HashMap<>();
+        if (intervalHistograms != null) {
+            for (Map.Entry<String, byte[]> entry : intervalHistograms.entrySet()) {
+                decoded.put(entry.getKey(), decode(entry.getValue()));
+            }
+        }
+        return decoded;
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private static Histogram decode(byte[] encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Failed to decode interval histogram", e);
+        }
+    }
+
+    /**
+     * Writes this {@link PerformanceStats} in the binary format of the
+     * {@link com.hazelcast.simulator.worker.messages.PerformanceStatsMessage}.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(operationCount);
+        out.writeDouble(intervalThroughput);
+        out.writeDouble(totalThroughput);
+        out.writeDouble(intervalLatencyAvgNanos);
+        out.writeLong(intervalLatency999PercentileNanos);
+        out.writeLong(intervalLatencyMaxNanos);
+        out.writeLong(totalAllocatedBytes);
+        out.writeLong(lateOperationCount);
+        out.writeInt(sweepStep);
+        out.writeDouble(sweepRatePerSecond);
+
+        if (intervalHistograms == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(intervalHistograms.size());
+        for (Map.Entry<String, byte[]> entry : intervalHistograms.entrySet()) {
+            byte[] bytes = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a {@link PerformanceStats} written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the read {@link PerformanceStats}
+     * @throws IOException if reading fails
+     */
+    public static PerformanceStats readFrom(DataInput in) throws IOException {
+        PerformanceStats stats = new PerformanceStats(
+                in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(), in.readLong(), in.readLong());
+        stats.totalAllocatedBytes = in.readLong();
+        stats.lateOperationCount = in.readLong();
+        stats.sweepStep = in.readInt();
+        stats.sweepRatePerSecond = in.readDouble();
+
+        int histogramCount = in.readInt();
+        if (histogramCount > 0) {
+            Map<String, byte[]> histograms = new HashMap<>(histogramCount);
+            for (int k = 0; k < histogramCount; k++) {
+                String probeName = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                histograms.put(probeName, bytes);
+            }
+            stats.intervalHistograms = histograms;
+        }
+        return stats;
+    }
+
     @Override
     public String toString() {
         return "PerformanceStats{"
@@ -180,6 +413,10 @@ public class PerformanceStats {
                 + ", intervalAvgLatencyNanos=" + intervalLatencyAvgNanos
                 + ", intervalLatency999PercentileNanos=" + intervalLatency999PercentileNanos
                 + ", intervalMaxLatencyNanos=" + intervalLatencyMaxNanos
+                + ", totalAllocatedBytes=" + totalAllocatedBytes
+                + ", lateOperationCount=" + lateOperationCount
+                + ", sweepStep=" + sweepStep
+                + ", sweepRatePerSecond=" + sweepRatePerSecond
                 + '}';
     }
 
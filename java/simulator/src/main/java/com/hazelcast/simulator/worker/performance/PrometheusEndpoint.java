@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.worker.testcontainer.TestContainer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.Histogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Exposes the performance of the running tests of a worker in the Prometheus text format on '/metrics'; so a local
+ * Prometheus can scrape the workers and the tests can be followed in e.g. Grafana while they are running.
+ *
+ * The endpoint is served by the HttpServer of the JDK. The metrics of the tests are rendered by the
+ * {@link OperationsMonitor} thread after every interval; so a scrape doesn't access the state of the trackers and the
+ * values of a test are consistent with each other. The JVM metrics are determined when the endpoint is scraped.
+ */
+public final class PrometheusEndpoint implements Closeable {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999, 0.9999};
+    private static final double NANOS_PER_SECOND = SECONDS.toNanos(1);
+
+    private final HttpServer server;
+    private volatile String testMetrics = "";
+
+    /**
+     * Creates a PrometheusEndpoint.
+     *
+     * @param port the port to listen on; 0 for an ephemeral port
+     * @throws IOException if the port can't be bound
+     */
+    public PrometheusEndpoint(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = render().getBytes(UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    String render() {
+        StringBuilder sb = new StringBuilder(testMetrics);
+        renderJvmMetrics(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Renders the metrics of the running tests. Should only be called by the {@link OperationsMonitor} thread.
+     *
+     * @param containers the TestContainers
+     */
+    void update(Collection<TestContainer> containers) {
+        // sorted on test id; so the output is stable
+        Map<String, TestContainer> running = new TreeMap<>();
+        Map<String, TestOperationsTracker> trackers = new TreeMap<>();
+        Map<String, Long> inFlight = new TreeMap<>();
+        for (TestContainer container : containers) {
+            if (!container.isRunning()) {
+                continue;
+            }
+            String testId = container.getTestCase().getId();
+            running.put(testId, container);
+            trackers.put(testId, container.getTestOperationsTracker());
+            long containerInFlight = container.inFlight();
+            if (containerInFlight >= 0) {
+                inFlight.put(testId, containerInFlight);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        family(sb, "simulator_test_warmup", "gauge", "1 if the test is warming up, 0 otherwise.");
+        for (Map.Entry<String, TestOperationsTracker> entry : trackers.entrySet()) {
+            sample(sb, "simulator_test_warmup", entry.getValue().isWarmupCompleted() ? 0 : 1, "test", entry.getKey());
+        }
+        // the totals include the warmup; so they don't reset when the warmup completes
+        testFamily(sb, running, "simulator_test_operations_total", "counter",
+                "The number of operations since the run started; including the warmup.", c -> c.iteration());
+        testFamily(sb, trackers, "simulator_test_throughput", "gauge",
+                "The operations per second in the last interval.", t -> t.intervalThroughput());
+        testFamily(sb, running, "simulator_test_allocated_bytes_total", "counter",
+                "The bytes allocated by the timestep threads since the run started; including the warmup.",
+                c -> c.allocatedBytes());
+        testFamily(sb, running, "simulator_test_late_operations_total", "counter",
+                "The operations started more than an interval after their intended start time since the run started;"
+                        + " only tracked for the OpenLoopMetronome.", c -> c.lateCount());
+
+        family(sb, "simulator_test_in_flight", "gauge", "The number of asynchronous operations in flight.");
+        for (Map.Entry<String, Long> entry : inFlight.entrySet()) {
+            sample(sb, "simulator_test_in_flight", entry.getValue(), "test", entry.getKey());
+        }
+
+        renderLatencies(sb, trackers);
+        testMetrics = sb.toString();
+    }
+
+    private static <T> void testFamily(StringBuilder sb, Map<String, T> tests, String name, String type,
+                                       String help, ToDoubleFunction<T> value) {
+        family(sb, name, type, help);
+        for (Map.Entry<String, T> entry : tests.entrySet()) {
+            double sampleValue = value.applyAsDouble(entry.getValue());
+            // a negative value means that the value can't be determined
+            if (sampleValue >= 0) {
+                sample(sb, name, sampleValue, "test", entry.getKey());
+            }
+        }
+    }
+
+    private static void renderLatencies(StringBuilder sb, Map<String, TestOperationsTracker> trackers) {
+        List<String[]> labels = new ArrayList<>();
+        List<Histogram> histograms = new ArrayList<>();
+        for (Map.Entry<String, TestOperationsTracker> entry : trackers.entrySet()) {
+            Map<String, Histogram> intervalHistograms = entry.getValue().intervalHistograms();
+            if (intervalHistograms == null) {
+                continue;
+            }
+            for (Map.Entry<String, Histogram> probeEntry : new TreeMap<>(intervalHistograms).entrySet()) {
+                if (probeEntry.getValue().getTotalCount() > 0) {
+                    labels.add(new String[]{"test", entry.getKey(), "probe", probeEntry.getKey()});
+                    histograms.add(probeEntry.getValue());
+                }
+            }
+        }
+
+        // only the quantiles are rendered; the _sum and _count of a summary are optional
+        family(sb, "simulator_test_latency_seconds", "summary", "The latency percentiles of a probe in the last interval.");
+        for (int k = 0; k < histograms.size(); k++) {
+            String[] probeLabels = labels.get(k);
+            for (double quantile : QUANTILES) {
+                double value = histograms.get(k).getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND;
+                sample(sb, "simulator_test_latency_seconds", value,
+                        probeLabels[0], probeLabels[1], probeLabels[2], probeLabels[3], "quantile", Double.toString(quantile));
+            }
+        }
+
+        family(sb, "simulator_test_latency_max_seconds", "gauge", "The maximum latency of a probe in the last interval.");
+        for (int k = 0; k < histograms.size(); k++) {
+            sample(sb, "simulator_test_latency_max_seconds", histograms.get(k).getMaxValue() / NANOS_PER_SECOND, labels.get(k));
+        }
+    }
+
+    private static void renderJvmMetrics(StringBuilder sb) {
+        List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+        family(sb, "jvm_gc_collections_total", "counter", "The number of garbage collections.");
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            if (gcBean.getCollectionCount() >= 0) {
+                sample(sb, "jvm_gc_collections_total", gcBean.getCollectionCount(), "gc", gcBean.getName());
+            }
+        }
+        family(sb, "jvm_gc_collection_seconds_total", "counter", "The time spent on garbage collections.");
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            if (gcBean.getCollectionTime() >= 0) {
+                double seconds = gcBean.getCollectionTime() / (double) SECONDS.toMillis(1);
+                sample(sb, "jvm_gc_collection_seconds_total", seconds, "gc", gcBean.getName());
+            }
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        family(sb, "jvm_memory_heap_used_bytes", "gauge", "The used heap memory.");
+        sample(sb, "jvm_memory_heap_used_bytes", heap.getUsed());
+    }
+
+    private static void family(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, double value, String... labels) {
+        sb.append(name);
+        if (labels.length > 0) {
+            sb.append('{');
+            for (int k = 0; k < labels.length; k += 2) {
+                if (k > 0) {
+                    sb.append(',');
+                }
+                sb.append(labels[k]).append("=\"");
+                escape(sb, labels[k + 1]);
+                sb.append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < Long.MAX_VALUE) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+
+    static void escape(StringBuilder sb, String labelValue) {
+        for (int k = 0; k < labelValue.length(); k++) {
+            char c = labelValue.charAt(k);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -18,10 +18,14 @@ package com.hazelcast.simulator.worker.performance;
 import com.hazelcast.simulator.probes.LatencyProbe;
 import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
 import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.worker.jfr.JfrRecording;
+import com.hazelcast.simulator.worker.testcontainer.RateSweep;
 import com.hazelcast.simulator.worker.testcontainer.TestContainer;
 import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramLogWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
@@ -30,6 +34,8 @@ import java.util.Map;
 
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -45,17 +51,42 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  */
 public final class TestOperationsTracker {
 
+    private static final Logger LOGGER = LogManager.getLogger(TestOperationsTracker.class);
     private static final long ONE_SECOND_IN_MILLIS = SECONDS.toMillis(1);
+    // an interval with a throughput below this fraction of the average throughput is recorded as a throughput dip
+    private static final double THROUGHPUT_DIP_RATIO = 0.5;
+    // the interval histograms of a step of the rate sweep are tagged with this prefix followed by the step
+    static final String SWEEP_TAG_PREFIX = "sweep-";
 
     private final TestContainer testContainer;
     private final Map<String, HistogramLogWriter> histogramLogWriterMap = new HashMap<>();
-    private final OperationsLogWriter performanceLogWriter;
     private final TestContextImpl testContext;
+    private final JfrRecording jfrRecording;
+    private final WarmupPolicy warmupPolicy;
+    private final RateSweep rateSweep;
     private long lastUpdateMillis;
     private Map<String, Histogram> intervalHistogramMap;
-
+    // the histograms of the probes that are included in the throughput; these are sent to the coordinator
+    private Map<String, Histogram> throughputHistogramMap;
+
+    private boolean warmupCompleted;
+    // true if the last interval was part of the warmup; such an interval is written, but not sent to the coordinator
+    private boolean warmupInterval;
+    private long warmupCompletedMillis;
+    // the step of the rate sweep that is currently running and the step the last interval belongs to
+    private int sweepStep = -1;
+    private int intervalSweepStep = -1;
     private long iterationsDuringWarmup;
     private long lastIterations;
+    private long allocatedBytesDuringWarmup;
+    private long lastAllocatedBytes;
+    private long intervalAllocatedBytes = -1;
+    private long totalAllocatedBytes = -1;
+    // the operations started more than an interval after their intended start time; -1 if not tracked
+    private long lateCountDuringWarmup;
+    private long lastLateCount;
+    private long intervalLateCount = -1;
+    private long totalLateCount = -1;
     private double intervalLatencyAvgNanos;
     private long intervalLatency999PercentileNanos;
     private long intervalLatencyMaxNanos;
@@ -68,8 +99,9 @@ public final class TestOperationsTracker {
     public TestOperationsTracker(TestContainer container) {
         this.testContainer = container;
         this.testContext = container.getTestContext();
-        this.performanceLogWriter = new OperationsLogWriter(
-                new File(getUserDir(), container.getTestCase().getId() + ".operations.csv"));
+        this.jfrRecording = container.getJfrRecording();
+        this.warmupPolicy = WarmupPolicy.load(container.getPropertyBinding());
+        this.rateSweep = container.getRateSweep();
     }
 
     /**
@@ -84,7 +116,11 @@ public final class TestOperationsTracker {
             return false;
         }
 
-        makeUpdate(updateIntervalMillis, currentTimeMillis);
+        if (warmupCompleted) {
+            makeUpdate(updateIntervalMillis, currentTimeMillis);
+        } else {
+            makeWarmupUpdate(updateIntervalMillis, currentTimeMillis);
+        }
         return true;
     }
 
@@ -98,21 +134,124 @@ public final class TestOperationsTracker {
 
         if (lastUpdateMillis == 0) {
             // first time
-            iterationsDuringWarmup = testContainer.iteration();
-            for (LatencyProbe probe : testContext.getLatencyProbes().values()) {
-                probe.reset();
-            }
             lastUpdateMillis = currentTimeMillis;
             nextUpdateMillis = lastUpdateMillis + updateIntervalMillis;
+            if (warmupPolicy.completesImmediately()) {
+                completeWarmup(currentTimeMillis);
+            }
             return true;
         }
 
         return nextUpdateMillis > currentTimeMillis;
     }
 
+    private void makeWarmupUpdate(long updateIntervalMillis, long currentTimeMillis) {
+        // during the warmup only the iterations are tracked; the probes are reset when the warmup completes
+        long iterations = testContainer.iteration();
+        this.intervalOperationCount = iterations - lastIterations;
+        this.totalOperationCount = iterations;
+        long intervalTimeDelta = currentTimeMillis - lastUpdateMillis;
+        this.intervalThroughput = (intervalOperationCount * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta;
+        this.intervalAllocatedBytes = -1;
+        updateLateCount();
+        this.intervalHistogramMap = null;
+        this.throughputHistogramMap = null;
+        this.warmupInterval = true;
+        this.lastIterations = iterations;
+        this.nextUpdateMillis += updateIntervalMillis;
+        this.lastUpdateMillis = currentTimeMillis;
+
+        long elapsedMillis = currentTimeMillis - testContainer.getRunStartedMillis();
+        if (warmupPolicy.isCompleted(elapsedMillis, iterations, intervalThroughput)) {
+            completeWarmup(currentTimeMillis);
+        }
+    }
+
+    private void completeWarmup(long currentTimeMillis) {
+        warmupCompleted = true;
+        warmupCompletedMillis = currentTimeMillis;
+        iterationsDuringWarmup = testContainer.iteration();
+        allocatedBytesDuringWarmup = testContainer.allocatedBytes();
+        lateCountDuringWarmup = lastLateCount;
+        lastIterations = 0;
+        totalOperationCount = 0;
+        for (LatencyProbe probe : testContext.getLatencyProbes().values()) {
+            probe.reset();
+        }
+        if (jfrRecording != null) {
+            jfrRecording.warmupCompleted();
+        }
+        if (rateSweep != null) {
+            // the warmup runs at the rate of the first step; so the first step starts now
+            sweepStep = 0;
+            logSweepStep();
+        }
+
+        if (!warmupPolicy.completesImmediately()) {
+            String testId = testContainer.getTestCase().getId();
+            long warmupSeconds = MILLISECONDS.toSeconds(currentTimeMillis - testContainer.getRunStartedMillis());
+            String msg = format("%s warmup completed after %d seconds (%s)",
+                    testId, warmupSeconds, warmupPolicy.getCompletionReason());
+            LOGGER.info(msg);
+            testContext.echoCoordinator(msg);
+        }
+    }
+
+    private void updateSweepStep(long currentTimeMillis, Map<String, Histogram> intervalHistograms) {
+        intervalSweepStep = sweepStep;
+        String tag = SWEEP_TAG_PREFIX + sweepStep;
+        for (Histogram intervalHistogram : intervalHistograms.values()) {
+            intervalHistogram.setTag(tag);
+        }
+
+        // the rate is changed at the end of an interval; so every interval belongs to a single step
+        int step = rateSweep.stepAt(currentTimeMillis - warmupCompletedMillis);
+        if (step != sweepStep) {
+            sweepStep = step;
+            rateSweep.apply(step);
+            logSweepStep();
+        }
+    }
+
+    private void logSweepStep() {
+        String msg = format("%s rate sweep step %d/%d: %.2f ops/s",
+                testContainer.getTestCase().getId(), sweepStep + 1, rateSweep.stepCount(), rateSweep.ratePerSecond(sweepStep));
+        LOGGER.info(msg);
+        testContext.echoCoordinator(msg);
+    }
+
+    /**
+     * Returns the step of the rate sweep the last interval belongs to.
+     *
+     * @return the step, or -1 if no rate sweep is running
+     */
+    int intervalSweepStep() {
+        return intervalSweepStep;
+    }
+
+    /**
+     * Checks if the warmup of the run phase has completed.
+     *
+     * @return true if completed, false otherwise
+     */
+    public boolean isWarmupCompleted() {
+        return warmupCompleted;
+    }
+
+    /**
+     * Checks if the last interval was part of the warmup. The values of a warmup interval are written to the test
+     * specific operations file, but not sent to the coordinator or included in the global operations file.
+     *
+     * @return true if the last interval was part of the warmup
+     */
+    boolean isWarmupInterval() {
+        return warmupInterval;
+    }
+
     private void makeUpdate(long updateIntervalMillis, long currentTimeMillis) {
         Map<String, LatencyProbe> latencyProbes = testContext.getLatencyProbes();
         Map<String, Histogram> intervalHistograms = new HashMap<>(latencyProbes.size());
+        Map<String, Histogram> throughputHistograms = new HashMap<>(latencyProbes.size());
 
         long intervalPercentileLatency = -1;
         double intervalMean = -1;
@@ -129,7 +268,7 @@ public final class TestOperationsTracker {
             }
 
             HdrLatencyProbe hdrLatencyProbe = (HdrLatencyProbe) latencyProbe;
-            Histogram intervalHistogram = hdrLatencyProbe.getRecorder().getIntervalHistogram();
+            Histogram intervalHistogram = hdrLatencyProbe.getIntervalHistogram();
             intervalHistogram.setStartTimeStamp(lastUpdateMillis);
             intervalHistogram.setEndTimeStamp(currentTimeMillis);
             intervalHistograms.put(probeName, intervalHistogram);
@@ -151,10 +290,16 @@ public final class TestOperationsTracker {
 
             if (latencyProbe.includeInThroughput()) {
                 intervalOperationCount += intervalHistogram.getTotalCount();
+                throughputHistograms.put(probeName, intervalHistogram);
             }
         }
 
+        if (rateSweep != null) {
+            updateSweepStep(currentTimeMillis, intervalHistograms);
+        }
+
         this.intervalHistogramMap = intervalHistograms;
+        this.throughputHistogramMap = throughputHistograms;
 
         this.intervalLatency999PercentileNanos = intervalPercentileLatency;
         this.intervalLatencyAvgNanos = intervalMean;
@@ -164,16 +309,91 @@ public final class TestOperationsTracker {
         this.totalOperationCount += intervalOperationCount;
 
         long intervalTimeDelta = currentTimeMillis - lastUpdateMillis;
-        long totalTimeDelta = currentTimeMillis - testContainer.getRunStartedMillis();
+        long totalTimeDelta = currentTimeMillis - warmupCompletedMillis;
 
         this.intervalThroughput = (intervalOperationCount * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta;
         this.totalThroughput = (totalOperationCount * ONE_SECOND_IN_MILLIS / (double) totalTimeDelta);
 
+        if (jfrRecording != null && intervalThroughput < totalThroughput * THROUGHPUT_DIP_RATIO) {
+            jfrRecording.throughputDip(lastUpdateMillis, intervalThroughput, totalThroughput);
+        }
+
+        this.warmupInterval = false;
         this.lastIterations = iterations;
+        updateAllocatedBytes();
+        updateLateCount();
         this.nextUpdateMillis += updateIntervalMillis;
         this.lastUpdateMillis = currentTimeMillis;
     }
 
+    private void updateAllocatedBytes() {
+        long allocatedBytes = testContainer.allocatedBytes();
+        if (allocatedBytes < 0 || allocatedBytesDuringWarmup < 0) {
+            // allocations can't be measured, e.g. the JVM doesn't support it or virtual threads are used
+            intervalAllocatedBytes = -1;
+            totalAllocatedBytes = -1;
+            return;
+        }
+
+        long allocatedBytesAfterWarmup = allocatedBytes - allocatedBytesDuringWarmup;
+        intervalAllocatedBytes = allocatedBytesAfterWarmup - lastAllocatedBytes;
+        totalAllocatedBytes = allocatedBytesAfterWarmup;
+        lastAllocatedBytes = allocatedBytesAfterWarmup;
+    }
+
+    private void updateLateCount() {
+        long lateCount = testContainer.lateCount();
+        if (lateCount < 0) {
+            // only the OpenLoopMetronome tracks late operations
+            intervalLateCount = -1;
+            totalLateCount = -1;
+            return;
+        }
+
+        intervalLateCount = lateCount - lastLateCount;
+        totalLateCount = lateCount - lateCountDuringWarmup;
+        lastLateCount = lateCount;
+    }
+
+    /**
+     * Returns the number of operations in the last interval that started more than a single interval after their intended
+     * start time.
+     *
+     * @return the number of late operations, or -1 if late operations aren't tracked
+     */
+    long intervalLateCount() {
+        return intervalLateCount;
+    }
+
+    long intervalAllocatedBytes() {
+        return intervalAllocatedBytes;
+    }
+
+    /**
+     * Returns the histograms of the last interval.
+     *
+     * @return the histograms; the key is the name of the probe. Null if the last interval was part of the warmup.
+     */
+    Map<String, Histogram> intervalHistograms() {
+        return intervalHistogramMap;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the timestep threads per operation in the last interval.
+     *
+     * @return the allocated bytes per operation, or -1 if unknown
+     */
+    double intervalAllocatedBytesPerOperation() {
+        return bytesPerOperation(intervalAllocatedBytes, intervalOperationCount);
+    }
+
+    static double bytesPerOperation(long allocatedBytes, long operationCount) {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        return operationCount == 0 ? 0 : allocatedBytes / (double) operationCount;
+    }
+
     long intervalOperationCount() {
         return intervalOperationCount;
     }
@@ -186,13 +406,20 @@ public final class TestOperationsTracker {
         return intervalThroughput;
     }
 
-    void persist(long currentTimeMillis, String currentTimeString) {
-        performanceLogWriter.write(
+    void persist(OperationsLogWriter operationsLogWriter, long currentTimeMillis, String currentTimeString) {
+        operationsLogWriter.write(
                 currentTimeMillis,
                 currentTimeString,
                 totalOperationCount,
                 intervalOperationCount,
-                intervalThroughput);
+                intervalThroughput,
+                intervalAllocatedBytesPerOperation(),
+                intervalLateCount,
+                warmupInterval);
+
+        if (warmupInterval) {
+            return;
+        }
 
         // dumps all the Histograms that have been collected to file.
         for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
@@ -208,13 +435,22 @@ public final class TestOperationsTracker {
     }
 
     PerformanceStats createPerformanceStats() {
-        return new PerformanceStats(
+        PerformanceStats performanceStats = new PerformanceStats(
                 totalOperationCount,
                 intervalThroughput,
                 totalThroughput,
                 intervalLatencyAvgNanos,
                 intervalLatency999PercentileNanos,
                 intervalLatencyMaxNanos);
+        performanceStats.setTotalAllocatedBytes(totalAllocatedBytes);
+        performanceStats.setLateOperationCount(totalLateCount);
+        if (intervalSweepStep >= 0) {
+            performanceStats.setSweep(intervalSweepStep, rateSweep.ratePerSecond(intervalSweepStep));
+        }
+        if (throughputHistogramMap != null) {
+            performanceStats.setIntervalHistograms(throughputHistogramMap);
+        }
+        return performanceStats;
     }
 
     HistogramLogWriter createHistogramLogWriter(String probeName) {
@@ -227,6 +463,13 @@ public final class TestOperationsTracker {
             histogramLogWriter.outputComment("[Latency histograms for " + testId + '.' + probeName + ']');
             histogramLogWriter.outputLogFormatVersion();
             histogramLogWriter.outputLegend();
+            histogramLogWriter.outputComment(format("[Warmup completed after %.3f seconds using warmupPolicy=%s]",
+                    (warmupCompletedMillis - testContainer.getRunStartedMillis()) / (double) ONE_SECOND_IN_MILLIS,
+                    warmupPolicy.getPolicy()));
+            if (rateSweep != null) {
+                histogramLogWriter.outputComment(format("[Rate sweep: %s; the histograms of a step are tagged %sSTEP]",
+                        rateSweep, SWEEP_TAG_PREFIX));
+            }
             return histogramLogWriter;
         } catch (IOException e) {
             throw new TestException("Could not initialize HistogramLogWriter for test " + testId, e);
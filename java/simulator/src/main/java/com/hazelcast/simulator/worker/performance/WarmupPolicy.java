@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import static java.lang.Math.sqrt;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Decides when the warmup of the run phase of a test has completed. When the warmup completes, the probes are reset; so
+ * the warmup doesn't pollute the measurements.
+ *
+ * The policy is configured using the 'warmupPolicy' test property:
+ * <ol>
+ * <li>none: the warmup completes at the first update of the {@link TestOperationsTracker}. This is the default.</li>
+ * <li>duration: the warmup completes after 'warmupSeconds'.</li>
+ * <li>iterations: the warmup completes after 'warmupIterations' iterations of all threads of the test.</li>
+ * <li>auto: the warmup completes when the throughput is stable; so when the coefficient of variation of the throughput
+ * of the last 'warmupWindow' intervals is at most 'warmupMaxCov'. If the throughput doesn't become stable, the warmup
+ * completes after 'warmupSeconds'.</li>
+ * </ol>
+ * The warmup is checked on every update of the {@link TestOperationsTracker}; so the actual warmup can be up to an update
+ * interval longer than configured.
+ *
+ * This class is not thread-safe; it should only be used by the thread updating the {@link TestOperationsTracker}.
+ */
+final class WarmupPolicy {
+
+    static final String POLICY_NONE = "none";
+    static final String POLICY_DURATION = "duration";
+    static final String POLICY_ITERATIONS = "iterations";
+    static final String POLICY_AUTO = "auto";
+
+    static final int DEFAULT_WINDOW = 5;
+    static final double DEFAULT_MAX_COV = 0.05;
+    static final int DEFAULT_AUTO_MAX_SECONDS = 300;
+
+    private final String policy;
+    private final long warmupMillis;
+    private final long warmupIterations;
+    private final double maxCov;
+    private final double[] window;
+    private int intervalCount;
+    private String completionReason;
+
+    private WarmupPolicy(String policy, long warmupMillis, long warmupIterations, int windowSize, double maxCov) {
+        this.policy = policy;
+        this.warmupMillis = warmupMillis;
+        this.warmupIterations = warmupIterations;
+        this.maxCov = maxCov;
+        this.window = new double[windowSize];
+    }
+
+    /**
+     * Loads the WarmupPolicy of a test.
+     *
+     * @param binding the PropertyBinding of the test
+     * @return the loaded WarmupPolicy
+     * @throws IllegalTestException if the configuration is invalid
+     */
+    static WarmupPolicy load(PropertyBinding binding) {
+        String policy = binding.load("warmupPolicy");
+        int warmupSeconds = binding.loadAsInt("warmupSeconds", -1);
+        long warmupIterations = binding.loadAsLong("warmupIterations", -1);
+        int windowSize = binding.loadAsInt("warmupWindow", -1);
+        double maxCov = binding.loadAsDouble("warmupMaxCov", -1);
+
+        if (policy == null) {
+            policy = POLICY_NONE;
+        }
+
+        switch (policy) {
+            case POLICY_NONE:
+                checkNotConfigured(warmupSeconds, "warmupSeconds", POLICY_DURATION + " or " + POLICY_AUTO);
+                checkNotConfigured(warmupIterations, "warmupIterations", POLICY_ITERATIONS);
+                checkNotConfigured(windowSize, "warmupWindow", POLICY_AUTO);
+                checkNotConfigured(maxCov, "warmupMaxCov", POLICY_AUTO);
+                return new WarmupPolicy(policy, 0, 0, 0, 0);
+            case POLICY_DURATION:
+                checkPositive(warmupSeconds, "warmupSeconds", policy);
+                checkNotConfigured(warmupIterations, "warmupIterations", POLICY_ITERATIONS);
+                checkNotConfigured(windowSize, "warmupWindow", POLICY_AUTO);
+                checkNotConfigured(maxCov, "warmupMaxCov", POLICY_AUTO);
+                return new WarmupPolicy(policy, SECONDS.toMillis(warmupSeconds), 0, 0, 0);
+            case POLICY_ITERATIONS:
+                checkPositive(warmupIterations, "warmupIterations", policy);
+                checkNotConfigured(warmupSeconds, "warmupSeconds", POLICY_DURATION + " or " + POLICY_AUTO);
+                checkNotConfigured(windowSize, "warmupWindow", POLICY_AUTO);
+                checkNotConfigured(maxCov, "warmupMaxCov", POLICY_AUTO);
+                return new WarmupPolicy(policy, 0, warmupIterations, 0, 0);
+            case POLICY_AUTO:
+                checkNotConfigured(warmupIterations, "warmupIterations", POLICY_ITERATIONS);
+                if (warmupSeconds == -1) {
+                    warmupSeconds = DEFAULT_AUTO_MAX_SECONDS;
+                }
+                if (windowSize == -1) {
+                    windowSize = DEFAULT_WINDOW;
+                }
+                if (maxCov == -1) {
+                    maxCov = DEFAULT_MAX_COV;
+                }
+                checkPositive(warmupSeconds, "warmupSeconds", policy);
+                if (windowSize < 2) {
+                    throw new IllegalTestException("warmupWindow can't be smaller than 2");
+                }
+                if (maxCov <= 0) {
+                    throw new IllegalTestException("warmupMaxCov has to be larger than 0");
+                }
+                return new WarmupPolicy(policy, SECONDS.toMillis(warmupSeconds), 0, windowSize, maxCov);
+            default:
+                throw new IllegalTestException(format(
+                        "warmupPolicy has an invalid value [%s], valid values are [%s, %s, %s, %s]",
+                        policy, POLICY_NONE, POLICY_DURATION, POLICY_ITERATIONS, POLICY_AUTO));
+        }
+    }
+
+    private static void checkNotConfigured(double value, String property, String policies) {
+        if (value != -1) {
+            throw new IllegalTestException(format("%s can only be configured in combination with warmupPolicy=%s",
+                    property, policies));
+        }
+    }
+
+    private static void checkPositive(long value, String property, String policy) {
+        if (value <= 0) {
+            throw new IllegalTestException(format("%s has to be configured with a value larger than 0 for warmupPolicy=%s",
+                    property, policy));
+        }
+    }
+
+    /**
+     * Checks if the warmup completes at the first update; so no warmup intervals are tracked.
+     *
+     * @return true if the warmup completes at the first update
+     */
+    boolean completesImmediately() {
+        return POLICY_NONE.equals(policy);
+    }
+
+    /**
+     * Checks if the warmup has completed. Should be called once for every warmup interval.
+     *
+     * @param elapsedMillis      the time since the start of the run phase
+     * @param iterations         the number of iterations since the start of the run phase
+     * @param intervalThroughput the throughput of the last interval
+     * @return true if the warmup has completed
+     */
+    boolean isCompleted(long elapsedMillis, long iterations, double intervalThroughput) {
+        switch (policy) {
+            case POLICY_NONE:
+                completionReason = "first update";
+                return true;
+            case POLICY_DURATION:
+                if (elapsedMillis >= warmupMillis) {
+                    completionReason = format("warmupSeconds=%d", MILLISECONDS.toSeconds(warmupMillis));
+                    return true;
+                }
+                return false;
+            case POLICY_ITERATIONS:
+                if (iterations >= warmupIterations) {
+                    completionReason = format("warmupIterations=%d", warmupIterations);
+                    return true;
+                }
+                return false;
+            case POLICY_AUTO:
+                window[intervalCount % window.length] = intervalThroughput;
+                intervalCount++;
+                if (intervalCount >= window.length) {
+                    double cov = coefficientOfVariation(window);
+                    if (cov <= maxCov) {
+                        completionReason = format("stable throughput, coefficient of variation %.4f over %d intervals",
+                                cov, window.length);
+                        return true;
+                    }
+                }
+                if (elapsedMillis >= warmupMillis) {
+                    completionReason = format("no stable throughput within warmupSeconds=%d",
+                            MILLISECONDS.toSeconds(warmupMillis));
+                    return true;
+                }
+                return false;
+            default:
+                throw new IllegalStateException("Unknown policy: " + policy);
+        }
+    }
+
+    /**
+     * Returns the coefficient of variation; the standard deviation divided by the mean.
+     *
+     * @param values the values
+     * @return the coefficient of variation, or {@link Double#POSITIVE_INFINITY} if the mean isn't larger than 0
+     */
+    static double coefficientOfVariation(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        double mean = sum / values.length;
+        if (mean <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double squaredDiffSum = 0;
+        for (double value : values) {
+            double diff = value - mean;
+            squaredDiffSum += diff * diff;
+        }
+        return sqrt(squaredDiffSum / values.length) / mean;
+    }
+
+    String getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns why the warmup has completed.
+     *
+     * @return the reason or null if the warmup hasn't completed
+     */
+    String getCompletionReason() {
+        return completionReason;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static java.lang.Math.round;
+
+/**
+ * An alias table to select a {@link com.hazelcast.simulator.test.annotations.TimeStep} method based on its probability
+ * in constant time.
+ *
+ * It is constructed using the method of Vose; every method gets a column and every column contains the index of its own
+ * method and the index of an alias method. A selection picks a random column and flips a biased coin to decide between
+ * the method and its alias. So a selection needs a single random long and 2 small arrays, independent of the resolution of
+ * the probabilities.
+ *
+ * The upper 32 bits of the random long are used to select the column and the lower 32 bits are used for the coin flip.
+ * The {@link TimeStepLoopCodeGenerator} emits {@link #select(long)} directly into the generated code.
+ */
+public final class AliasTable {
+
+    static final long COIN_RANGE = 1L << 32;
+
+    private final long[] thresholds;
+    private final int[] aliases;
+
+    private AliasTable(long[] thresholds, int[] aliases) {
+        this.thresholds = thresholds;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Creates an AliasTable for the given probabilities.
+     *
+     * The probabilities don't need to add up to 1; they are normalized.
+     *
+     * @param probabilities the probabilities; the index of a probability is the value returned by {@link #select(long)}.
+     * @return the created AliasTable
+     * @throws IllegalArgumentException if there are no probabilities, a probability is negative or all probabilities are 0
+     */
+    public static AliasTable create(double... probabilities) {
+        checkNotNull(probabilities, "probabilities can't be null");
+        int length = probabilities.length;
+        if (length == 0) {
+            throw new IllegalArgumentException("probabilities can't be empty");
+        }
+
+        double sum = 0;
+        for (double probability : probabilities) {
+            if (probability < 0) {
+                throw new IllegalArgumentException("probability can't be smaller than 0, found: " + probability);
+            }
+            sum += probability;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("total probability needs to be larger than 0");
+        }
+
+        // scale the probabilities so the average column is 1
+        double[] scaled = new double[length];
+        int[] small = new int[length];
+        int[] large = new int[length];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int k = 0; k < length; k++) {
+            scaled[k] = probabilities[k] * length / sum;
+            if (scaled[k] < 1) {
+                small[smallCount++] = k;
+            } else {
+                large[largeCount++] = k;
+            }
+        }
+
+        long[] thresholds = new long[length];
+        int[] aliases = new int[length];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            // the column of 'less' is filled up with 'more'
+            thresholds[less] = toThreshold(scaled[less]);
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // the remaining columns are full; due to rounding errors there can be remaining small columns as well
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            thresholds[index] = COIN_RANGE;
+            aliases[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            thresholds[index] = COIN_RANGE;
+            aliases[index] = index;
+        }
+
+        return new AliasTable(thresholds, aliases);
+    }
+
+    private static long toThreshold(double value) {
+        return Math.min(COIN_RANGE, Math.max(0, round(value * COIN_RANGE)));
+    }
+
+    /**
+     * Returns the number of columns; which is equal to the number of probabilities.
+     *
+     * @return the number of columns
+     */
+    public int getLength() {
+        return thresholds.length;
+    }
+
+    /**
+     * Returns the thresholds for the coin flip of each column. If the lower 32 bits of the random value are smaller than the
+     * threshold, the method of the column is selected; otherwise its alias.
+     *
+     * @return the thresholds
+     */
+    public long[] getThresholds() {
+        return thresholds;
+    }
+
+    /**
+     * Returns the alias of each column.
+     *
+     * @return the aliases
+     */
+    public int[] getAliases() {
+        return aliases;
+    }
+
+    /**
+     * Selects an index using a uniformly distributed random long.
+     *
+     * @param random the random long
+     * @return the selected index
+     */
+    public int select(long random) {
+        int column = (int) (((random >>> 32) * thresholds.length) >>> 32);
+        return (random & (COIN_RANGE - 1)) < thresholds[column] ? column : aliases[column];
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * A pool of reusable callbacks for the futures returned by async {@link com.hazelcast.simulator.test.annotations.TimeStep}
+ * methods. The generated timestep loop uses it if probes are used and maxInFlight is configured; so an async call doesn't
+ * allocate a lambda capturing the start time of the call.
+ *
+ * The pool is filled with maxInFlight callbacks. A callback is returned to the pool before its in-flight permit is released;
+ * so when the loop has acquired a permit, there is always a callback available.
+ *
+ * Only the timestep thread takes callbacks, but any thread completing a future can return one. Because there is a single
+ * taker, the stack can't run into the ABA problem.
+ */
+public final class AsyncCallbackPool {
+
+    private final AtomicReference<Callback> head = new AtomicReference<>();
+    private final Semaphore inFlightPermits;
+
+    public AsyncCallbackPool(Semaphore inFlightPermits) {
+        this.inFlightPermits = inFlightPermits;
+    }
+
+    /**
+     * Takes a callback from the pool.
+     *
+     * Should only be called by the timestep thread after it acquired an in-flight permit.
+     *
+     * @param startNanos the start of the call; passed to {@link Callback#onComplete(long)}
+     * @return the callback
+     * @throws IllegalStateException if the pool is empty
+     */
+    public Callback take(long startNanos) {
+        for (; ; ) {
+            Callback callback = head.get();
+            if (callback == null) {
+                throw new IllegalStateException("There are more async calls in flight than callbacks");
+            }
+
+            if (head.compareAndSet(callback, callback.next)) {
+                callback.next = null;
+                callback.startNanos = startNanos;
+                return callback;
+            }
+        }
+    }
+
+    /**
+     * Adds a callback to the pool.
+     *
+     * @param callback the callback to add
+     */
+    public void offer(Callback callback) {
+        for (; ; ) {
+            Callback next = head.get();
+            callback.next = next;
+            if (head.compareAndSet(next, callback)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A callback which is registered on the future of an async call.
+     */
+    public abstract static class Callback implements BiConsumer<Object, Throwable> {
+
+        private final AsyncCallbackPool pool;
+        private Callback next;
+        private long startNanos;
+
+        protected Callback(AsyncCallbackPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public final void accept(Object result, Throwable throwable) {
+            try {
+                onComplete(startNanos);
+            } finally {
+                pool.offer(this);
+                pool.inFlightPermits.release();
+            }
+        }
+
+        /**
+         * Called when the async call completed.
+         *
+         * @param startNanos the start of the call
+         */
+        protected abstract void onComplete(long startNanos);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+/**
+ * Consumes the results of the {@link com.hazelcast.simulator.test.annotations.TimeStep} methods to prevent the JIT from
+ * eliminating the calls as dead code; similar to the Blackhole of JMH.
+ *
+ * A value is compared with 2 volatile fields which never have the same value; so the JIT can't prove the outcome of the
+ * comparison and the value needs to be computed, but the branch is never taken. So unlike writing to an Atomic field,
+ * consuming a value doesn't cause a store, a memory fence or boxing.
+ *
+ * An object is only stored once in a while in a plain field; the interval grows so the store becomes very rare.
+ *
+ * A Blackhole is not thread-safe; every timestep thread has its own instance.
+ */
+@SuppressWarnings({"checkstyle:visibilitymodifier", "checkstyle:magicnumber"})
+public final class Blackhole {
+
+    // the 2 fields of each pair never have the same value
+    private volatile boolean b1;
+    private volatile boolean b2 = true;
+    private volatile int i1 = 1;
+    private volatile int i2 = 2;
+    private volatile long l1 = 1;
+    private volatile long l2 = 2;
+    private volatile double d1 = 1;
+    private volatile double d2 = 2;
+
+    // is never set; so dereferencing it would fail, but that branch is never taken
+    private Blackhole nullBait;
+
+    private int objectCounter;
+    private int objectMask = 1;
+    private Object object;
+
+    public void consume(Object value) {
+        int counter = objectCounter + 1;
+        objectCounter = counter;
+        if ((counter & objectMask) == 0) {
+            // the object escapes every now and then; so it can't be scalar replaced
+            object = value;
+            objectMask = (objectMask << 1) + 1;
+        }
+    }
+
+    public void consume(boolean value) {
+        if (value == b1 & value == b2) {
+            nullBait.b1 = value;
+        }
+    }
+
+    public void consume(byte value) {
+        consume((int) value);
+    }
+
+    public void consume(short value) {
+        consume((int) value);
+    }
+
+    public void consume(char value) {
+        consume((int) value);
+    }
+
+    public void consume(int value) {
+        if (value == i1 & value == i2) {
+            nullBait.i1 = value;
+        }
+    }
+
+    public void consume(long value) {
+        if (value == l1 & value == l2) {
+            nullBait.l1 = value;
+        }
+    }
+
+    public void consume(float value) {
+        consume((double) value);
+    }
+
+    public void consume(double value) {
+        if (value == d1 & value == d2) {
+            nullBait.d1 = value;
+        }
+    }
+
+    Object lastObject() {
+        return object;
+    }
+}
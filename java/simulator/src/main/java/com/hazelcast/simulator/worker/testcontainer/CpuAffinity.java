@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import net.openhft.affinity.Affinity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.BitSet;
+
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.String.format;
+
+/**
+ * The CPU affinity of the timestep threads of an execution group.
+ *
+ * It is configured using the 'cpuAffinity' property of the execution group; which is either 'none', a list of CPUs
+ * like '0-3,6' or 'numa:N' for all CPUs of NUMA node N. The 'cpuAffinityMode' property determines how the CPUs are used:
+ * <ol>
+ * <li>thread: every thread gets pinned to a single CPU; the CPUs are assigned round-robin. This is the default.</li>
+ * <li>group: every thread can run on any of the CPUs; so the group is isolated from the other threads in the JVM (if these
+ * don't run on the same CPUs) but the OS is still free to move threads within the group.</li>
+ * </ol>
+ *
+ * The affinity is set using the OpenHFT affinity library; if it isn't supported on the platform, a warning is logged and the
+ * threads run without affinity.
+ */
+public final class CpuAffinity {
+
+    static final String NONE = "none";
+    static final String NUMA_PREFIX = "numa:";
+    static final String MODE_THREAD = "thread";
+    static final String MODE_GROUP = "group";
+
+    private static final Logger LOGGER = LogManager.getLogger(CpuAffinity.class);
+
+    private final BitSet cpus;
+    private final int[] cpuArray;
+    private final boolean perThread;
+
+    CpuAffinity(BitSet cpus, boolean perThread) {
+        this.cpus = cpus;
+        this.cpuArray = cpus.stream().toArray();
+        this.perThread = perThread;
+    }
+
+    /**
+     * Loads the CpuAffinity of an execution group.
+     *
+     * @param binding        the PropertyBinding
+     * @param executionGroup the execution group
+     * @return the loaded CpuAffinity or null if no affinity is configured
+     * @throws IllegalTestException if the configuration is invalid
+     */
+    static CpuAffinity load(PropertyBinding binding, String executionGroup) {
+        String property = toPropertyName(executionGroup, "cpuAffinity");
+        String value = binding.load(property);
+        String modeProperty = toPropertyName(executionGroup, "cpuAffinityMode");
+        String mode = binding.load(modeProperty);
+
+        if (value == null || NONE.equals(value.trim())) {
+            if (mode != null) {
+                throw new IllegalTestException(modeProperty + " can only be configured in combination with " + property);
+            }
+            return null;
+        }
+
+        if (mode == null) {
+            mode = MODE_THREAD;
+        } else if (!MODE_THREAD.equals(mode) && !MODE_GROUP.equals(mode)) {
+            throw new IllegalTestException(format("%s has an invalid value [%s], valid values are [%s, %s]",
+                    modeProperty, mode, MODE_THREAD, MODE_GROUP));
+        }
+
+        BitSet cpus;
+        try {
+            cpus = parse(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalTestException(format("%s has an invalid value [%s]: %s", property, value, e.getMessage()));
+        }
+
+        BitSet available = Affinity.getAffinity();
+        if (!available.isEmpty()) {
+            BitSet usable = (BitSet) cpus.clone();
+            usable.and(available);
+            if (usable.isEmpty()) {
+                throw new IllegalTestException(format("%s [%s] doesn't contain any of the CPUs available to the worker [%s]",
+                        property, value, toCpuList(available)));
+            }
+            if (!usable.equals(cpus)) {
+                LOGGER.warn(format("executionGroup [%s] ignores CPUs [%s] which are not available to the worker",
+                        executionGroup, toCpuList(andNot(cpus, available))));
+            }
+            cpus = usable;
+        }
+
+        return new CpuAffinity(cpus, MODE_THREAD.equals(mode));
+    }
+
+    private static BitSet andNot(BitSet cpus, BitSet excluded) {
+        BitSet result = (BitSet) cpus.clone();
+        result.andNot(excluded);
+        return result;
+    }
+
+    /**
+     * Parses a CPU affinity; which is either a CPU list or 'numa:N'.
+     *
+     * @param value the value to parse
+     * @return the CPUs
+     * @throws IllegalArgumentException if the value can't be parsed
+     */
+    static BitSet parse(String value) {
+        if (!value.startsWith(NUMA_PREFIX)) {
+            return parseCpuList(value);
+        }
+
+        String node = value.substring(NUMA_PREFIX.length()).trim();
+        if (!node.matches("\\d+")) {
+            throw new IllegalArgumentException("invalid NUMA node [" + node + "]");
+        }
+        File cpuListFile = new File("/sys/devices/system/node/node" + node + "/cpulist");
+        if (!cpuListFile.exists()) {
+            throw new IllegalArgumentException("NUMA node " + node + " doesn't exist");
+        }
+        return parseCpuList(fileAsText(cpuListFile).trim());
+    }
+
+    /**
+     * Parses a CPU list in the format used by Linux, e.g. '0-3,6,8-9'.
+     *
+     * @param cpuList the CPU list
+     * @return the CPUs
+     * @throws IllegalArgumentException if the CPU list can't be parsed or is empty
+     */
+    static BitSet parseCpuList(String cpuList) {
+        BitSet cpus = new BitSet();
+        for (String item : cpuList.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+
+            int index = item.indexOf('-');
+            try {
+                if (index == -1) {
+                    cpus.set(Integer.parseInt(item));
+                } else {
+                    int from = Integer.parseInt(item.substring(0, index).trim());
+                    int to = Integer.parseInt(item.substring(index + 1).trim());
+                    if (from > to) {
+                        throw new IllegalArgumentException("invalid CPU range [" + item + "]");
+                    }
+                    cpus.set(from, to + 1);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid CPU [" + item + "]");
+            }
+        }
+
+        if (cpus.isEmpty()) {
+            throw new IllegalArgumentException("no CPUs found");
+        }
+        return cpus;
+    }
+
+    /**
+     * Formats CPUs as a CPU list, e.g. '0-3,6'.
+     *
+     * @param cpus the CPUs
+     * @return the CPU list
+     */
+    static String toCpuList(BitSet cpus) {
+        StringBuilder sb = new StringBuilder();
+        int from = cpus.nextSetBit(0);
+        while (from >= 0) {
+            int to = cpus.nextClearBit(from) - 1;
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(from);
+            if (to > from) {
+                sb.append('-').append(to);
+            }
+            from = cpus.nextSetBit(to + 1);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the CPUs for a thread of the execution group.
+     *
+     * @param threadIndex the index of the thread within the execution group
+     * @return the CPUs
+     */
+    BitSet cpusForThread(int threadIndex) {
+        if (!perThread) {
+            return cpus;
+        }
+
+        BitSet result = new BitSet();
+        result.set(cpuArray[threadIndex % cpuArray.length]);
+        return result;
+    }
+
+    /**
+     * Sets the affinity of the calling thread.
+     *
+     * @param cpus the CPUs the calling thread is allowed to run on
+     * @return the actual affinity of the calling thread or null if the affinity couldn't be set
+     */
+    static BitSet apply(BitSet cpus) {
+        if (!Affinity.isJNAAvailable()) {
+            return null;
+        }
+
+        try {
+            Affinity.setAffinity(cpus);
+            BitSet actual = Affinity.getAffinity();
+            return actual.isEmpty() ? null : actual;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to set CPU affinity to [" + toCpuList(cpus) + "]: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "cpus=" + toCpuList(cpus) + " mode=" + (perThread ? MODE_THREAD : MODE_GROUP);
+    }
+}
@@ -15,14 +15,18 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.OpenLoopMetronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 
+import java.io.Closeable;
 import java.lang.reflect.Constructor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.Math.round;
 import static java.lang.String.format;
@@ -34,11 +38,15 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-public class MetronomeSupplier implements Supplier<Metronome> {
+public class MetronomeSupplier implements Supplier<Metronome>, Closeable {
 
     private final Class<? extends Metronome> metronomeClass;
     private final Metronome masterMetronome;
-    private final long intervalNanos;
+    private final double[] sweepRates;
+    private final int threadCount;
+    // the interval of the execution group
+    private volatile long intervalNanos;
+    private int activeThreadCount;
 
     public MetronomeSupplier(String executionGroup, PropertyBinding binding, int threadCount) {
         String property = toPropertyName(executionGroup, "interval");
@@ -53,30 +61,64 @@ public class MetronomeSupplier implements Supplier<Metronome> {
             intervalNanos = round(SECONDS.toNanos(1) / ratePerSecond);
         }
 
+        String sweepProperty = toPropertyName(executionGroup, "ratePerSecondSweep");
+        String sweepString = binding.load(sweepProperty);
+        if (sweepString == null) {
+            this.sweepRates = null;
+        } else {
+            if (intervalNanos > 0) {
+                throw new IllegalTestException(format("%s can't be configured in combination with %s or %s",
+                        sweepProperty, property, toPropertyName(executionGroup, "ratePerSecond")));
+            }
+            this.sweepRates = parseSweepRates(sweepProperty, sweepString);
+            // the run starts at the first rate of the sweep
+            intervalNanos = toIntervalNanos(sweepRates[0]);
+        }
+
         // we read the metronome up front so we doing get an unused properties error if interval is 0,
         // but the user did configure a metronome.
         Class<SleepingMetronome> configuredMetronomeClass = binding.loadAsClass(
                 toPropertyName(executionGroup, "metronomeClass"), SleepingMetronome.class);
 
         this.intervalNanos = intervalNanos;
+        this.threadCount = threadCount;
+        this.activeThreadCount = threadCount;
         if (intervalNanos == 0) {
             this.metronomeClass = EmptyMetronome.class;
             this.masterMetronome = EmptyMetronome.INSTANCE;
         } else {
             this.metronomeClass = configuredMetronomeClass;
 
-            Constructor<? extends Metronome> constructor;
-            try {
-                constructor = this.metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class);
-            } catch (NoSuchMethodException e) {
-                throw new IllegalTestException("Metronome [%s], does not have the right constructor", e);
+            this.masterMetronome = newMasterMetronome(metronomeClass, intervalNanos, threadCount, binding, executionGroup);
+
+            if (sweepRates != null) {
+                try {
+                    // verifies up front that the rate can be changed while running
+                    masterMetronome.setIntervalNanos(intervalNanos);
+                } catch (UnsupportedOperationException e) {
+                    throw new IllegalTestException(format("%s can't be configured in combination with metronome [%s]",
+                            sweepProperty, metronomeClass.getName()), e);
+                }
             }
+        }
+    }
 
+    private static Metronome newMasterMetronome(Class<? extends Metronome> metronomeClass, long intervalNanos,
+                                                int threadCount, PropertyBinding binding, String executionGroup) {
+        try {
             try {
-                masterMetronome = constructor.newInstance(intervalNanos, threadCount, binding, executionGroup);
-            } catch (Exception e) {
-                throw new IllegalTestException("Failed to create a master metronome instance", e);
+                return metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class)
+                        .newInstance(intervalNanos, threadCount, binding, executionGroup);
+            } catch (NoSuchMethodException e) {
+                // a metronome that doesn't depend on the number of threads, e.g. the OpenLoopMetronome
+                return metronomeClass.getConstructor(Long.TYPE, PropertyBinding.class, String.class)
+                        .newInstance(intervalNanos, binding, executionGroup);
             }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalTestException(format("Metronome [%s], does not have the right constructor",
+                    metronomeClass.getName()), e);
+        } catch (Exception e) {
+            throw new IllegalTestException("Failed to create a master metronome instance", e);
         }
     }
 
@@ -84,6 +126,94 @@ public class MetronomeSupplier implements Supplier<Metronome> {
         return intervalNanos;
     }
 
+    /**
+     * Returns the rates of the rate sweep of the execution group.
+     *
+     * @return the rates per second or null if no rate sweep is configured
+     */
+    double[] getSweepRates() {
+        return sweepRates;
+    }
+
+    /**
+     * Changes the rate of the execution group while the test is running.
+     *
+     * This method is thread-safe.
+     *
+     * @param ratePerSecond the new rate per second. Must be larger than 0.
+     * @throws IllegalStateException if no rate was configured for the execution group
+     */
+    void setRatePerSecond(double ratePerSecond) {
+        if (metronomeClass == EmptyMetronome.class) {
+            throw new IllegalStateException("The rate can't be changed if no interval or ratePerSecond is configured");
+        }
+        long intervalNanos = toIntervalNanos(ratePerSecond);
+        synchronized (this) {
+            applyInterval(intervalNanos, activeThreadCount);
+            this.intervalNanos = intervalNanos;
+        }
+    }
+
+    /**
+     * Returns the rate of the execution group.
+     *
+     * @return the rate per second or 0 if no interval or ratePerSecond is configured
+     */
+    double getRatePerSecond() {
+        long intervalNanos = this.intervalNanos;
+        return intervalNanos == 0 ? 0 : SECONDS.toNanos(1) / (double) intervalNanos;
+    }
+
+    /**
+     * Changes the number of active threads of the execution group while the test is running; the rate of the execution
+     * group stays the same.
+     *
+     * This method is thread-safe.
+     *
+     * @param activeThreadCount the new number of active threads
+     */
+    synchronized void setActiveThreadCount(int activeThreadCount) {
+        if (metronomeClass != EmptyMetronome.class) {
+            applyInterval(intervalNanos, activeThreadCount);
+        }
+        this.activeThreadCount = activeThreadCount;
+    }
+
+    private void applyInterval(long intervalNanos, int activeThreadCount) {
+        long masterIntervalNanos = intervalNanos;
+        if (activeThreadCount != threadCount
+                && (metronomeClass == SleepingMetronome.class || metronomeClass == BusySpinningMetronome.class)) {
+            // these metronomes give every thread an interval of the group interval * threadCount; so with fewer active
+            // threads the group interval needs to be scaled down to keep the rate of the execution group the same
+            masterIntervalNanos = Math.max(1, intervalNanos * activeThreadCount / threadCount);
+        }
+        masterMetronome.setIntervalNanos(masterIntervalNanos);
+    }
+
+    private static long toIntervalNanos(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be larger than 0, found " + ratePerSecond);
+        }
+        return Math.max(1, round(SECONDS.toNanos(1) / ratePerSecond));
+    }
+
+    private static double[] parseSweepRates(String property, String value) {
+        String[] items = value.split(",");
+        double[] rates = new double[items.length];
+        for (int k = 0; k < items.length; k++) {
+            try {
+                rates[k] = Double.parseDouble(items[k].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalTestException(format("%s has an invalid property value [%s]", property, value), e);
+            }
+            if (rates[k] <= 0) {
+                throw new IllegalTestException(format("%s with value [%s] must only contain rates larger than 0",
+                        property, value));
+            }
+        }
+        return rates;
+    }
+
     private static long parseInterval(String property, String value) {
         long duration;
         try {
@@ -138,4 +268,27 @@ public class MetronomeSupplier implements Supplier<Metronome> {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the number of requests of the execution group that were started more than a single interval after their
+     * intended start time.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of late requests, or -1 if the metronome doesn't track late requests
+     */
+    long lateCount() {
+        return masterMetronome instanceof OpenLoopMetronome ? ((OpenLoopMetronome) masterMetronome).lateCount() : -1;
+    }
+
+    /**
+     * Closes the master metronome if it is Closeable, e.g. the
+     * {@link com.hazelcast.simulator.worker.metronome.OpenLoopMetronome} logs its summary when it is closed.
+     */
+    @Override
+    public void close() {
+        if (masterMetronome instanceof Closeable) {
+            closeQuietly((Closeable) masterMetronome);
+        }
+    }
 }
@@ -22,8 +22,8 @@ import java.util.Map;
 import static java.lang.Math.round;
 
 public class Probability {
-    public static final int PROBABILITY_LENGTH = 1000 * 1000;
-    public static final int TEN = 10;
+    // the resolution used to compare probabilities; so rounding errors like 0.1 + 0.2 != 0.3 are ignored
+    public static final long PROBABILITY_RESOLUTION = 1000L * 1000 * 1000 * 1000;
 
     private final double value;
 
@@ -32,23 +32,23 @@ public class Probability {
     }
 
     public boolean isLargerThanZero() {
-        return toInt(value) > toInt(0);
+        return toLong(value) > toLong(0);
     }
 
     public boolean isLargerThanOne() {
-        return toInt(value) > toInt(1);
+        return toLong(value) > toLong(1);
     }
 
     public boolean isSmallerThanZero() {
-        return toInt(value) < toInt(0);
+        return toLong(value) < toLong(0);
     }
 
     public boolean isSmallerThanOne() {
-        return toInt(value) < toInt(1);
+        return toLong(value) < toLong(1);
     }
 
     public boolean isMinusOne() {
-        return toInt(value) == toInt(-1);
+        return toLong(value) == toLong(-1);
     }
 
     public Probability add(Probability that) {
@@ -59,8 +59,8 @@ public class Probability {
         return new Probability(this.value - that.value);
     }
 
-    private int toInt(double v) {
-        return (int) round(v * PROBABILITY_LENGTH);
+    private long toLong(double v) {
+        return round(v * PROBABILITY_RESOLUTION);
     }
 
     public double getValue() {
@@ -72,7 +72,7 @@ public class Probability {
         return Double.toString(value);
     }
 
-    public static byte[] loadTimeStepProbabilityArray(Map<Method, Probability> methods, List<Method> activeMethods) {
+    public static AliasTable loadTimeStepAliasTable(Map<Method, Probability> methods, List<Method> activeMethods) {
         if (activeMethods.size() < 2) {
             return null;
         }
@@ -84,54 +84,6 @@ public class Probability {
             methodProbabilities[methodIndex] = probability.getValue();
         }
 
-        int[] methodRatios = methodProbabilitiesToMethodRatios(methodProbabilities);
-        return ratiosToMethodProbabilityArray(methodRatios);
-    }
-
-    public static int[] methodProbabilitiesToMethodRatios(double... methodProbabilities) {
-        int[] roundedMethodProbabilities = new int[methodProbabilities.length];
-
-        for (int k = 0; k < methodProbabilities.length; k++) {
-            roundedMethodProbabilities[k] = (int) Math.round(methodProbabilities[k] * PROBABILITY_LENGTH);
-        }
-
-        // now we simplify
-        for (; ; ) {
-            boolean powerOfTen = true;
-            for (int roundedMethodProbability : roundedMethodProbabilities) {
-                if (roundedMethodProbability % TEN != 0) {
-                    powerOfTen = false;
-                    break;
-                }
-            }
-
-            if (!powerOfTen) {
-                break;
-            }
-
-            for (int k = 0; k < roundedMethodProbabilities.length; k++) {
-                roundedMethodProbabilities[k] = roundedMethodProbabilities[k] / TEN;
-            }
-        }
-
-        return roundedMethodProbabilities;
-    }
-
-    public static byte[] ratiosToMethodProbabilityArray(int... methodRatios) {
-        int length = 0;
-        for (int methodRatio : methodRatios) {
-            length += methodRatio;
-        }
-
-        byte[] bytes = new byte[length];
-        int index = 0;
-        for (int methodIndex = 0; methodIndex < methodRatios.length; methodIndex++) {
-            for (int x = 0; x < methodRatios[methodIndex]; x++) {
-                bytes[index] = (byte) methodIndex;
-                index++;
-            }
-        }
-
-        return bytes;
+        return AliasTable.create(methodProbabilities);
     }
 }
@@ -51,14 +51,23 @@ public class PropertyBinding {
 
     static final int DEFAULT_THREAD_COUNT = 10;
     static final int DEFAULT_RECORD_JITTER_THRESHOLD_NS = 1000;
+    static final String DEFAULT_RECORD_JFR_SETTINGS = "default";
 
     // if we want to measure latency. Normally this is always true; but in its current setting, hdr can cause contention
     // and I want a switch that turns of hdr recording. Perhaps that with some tuning this isn't needed.
     public boolean measureLatency = true;
+    // if each timestep thread should record latency on its own stripe of the probe, so recording isn't contended.
+    public boolean stripeLatencyProbes = true;
     // flag to enable jitter recording
     public boolean recordJitter;
     // configures the minimum value for the jitter sample to be recorded.
     public int recordJitterThresholdNs = DEFAULT_RECORD_JITTER_THRESHOLD_NS;
+    // flag to enable a JFR recording of the run phase
+    public boolean recordJfr;
+    // the JFR configuration to use for the recording; 'default', 'profile' or the path of a .jfc file
+    public String recordJfrSettings = DEFAULT_RECORD_JFR_SETTINGS;
+    // timestep invocations with a latency of at least this value are recorded as JFR event; 0 disables the events
+    public long recordSlowTimeStepThresholdNs;
 
     // this can be removed as soon as the @InjectMetronome/worker functionality is dropped
     private MetronomeSupplier workerMetronomeConstructor;
@@ -81,6 +90,10 @@ public class PropertyBinding {
             throw new IllegalTestException("recordJitterThresholdNs can't be smaller than 0");
         }
 
+        if (recordSlowTimeStepThresholdNs < 0) {
+            throw new IllegalTestException("recordSlowTimeStepThresholdNs can't be smaller than 0");
+        }
+
         this.workerMetronomeConstructor = new MetronomeSupplier(
                 "", this, loadAsInt("threadCount", DEFAULT_THREAD_COUNT));
         this.probeClass = loadProbeClass();
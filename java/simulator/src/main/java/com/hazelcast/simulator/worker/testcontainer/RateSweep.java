@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Steps the rate of the execution groups through a list of rates within a single run; so a single run gives the
+ * latency at multiple levels of throughput.
+ *
+ * A rate sweep is configured using the 'ratePerSecondSweep' property of an execution group, e.g. '1000,2000,4000,8000'.
+ * The run starts at the first rate; once the warmup has completed, every 'sweepStepSeconds' the next rate is applied. If
+ * execution groups have a different number of rates, an execution group keeps its last rate once its rates are exhausted.
+ * When the last step has been reached, the run continues at the last rates until the test completes.
+ *
+ * The 'sweepP99SloMs' property is the SLO for the 99th percentile latency that is used by the coordinator to determine the
+ * maximum sustainable throughput. It is validated by the worker, so a misconfiguration fails the test up front.
+ */
+public final class RateSweep {
+
+    static final int DEFAULT_STEP_SECONDS = 30;
+
+    // the key is the execution group
+    private final Map<String, MetronomeSupplier> metronomeSuppliers;
+    private final Map<String, double[]> rates;
+    private final long stepMillis;
+    private final int stepCount;
+
+    RateSweep(Map<String, MetronomeSupplier> metronomeSuppliers, Map<String, double[]> rates, long stepMillis) {
+        this.metronomeSuppliers = metronomeSuppliers;
+        this.rates = rates;
+        this.stepMillis = stepMillis;
+        int stepCount = 0;
+        for (double[] groupRates : rates.values()) {
+            stepCount = max(stepCount, groupRates.length);
+        }
+        this.stepCount = stepCount;
+    }
+
+    /**
+     * Loads the RateSweep of a test.
+     *
+     * @param binding            the PropertyBinding
+     * @param metronomeSuppliers the MetronomeSupplier per execution group
+     * @return the loaded RateSweep or null if none of the execution groups has a rate sweep configured
+     * @throws IllegalTestException if the configuration is invalid
+     */
+    static RateSweep load(PropertyBinding binding, Map<String, MetronomeSupplier> metronomeSuppliers) {
+        Map<String, MetronomeSupplier> sweepSuppliers = new LinkedHashMap<>();
+        Map<String, double[]> rates = new LinkedHashMap<>();
+        for (Map.Entry<String, MetronomeSupplier> entry : metronomeSuppliers.entrySet()) {
+            double[] sweepRates = entry.getValue().getSweepRates();
+            if (sweepRates != null) {
+                sweepSuppliers.put(entry.getKey(), entry.getValue());
+                rates.put(entry.getKey(), sweepRates);
+            }
+        }
+
+        if (rates.isEmpty()) {
+            return null;
+        }
+
+        int stepSeconds = binding.loadAsInt("sweepStepSeconds", DEFAULT_STEP_SECONDS);
+        if (stepSeconds < 1) {
+            throw new IllegalTestException("sweepStepSeconds can't be smaller than 1, found " + stepSeconds);
+        }
+
+        double sloMillis = binding.loadAsDouble("sweepP99SloMs", 0);
+        if (sloMillis < 0) {
+            throw new IllegalTestException("sweepP99SloMs can't be smaller than 0, found " + sloMillis);
+        }
+
+        return new RateSweep(sweepSuppliers, rates, SECONDS.toMillis(stepSeconds));
+    }
+
+    /**
+     * Returns the number of steps; which is the largest number of rates of any execution group.
+     *
+     * @return the number of steps
+     */
+    public int stepCount() {
+        return stepCount;
+    }
+
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    /**
+     * Returns the step that should be active.
+     *
+     * @param elapsedMillis the time elapsed since the sweep started
+     * @return the step; once all steps have been run, the last step is returned.
+     */
+    public int stepAt(long elapsedMillis) {
+        return (int) min(max(0, elapsedMillis) / stepMillis, stepCount - 1);
+    }
+
+    /**
+     * Returns the combined rate of all execution groups with a rate sweep for a step.
+     *
+     * @param step the step
+     * @return the rate per second
+     */
+    public double ratePerSecond(int step) {
+        double ratePerSecond = 0;
+        for (double[] groupRates : rates.values()) {
+            ratePerSecond += groupRate(groupRates, step);
+        }
+        return ratePerSecond;
+    }
+
+    /**
+     * Applies the rates of a step to the metronomes of the execution groups.
+     *
+     * This method is thread-safe.
+     *
+     * @param step the step to apply
+     */
+    public void apply(int step) {
+        for (Map.Entry<String, double[]> entry : rates.entrySet()) {
+            metronomeSuppliers.get(entry.getKey()).setRatePerSecond(groupRate(entry.getValue(), step));
+        }
+    }
+
+    private static double groupRate(double[] groupRates, int step) {
+        return groupRates[min(step, groupRates.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, double[]> entry : rates.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(format("executionGroup [%s] rates=%s", entry.getKey(), Arrays.toString(entry.getValue())));
+        }
+        return sb.append(" stepSeconds=").append(MILLISECONDS.toSeconds(stepMillis)).toString();
+    }
+}
@@ -29,7 +29,11 @@ import com.hazelcast.simulator.utils.AnnotatedMethodRetriever;
 import com.hazelcast.simulator.utils.AnnotationFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.TeardownFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.VerifyFilter;
+import com.hazelcast.simulator.worker.jfr.JfrRecording;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import com.hazelcast.simulator.worker.performance.TestOperationsTracker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
@@ -53,6 +57,7 @@ import static com.hazelcast.simulator.common.TestPhase.LOCAL_VERIFY;
 import static com.hazelcast.simulator.common.TestPhase.RUN;
 import static com.hazelcast.simulator.common.TestPhase.SETUP;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -71,6 +76,8 @@ import static java.util.Arrays.asList;
  */
 public class TestContainer {
 
+    private static final Logger LOGGER = LogManager.getLogger(TestContainer.class);
+
     private final TestContextImpl testContext;
     private final TestCase testCase;
     private final Object testInstance;
@@ -79,6 +86,7 @@ public class TestContainer {
     private final Class testClass;
     private final TestRunner runner;
     private final TestOperationsTracker testOperationsTracker;
+    private final JfrRecording jfrRecording;
     private final AtomicReference<TestPhase> currentPhase = new AtomicReference<>();
 
     public TestContainer(TestContextImpl targetInstance, TestCase testCase, Object driverInstance) {
@@ -110,9 +118,10 @@ public class TestContainer {
 
         registerTestPhaseTasks();
 
-        propertyBinding.ensureNoUnusedProperties();
-
+        this.jfrRecording = newJfrRecording();
         this.testOperationsTracker = new TestOperationsTracker(this);
+
+        propertyBinding.ensureNoUnusedProperties();
     }
 
     public void stop() {
@@ -144,6 +153,28 @@ public class TestContainer {
         }
     }
 
+    private JfrRecording newJfrRecording() {
+        if (!propertyBinding.recordJfr) {
+            return null;
+        }
+
+        if (!JfrRecording.isAvailable()) {
+            LOGGER.warn(format("Test %s is configured to record JFR, but JFR isn't available in this JVM", testCase.getId()));
+            return null;
+        }
+
+        return new JfrRecording(testCase.getId(), propertyBinding.recordJfrSettings, getUserDir());
+    }
+
+    /**
+     * Returns the JFR recording of the run phase.
+     *
+     * @return the JfrRecording or null if JFR recording isn't enabled
+     */
+    public JfrRecording getJfrRecording() {
+        return jfrRecording;
+    }
+
     public PropertyBinding getPropertyBinding() {
         return propertyBinding;
     }
@@ -172,6 +203,41 @@ public class TestContainer {
         return runner == null ? 0 : runner.iterations();
     }
 
+    public long allocatedBytes() {
+        return runner == null ? -1 : runner.allocatedBytes();
+    }
+
+    public long inFlight() {
+        return runner == null ? -1 : runner.inFlight();
+    }
+
+    public long lateCount() {
+        return runner == null ? -1 : runner.lateCount();
+    }
+
+    /**
+     * Returns the rate sweep of the run phase.
+     *
+     * @return the RateSweep or null if no rate sweep is configured
+     */
+    public RateSweep getRateSweep() {
+        return runner == null ? null : runner.getRateSweep();
+    }
+
+    /**
+     * Changes the rate and/or the number of active threads of an execution group while the test is running.
+     *
+     * @param msg the RetuneMessage with the new settings
+     * @throws IllegalStateException if the test isn't running or can't be retuned
+     */
+    public void retune(RetuneMessage msg) {
+        if (!runner.isRunning()) {
+            throw new IllegalStateException(format("Test [%s] can only be retuned while it is running", testCase.getId()));
+        }
+
+        runner.retune(msg);
+    }
+
     public void invoke(TestPhase testPhase) throws Exception {
         if (!currentPhase.compareAndSet(null, testPhase)) {
             throw new IllegalStateException(format("Tried to start %s for test %s, but %s is still running!", testPhase,
@@ -223,7 +289,16 @@ public class TestContainer {
                     LatencyProbe probe = testContext.getLatencyProbe("jitter", false);
                     new JitterThread(testContext, probe, propertyBinding.recordJitterThresholdNs).start();
                 }
-                runner.run();
+                if (jfrRecording != null) {
+                    jfrRecording.start();
+                }
+                try {
+                    runner.run();
+                } finally {
+                    if (jfrRecording != null) {
+                        jfrRecording.stop();
+                    }
+                }
                 return null;
             });
 
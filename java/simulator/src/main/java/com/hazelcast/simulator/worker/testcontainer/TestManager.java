@@ -22,6 +22,7 @@ import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.drivers.Driver;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import org.apache.logging.log4j.LogManager;
@@ -93,6 +94,19 @@ public class TestManager {
         testContainer.stop();
     }
 
+    public void retune(RetuneMessage msg) {
+        String testId = msg.getTestId();
+
+        LOGGER.info(format("%s Retuning %s %s", DASHES, testId, DASHES));
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not retune test, test [%s] is not found.", testId));
+        }
+
+        testContainer.retune(msg);
+    }
+
     public void startTestPhase(StartPhaseMessage msg, Promise promise) throws Exception {
         TestPhase testPhase = msg.getTestPhase();
 
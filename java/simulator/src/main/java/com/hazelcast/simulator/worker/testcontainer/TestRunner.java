@@ -15,6 +15,8 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
+
 /**
  * A TestRunner is responsible for running a test.
  * <ol>
@@ -47,6 +49,63 @@ abstract class TestRunner {
         return 0;
     }
 
+    /**
+     * Returns the number of bytes allocated by the threads running the test. Value is -1 if it isn't tracked or can't be
+     * determined.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of allocated bytes.
+     */
+    public long allocatedBytes() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of asynchronous operations that are in flight. Value is -1 if it isn't tracked; which is the case
+     * if none of the execution groups has a 'maxInFlight' configured.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of operations in flight.
+     */
+    public long inFlight() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of operations that were started more than a single interval after their intended start time.
+     * Value is -1 if it isn't tracked; which is the case if none of the execution groups uses the OpenLoopMetronome.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of late operations.
+     */
+    public long lateCount() {
+        return -1;
+    }
+
+    /**
+     * Returns the rate sweep of the test.
+     *
+     * @return the RateSweep or null if no rate sweep is configured
+     */
+    RateSweep getRateSweep() {
+        return null;
+    }
+
+    /**
+     * Changes the rate and/or the number of active threads of an execution group while the test is running.
+     *
+     * This method is thread-safe.
+     *
+     * @param msg the RetuneMessage with the new settings
+     * @throws IllegalStateException if the test can't be retuned
+     */
+    void retune(RetuneMessage msg) {
+        throw new IllegalStateException("Only tests with @TimeStep methods can be retuned");
+    }
+
     /**
      * Checks if the run strategy is running. This is true in case of warmup and actual running.
      *
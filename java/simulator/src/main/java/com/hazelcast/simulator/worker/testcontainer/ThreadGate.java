@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+
+import static java.lang.String.format;
+
+/**
+ * Controls how many of the timestep threads of an execution group are active; so the number of threads can be changed
+ * while the test is running.
+ *
+ * The threads are spawned up front; a thread with an index equal or larger than the active thread count is parked in
+ * {@link #awaitActive(int)} till it is activated again or the test is stopped. The rate of the execution group is kept
+ * the same when the number of active threads changes.
+ */
+public final class ThreadGate {
+
+    private static final long WAIT_MILLIS = 100;
+
+    private final TestContext testContext;
+    private final MetronomeSupplier metronomeSupplier;
+    private final int threadCount;
+    private volatile int activeThreadCount;
+
+    ThreadGate(TestContext testContext, MetronomeSupplier metronomeSupplier, int threadCount) {
+        this.testContext = testContext;
+        this.metronomeSupplier = metronomeSupplier;
+        this.threadCount = threadCount;
+        this.activeThreadCount = threadCount;
+    }
+
+    /**
+     * Returns the number of active threads.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of active threads
+     */
+    public int activeThreadCount() {
+        return activeThreadCount;
+    }
+
+    /**
+     * Waits till the thread with the given index is active or the test is stopped.
+     *
+     * @param threadIndex the index of the thread within the execution group
+     * @return a new Metronome for the thread; so the thread doesn't try to catch up on the executions it missed while it
+     * was inactive
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Metronome awaitActive(int threadIndex) throws InterruptedException {
+        synchronized (this) {
+            while (threadIndex >= activeThreadCount && !testContext.isStopped()) {
+                wait(WAIT_MILLIS);
+            }
+        }
+        return metronomeSupplier.get();
+    }
+
+    int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Changes the number of active threads.
+     *
+     * This method is thread-safe.
+     *
+     * @param activeThreadCount the new number of active threads
+     * @throws IllegalArgumentException if activeThreadCount is smaller than 1 or larger than the configured threadCount
+     */
+    synchronized void setActiveThreadCount(int activeThreadCount) {
+        if (activeThreadCount < 1 || activeThreadCount > threadCount) {
+            throw new IllegalArgumentException(format("activeThreadCount must be between 1 and %d, found %d",
+                    threadCount, activeThreadCount));
+        }
+
+        metronomeSupplier.setActiveThreadCount(activeThreadCount);
+        this.activeThreadCount = activeThreadCount;
+        notifyAll();
+    }
+}
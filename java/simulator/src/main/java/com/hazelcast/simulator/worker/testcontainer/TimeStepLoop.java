@@ -17,7 +17,10 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 
 import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import com.hazelcast.simulator.test.BaseThreadState;
 import com.hazelcast.simulator.test.StopException;
+import com.hazelcast.simulator.utils.FastRandom;
 import com.hazelcast.simulator.worker.metronome.Metronome;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -25,14 +28,15 @@ import org.apache.logging.log4j.Logger;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.utils.ThreadAllocationUtils.getThreadAllocatedBytes;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.String.format;
 
 /**
@@ -42,6 +46,10 @@ import static java.lang.String.format;
  */
 public abstract class TimeStepLoop implements Runnable {
 
+    // without a metronome the thread gate is only checked once every 1024 iterations; so the loop doesn't do a volatile
+    // read for every call. With a metronome the check is hidden by the wait and done on every iteration.
+    protected static final long THREAD_GATE_CHECK_MASK = 1023;
+
     protected TestContextImpl testContext;
     protected Metronome metronome;
 
@@ -51,23 +59,36 @@ public abstract class TimeStepLoop implements Runnable {
     protected final Object testInstance;
     protected final AtomicLong iterations = new AtomicLong();
     protected final TimeStepModel timeStepModel;
-    protected final byte[] timeStepProbabilities;
     protected final Map<String, LatencyProbe> probeMap = new HashMap<>();
     protected long maxIterations;
     protected long delayMillis;
-
-    // There are used to prevent dead code optimization
-    protected final AtomicReference atomicReference = new AtomicReference();
-    protected final AtomicBoolean atomicBoolean = new AtomicBoolean();
-    protected final AtomicInteger atomicInteger = new AtomicInteger();
-    protected final AtomicLong atomicLong = new AtomicLong();
+    // limits the number of outstanding async calls; shared between the loops of an execution group if the scope is 'group'
+    protected Semaphore inFlightPermits;
+    // the maximum number of outstanding async calls; 0 if there is no limit
+    protected int maxInFlight;
+    protected LatencyProbe inFlightWaitProbe;
+    // the seed for the random of the loop and the thread state; derived from the 'randomSeed' of the test
+    protected long randomSeed;
+    protected FastRandom random;
+    // the CPUs the thread running this loop is pinned to; null if no affinity is configured
+    protected BitSet cpuAffinity;
+    // controls if the loop is active; so the number of threads of the execution group can be changed while running
+    protected ThreadGate threadGate;
+    protected int threadIndex;
+
+    // consumes the results of the timestep methods to prevent dead code optimization
+    protected final Blackhole blackhole = new Blackhole();
+
+    // the thread running this loop and its allocated bytes at the start and the end of the run; used to measure allocations
+    private volatile Thread thread;
+    private volatile long startAllocatedBytes = -1;
+    private volatile long endAllocatedBytes = -1;
 
     public TimeStepLoop(Object testInstance, TimeStepModel timeStepModel, String executionGroup) {
         this.testInstance = testInstance;
         this.timeStepModel = timeStepModel;
         this.executionGroup = executionGroup;
         this.threadState = initThreadState();
-        this.timeStepProbabilities = timeStepModel.getTimeStepProbabilityArray(executionGroup);
     }
 
     public String getExecutionGroup() {
@@ -75,18 +96,60 @@ public abstract class TimeStepLoop implements Runnable {
     }
 
     public void bind(PropertyBinding binding) {
+        random = new FastRandom(randomSeed);
+        if (threadState instanceof BaseThreadState) {
+            ((BaseThreadState) threadState).random.setSeed(FastRandom.deriveSeed(randomSeed, 0));
+        }
+
         for (Method method : timeStepModel.getActiveTimeStepMethods(executionGroup)) {
             LatencyProbe probe = testContext.getLatencyProbe(method.getName(), false);
             if (probe != null) {
+                if (binding.stripeLatencyProbes && timeStepModel.isSingleWriterProbe(method)) {
+                    probe = toStripe(probe);
+                }
                 probeMap.put(method.getName(), probe);
             }
         }
+
+        if (inFlightPermits != null) {
+            LatencyProbe probe = testContext.getLatencyProbe(toPropertyName(executionGroup, "inFlightWait"), false);
+            inFlightWaitProbe = binding.stripeLatencyProbes ? toStripe(probe) : probe;
+        }
+    }
+
+    private static LatencyProbe toStripe(LatencyProbe probe) {
+        return probe instanceof HdrLatencyProbe ? ((HdrLatencyProbe) probe).newStripe() : probe;
     }
 
     public long iteration() {
         return iterations.get();
     }
 
+    /**
+     * Returns the number of bytes allocated by the thread running this loop since the loop started.
+     *
+     * This method is thread-safe.
+     *
+     * @return the number of allocated bytes, or -1 if it can't be determined; e.g. for virtual threads
+     */
+    public long allocatedBytes() {
+        long start = startAllocatedBytes;
+        if (start < 0) {
+            return thread == null ? 0 : -1;
+        }
+
+        long end = endAllocatedBytes;
+        if (end < 0) {
+            Thread thread = this.thread;
+            end = thread == null ? -1 : getThreadAllocatedBytes(thread);
+            if (end < 0) {
+                // the thread completed in between; so the end value has been set
+                end = endAllocatedBytes;
+            }
+        }
+        return end < 0 ? -1 : end - start;
+    }
+
     @Override
     public final void run() {
         String threadName = Thread.currentThread().getName();
@@ -100,7 +163,14 @@ public abstract class TimeStepLoop implements Runnable {
             }
         }
 
+        if (cpuAffinity != null) {
+            applyCpuAffinity(threadName);
+        }
+
         logger.info(threadName + " started");
+        Thread currentThread = Thread.currentThread();
+        startAllocatedBytes = getThreadAllocatedBytes(currentThread);
+        thread = currentThread;
         try {
             beforeRun();
 
@@ -119,6 +189,18 @@ public abstract class TimeStepLoop implements Runnable {
             logger.warn(threadName + " completed with exception " + e.getClass().getName()
                     + " message: " + e.getMessage());
             throw rethrow(e);
+        } finally {
+            endAllocatedBytes = getThreadAllocatedBytes(currentThread);
+        }
+    }
+
+    private void applyCpuAffinity(String threadName) {
+        BitSet actual = CpuAffinity.apply(cpuAffinity);
+        if (actual == null) {
+            logger.warn(format("%s can't be pinned to CPUs [%s]; CPU affinity isn't supported on this platform",
+                    threadName, CpuAffinity.toCpuList(cpuAffinity)));
+        } else {
+            logger.info(format("%s pinned to CPUs [%s]", threadName, CpuAffinity.toCpuList(actual)));
         }
     }
 
@@ -17,6 +17,7 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.probes.LatencyProbe;
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
 import freemarker.ext.util.WrapperTemplateModel;
@@ -28,33 +29,62 @@ import freemarker.template.TemplateExceptionHandler;
 import freemarker.template.TemplateMethodModelEx;
 import freemarker.template.TemplateModelException;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.SimpleJavaFileObject;
 import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.security.PrivilegedAction;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.utils.CommonUtils.toSHA1;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
 import static java.security.AccessController.doPrivileged;
-import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Generates the {@link TimeStepLoop} of an execution group from the TimeStepLoop.ftl template.
+ *
+ * The generated source is compiled in memory, so no class files are written and no URLClassLoader is needed. The compiled
+ * classes are cached by the hash of their source. Tests with the same shape (same test class, execution group, metronome,
+ * probes etc.) share the loop class, so only the first test pays for the compilation. For troubleshooting, the source of
+ * every compiled loop class is written to the 'timestep-loop-classes' directory of the worker.
+ */
 class TimeStepLoopCodeGenerator {
 
+    private static final Logger LOGGER = LogManager.getLogger(TimeStepLoopCodeGenerator.class);
+    private static final String CLASS_NAME_PLACEHOLDER = "TimeStepLoopClassNamePlaceholder";
+    private static final int HASH_LENGTH = 16;
+
+    // the key is the class name, which contains the hash of the source
+    private static final ConcurrentMap<String, FutureTask<Class>> LOOP_CLASSES = new ConcurrentHashMap<>();
+    private static final Configuration TEMPLATE_CONFIGURATION = newTemplateConfiguration();
+
     private final JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
     private final File targetDirectory = new File(getUserDir(), "timestep-loop-classes");
 
@@ -64,11 +94,12 @@ class TimeStepLoopCodeGenerator {
             TimeStepModel timeStepModel,
             Class<? extends Metronome> metronomeClass,
             Class<? extends LatencyProbe> probeClass,
+            boolean stripeLatencyProbes,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
-
-        ensureExistingDirectory(targetDirectory);
+            boolean hasIterationCap,
+            boolean hasInFlightLimit,
+            long slowTimeStepThresholdNanos) {
 
         String className = timeStepModel.getTestClass().getSimpleName();
         if (!"".equals(executionGroup)) {
@@ -77,12 +108,43 @@ class TimeStepLoopCodeGenerator {
         }
         className += "Loop";
 
-        if (!"".equals(testCaseId)) {
-            className += testCaseId;
+        // the source is generated with a placeholder for the class name, so the hash only depends on the shape of the loop
+        String source = generateSource(className, executionGroup, metronomeClass, timeStepModel, probeClass,
+                stripeLatencyProbes, logFrequency, logRateMs, hasIterationCap, hasInFlightLimit, slowTimeStepThresholdNanos);
+        String loopClassName = className + "_" + toSHA1(source).substring(0, HASH_LENGTH);
+        String javaCode = source.replace(CLASS_NAME_PLACEHOLDER, loopClassName);
+
+        // the compilation is done outside of the map, so compiling a loop class doesn't block the other loop classes
+        FutureTask<Class> task = new FutureTask<>(() -> compileLoopClass(testCaseId, loopClassName, javaCode));
+        FutureTask<Class> found = LOOP_CLASSES.putIfAbsent(loopClassName, task);
+        if (found == null) {
+            task.run();
+            found = task;
+        } else {
+            LOGGER.info(format("Test %s reuses %s", testCaseId, loopClassName));
+        }
+
+        try {
+            return found.get();
+        } catch (ExecutionException e) {
+            // a failed compilation isn't cached
+            LOOP_CLASSES.remove(loopClassName, found);
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalTestException("Interrupted while waiting for the compilation of " + loopClassName, e);
         }
-        JavaFileObject file = createJavaFileObject(
-                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap);
-        return compile(javaCompiler, file, className);
+    }
+
+    private Class compileLoopClass(String testCaseId, String className, String javaCode) {
+        long startNanos = System.nanoTime();
+        ensureExistingDirectory(targetDirectory);
+        writeText(javaCode, new File(targetDirectory, className + ".java"));
+
+        Class loopClass = compile(javaCompiler, new JavaSourceFromString(className, javaCode), className);
+        LOGGER.info(format("Test %s compiled %s in %d ms", testCaseId, className,
+                NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+        return loopClass;
     }
 
     Class compile(JavaCompiler compiler, JavaFileObject file, final String className) {
@@ -92,15 +154,22 @@ class TimeStepLoopCodeGenerator {
         }
 
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-        JavaCompiler.CompilationTask task = compiler.getTask(
-                null,
-                null,
-                diagnostics,
-                asList("-d", targetDirectory.getAbsolutePath()),
-                null,
-                singletonList(file));
-
-        boolean success = task.call();
+        InMemoryFileManager fileManager = new InMemoryFileManager(compiler.getStandardFileManager(diagnostics, null, null));
+        boolean success;
+        try {
+            // annotation processing is disabled, so javac doesn't scan the classpath for processors
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    singletonList("-proc:none"),
+                    null,
+                    singletonList(file));
+            success = task.call();
+        } finally {
+            closeQuietly(fileManager);
+        }
+
         if (!success) {
             StringBuilder sb = new StringBuilder();
             for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
@@ -115,42 +184,61 @@ class TimeStepLoopCodeGenerator {
 
         return (Class) doPrivileged((PrivilegedAction) () -> {
             try {
-                URLClassLoader classLoader = new URLClassLoader(new URL[]{targetDirectory.toURI().toURL()});
+                ClassLoader classLoader = new ByteArrayClassLoader(ClassLoader.getSystemClassLoader(), fileManager.classes);
                 return (Class) classLoader.loadClass(className);
-            } catch (ClassNotFoundException | MalformedURLException e) {
+            } catch (ClassNotFoundException e) {
                 throw new IllegalTestException(e.getMessage(), e);
             }
         });
     }
 
-    private JavaFileObject createJavaFileObject(
+    private static void closeQuietly(JavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close the JavaFileManager", e);
+        }
+    }
+
+    private static Configuration newTemplateConfiguration() {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
+        cfg.setClassForTemplateLoading(TimeStepLoopCodeGenerator.class, "/");
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setLogTemplateExceptions(false);
+        return cfg;
+    }
+
+    private String generateSource(
             String className,
             String executionGroup,
             Class<? extends Metronome> metronomeClass,
             TimeStepModel timeStepModel,
             Class<? extends LatencyProbe> probeClass,
+            boolean stripeLatencyProbes,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
+            boolean hasIterationCap,
+            boolean hasInFlightLimit,
+            long slowTimeStepThresholdNanos) {
         try {
-            Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
-            cfg.setClassForTemplateLoading(this.getClass(), "/");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
             Map<String, Object> root = new HashMap<>();
             root.put("testInstanceClass", getClassName(timeStepModel.getTestClass()));
             root.put("metronomeClass", getMetronomeClass(metronomeClass));
             root.put("timeStepMethods", timeStepModel.getActiveTimeStepMethods(executionGroup));
+            root.put("aliasTable", timeStepModel.getTimeStepAliasTable(executionGroup));
             root.put("probeClass", getClassName(probeClass));
+            if (probeClass == HdrLatencyProbe.class && stripeLatencyProbes) {
+                root.put("stripeClass", getClassName(HdrLatencyProbe.Stripe.class));
+            }
             root.put("isStartNanos", new IsStartNanos(timeStepModel));
             root.put("isAssignableFrom", new IsAssignableFromMethod());
             root.put("isAsyncResult", new IsAsyncResult());
             root.put("Probe", LatencyProbe.class);
             root.put("threadStateClass", getClassName(timeStepModel.getThreadStateClass(executionGroup)));
             root.put("hasProbe", new HasProbeMethod());
-            root.put("className", className);
+            root.put("isSingleWriterProbe", new IsSingleWriterProbe(timeStepModel));
+            root.put("className", CLASS_NAME_PLACEHOLDER);
             if (logFrequency > 0) {
                 root.put("logFrequency", "" + logFrequency);
             }
@@ -163,16 +251,18 @@ class TimeStepLoopCodeGenerator {
                 root.put("hasIterationCap", "true");
             }
 
-            Template temp = cfg.getTemplate("TimeStepLoop.ftl");
-            StringWriter out = new StringWriter();
-            temp.process(root, out);
-
-            String javaCode = out.toString();
-            File javaFile = new File(targetDirectory, className + ".java");
+            if (hasInFlightLimit) {
+                root.put("hasInFlightLimit", "true");
+            }
 
-            writeText(javaCode, javaFile);
+            if (slowTimeStepThresholdNanos > 0) {
+                root.put("slowTimeStepThresholdNanos", slowTimeStepThresholdNanos + "L");
+            }
 
-            return new JavaSourceFromString(className, javaCode);
+            Template temp = TEMPLATE_CONFIGURATION.getTemplate("TimeStepLoop.ftl");
+            StringWriter out = new StringWriter();
+            temp.process(root, out);
+            return out.toString();
         } catch (Exception e) {
             throw new IllegalTestException(className + " ran into a code generation problem: " + e.getMessage(), e);
         }
@@ -204,6 +294,55 @@ class TimeStepLoopCodeGenerator {
         }
     }
 
+    /**
+     * A JavaFileManager that keeps the compiled classes in memory instead of writing them to disk.
+     */
+    private static final class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        // the key is the binary name of the class; nested classes of the loop are included
+        private final Map<String, byte[]> classes = new HashMap<>();
+
+        InMemoryFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            URI uri = URI.create("bytes:///" + className.replace('.', '/') + kind.extension);
+            return new SimpleJavaFileObject(uri, kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() {
+                            classes.put(className, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private static final class ByteArrayClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        ByteArrayClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
     private static final class IsAssignableFromMethod implements TemplateMethodModelEx {
 
         @Override
@@ -300,4 +439,29 @@ class TimeStepLoopCodeGenerator {
             return false;
         }
     }
+
+    private static final class IsSingleWriterProbe implements TemplateMethodModelEx {
+
+        private final TimeStepModel timeStepModel;
+
+        IsSingleWriterProbe(TimeStepModel timeStepModel) {
+            this.timeStepModel = timeStepModel;
+        }
+
+        @Override
+        public Object exec(List list) throws TemplateModelException {
+            if (list.size() != 1) {
+                throw new TemplateModelException("Wrong number of arguments for method isSingleWriterProbe()."
+                        + " Method has one required parameter: [Method]. Found: " + list.size());
+            }
+
+            Object arg1 = ((WrapperTemplateModel) list.get(0)).getWrappedObject();
+            if (!(arg1 instanceof Method)) {
+                throw new TemplateModelException("Wrong type of the first parameter."
+                        + " It should be Method. Found: " + arg1.getClass());
+            }
+
+            return timeStepModel.isSingleWriterProbe((Method) arg1);
+        }
+    }
 }
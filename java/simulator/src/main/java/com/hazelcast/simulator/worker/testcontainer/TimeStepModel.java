@@ -32,9 +32,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
-import static com.hazelcast.simulator.worker.testcontainer.Probability.loadTimeStepProbabilityArray;
+import static com.hazelcast.simulator.worker.testcontainer.Probability.loadTimeStepAliasTable;
 import static java.lang.String.format;
 import static java.lang.reflect.Modifier.isAbstract;
 import static java.lang.reflect.Modifier.isPublic;
@@ -124,6 +125,44 @@ public class TimeStepModel {
         return result;
     }
 
+    /**
+     * Checks if any of the active {@link TimeStep} methods of the given execution group returns a
+     * {@link CompletableFuture}.
+     *
+     * @param group the name of the execution group
+     * @return {@code true} if the execution group contains async timestep methods, {@code false} otherwise
+     */
+    public final boolean hasAsyncTimeStepMethods(String group) {
+        for (Method method : getActiveTimeStepMethods(group)) {
+            if (CompletableFuture.class.equals(method.getReturnType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the latency of a {@link TimeStep} method is only recorded by the timestep thread itself.
+     *
+     * This isn't the case for async methods, since the latency is recorded on completion, and for methods that receive
+     * the probe as an argument since these can record the latency from any thread.
+     *
+     * @param method the timestep method
+     * @return {@code true} if only the timestep thread records latency, {@code false} otherwise
+     */
+    public final boolean isSingleWriterProbe(Method method) {
+        if (CompletableFuture.class.equals(method.getReturnType())) {
+            return false;
+        }
+
+        for (Class paramType : method.getParameterTypes()) {
+            if (LatencyProbe.class.isAssignableFrom(paramType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public final Constructor getThreadStateConstructor(String executionGroup) {
         return executionGroups.get(executionGroup).threadStateConstructor;
     }
@@ -195,13 +234,6 @@ public class TimeStepModel {
     private void loadTimeStepMethods() {
         List<Method> methods = new AnnotatedMethodRetriever(testClass, TimeStep.class).findAll();
 
-        // there is a bound on the max number of timestep methods so they fit into a byte
-        // we can easily increase the number to 256 in the future
-        if (methods.size() > Byte.MAX_VALUE) {
-            throw new IllegalTestException(
-                    testClass.getName() + " has more than 127 TimeStep methods, found: " + methods.size());
-        }
-
         validateUniqueMethodNames(methods);
         validateModifiers(methods);
         validateTimeStepParameters(methods);
@@ -319,17 +351,16 @@ public class TimeStepModel {
     }
 
     /**
-     * Returns the probabilities of the {@link TimeStep} methods.
+     * Returns the {@link AliasTable} to select a {@link TimeStep} method based on its probability.
      *
-     * The value in the byte refers to the index of the method in the {@link #getActiveTimeStepMethods(String)}.
-     * If a method has 0.5 probability and index 15, then 50% of the values in the array will point to 15.
+     * The index returned by the alias table refers to the index of the method in the {@link #getActiveTimeStepMethods(String)}.
      *
-     * @param group the name of the execution group to get the probability array for
-     * @return the array of probabilities for each {@link TimeStep} method or {@code null} if there is only a
+     * @param group the name of the execution group to get the alias table for
+     * @return the alias table for the {@link TimeStep} methods or {@code null} if there is only a
      * single {@link TimeStep} method.
      */
-    public byte[] getTimeStepProbabilityArray(String group) {
-        return executionGroups.get(group).timeStepProbabilityArray;
+    public AliasTable getTimeStepAliasTable(String group) {
+        return executionGroups.get(group).timeStepAliasTable;
     }
 
     private final class ExecutionGroup {
@@ -340,7 +371,7 @@ public class TimeStepModel {
         private Class threadStateClass;
         private Constructor threadStateConstructor;
         private Map<Method, Probability> probabilities;
-        private byte[] timeStepProbabilityArray;
+        private AliasTable timeStepAliasTable;
 
         private ExecutionGroup(String name) {
             this.name = name;
@@ -350,7 +381,7 @@ public class TimeStepModel {
             threadStateClass = loadThreadStateClass();
             threadStateConstructor = loadThreadStateConstructor();
             probabilities = loadProbabilities();
-            timeStepProbabilityArray = loadTimeStepProbabilityArray(probabilities, getActiveTimeStepMethods(name));
+            timeStepAliasTable = loadTimeStepAliasTable(probabilities, getActiveTimeStepMethods(name));
         }
 
         private Class loadThreadStateClass() {
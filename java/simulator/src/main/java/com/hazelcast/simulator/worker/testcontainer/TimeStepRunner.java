@@ -17,13 +17,23 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.utils.FastRandom;
 import com.hazelcast.simulator.utils.ThreadSpawner;
+import com.hazelcast.simulator.worker.jfr.JfrRecording;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Constructor;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.String.format;
@@ -40,6 +50,10 @@ class TimeStepRunner extends TestRunner {
     private static final int DEFAULT_THREAD_COUNT = 10;
     private static final int DEFAULT_LOG_FREQUENCY = 0;
     private static final int DEFAULT_LOG_RATE_MS = 0;
+    private static final String IN_FLIGHT_SCOPE_THREAD = "thread";
+    private static final String IN_FLIGHT_SCOPE_GROUP = "group";
+    private static final String THREAD_TYPE_PLATFORM = "platform";
+    private static final String THREAD_TYPE_VIRTUAL = "virtual";
 
     private static final Logger LOGGER = LogManager.getLogger(TimeStepRunner.class);
 
@@ -53,6 +67,16 @@ class TimeStepRunner extends TestRunner {
     private final Map<String, Class> loopClassMap = new HashMap<>();
     private final Map<String, Integer> threadCountMap = new HashMap<>();
     private final Map<String, Long> runIterationMap = new HashMap<>();
+    private final Map<String, Integer> maxInFlightMap = new HashMap<>();
+    private final Map<String, String> inFlightScopeMap = new HashMap<>();
+    private final Map<String, Boolean> virtualThreadMap = new HashMap<>();
+    private final Map<String, CpuAffinity> cpuAffinityMap = new HashMap<>();
+    private final Map<String, ThreadGate> threadGateMap = new HashMap<>();
+    // the settings to restore once the duration of a retune expires; the key is the execution group
+    private final Map<String, PendingRestore> pendingRestoreMap = new HashMap<>();
+    private ScheduledExecutorService restoreScheduler;
+    private final RateSweep rateSweep;
+    private final long randomSeed;
     private int totalThreadCount;
 
     TimeStepRunner(TestContainer testContainer) {
@@ -61,14 +85,20 @@ class TimeStepRunner extends TestRunner {
         this.testInstance = testContainer.getTestInstance();
         this.timeStepModel = new TimeStepModel(testInstance.getClass(), binding);
         this.spawner = new ThreadSpawner(testContext.getTestId());
+        this.randomSeed = binding.loadAsLong("randomSeed", FastRandom.newSeed());
+        LOGGER.info(format("Using randomSeed: %d", randomSeed));
+        long slowTimeStepThresholdNanos = loadSlowTimeStepThresholdNanos();
 
         for (String executionGroup : timeStepModel.getExecutionGroups()) {
             int threadCount = binding.loadAsInt(toPropertyName(executionGroup, "threadCount"), DEFAULT_THREAD_COUNT);
             totalThreadCount += threadCount;
             threadCountMap.put(executionGroup, threadCount);
+            virtualThreadMap.put(executionGroup, loadVirtualThreads(executionGroup));
+            cpuAffinityMap.put(executionGroup, loadCpuAffinity(executionGroup));
 
             MetronomeSupplier metronomeConstructor = new MetronomeSupplier(executionGroup, binding, threadCount);
             metronomeSettingsMap.put(executionGroup, metronomeConstructor);
+            threadGateMap.put(executionGroup, new ThreadGate(testContext, metronomeConstructor, threadCount));
 
             LOGGER.info(format("executionGroup [%s] using interval: %s class=%s",
                     executionGroup, metronomeConstructor.getIntervalNanos(), metronomeConstructor.getMetronomeClass().getName()));
@@ -79,18 +109,228 @@ class TimeStepRunner extends TestRunner {
             long iterations = binding.loadAsLong(toPropertyName(executionGroup, "iterations"), 0);
             runIterationMap.put(executionGroup, iterations);
 
+            int maxInFlight = loadMaxInFlight(executionGroup);
+            maxInFlightMap.put(executionGroup, maxInFlight);
+
             Class loopClass = new TimeStepLoopCodeGenerator().compile(
                     testContainer.getTestCase().getId(),
                     executionGroup,
                     timeStepModel,
                     metronomeConstructor.getMetronomeClass(),
                     binding.getProbeClass(),
+                    binding.stripeLatencyProbes,
                     logFrequency,
                     logRateMs,
-                    iterations > 0);
+                    iterations > 0,
+                    maxInFlight > 0,
+                    slowTimeStepThresholdNanos);
 
             loopClassMap.put(executionGroup, loopClass);
         }
+
+        this.rateSweep = RateSweep.load(binding, metronomeSettingsMap);
+        if (rateSweep != null) {
+            LOGGER.info("Using rate sweep: " + rateSweep);
+        }
+    }
+
+    @Override
+    RateSweep getRateSweep() {
+        return rateSweep;
+    }
+
+    @Override
+    synchronized void retune(RetuneMessage msg) {
+        String executionGroup = msg.getExecutionGroup() == null ? "" : msg.getExecutionGroup();
+        MetronomeSupplier metronomeSupplier = metronomeSettingsMap.get(executionGroup);
+        if (metronomeSupplier == null) {
+            throw new IllegalArgumentException(format("executionGroup [%s] is not found", executionGroup));
+        }
+        ThreadGate threadGate = threadGateMap.get(executionGroup);
+        validateRetune(msg, executionGroup, metronomeSupplier, threadGate);
+
+        boolean changeRate = msg.getRatePerSecond() > 0 || msg.getRateFactor() > 0;
+        double currentRatePerSecond = metronomeSupplier.getRatePerSecond();
+        double ratePerSecond = msg.getRateFactor() > 0 ? currentRatePerSecond * msg.getRateFactor() : msg.getRatePerSecond();
+        int threadCount = msg.getThreadCount();
+
+        // only the settings that are changed are restored
+        GroupSettings restoreSettings = new GroupSettings(
+                changeRate ? currentRatePerSecond : 0,
+                threadCount > 0 ? threadGate.activeThreadCount() : 0);
+        PendingRestore pendingRestore = pendingRestoreMap.remove(executionGroup);
+        if (pendingRestore != null) {
+            pendingRestore.future.cancel(false);
+            // a retune during a retune with a duration restores the settings from before the first retune
+            restoreSettings = pendingRestore.settings.merge(restoreSettings);
+        }
+
+        apply(executionGroup, new GroupSettings(changeRate ? ratePerSecond : 0, threadCount));
+
+        if (msg.getDurationSeconds() > 0) {
+            PendingRestore pending = new PendingRestore(restoreSettings);
+            pending.future = getRestoreScheduler().schedule(
+                    () -> restore(executionGroup, pending), msg.getDurationSeconds(), SECONDS);
+            pendingRestoreMap.put(executionGroup, pending);
+            echo(format("executionGroup [%s] restores %s in %d seconds",
+                    executionGroup, restoreSettings, msg.getDurationSeconds()));
+        }
+    }
+
+    private static void validateRetune(RetuneMessage msg, String executionGroup, MetronomeSupplier metronomeSupplier,
+                                       ThreadGate threadGate) {
+        if (msg.getRatePerSecond() < 0 || msg.getRateFactor() < 0 || msg.getThreadCount() < 0
+                || msg.getDurationSeconds() < 0) {
+            throw new IllegalArgumentException("Retune settings can't be smaller than 0: " + msg);
+        }
+        if (msg.getRatePerSecond() > 0 && msg.getRateFactor() > 0) {
+            throw new IllegalArgumentException("ratePerSecond and rateFactor can't be combined: " + msg);
+        }
+        if (msg.getRatePerSecond() == 0 && msg.getRateFactor() == 0 && msg.getThreadCount() == 0) {
+            throw new IllegalArgumentException("Nothing to retune: " + msg);
+        }
+
+        if (msg.getRatePerSecond() > 0 || msg.getRateFactor() > 0) {
+            if (metronomeSupplier.getRatePerSecond() == 0) {
+                throw new IllegalStateException(format("The rate of executionGroup [%s] can't be changed "
+                        + "if no interval or ratePerSecond is configured", executionGroup));
+            }
+            if (metronomeSupplier.getSweepRates() != null) {
+                throw new IllegalStateException(format("The rate of executionGroup [%s] can't be changed "
+                        + "since it has a rate sweep", executionGroup));
+            }
+        }
+
+        if (msg.getThreadCount() > threadGate.getThreadCount()) {
+            throw new IllegalArgumentException(format("threadCount of executionGroup [%s] can't be larger than the "
+                    + "configured threadCount %d, found %d", executionGroup, threadGate.getThreadCount(), msg.getThreadCount()));
+        }
+    }
+
+    private synchronized void restore(String executionGroup, PendingRestore restore) {
+        if (pendingRestoreMap.get(executionGroup) != restore) {
+            // the restore has been replaced by another retune
+            return;
+        }
+        pendingRestoreMap.remove(executionGroup);
+        apply(executionGroup, restore.settings);
+    }
+
+    private void apply(String executionGroup, GroupSettings settings) {
+        MetronomeSupplier metronomeSupplier = metronomeSettingsMap.get(executionGroup);
+        ThreadGate threadGate = threadGateMap.get(executionGroup);
+        if (settings.ratePerSecond > 0) {
+            metronomeSupplier.setRatePerSecond(settings.ratePerSecond);
+        }
+        if (settings.threadCount > 0) {
+            threadGate.setActiveThreadCount(settings.threadCount);
+        }
+        echo(format("executionGroup [%s] retuned to ratePerSecond %.2f threadCount %d", executionGroup,
+                metronomeSupplier.getRatePerSecond(), threadGate.activeThreadCount()));
+    }
+
+    private void echo(String msg) {
+        LOGGER.info(msg);
+        testContext.echoCoordinator(msg);
+    }
+
+    private ScheduledExecutorService getRestoreScheduler() {
+        if (restoreScheduler == null) {
+            restoreScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, testContext.getTestId() + "-retune");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return restoreScheduler;
+    }
+
+    private long loadSlowTimeStepThresholdNanos() {
+        long thresholdNanos = binding.recordSlowTimeStepThresholdNs;
+        if (thresholdNanos == 0) {
+            return 0;
+        }
+
+        if (binding.getProbeClass() == null) {
+            throw new IllegalTestException("recordSlowTimeStepThresholdNs can't be configured when latency isn't measured");
+        }
+
+        if (!JfrRecording.isAvailable()) {
+            LOGGER.warn("recordSlowTimeStepThresholdNs is configured, but JFR isn't available in this JVM");
+            return 0;
+        }
+
+        LOGGER.info(format("Recording timestep invocations slower than %d ns as JFR event", thresholdNanos));
+        return thresholdNanos;
+    }
+
+    private boolean loadVirtualThreads(String executionGroup) {
+        String property = toPropertyName(executionGroup, "threadType");
+        String threadType = binding.load(property);
+        if (threadType == null || THREAD_TYPE_PLATFORM.equals(threadType)) {
+            return false;
+        } else if (!THREAD_TYPE_VIRTUAL.equals(threadType)) {
+            throw new IllegalTestException(format("%s has an invalid value [%s], valid values are [%s, %s]",
+                    property, threadType, THREAD_TYPE_PLATFORM, THREAD_TYPE_VIRTUAL));
+        }
+
+        if (!ThreadSpawner.isVirtualThreadSupported()) {
+            LOGGER.warn(format("executionGroup [%s] is configured to use virtual threads, but the JVM doesn't support "
+                    + "virtual threads; platform threads are used instead", executionGroup));
+            return false;
+        }
+
+        LOGGER.info(format("executionGroup [%s] using virtual threads", executionGroup));
+        return true;
+    }
+
+    private CpuAffinity loadCpuAffinity(String executionGroup) {
+        CpuAffinity cpuAffinity = CpuAffinity.load(binding, executionGroup);
+        if (cpuAffinity == null) {
+            return null;
+        }
+
+        if (virtualThreadMap.get(executionGroup)) {
+            throw new IllegalTestException(toPropertyName(executionGroup, "cpuAffinity")
+                    + " can't be configured in combination with virtual threads");
+        }
+
+        LOGGER.info(format("executionGroup [%s] using cpuAffinity: %s", executionGroup, cpuAffinity));
+        return cpuAffinity;
+    }
+
+    private int loadMaxInFlight(String executionGroup) {
+        String maxInFlightProperty = toPropertyName(executionGroup, "maxInFlight");
+        int maxInFlight = binding.loadAsInt(maxInFlightProperty, 0);
+        String scopeProperty = toPropertyName(executionGroup, "maxInFlightScope");
+        String scope = binding.load(scopeProperty);
+        if (maxInFlight < 0) {
+            throw new IllegalTestException(maxInFlightProperty + " can't be smaller than 0");
+        }
+
+        if (maxInFlight == 0) {
+            if (scope != null) {
+                throw new IllegalTestException(scopeProperty + " can only be configured in combination with "
+                        + maxInFlightProperty);
+            }
+            return 0;
+        }
+
+        if (!timeStepModel.hasAsyncTimeStepMethods(executionGroup)) {
+            throw new IllegalTestException(maxInFlightProperty + " can only be configured for an execution group with "
+                    + "timestep methods returning a CompletableFuture");
+        }
+
+        if (scope == null) {
+            scope = IN_FLIGHT_SCOPE_THREAD;
+        } else if (!IN_FLIGHT_SCOPE_THREAD.equals(scope) && !IN_FLIGHT_SCOPE_GROUP.equals(scope)) {
+            throw new IllegalTestException(format("%s has an invalid value [%s], valid values are [%s, %s]",
+                    scopeProperty, scope, IN_FLIGHT_SCOPE_THREAD, IN_FLIGHT_SCOPE_GROUP));
+        }
+        inFlightScopeMap.put(executionGroup, scope);
+
+        LOGGER.info(format("executionGroup [%s] using maxInFlight: %d scope=%s", executionGroup, maxInFlight, scope));
+        return maxInFlight;
     }
 
     @Override
@@ -105,6 +345,55 @@ class TimeStepRunner extends TestRunner {
         return iterations;
     }
 
+    @Override
+    public long allocatedBytes() {
+        TimeStepLoop[] localRunners = loops;
+        if (localRunners == null) {
+            return -1;
+        }
+
+        long allocatedBytes = 0;
+        for (TimeStepLoop runner : localRunners) {
+            long runnerAllocatedBytes = runner.allocatedBytes();
+            if (runnerAllocatedBytes < 0) {
+                return -1;
+            }
+            allocatedBytes += runnerAllocatedBytes;
+        }
+        return allocatedBytes;
+    }
+
+    @Override
+    public long inFlight() {
+        TimeStepLoop[] localRunners = loops;
+        if (localRunners == null) {
+            return -1;
+        }
+
+        // with the 'group' scope, the loops of an execution group share their permits
+        Set<Semaphore> permits = Collections.newSetFromMap(new IdentityHashMap<>());
+        long inFlight = 0;
+        for (TimeStepLoop runner : localRunners) {
+            Semaphore runnerPermits = runner.inFlightPermits;
+            if (runnerPermits != null && permits.add(runnerPermits)) {
+                inFlight += maxInFlightMap.get(runner.getExecutionGroup()) - runnerPermits.availablePermits();
+            }
+        }
+        return permits.isEmpty() ? -1 : inFlight;
+    }
+
+    @Override
+    public long lateCount() {
+        long lateCount = -1;
+        for (MetronomeSupplier metronomeSupplier : metronomeSettingsMap.values()) {
+            long groupLateCount = metronomeSupplier.lateCount();
+            if (groupLateCount >= 0) {
+                lateCount = lateCount < 0 ? groupLateCount : lateCount + groupLateCount;
+            }
+        }
+        return lateCount;
+    }
+
     @Override
     public void run() throws Exception {
         try {
@@ -123,15 +412,26 @@ class TimeStepRunner extends TestRunner {
                     name += "-" + executionGroup;
                 }
                 name += "-timestepThread";
-                spawner.spawn(name, loop);
+                spawner.spawn(name, loop, virtualThreadMap.get(executionGroup));
             }
 
             spawner.awaitCompletion();
         } finally {
+            for (MetronomeSupplier metronomeSupplier : metronomeSettingsMap.values()) {
+                metronomeSupplier.close();
+            }
+            shutdownRestoreScheduler();
             onRunCompleted();
         }
     }
 
+    private synchronized void shutdownRestoreScheduler() {
+        if (restoreScheduler != null) {
+            restoreScheduler.shutdownNow();
+        }
+        pendingRestoreMap.clear();
+    }
+
     @Override
     public void stop() {
         super.stop();
@@ -169,12 +469,31 @@ class TimeStepRunner extends TestRunner {
             }
             int threadCount = threadCountMap.get(executionGroup);
             long delayMs = SECONDS.toMillis(rampupSeconds) / threadCount;
+            int maxInFlight = maxInFlightMap.get(executionGroup);
+            Semaphore groupInFlightPermits = IN_FLIGHT_SCOPE_GROUP.equals(inFlightScopeMap.get(executionGroup))
+                    ? new Semaphore(maxInFlight)
+                    : null;
+            long groupSeed = FastRandom.deriveSeed(randomSeed, executionGroup.hashCode());
+            CpuAffinity cpuAffinity = cpuAffinityMap.get(executionGroup);
+            ThreadGate threadGate = threadGateMap.get(executionGroup);
             for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
                 TimeStepLoop runner = constructor.newInstance(testInstance, timeStepModel, executionGroup);
+                runner.randomSeed = FastRandom.deriveSeed(groupSeed, threadIndex);
                 runner.testContext = binding.getTestContext();
                 runner.maxIterations = runIterationMap.get(executionGroup);
                 runner.metronome = metronomeSupplier.get();
                 runner.delayMillis = delayMs * threadIndex;
+                runner.threadGate = threadGate;
+                runner.threadIndex = threadIndex;
+                if (cpuAffinity != null) {
+                    runner.cpuAffinity = cpuAffinity.cpusForThread(threadIndex);
+                }
+                if (groupInFlightPermits != null) {
+                    runner.inFlightPermits = groupInFlightPermits;
+                } else if (maxInFlight > 0) {
+                    runner.inFlightPermits = new Semaphore(maxInFlight);
+                }
+                runner.maxInFlight = maxInFlight;
                 runner.bind(binding);
                 runnables[k] = runner;
                 k++;
@@ -183,4 +502,40 @@ class TimeStepRunner extends TestRunner {
 
         return runnables;
     }
+
+    private static final class GroupSettings {
+        // 0 if the setting isn't changed
+        private final double ratePerSecond;
+        private final int threadCount;
+
+        private GroupSettings(double ratePerSecond, int threadCount) {
+            this.ratePerSecond = ratePerSecond;
+            this.threadCount = threadCount;
+        }
+
+        // the settings of this take precedence over the settings of other
+        private GroupSettings merge(GroupSettings other) {
+            return new GroupSettings(ratePerSecond > 0 ? ratePerSecond : other.ratePerSecond,
+                    threadCount > 0 ? threadCount : other.threadCount);
+        }
+
+        @Override
+        public String toString() {
+            if (ratePerSecond == 0) {
+                return "threadCount " + threadCount;
+            } else if (threadCount == 0) {
+                return format("ratePerSecond %.2f", ratePerSecond);
+            }
+            return format("ratePerSecond %.2f threadCount %d", ratePerSecond, threadCount);
+        }
+    }
+
+    private static final class PendingRestore {
+        private final GroupSettings settings;
+        private ScheduledFuture future;
+
+        private PendingRestore(GroupSettings settings) {
+            this.settings = settings;
+        }
+    }
 }
@@ -5,6 +5,9 @@ import com.hazelcast.simulator.worker.*;
 import com.hazelcast.simulator.worker.metronome.*;
 import com.hazelcast.simulator.probes.*;
 import com.hazelcast.simulator.utils.*;
+<#if slowTimeStepThresholdNanos??>
+import com.hazelcast.simulator.worker.jfr.SlowTimeStepEvent;
+</#if>
 
 import org.apache.logging.log4j.*;
 
@@ -23,22 +26,59 @@ public class ${className} extends TimeStepLoop {
     @Override
     public void timeStepLoop() throws Exception {
 <#if timeStepMethods?size gt 1>
-        final Random random = new Random();
+        final FastRandom random = this.random;
 </#if>
         final AtomicLong iterations = this.iterations;
+        final Blackhole blackhole = this.blackhole;
         final TestContextImpl testContext = (TestContextImpl)this.testContext;
         final ${testInstanceClass} testInstance = (${testInstanceClass})this.testInstance;
 <#if metronomeClass??>
-        final ${metronomeClass} metronome = (${metronomeClass})this.metronome;
+        ${metronomeClass} metronome = (${metronomeClass})this.metronome;
 </#if>
+        final ThreadGate threadGate = this.threadGate;
+        final int threadIndex = this.threadIndex;
 <#if probeClass??>
     <#list timeStepMethods as method>
+        <#if stripeClass?? && isSingleWriterProbe(method)>
+        final ${stripeClass} ${method.name}Probe = (${stripeClass})probeMap.get("${method.name}");
+        <#else>
         final ${probeClass} ${method.name}Probe = (${probeClass})probeMap.get("${method.name}");
+        </#if>
     </#list>
 </#if>
 <#if threadStateClass??>
         final ${threadStateClass} threadState = (${threadStateClass})this.threadState;
 </#if>
+<#if hasInFlightLimit??>
+        final Semaphore inFlightPermits = this.inFlightPermits;
+    <#if probeClass??>
+        final ${stripeClass!probeClass} inFlightWaitProbe = (${stripeClass!probeClass})this.inFlightWaitProbe;
+    <#else>
+        // created once since it doesn't capture any per call state; so an async call doesn't allocate a lambda
+        final java.util.function.BiConsumer<Object, Throwable> releaseInFlightPermit
+                = (o, throwable) -> inFlightPermits.release();
+    </#if>
+</#if>
+<#if slowTimeStepThresholdNanos??>
+        // checked once; so there is no overhead for the slow timestep events if no recording is running
+        final boolean slowTimeStepEventEnabled = SlowTimeStepEvent.isEventEnabled();
+</#if>
+<#if probeClass?? && hasInFlightLimit??>
+    <#list timeStepMethods as method>
+        <#if isAsyncResult(method.getReturnType().getName())>
+        // a callback per in-flight call is created up front and reused; so an async call doesn't allocate a lambda
+        final AsyncCallbackPool ${method.name}Callbacks = new AsyncCallbackPool(inFlightPermits);
+        for (int k = 0; k < maxInFlight; k++) {
+            ${method.name}Callbacks.offer(new AsyncCallbackPool.Callback(${method.name}Callbacks) {
+                @Override
+                protected void onComplete(long startNanos) {
+                    <@recordLatency m=method/>
+                }
+            });
+        }
+        </#if>
+    </#list>
+</#if>
 <#if logFrequency??>
         long logCounter = 0;
 </#if>
@@ -47,7 +87,9 @@ public class ${className} extends TimeStepLoop {
 </#if>
 
 <#if timeStepMethods?size gt 1>
-        final byte[] probs  = this.timeStepProbabilities;
+        // the alias table to select the timestep method; see AliasTable.select
+        final long[] aliasThresholds = {<#list aliasTable.thresholds as threshold>${threshold?c}L<#sep>, </#sep></#list>};
+        final int[] aliases = {<#list aliasTable.aliases as alias>${alias?c}<#sep>, </#sep></#list>};
 </#if>
 
 <#if hasIterationCap??>
@@ -56,9 +98,31 @@ public class ${className} extends TimeStepLoop {
 
         long iteration = 0;
         while (!testContext.isStopped()) {
+<#if metronomeClass??>
+            if (threadIndex >= threadGate.activeThreadCount()) {
+                metronome = (${metronomeClass})threadGate.awaitActive(threadIndex);
+                continue;
+            }
+<#else>
+            if ((iteration & THREAD_GATE_CHECK_MASK) == 0 && threadIndex >= threadGate.activeThreadCount()) {
+                threadGate.awaitActive(threadIndex);
+                continue;
+            }
+</#if>
+
 <#if probeClass??>
     <#if metronomeClass??>
             final long startNanos = metronome.waitForNext();
+        <#if hasInFlightLimit??>
+            final long acquireStartNanos = System.nanoTime();
+            inFlightPermits.acquire();
+            inFlightWaitProbe.recordValue(System.nanoTime() - acquireStartNanos);
+        </#if>
+    <#elseif hasInFlightLimit??>
+            final long acquireStartNanos = System.nanoTime();
+            inFlightPermits.acquire();
+            final long startNanos = System.nanoTime();
+            inFlightWaitProbe.recordValue(startNanos - acquireStartNanos);
     <#else>
             final long startNanos = System.nanoTime();
     </#if>
@@ -66,6 +130,9 @@ public class ${className} extends TimeStepLoop {
     <#if metronomeClass??>
             metronome.waitForNext();
     </#if>
+    <#if hasInFlightLimit??>
+            inFlightPermits.acquire();
+    </#if>
 </#if>
 
 <#if timeStepMethods?size==1>
@@ -73,17 +140,22 @@ public class ${className} extends TimeStepLoop {
     <#assign resultType=method.getReturnType().getName()>
     <#if hasProbe(method)|| !probeClass?? || isAsyncResult(resultType)>
             <#assign resultName = "result">
-            <#if isAsyncResult(resultType)>${resultType} ${resultName} = </#if><@timestepMethodCall m=method/>
+            <#if isAsyncResult(resultType)>
+            ${resultType} ${resultName} = <@timestepMethodCall m=method/>
+            <#else>
+            <@syncTimestepMethodCall m=method record=false/>
+            </#if>
             <#if isAsyncResult(resultType)>
                 <@handleAsyncResult m=method/>
             </#if>
     <#else>
-            <@timestepMethodCall m=method/>
-            ${method.name}Probe.recordValue(System.nanoTime() - startNanos);
+            <@syncTimestepMethodCall m=method record=true/>
     </#if>
 <#else>
 
-            switch(probs[random.nextInt(probs.length)]){
+            final long methodRandom = random.nextLong();
+            final int methodColumn = (int) (((methodRandom >>> 32) * ${aliasTable.length?c}) >>> 32);
+            switch((methodRandom & 0xFFFFFFFFL) < aliasThresholds[methodColumn] ? methodColumn : aliases[methodColumn]){
     <#list timeStepMethods as method>
         <#assign index = method?counter-1>
                 case ${index}:
@@ -91,13 +163,13 @@ public class ${className} extends TimeStepLoop {
         <#if hasProbe(method) || !probeClass?? || isAsyncResult(resultType)>
             <#assign resultName = "result" + index>
             <#if isAsyncResult(resultType)>
-                    ${resultType} ${resultName} = </#if><@timestepMethodCall m=method/>
-            <#if isAsyncResult(resultType)>
+                    ${resultType} ${resultName} = <@timestepMethodCall m=method/>
                     <@handleAsyncResult m=method/>
+            <#else>
+                    <@syncTimestepMethodCall m=method record=false/>
             </#if>
         <#else>
-                    <@timestepMethodCall m=method/>
-                    ${method.name}Probe.recordValue(System.nanoTime() - startNanos);
+                    <@syncTimestepMethodCall m=method record=true/>
         </#if>
                     break;
     </#list>
@@ -126,7 +198,48 @@ public class ${className} extends TimeStepLoop {
     }
 
 <#macro handleAsyncResult m>
+    <#if probeClass?? && hasInFlightLimit??>
+                    ${resultName}.whenCompleteAsync(${m.name}Callbacks.take(startNanos), Runnable::run);
+    <#elseif probeClass?? && slowTimeStepThresholdNanos??>
+                    ${resultName}.whenCompleteAsync((o, throwable) -> {
+                        <@recordLatency m=m/>
+                    }, Runnable::run);
+    <#elseif probeClass??>
                     ${resultName}.whenCompleteAsync((o, throwable) ->  ${m.getName()}Probe.recordValue(System.nanoTime() - startNanos), Runnable::run);
+    <#elseif hasInFlightLimit??>
+                    ${resultName}.whenCompleteAsync(releaseInFlightPermit, Runnable::run);
+    </#if>
+</#macro>
+
+<#macro recordLatency m>
+    <#if slowTimeStepThresholdNanos??>
+                    final long ${m.name}LatencyNanos = System.nanoTime() - startNanos;
+                    ${m.name}Probe.recordValue(${m.name}LatencyNanos);
+                    if (slowTimeStepEventEnabled && ${m.name}LatencyNanos >= ${slowTimeStepThresholdNanos}) {
+                        SlowTimeStepEvent.commit(executionGroup, "${m.name}", ${m.name}LatencyNanos);
+                    }
+    <#else>
+                    ${m.name}Probe.recordValue(System.nanoTime() - startNanos);
+    </#if>
+</#macro>
+
+<#-- the permit is released in a finally; so a timestep that throws doesn't leak it -->
+<#macro syncTimestepMethodCall m record>
+    <#if hasInFlightLimit??>
+                    try {
+                        <@timestepMethodCall m=m/>
+        <#if record>
+                        <@recordLatency m=m/>
+        </#if>
+                    } finally {
+                        inFlightPermits.release();
+                    }
+    <#else>
+                    <@timestepMethodCall m=m/>
+        <#if record>
+                    <@recordLatency m=m/>
+        </#if>
+    </#if>
 </#macro>
 
 <#macro timestepMethodCall m>
@@ -134,17 +247,7 @@ public class ${className} extends TimeStepLoop {
        <#assign resultType=m.getReturnType().getName()>
 
        <#if resultType != "void" && !isAsyncResult(resultType)>
-            <#if resultType == "boolean">
-                   atomicBoolean.lazySet(
-            <#elseif resultType == "byte" || resultType == "char" || resultType == "int" || resultType == "short">
-                   atomicInteger.lazySet(
-            <#elseif resultType == "long">
-                   atomicLong.lazySet(
-            <#elseif resultType == "double" || resultType == "float">
-                   atomicLong.lazySet(Double.doubleToLongBits(
-            <#else>
-                   atomicReference.lazySet(
-            </#if>
+                   blackhole.consume(
        </#if>
 
        testInstance.${m.getName()}(
@@ -160,8 +263,6 @@ public class ${className} extends TimeStepLoop {
             </#if>
         </#list>
      <#if resultType != "void" && !isAsyncResult(resultType)>
-        <#if resultType == "double" || resultType == "float">)</#if>
-
      )
      </#if>
     );
@@ -3,6 +3,7 @@ package com.hazelcast.simulator.agent;
 import com.hazelcast.simulator.agent.messages.CreateWorkerMessage;
 import com.hazelcast.simulator.agent.messages.StartTimeoutDetectionMessage;
 import com.hazelcast.simulator.agent.messages.StopTimeoutDetectionMessage;
+import com.hazelcast.simulator.agent.messages.WorkerReadyMessage;
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessFailureMonitor;
 import com.hazelcast.simulator.agent.workerprocess.WorkerProcessManager;
@@ -60,6 +61,16 @@ public class AgentMessageProcessorTest {
         verify(failureMonitor).stopTimeoutDetection();
     }
 
+    @Test
+    public void testWorkerReadyOperation() throws Exception {
+        WorkerReadyMessage msg = new WorkerReadyMessage(1000);
+        SimulatorAddress workerAddress = SimulatorAddress.workerAddress(1, 1);
+
+        processor.process(msg, workerAddress, promise);
+
+        verify(processManager).workerReady(workerAddress, msg);
+    }
+
     @Test(expected = HandleException.class)
     public void testUnknownOperation() throws Exception {
         CreateTestMessage msg = mock(CreateTestMessage.class);
@@ -0,0 +1,76 @@
+package com.hazelcast.simulator.agent.workerprocess;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.agent.workerprocess.CdsArchive.javaMajorVersion;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CdsArchiveTest {
+
+    private File dir;
+
+    @Before
+    public void before() {
+        dir = createTmpDirectory();
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testJavaMajorVersion() {
+        assertEquals(8, javaMajorVersion("1.8"));
+        assertEquals(11, javaMajorVersion("11"));
+        assertEquals(17, javaMajorVersion("17"));
+        assertEquals(-1, javaMajorVersion("foo"));
+    }
+
+    @Test
+    public void testJvmArgs_whenTrainingFails() {
+        CdsArchive archive = new CdsArchive(new File(dir, "cds/worker.jsa"));
+
+        assertEquals("", archive.jvmArgs(new File(dir, "nojava").getAbsolutePath(), ""));
+        archive.awaitTraining();
+        // the training is not repeated
+        assertEquals("", archive.jvmArgs(new File(dir, "nojava").getAbsolutePath(), ""));
+        archive.awaitTraining();
+        assertFalse(archive.getFile().exists());
+    }
+
+    @Test
+    public void testJvmArgs_whenArchiveExists() {
+        File file = new File(dir, "worker.jsa");
+        writeText("archive", file);
+        CdsArchive archive = new CdsArchive(file);
+
+        assertEquals("-XX:SharedArchiveFile=" + file.getAbsolutePath(), archive.jvmArgs("nojava", ""));
+    }
+
+    @Test
+    public void testJvmArgs_doesNotWaitForTraining() {
+        // a fake java that takes a long time to train
+        File javaHome = new File(dir, "slowjava");
+        File java = new File(ensureExistingDirectory(javaHome, "bin"), "java");
+        writeText("#!/bin/sh\nsleep 10\n", java);
+        assertTrue(java.setExecutable(true));
+        CdsArchive archive = new CdsArchive(new File(dir, "cds/worker.jsa"));
+
+        long startMillis = System.currentTimeMillis();
+        assertEquals("", archive.jvmArgs(javaHome.getAbsolutePath(), ""));
+        assertEquals("", archive.jvmArgs(javaHome.getAbsolutePath(), ""));
+        assertTrue(System.currentTimeMillis() - startMillis < SECONDS.toMillis(5));
+    }
+}
@@ -20,12 +20,17 @@ import static com.hazelcast.simulator.common.FailureType.WORKER_NORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_OOME;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
 import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 public class FailureCollectorTest {
@@ -158,6 +163,31 @@ public class FailureCollectorTest {
         assertEquals(0, failureCollector.getFailureCount());
     }
 
+    @Test
+    public void notify_withDuplicates() {
+        failureCollector.notify(exceptionFailure.setDuplicates(5, false));
+
+        assertEquals(1, failureCollector.getFailureCount());
+        assertEquals(5, failureCollector.getDuplicateCount());
+    }
+
+    @Test
+    public void notify_withDuplicateReport_thenNoNewFailure() {
+        FailureListener listener = mock(FailureListener.class);
+        failureCollector.addListener(listener);
+        FailureMessage duplicateReport = new FailureMessage("exception", WORKER_EXCEPTION, workerAddress,
+                agentAddress.toString(), "workerId", "testId", "java.lang.RuntimeException: expected")
+                .setDuplicates(10, true);
+
+        failureCollector.notify(duplicateReport);
+
+        assertEquals(0, failureCollector.getFailureCount());
+        assertFalse(failureCollector.hasCriticalFailure());
+        assertEquals(10, failureCollector.getDuplicateCount());
+        verify(listener, never()).onFailure(any(FailureMessage.class), anyBoolean(), anyBoolean());
+        assertTrue(fileAsText(new File(outputDirectory, "failures.txt")).contains("count=10"));
+    }
+
     @Test
     public void testHasCriticalFailure() {
         failureCollector.notify(exceptionFailure);
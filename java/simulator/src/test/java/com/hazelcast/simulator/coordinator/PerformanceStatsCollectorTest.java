@@ -2,16 +2,20 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.hazelcast.simulator.coordinator.PerformanceStatsCollector.parseLatencyPercentiles;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.aggregateAll;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -82,6 +86,188 @@ public class PerformanceStatsCollectorTest {
         assertEquals("           800 ops       100.00 ops/s      3,000 ms (avg)      2,400 µs (99.9th)      2,500 µs (max)", s);
     }
 
+    @Test
+    public void testHistograms_mergedOverWorkers() {
+        // worker 1 is fast and worker 2 is slow; the worst worker p50 would be 10ms, but the real p50 is 10us
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("probe", 900, MICROSECONDS.toNanos(10)));
+        update(a1w2, TEST_CASE_ID_1, newPerformanceStats("probe", 100, MILLISECONDS.toNanos(10)));
+
+        Histogram histogram = performanceStatsCollector.getHistograms(TEST_CASE_ID_1, false).get("probe");
+
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(MICROSECONDS.toNanos(10), histogram.getValueAtPercentile(50), MICROSECONDS.toNanos(10) * 0.05);
+        assertEquals(MILLISECONDS.toNanos(10), histogram.getValueAtPercentile(99), MILLISECONDS.toNanos(10) * 0.05);
+
+        String performance = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1);
+        assertTrue(performance.contains("(99.99th)"));
+    }
+
+    @Test
+    public void testHistograms_aggregatedOverIntervals() {
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("probe", 100, MICROSECONDS.toNanos(10)));
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("probe", 300, MICROSECONDS.toNanos(20)));
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("other", 50, MICROSECONDS.toNanos(20)));
+
+        Map<String, Histogram> interval = performanceStatsCollector.getHistograms(TEST_CASE_ID_1, false);
+        Map<String, Histogram> total = performanceStatsCollector.getHistograms(TEST_CASE_ID_1, true);
+
+        assertEquals(1, interval.size());
+        assertEquals(50, interval.get("other").getTotalCount());
+        assertEquals(400, total.get("probe").getTotalCount());
+        assertEquals(50, total.get("other").getTotalCount());
+
+        String performance = performanceStatsCollector.detailedPerformanceInfo(TEST_CASE_ID_1, SECONDS.toMillis(1));
+        assertTrue(performance.contains("Total latency"));
+        assertTrue(performance.contains("Probe probe"));
+    }
+
+    @Test
+    public void testFormatPerformanceNumbers_probeTable() {
+        update(a1w1, TEST_CASE_ID_1, newPutGetPerformanceStats());
+
+        String[] lines = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1).split("\\R");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[1], lines[1].startsWith("  Probe get "));
+        assertTrue(lines[1], lines[1].contains("75.00 ops/s"));
+        assertTrue(lines[2], lines[2].startsWith("  Probe put "));
+        assertTrue(lines[2], lines[2].contains("25.00 ops/s"));
+    }
+
+    @Test
+    public void testFormatPerformanceNumbers_probeTable_whenSingleProbe() {
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("put", 100, MICROSECONDS.toNanos(10)));
+
+        String performance = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1);
+
+        assertFalse(performance.contains("Probe"));
+    }
+
+    @Test
+    public void testFormatPerformanceNumbers_probeTable_whenDisabled() {
+        performanceStatsCollector = new PerformanceStatsCollector(parseLatencyPercentiles("99"), false);
+        update(a1w1, TEST_CASE_ID_1, newPutGetPerformanceStats());
+
+        String performance = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1);
+
+        assertFalse(performance.contains("Probe"));
+    }
+
+    @Test
+    public void testFormatPerformanceNumbers_customPercentiles() {
+        performanceStatsCollector = new PerformanceStatsCollector(parseLatencyPercentiles("50, 99.999"), true);
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("put", 100, MICROSECONDS.toNanos(10)));
+
+        String performance = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1);
+
+        assertTrue(performance.contains("(50th)"));
+        assertTrue(performance.contains("(99.999th)"));
+        assertFalse(performance.contains("(99th)"));
+    }
+
+    @Test
+    public void testParseLatencyPercentiles() {
+        assertArrayEquals(new double[]{50, 99, 99.9, 100}, parseLatencyPercentiles("50,99, 99.9 ,100"), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseLatencyPercentiles_whenNotNumber() {
+        parseLatencyPercentiles("50,p99");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseLatencyPercentiles_whenZero() {
+        parseLatencyPercentiles("0,99");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseLatencyPercentiles_whenAbove100() {
+        parseLatencyPercentiles("99,100.1");
+    }
+
+    @Test
+    public void testHistograms_whenNotSent() {
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500));
+
+        assertTrue(performanceStatsCollector.getHistograms(TEST_CASE_ID_1, true).isEmpty());
+        assertTrue(performanceStatsCollector.getHistograms(TEST_CASE_ID_2, false).isEmpty());
+    }
+
+    @Test
+    public void testRateSweepInfo() {
+        // step 1 and 2 are within the SLO of 1ms; step 3 isn't
+        update(a1w1, TEST_CASE_ID_1, newSweepPerformanceStats(0, 500, 500, MICROSECONDS.toNanos(100)));
+        update(a1w2, TEST_CASE_ID_1, newSweepPerformanceStats(0, 500, 500, MICROSECONDS.toNanos(200)));
+        update(a1w1, TEST_CASE_ID_1, newSweepPerformanceStats(1, 1000, 1000, MICROSECONDS.toNanos(500)));
+        update(a1w2, TEST_CASE_ID_1, newSweepPerformanceStats(1, 1000, 900, MICROSECONDS.toNanos(500)));
+        update(a1w1, TEST_CASE_ID_1, newSweepPerformanceStats(1, 1000, 1100, MICROSECONDS.toNanos(500)));
+        update(a1w1, TEST_CASE_ID_1, newSweepPerformanceStats(2, 2000, 1500, MILLISECONDS.toNanos(20)));
+
+        String info = performanceStatsCollector.rateSweepInfo(TEST_CASE_ID_1, MILLISECONDS.toNanos(1));
+
+        assertTrue(info, info.contains("Step 1       1,000.00 ops/s (target)     1,000.00 ops/s"));
+        assertTrue(info, info.contains("Step 2       2,000.00 ops/s (target)     1,950.00 ops/s"));
+        assertTrue(info, info.contains("Step 3       2,000.00 ops/s (target)     1,500.00 ops/s"));
+        assertTrue(info, info.contains("Max sustainable throughput 1,950.00 ops/s (step 2)"));
+    }
+
+    @Test
+    public void testRateSweepInfo_whenNoStepMeetsSlo() {
+        update(a1w1, TEST_CASE_ID_1, newSweepPerformanceStats(0, 500, 500, MILLISECONDS.toNanos(20)));
+
+        String info = performanceStatsCollector.rateSweepInfo(TEST_CASE_ID_1, MILLISECONDS.toNanos(1));
+
+        assertTrue(info, info.contains("No step met the p99 latency SLO of 1.00 ms"));
+    }
+
+    @Test
+    public void testRateSweepInfo_withoutSlo() {
+        update(a1w1, TEST_CASE_ID_1, newSweepPerformanceStats(0, 500, 500, MILLISECONDS.toNanos(20)));
+
+        String info = performanceStatsCollector.rateSweepInfo(TEST_CASE_ID_1, 0);
+
+        assertTrue(info, info.contains("Step 1"));
+        assertFalse(info, info.contains("SLO"));
+    }
+
+    @Test
+    public void testRateSweepInfo_whenNoSweep() {
+        update(a1w1, TEST_CASE_ID_1, newPerformanceStats("probe", 100, MICROSECONDS.toNanos(10)));
+
+        assertEquals("", performanceStatsCollector.rateSweepInfo(TEST_CASE_ID_1, MILLISECONDS.toNanos(1)));
+    }
+
+    private static PerformanceStats newSweepPerformanceStats(int step, double ratePerSecond, int count, long latencyNanos) {
+        PerformanceStats performanceStats = newPerformanceStats("probe", count, latencyNanos);
+        performanceStats.setSweep(step, ratePerSecond);
+        return performanceStats;
+    }
+
+    private static PerformanceStats newPerformanceStats(String probeName, int count, long latencyNanos) {
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        histograms.put(probeName, newHistogram(count, latencyNanos));
+
+        PerformanceStats performanceStats = new PerformanceStats(count, count, count, latencyNanos, latencyNanos, latencyNanos);
+        performanceStats.setIntervalHistograms(histograms);
+        return performanceStats;
+    }
+
+    private static PerformanceStats newPutGetPerformanceStats() {
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        histograms.put("put", newHistogram(100, MICROSECONDS.toNanos(10)));
+        histograms.put("get", newHistogram(300, MILLISECONDS.toNanos(1)));
+
+        PerformanceStats performanceStats = new PerformanceStats(400, 100, 100, 1000, 1000, 1000);
+        performanceStats.setIntervalHistograms(histograms);
+        return performanceStats;
+    }
+
+    private static Histogram newHistogram(int count, long latencyNanos) {
+        Histogram histogram = new Histogram(MICROSECONDS.toNanos(1), SECONDS.toNanos(60), 3);
+        histogram.recordValueWithCount(latencyNanos, count);
+        return histogram;
+    }
+
     private void update(SimulatorAddress address, String testId, PerformanceStats performanceStats) {
         Map<String, PerformanceStats> performanceStatsMap = new HashMap<String, PerformanceStats>();
         performanceStatsMap.put(testId, performanceStats);
@@ -0,0 +1,87 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.utils.TestUtils;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.coordinator.RetuneRequest.FILE_NAME;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RetuneRequestTest {
+
+    private File runPath;
+    private File requestFile;
+
+    @Before
+    public void before() {
+        runPath = TestUtils.createTmpDirectory();
+        requestFile = new File(runPath, FILE_NAME);
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(runPath);
+    }
+
+    @Test
+    public void testPoll_whenNoRequest() {
+        assertNull(RetuneRequest.poll(runPath, "test", false));
+    }
+
+    @Test
+    public void testPoll() {
+        writeText("executionGroup=group\nrateFactor=2\nthreadCount=4\ndurationSeconds=30\n", requestFile);
+
+        RetuneMessage msg = RetuneRequest.poll(runPath, "test", false);
+
+        assertNotNull(msg);
+        assertEquals("test", msg.getTestId());
+        assertEquals("group", msg.getExecutionGroup());
+        assertEquals(0, msg.getRatePerSecond(), 0);
+        assertEquals(2, msg.getRateFactor(), 0);
+        assertEquals(4, msg.getThreadCount());
+        assertEquals(30, msg.getDurationSeconds());
+        assertFalse(requestFile.exists());
+
+        // a request is picked up only once
+        assertNull(RetuneRequest.poll(runPath, "test", false));
+    }
+
+    @Test
+    public void testPoll_whenOtherTest() {
+        writeText("testId=other\nratePerSecond=100\n", requestFile);
+
+        assertNull(RetuneRequest.poll(runPath, "test", true));
+        assertTrue(requestFile.exists());
+
+        RetuneMessage msg = RetuneRequest.poll(runPath, "other", true);
+        assertNotNull(msg);
+        assertEquals(100, msg.getRatePerSecond(), 0);
+    }
+
+    @Test
+    public void testPoll_whenParallelWithoutTestId() {
+        writeText("ratePerSecond=100\n", requestFile);
+
+        assertNull(RetuneRequest.poll(runPath, "test", true));
+        assertFalse(requestFile.exists());
+    }
+
+    @Test
+    public void testPoll_whenInvalidNumber() {
+        writeText("ratePerSecond=foo\n", requestFile);
+
+        assertNull(RetuneRequest.poll(runPath, "test", false));
+        assertFalse(requestFile.exists());
+    }
+}
@@ -0,0 +1,170 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.coordinator.registry.Registry;
+import com.hazelcast.simulator.coordinator.registry.TestData;
+import com.hazelcast.simulator.coordinator.registry.WorkerData;
+import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.message.SimulatorMessage;
+import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
+import com.hazelcast.simulator.worker.messages.StopRunMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
+import static com.hazelcast.simulator.common.TestPhase.LOCAL_PREPARE;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The phases are waited for with a log interval of 30 seconds; so if a test completes within a few seconds, the waiting
+ * thread was woken up by the completion of the futures.
+ */
+public class TestCaseRunnerTest {
+
+    private static final long MAX_WAKEUP_SECONDS = 5;
+
+    private final List<TestPhase> startedPhases = new CopyOnWriteArrayList<>();
+    // the futures of the phases that don't complete immediately
+    private final Map<TestPhase, CompletableFuture<String>> blockedPhases = new ConcurrentHashMap<>();
+    private final CompletableFuture<String> runFuture = new CompletableFuture<>();
+
+    private File runPath;
+    private Registry registry;
+    private SimulatorAddress workerAddress;
+    private List<WorkerData> targets;
+    private FailureCollector failureCollector;
+    private CoordinatorParameters coordinatorParameters;
+    private CoordinatorClient client;
+
+    @Before
+    public void before() {
+        runPath = createTmpDirectory();
+        registry = new Registry();
+        SimulatorAddress agentAddress = registry.addAgent("192.168.0.1", "192.168.0.1").getAddress();
+        workerAddress = workerAddress(agentAddress.getAgentIndex(), 1);
+        targets = registry.addWorkers(singletonList(new WorkerParameters()
+                .set("WORKER_ADDRESS", workerAddress)
+                .set("WORKER_TYPE", "member")));
+        failureCollector = new FailureCollector(runPath, registry);
+
+        SimulatorProperties properties = mock(SimulatorProperties.class);
+        when(properties.getInt("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS")).thenReturn(0);
+        coordinatorParameters = new CoordinatorParameters()
+                .setSimulatorProperties(properties)
+                .setRunPath(runPath.getAbsolutePath());
+
+        client = mock(CoordinatorClient.class);
+        when(client.submit(any(SimulatorAddress.class), any(SimulatorMessage.class)))
+                .thenAnswer(invocation -> submit((SimulatorMessage) invocation.getArguments()[1]));
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(runPath);
+    }
+
+    private CompletableFuture<String> submit(SimulatorMessage msg) {
+        if (msg instanceof StopRunMessage) {
+            runFuture.complete("stopped");
+        } else if (msg instanceof StartPhaseMessage) {
+            TestPhase phase = ((StartPhaseMessage) msg).getTestPhase();
+            startedPhases.add(phase);
+            if (phase == RUN) {
+                return runFuture;
+            }
+            CompletableFuture<String> future = blockedPhases.get(phase);
+            if (future != null) {
+                return future;
+            }
+        }
+        return completedFuture("completed");
+    }
+
+    @Test
+    public void testPhase_completesWhenLastFutureCompletes() throws Exception {
+        CompletableFuture<String> setupFuture = new CompletableFuture<>();
+        blockedPhases.put(SETUP, setupFuture);
+        TestData test = newTest(1);
+
+        CompletableFuture<Boolean> result = runAsync(test);
+        assertTrueEventually(() -> assertTrue(startedPhases.contains(SETUP)));
+        sleepMillis(200);
+        assertFalse(startedPhases.contains(LOCAL_PREPARE));
+
+        long startNanos = System.nanoTime();
+        setupFuture.complete("completed");
+
+        assertTrueEventually(() -> assertTrue(startedPhases.contains(LOCAL_PREPARE)));
+        assertTrue(NANOSECONDS.toSeconds(System.nanoTime() - startNanos) < MAX_WAKEUP_SECONDS);
+        assertTrue(result.get(MAX_WAKEUP_SECONDS + 1, SECONDS));
+    }
+
+    @Test
+    public void testPhase_whenCriticalFailure_thenWaitAborted() throws Exception {
+        blockedPhases.put(SETUP, new CompletableFuture<>());
+        TestData test = newTest(1);
+
+        CompletableFuture<Boolean> result = runAsync(test);
+        assertTrueEventually(() -> assertTrue(startedPhases.contains(SETUP)));
+
+        failureCollector.notify(new FailureMessage("exception", WORKER_EXCEPTION, workerAddress, null, "workerId",
+                test.getTestCase().getId(), null));
+
+        assertFalse(result.get(MAX_WAKEUP_SECONDS, SECONDS));
+        assertFalse(startedPhases.contains(LOCAL_PREPARE));
+    }
+
+    @Test
+    public void testRun_whenStopRequested_thenRunEndsBeforeDuration() throws Exception {
+        TestData test = newTest(600);
+
+        CompletableFuture<Boolean> result = runAsync(test);
+        assertTrueEventually(() -> assertTrue(startedPhases.contains(RUN)));
+
+        test.setStopRequested(true);
+
+        assertTrue(result.get(MAX_WAKEUP_SECONDS, SECONDS));
+        assertTrue(runFuture.isDone());
+    }
+
+    private TestData newTest(int durationSeconds) {
+        TestSuite suite = new TestSuite()
+                .addTest(new TestCase("test1"))
+                .setDurationSeconds(durationSeconds);
+        return registry.addTests(suite).get(0);
+    }
+
+    private CompletableFuture<Boolean> runAsync(TestData test) {
+        TestCaseRunner runner = new TestCaseRunner(test, coordinatorParameters, targets, client, null, failureCollector,
+                registry, new PerformanceStatsCollector());
+        return CompletableFuture.supplyAsync(runner::run);
+    }
+}
@@ -17,11 +17,11 @@ import org.junit.Test;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -53,8 +53,7 @@ public class StartWorkersTaskTest {
     public void testCreateWorkers_withClients() throws Exception {
         Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 6, 3);
 
-        Future f = mock(Future.class);
-        when(f.get()).thenReturn("SUCCESS");
+        CompletableFuture<String> f = CompletableFuture.completedFuture("SUCCESS");
         when(client.submit(eq(agent1.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
         when(client.submit(eq(agent2.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
         when(client.submit(eq(agent3.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
@@ -68,8 +67,7 @@ public class StartWorkersTaskTest {
     public void testCreateWorkers_noClients() throws Exception {
         Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 6, 0);
 
-        Future f = mock(Future.class);
-        when(f.get()).thenReturn("SUCCESS");
+        CompletableFuture<String> f = CompletableFuture.completedFuture("SUCCESS");
         when(client.submit(eq(agent1.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
         when(client.submit(eq(agent2.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
         when(client.submit(eq(agent3.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
@@ -83,8 +81,8 @@ public class StartWorkersTaskTest {
     public void testCreateWorkers_withErrorResponse() throws Exception {
         Map<SimulatorAddress, List<WorkerParameters>> deploymentPlan = getDeployment(0, 1, 0);
 
-        Future f = mock(Future.class);
-        when(f.get()).thenThrow(new ExecutionException(null));
+        CompletableFuture<String> f = new CompletableFuture<>();
+        f.completeExceptionally(new Exception());
         when(client.submit(eq(agent1.getAddress()), any(CreateWorkerMessage.class))).thenReturn(f);
 
         new StartWorkersTask(deploymentPlan, Collections.<String, String>emptyMap(), client, registry, 0).run();
@@ -110,6 +108,7 @@ public class StartWorkersTaskTest {
         int actualMemberCount = 0;
         int actualClientCount = 0;
         for (WorkerData workerData : registry.getWorkers()) {
+            assertTrue(workerData.getStartupMillis() >= 0);
             if (workerData.isMemberWorker()) {
                 actualMemberCount++;
             } else {
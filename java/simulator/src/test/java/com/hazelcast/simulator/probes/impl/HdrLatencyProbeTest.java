@@ -144,5 +144,53 @@ public class HdrLatencyProbeTest {
         assertEquals(3, probe.getRecorder().getIntervalHistogram().getTotalCount());
     }
 
+    @Test
+    public void testStripe() {
+        LatencyProbe stripe1 = probe.newStripe();
+        LatencyProbe stripe2 = probe.newStripe();
+
+        probe.recordValue(MILLISECONDS.toNanos(100));
+        stripe1.recordValue(MILLISECONDS.toNanos(200));
+        stripe2.recordValue(MILLISECONDS.toNanos(300));
+        stripe2.recordValue(MILLISECONDS.toNanos(400));
+
+        Histogram histogram = probe.getIntervalHistogram();
+        assertHistogramContent(histogram,
+                MILLISECONDS.toNanos(100), MILLISECONDS.toNanos(200), MILLISECONDS.toNanos(300), MILLISECONDS.toNanos(400));
+
+        // the stripes should be emptied by taking the interval histogram
+        stripe1.recordValue(MILLISECONDS.toNanos(500));
+        assertHistogramContent(probe.getIntervalHistogram(), MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void testStripe_negativeValue() {
+        LatencyProbe stripe = probe.newStripe();
 
+        stripe.recordValue(MILLISECONDS.toNanos(-200));
+        probe.recordValue(MILLISECONDS.toNanos(-300));
+
+        assertEquals(1, stripe.negativeCount());
+        assertEquals(2, probe.negativeCount());
+        assertHistogramContent(probe.getIntervalHistogram(), MILLISECONDS.toNanos(200), MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    public void testStripe_reset() {
+        LatencyProbe stripe = probe.newStripe();
+
+        stripe.recordValue(MILLISECONDS.toNanos(200));
+        probe.reset();
+
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testStripe_properties() {
+        HdrLatencyProbe probe = new HdrLatencyProbe("foo", true);
+        LatencyProbe stripe = probe.newStripe();
+
+        assertEquals("foo", stripe.name());
+        assertTrue(stripe.includeInThroughput());
+    }
 }
@@ -0,0 +1,108 @@
+package com.hazelcast.simulator.protocol.message;
+
+import com.hazelcast.simulator.worker.messages.PerformanceStatsMessage;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.message.MessageType.LOG;
+import static com.hazelcast.simulator.protocol.message.MessageType.PERFORMANCE_STATE;
+import static com.hazelcast.simulator.protocol.message.MessageType.RETUNE_TEST;
+import static com.hazelcast.simulator.protocol.message.SimulatorMessageCodec.FORMAT_BINARY;
+import static com.hazelcast.simulator.protocol.message.SimulatorMessageCodec.FORMAT_JSON;
+import static com.hazelcast.simulator.protocol.message.SimulatorMessageCodec.decode;
+import static com.hazelcast.simulator.protocol.message.SimulatorMessageCodec.encode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimulatorMessageCodecTest {
+
+    @Test
+    public void testJsonMessage() {
+        LogMessage msg = new LogMessage("foo");
+
+        byte[] bytes = encode(msg);
+        LogMessage decoded = (LogMessage) decode(bytes, LOG);
+
+        assertEquals(FORMAT_JSON, bytes[0]);
+        assertEquals("foo", decoded.getMessage());
+    }
+
+    @Test
+    public void testRetuneMessage() {
+        RetuneMessage msg = new RetuneMessage("test", "group", 0, 2.0, 4, 30);
+
+        byte[] bytes = encode(msg);
+        RetuneMessage decoded = (RetuneMessage) decode(bytes, RETUNE_TEST);
+
+        assertEquals(FORMAT_JSON, bytes[0]);
+        assertEquals("test", decoded.getTestId());
+        assertEquals("group", decoded.getExecutionGroup());
+        assertEquals(0, decoded.getRatePerSecond(), 0);
+        assertEquals(2.0, decoded.getRateFactor(), 0);
+        assertEquals(4, decoded.getThreadCount());
+        assertEquals(30, decoded.getDurationSeconds());
+    }
+
+    @Test
+    public void testBinaryMessage() {
+        Histogram histogram = new Histogram(3);
+        for (int k = 1; k <= 1000; k++) {
+            histogram.recordValue(k);
+        }
+        Map<String, Histogram> histograms = new HashMap<>();
+        histograms.put("probe", histogram);
+
+        PerformanceStats stats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        stats.setIntervalHistograms(histograms);
+        stats.setTotalAllocatedBytes(1000);
+        stats.setSweep(2, 4000);
+        PerformanceStatsMessage msg = new PerformanceStatsMessage();
+        msg.addPerformanceStats("test1", stats);
+        msg.addPerformanceStats("test2", new PerformanceStats());
+
+        byte[] bytes = encode(msg);
+        PerformanceStatsMessage decoded = (PerformanceStatsMessage) decode(bytes, PERFORMANCE_STATE);
+
+        assertEquals(FORMAT_BINARY, bytes[0]);
+        assertEquals(2, decoded.getPerformanceStats().size());
+        assertTrue(decoded.getPerformanceStats().get("test2").isEmpty());
+
+        PerformanceStats decodedStats = decoded.getPerformanceStats().get("test1");
+        assertEquals(100, decodedStats.getOperationCount());
+        assertEquals(5.0, decodedStats.getIntervalThroughput(), 0.0001);
+        assertEquals(10.0, decodedStats.getTotalThroughput(), 0.0001);
+        assertEquals(175.0, decodedStats.getIntervalLatencyAvgNanos(), 0.0001);
+        assertEquals(150, decodedStats.getIntervalLatency999PercentileNanos());
+        assertEquals(200, decodedStats.getIntervalLatencyMaxNanos());
+        assertEquals(1000, decodedStats.getTotalAllocatedBytes());
+        assertEquals(2, decodedStats.getSweepStep());
+        assertEquals(4000, decodedStats.getSweepRatePerSecond(), 0.0001);
+        assertEquals(-1, decoded.getPerformanceStats().get("test2").getSweepStep());
+        assertEquals(histogram, decodedStats.getIntervalHistograms().get("probe"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecode_whenEmpty() {
+        decode(new byte[0], LOG);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecode_whenUnknownFormat() {
+        decode(new byte[]{5}, LOG);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecode_whenBinaryNotSupported() {
+        decode(new byte[]{FORMAT_BINARY}, LOG);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecode_whenUnknownVersion() {
+        decode(new byte[]{FORMAT_BINARY, 100}, PERFORMANCE_STATE);
+    }
+}
@@ -5,13 +5,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
 import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
 import static com.hazelcast.simulator.utils.ExceptionReporter.report;
+import static com.hazelcast.simulator.utils.ExceptionReporter.reportCrash;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -54,6 +58,51 @@ public class ExceptionReporterTest {
         assertNotNull(fileAsText(exceptionFile));
     }
 
+    @Test
+    public void testReport_whenSinkAccepts_thenNoFile() {
+        final List<String> testIds = new ArrayList<>();
+        ExceptionReporter.setFailureSink(new ExceptionReporter.FailureSink() {
+            @Override
+            public boolean offer(String testId, Throwable cause) {
+                testIds.add(testId);
+                return true;
+            }
+        });
+
+        report("testID", new RuntimeException("Expected exception"));
+
+        assertEquals(singletonList("testID"), testIds);
+        assertEquals(0, getUserDir().listFiles().length);
+    }
+
+    @Test
+    public void testReport_whenSinkRejects_thenFile() {
+        ExceptionReporter.setFailureSink(new ExceptionReporter.FailureSink() {
+            @Override
+            public boolean offer(String testId, Throwable cause) {
+                return false;
+            }
+        });
+
+        report("testID", new RuntimeException("Expected exception"));
+
+        assertTrue(new File(getUserDir(), "1.exception").exists());
+    }
+
+    @Test
+    public void testReportCrash_thenSinkIgnored() {
+        ExceptionReporter.setFailureSink(new ExceptionReporter.FailureSink() {
+            @Override
+            public boolean offer(String testId, Throwable cause) {
+                throw new AssertionError("sink should not be called");
+            }
+        });
+
+        reportCrash("testID", new RuntimeException("Expected exception"));
+
+        assertTrue(new File(getUserDir(), "1.exception").exists());
+    }
+
     @Test
     public void testReportTooManyExceptions() {
         int currentExceptions = ExceptionReporter.MAX_EXCEPTION_COUNT + 1;
@@ -0,0 +1,104 @@
+package com.hazelcast.simulator.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FastRandomTest {
+
+    @Test
+    public void testSameSeed_thenSameSequence() {
+        FastRandom random1 = new FastRandom(42);
+        FastRandom random2 = new FastRandom(42);
+
+        for (int k = 0; k < 1000; k++) {
+            assertEquals(random1.nextLong(), random2.nextLong());
+        }
+    }
+
+    @Test
+    public void testSetSeed_thenSequenceRestarts() {
+        FastRandom random = new FastRandom(42);
+        long first = random.nextLong();
+        random.nextLong();
+
+        random.setSeed(42);
+
+        assertEquals(first, random.nextLong());
+    }
+
+    @Test
+    public void testDifferentSeed_thenDifferentSequence() {
+        assertNotEquals(new FastRandom(42).nextLong(), new FastRandom(43).nextLong());
+        assertNotEquals(new FastRandom().nextLong(), new FastRandom().nextLong());
+    }
+
+    @Test
+    public void testDeriveSeed() {
+        assertEquals(FastRandom.deriveSeed(42, 1), FastRandom.deriveSeed(42, 1));
+        assertNotEquals(FastRandom.deriveSeed(42, 1), FastRandom.deriveSeed(42, 2));
+        assertNotEquals(FastRandom.deriveSeed(42, 1), FastRandom.deriveSeed(43, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNextInt_whenZeroBound() {
+        new FastRandom().nextInt(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNextLong_whenNegativeBound() {
+        new FastRandom().nextLong(-1);
+    }
+
+    @Test
+    public void testNextInt_withBound() {
+        FastRandom random = new FastRandom();
+        for (int k = 0; k < 10000; k++) {
+            int value = random.nextInt(7);
+            assertTrue(value >= 0 && value < 7);
+        }
+        assertEquals(0, random.nextInt(1));
+    }
+
+    @Test
+    public void testNextLong_withBound() {
+        FastRandom random = new FastRandom();
+        for (int k = 0; k < 10000; k++) {
+            long value = random.nextLong(7);
+            assertTrue(value >= 0 && value < 7);
+
+            value = random.nextLong(Long.MAX_VALUE);
+            assertTrue(value >= 0);
+
+            value = random.nextLong(1L << 40);
+            assertTrue(value >= 0 && value < 1L << 40);
+        }
+    }
+
+    @Test
+    public void testNextInt_isUnbiased() {
+        // with a bound of 3 * 2^30 a biased modulo/scaling approach would give 0 twice as often as the other values
+        int bound = 3 << 29;
+        FastRandom random = new FastRandom(42);
+        int iterations = 300000;
+        int[] counts = new int[3];
+        for (int k = 0; k < iterations; k++) {
+            counts[random.nextInt(bound) / (1 << 29)]++;
+        }
+
+        for (int count : counts) {
+            assertEquals(iterations / 3.0, count, iterations * 0.01);
+        }
+    }
+
+    @Test
+    public void testNextDouble() {
+        FastRandom random = new FastRandom();
+        for (int k = 0; k < 10000; k++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0 && value < 1);
+        }
+    }
+}
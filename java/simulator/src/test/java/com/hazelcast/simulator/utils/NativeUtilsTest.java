@@ -6,14 +6,19 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+
 import static com.hazelcast.simulator.utils.NativeUtils.getPID;
 import static com.hazelcast.simulator.utils.NativeUtils.getPidFromBeanString;
 import static com.hazelcast.simulator.utils.NativeUtils.getPidFromManagementBean;
 import static com.hazelcast.simulator.utils.NativeUtils.getPidViaReflection;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class NativeUtilsTest {
 
@@ -87,4 +92,44 @@ public class NativeUtilsTest {
         Integer pid = getPidFromBeanString("test@localhost");
         assertNull(pid);
     }
+
+    @Test
+    public void testIsProcessAlive() {
+        Boolean alive = NativeUtils.isProcessAlive(getPID());
+        if (alive != null) {
+            assertTrue(alive);
+            assertFalse(NativeUtils.isProcessAlive(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testOnProcessExit_whenProcess() throws Exception {
+        final CountDownLatch exited = new CountDownLatch(1);
+        Process process = new ProcessBuilder("true").start();
+
+        NativeUtils.onProcessExit(process, new Runnable() {
+            @Override
+            public void run() {
+                exited.countDown();
+            }
+        });
+
+        assertTrue(exited.await(30, SECONDS));
+    }
+
+    @Test
+    public void testOnProcessExit_whenPidDoesNotExist() {
+        final CountDownLatch exited = new CountDownLatch(1);
+
+        boolean registered = NativeUtils.onProcessExit(Integer.MAX_VALUE, new Runnable() {
+            @Override
+            public void run() {
+                exited.countDown();
+            }
+        });
+
+        if (registered) {
+            assertEquals(0, exited.getCount());
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.hazelcast.simulator.utils;
+
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.ThreadAllocationUtils.getThreadAllocatedBytes;
+import static com.hazelcast.simulator.utils.ThreadAllocationUtils.isThreadAllocatedBytesSupported;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ThreadAllocationUtilsTest {
+
+    @Test
+    public void testGetThreadAllocatedBytes() {
+        assumeTrue(isThreadAllocatedBytesSupported());
+
+        long before = getThreadAllocatedBytes(Thread.currentThread());
+        byte[] bytes = new byte[1024 * 1024];
+        long after = getThreadAllocatedBytes(Thread.currentThread());
+
+        assertEquals(1024 * 1024, bytes.length);
+        assertTrue(before >= 0);
+        assertTrue(after - before >= 1024 * 1024);
+    }
+
+    @Test
+    public void testGetThreadAllocatedBytes_whenThreadNotStarted() {
+        assumeTrue(isThreadAllocatedBytesSupported());
+
+        assertEquals(-1, getThreadAllocatedBytes(new Thread()));
+    }
+}
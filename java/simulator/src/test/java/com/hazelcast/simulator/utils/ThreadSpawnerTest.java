@@ -70,6 +70,25 @@ public class ThreadSpawnerTest {
         assertEqualsStringFormat("Expected counter to be %d, but as %d", 10, counter.get());
     }
 
+    @Test
+    public void testThreadSpawnerVirtual() {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId");
+        for (int i = 0; i < 10; i++) {
+            Thread thread = spawner.spawn("NamePrefix", new Runnable() {
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                }
+            }, true);
+            assertTrue(thread.getName().startsWith("NamePrefix-"));
+        }
+        spawner.awaitCompletion();
+
+        assertEqualsStringFormat("Expected counter to be %d, but as %d", 10, counter.get());
+    }
+
     @Test
     public void testThreadSpawnerWithPrefix() {
         final AtomicInteger counter = new AtomicInteger(0);
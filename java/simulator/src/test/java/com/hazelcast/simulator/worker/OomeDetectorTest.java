@@ -0,0 +1,97 @@
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.protocol.Server;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.List;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.common.FailureType.WORKER_OOME;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static java.lang.management.MemoryType.HEAP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OomeDetectorTest {
+
+    private Server server;
+    private OomeDetector detector;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+        server = mock(Server.class);
+        detector = new OomeDetector(server, workerAddress(1, 1), "127.0.0.1", "worker1", 98);
+    }
+
+    @After
+    public void after() {
+        detector.close();
+        teardownFakeUserDir();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenThresholdTooLarge() {
+        new OomeDetector(server, workerAddress(1, 1), "127.0.0.1", "worker1", 101);
+    }
+
+    @Test
+    public void testStart() {
+        detector.start();
+
+        assertFalse(detector.isDetected());
+    }
+
+    @Test
+    public void testTenuredPools() {
+        List<MemoryPoolMXBean> allPools = ManagementFactory.getMemoryPoolMXBeans();
+
+        List<MemoryPoolMXBean> tenuredPools = OomeDetector.tenuredPools(allPools);
+
+        assertFalse(tenuredPools.isEmpty());
+        for (MemoryPoolMXBean pool : allPools) {
+            String name = pool.getName();
+            boolean young = name.contains("Eden") || name.contains("Survivor");
+            boolean tenured = pool.getType() == HEAP && !young;
+            assertEquals(name, tenured, tenuredPools.contains(pool));
+        }
+    }
+
+    @Test
+    public void testOnOome_reportedOnce() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true);
+
+        detector.onOome("first");
+        detector.onOome("second");
+
+        ArgumentCaptor<FailureMessage> captor = ArgumentCaptor.forClass(FailureMessage.class);
+        verify(server, times(1)).sendCoordinator(captor.capture());
+        assertEquals(WORKER_OOME, captor.getValue().getType());
+        assertTrue(detector.isDetected());
+        assertFalse(new File(getUserDir(), "worker.oome").exists());
+    }
+
+    @Test
+    public void testOnOome_whenSendFails_thenMarkerFile() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(false);
+
+        detector.onOome("oome");
+
+        assertTrue(new File(getUserDir(), "worker.oome").exists());
+    }
+}
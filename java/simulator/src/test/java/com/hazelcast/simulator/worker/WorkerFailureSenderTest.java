@@ -0,0 +1,226 @@
+package com.hazelcast.simulator.worker;
+
+import com.hazelcast.simulator.coordinator.messages.FailureMessage;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.utils.ExceptionReporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.util.List;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkerFailureSenderTest {
+
+    private final SimulatorAddress address = workerAddress(1, 1);
+    private Server server;
+    private WorkerFailureSender sender;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+        ExceptionReporter.reset();
+        server = mock(Server.class);
+        sender = new WorkerFailureSender(server, address, "127.0.0.1", "worker1");
+    }
+
+    @After
+    public void after() {
+        sender.close();
+        ExceptionReporter.reset();
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testOffer_sendsFailure() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true);
+        sender.start();
+
+        assertTrue(sender.offer("test1", new RuntimeException("expected")));
+
+        assertTrueEventually(() -> {
+            ArgumentCaptor<FailureMessage> captor = ArgumentCaptor.forClass(FailureMessage.class);
+            verify(server).sendCoordinator(captor.capture());
+            FailureMessage failure = captor.getValue();
+            assertEquals(WORKER_EXCEPTION, failure.getType());
+            assertEquals(address, failure.getWorkerAddress());
+            assertEquals("test1", failure.getTestId());
+            assertTrue(failure.getCause().contains("expected"));
+        });
+        assertEquals(0, getUserDir().listFiles().length);
+    }
+
+    @Test
+    public void testOffer_deduplicates() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true);
+
+        for (int k = 0; k < 10; k++) {
+            assertTrue(sender.offer("test1", newException("key " + k)));
+        }
+        assertTrue(sender.offer("test2", newException("key")));
+
+        // the pending failures are sent on close
+        sender.close();
+
+        ArgumentCaptor<FailureMessage> captor = ArgumentCaptor.forClass(FailureMessage.class);
+        verify(server, times(2)).sendCoordinator(captor.capture());
+        FailureMessage failure = captor.getAllValues().get(0);
+        assertEquals(9, failure.getDuplicateCount());
+        assertFalse(failure.isDuplicateReport());
+        assertEquals("test2", captor.getAllValues().get(1).getTestId());
+    }
+
+    @Test
+    public void testOffer_duplicatesAfterFirstSend() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true);
+        sender.close();
+        sender = new WorkerFailureSender(server, address, "127.0.0.1", "worker1", 200);
+        sender.start();
+        RuntimeException[] exceptions = newExceptions(6);
+
+        sender.offer("test1", exceptions[0]);
+        assertTrueEventually(() -> verify(server, times(1)).sendCoordinator(any(FailureMessage.class)));
+
+        for (int k = 1; k <= 5; k++) {
+            sender.offer("test1", exceptions[k]);
+        }
+
+        // the duplicates are reported in the next report interval(s)
+        assertTrueEventually(() -> assertEquals(5, reportedDuplicates()));
+    }
+
+    @Test
+    public void testReportDuplicates_whenNoDuplicatesDuringInterval_thenLaterStormReportedAgain() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true);
+        RuntimeException[] exceptions = newExceptions(4);
+
+        sender.offer("test1", exceptions[0]);
+        sender.sendPending();
+        sender.offer("test1", exceptions[1]);
+        sender.offer("test1", exceptions[2]);
+        sender.reportDuplicates(true);
+        assertEquals(2, sentFailures().size());
+        assertEquals(2, reportedDuplicates());
+
+        // a whole interval without duplicates
+        sender.reportDuplicates(true);
+        sender.reportDuplicates(true);
+        assertEquals(2, sentFailures().size());
+
+        // the fingerprint is forgotten, so the exception is sent again
+        sender.offer("test1", exceptions[3]);
+        sender.sendPending();
+        List<FailureMessage> failures = sentFailures();
+        assertEquals(3, failures.size());
+        assertEquals(0, failures.get(2).getDuplicateCount());
+        assertFalse(failures.get(2).isDuplicateReport());
+    }
+
+    @Test
+    public void testClose_reportsDuplicatesAfterFirstSend() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true);
+        sender.start();
+        RuntimeException[] exceptions = newExceptions(3);
+
+        sender.offer("test1", exceptions[0]);
+        assertTrueEventually(() -> verify(server, times(1)).sendCoordinator(any(FailureMessage.class)));
+        sender.offer("test1", exceptions[1]);
+        sender.offer("test1", exceptions[2]);
+
+        sender.close();
+
+        ArgumentCaptor<FailureMessage> captor = ArgumentCaptor.forClass(FailureMessage.class);
+        verify(server, times(2)).sendCoordinator(captor.capture());
+        FailureMessage duplicateReport = captor.getAllValues().get(1);
+        assertEquals(2, duplicateReport.getDuplicateCount());
+        assertTrue(duplicateReport.isDuplicateReport());
+    }
+
+    @Test
+    public void testOffer_whenSendFails_thenWrittenToFile() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(false);
+        sender.start();
+
+        sender.offer("test1", new RuntimeException("expected"));
+
+        File exceptionFile = new File(getUserDir(), "1.exception");
+        assertTrueEventually(() -> assertTrue(exceptionFile.exists()));
+        assertTrue(fileAsText(exceptionFile).startsWith("test1"));
+    }
+
+    @Test
+    public void testReportDuplicates_whenSendFails_thenNotWrittenToFile() {
+        when(server.sendCoordinator(any(FailureMessage.class))).thenReturn(true, false);
+        RuntimeException[] exceptions = newExceptions(2);
+
+        sender.offer("test1", exceptions[0]);
+        sender.sendPending();
+        sender.offer("test1", exceptions[1]);
+        sender.reportDuplicates(true);
+
+        // the agent would report the file as a new failure
+        assertEquals(2, sentFailures().size());
+        assertEquals(0, getUserDir().listFiles().length);
+    }
+
+    @Test
+    public void testOffer_whenClosed() {
+        sender.close();
+
+        assertFalse(sender.offer("test1", new RuntimeException("expected")));
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals(WorkerFailureSender.fingerprint(newException("foo")), WorkerFailureSender.fingerprint(newException("bar")));
+        assertNotEquals(WorkerFailureSender.fingerprint(newException("foo")),
+                WorkerFailureSender.fingerprint(new IllegalStateException("foo")));
+    }
+
+    private static RuntimeException newException(String message) {
+        return new RuntimeException(message);
+    }
+
+    private List<FailureMessage> sentFailures() {
+        ArgumentCaptor<FailureMessage> captor = ArgumentCaptor.forClass(FailureMessage.class);
+        verify(server, atLeast(0)).sendCoordinator(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private int reportedDuplicates() {
+        int duplicates = 0;
+        for (FailureMessage failure : sentFailures()) {
+            duplicates += failure.getDuplicateCount();
+        }
+        return duplicates;
+    }
+
+    // the exceptions are created at the same place, so they have the same fingerprint
+    private static RuntimeException[] newExceptions(int count) {
+        RuntimeException[] exceptions = new RuntimeException[count];
+        for (int k = 0; k < count; k++) {
+            exceptions[k] = newException("key " + k);
+        }
+        return exceptions;
+    }
+}
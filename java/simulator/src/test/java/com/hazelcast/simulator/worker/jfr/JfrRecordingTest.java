@@ -0,0 +1,89 @@
+package com.hazelcast.simulator.worker.jfr;
+
+import com.hazelcast.simulator.utils.TestUtils;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.worker.jfr.JfrRecording.PHASE_RUN;
+import static com.hazelcast.simulator.worker.jfr.JfrRecording.PHASE_WARMUP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class JfrRecordingTest {
+
+    private File directory;
+
+    @Before
+    public void before() {
+        assumeTrue(JfrRecording.isAvailable());
+        directory = TestUtils.createTmpDirectory();
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(directory);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testUnknownSettings() {
+        new JfrRecording("test", "foo", directory);
+    }
+
+    @Test
+    public void testWarmupAndRun() throws Exception {
+        JfrRecording recording = new JfrRecording("test", "default", directory);
+
+        recording.start();
+        recording.warmupCompleted();
+        recording.throughputDip(System.currentTimeMillis(), 10, 100);
+        recording.stop();
+
+        List<RecordedEvent> warmupEvents = readEvents(recording.getFile(PHASE_WARMUP), "com.hazelcast.simulator.TestPhase");
+        assertEquals(1, warmupEvents.size());
+        assertEquals(PHASE_WARMUP, warmupEvents.get(0).getString("phase"));
+
+        File runFile = recording.getFile(PHASE_RUN);
+        List<RecordedEvent> runEvents = readEvents(runFile, "com.hazelcast.simulator.TestPhase");
+        assertEquals(1, runEvents.size());
+        assertEquals(PHASE_RUN, runEvents.get(0).getString("phase"));
+
+        List<RecordedEvent> dipEvents = readEvents(runFile, "com.hazelcast.simulator.ThroughputDip");
+        assertEquals(1, dipEvents.size());
+        assertEquals(10, dipEvents.get(0).getDouble("intervalThroughput"), 0.1);
+    }
+
+    @Test
+    public void testStop_withoutWarmupCompleted() throws Exception {
+        JfrRecording recording = new JfrRecording("test", "default", directory);
+
+        recording.start();
+        recording.stop();
+        // the calls are ignored since the recording is stopped
+        recording.warmupCompleted();
+        recording.stop();
+
+        assertTrue(recording.getFile(PHASE_WARMUP).exists());
+        assertFalse(recording.getFile(PHASE_RUN).exists());
+    }
+
+    private static List<RecordedEvent> readEvents(File file, String eventName) throws Exception {
+        List<RecordedEvent> result = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            if (event.getEventType().getName().equals(eventName)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+}
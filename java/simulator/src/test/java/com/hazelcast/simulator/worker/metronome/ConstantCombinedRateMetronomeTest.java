@@ -14,6 +14,29 @@ public class ConstantCombinedRateMetronomeTest {
         assertEquals(intervalNanos, master.getIntervalNanos());
     }
 
+    @Test
+    public void test_setIntervalNanos() {
+        long intervalNanos = MILLISECONDS.toNanos(10);
+        ConstantCombinedRateMetronome master = new ConstantCombinedRateMetronome(intervalNanos, true);
+        ConstantCombinedRateMetronome metronome = new ConstantCombinedRateMetronome(master);
+
+        long next = metronome.waitForNext() + intervalNanos;
+        assertEquals(next, metronome.waitForNext());
+
+        // the interval that was already scheduled isn't changed; only the intervals after it
+        master.setIntervalNanos(2 * intervalNanos);
+        next += intervalNanos;
+        assertEquals(next, metronome.waitForNext());
+        next += 2 * intervalNanos;
+        assertEquals(next, metronome.waitForNext());
+        assertEquals(2 * intervalNanos, metronome.getIntervalNanos());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_setIntervalNanos_whenZero() {
+        new ConstantCombinedRateMetronome(MILLISECONDS.toNanos(10), true).setIntervalNanos(0);
+    }
+
     @Test
     public void test() throws InterruptedException {
         long intervalNanos = MILLISECONDS.toNanos(100);
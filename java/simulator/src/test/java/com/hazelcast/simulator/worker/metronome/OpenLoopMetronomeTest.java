@@ -0,0 +1,123 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.After;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OpenLoopMetronomeTest {
+
+    private OpenLoopMetronome master;
+
+    @After
+    public void after() {
+        if (master != null) {
+            master.close();
+        }
+    }
+
+    @Test
+    public void test_getIntervalNanos() {
+        master = new OpenLoopMetronome(MILLISECONDS.toNanos(100), false, true, null, "");
+        assertEquals(MILLISECONDS.toNanos(100), master.getIntervalNanos());
+    }
+
+    @Test
+    public void test_fixedArrivals() {
+        long intervalNanos = MILLISECONDS.toNanos(10);
+        master = new OpenLoopMetronome(intervalNanos, false, true, null, "");
+        OpenLoopMetronome metronome1 = new OpenLoopMetronome(master);
+        OpenLoopMetronome metronome2 = new OpenLoopMetronome(master);
+
+        long next = metronome1.waitForNext() + intervalNanos;
+        assertEquals(next, metronome2.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome1.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome2.waitForNext());
+        assertEquals(4, master.claimedCount());
+    }
+
+    @Test
+    public void test_poissonArrivals() {
+        master = new OpenLoopMetronome(MILLISECONDS.toNanos(1), true, true, null, "");
+        OpenLoopMetronome metronome = new OpenLoopMetronome(master);
+
+        long previous = metronome.waitForNext();
+        for (int i = 0; i < 10; i++) {
+            long next = metronome.waitForNext();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    public void test_whenExecutorsFallBehind_thenOverdueArrivalsKept() {
+        long intervalNanos = MILLISECONDS.toNanos(1);
+        master = new OpenLoopMetronome(intervalNanos, false, true, null, "");
+        OpenLoopMetronome metronome = new OpenLoopMetronome(master);
+
+        long first = metronome.waitForNext();
+        // the executor stalls; so the arrivals in the meantime become overdue
+        sleepMillis(100);
+
+        // every overdue arrival is returned with its intended start time; none of them is dropped
+        for (int i = 1; i <= 50; i++) {
+            assertEquals(first + i * intervalNanos, metronome.waitForNext());
+        }
+        assertEquals(51, master.claimedCount());
+        assertTrue("lateCount was " + master.lateCount(), master.lateCount() >= 40);
+    }
+
+    @Test
+    public void test_whenNotAccountForCoordinatedOmission_thenActualStartReturned() {
+        long intervalNanos = MILLISECONDS.toNanos(1);
+        master = new OpenLoopMetronome(intervalNanos, false, false, null, "");
+        OpenLoopMetronome metronome = new OpenLoopMetronome(master);
+
+        long first = metronome.waitForNext();
+        // on a busy machine the first arrival can already be late
+        long lateCount = master.lateCount();
+        sleepMillis(100);
+
+        assertTrue(metronome.waitForNext() - first >= MILLISECONDS.toNanos(100));
+        assertEquals(lateCount + 1, master.lateCount());
+    }
+
+    @Test
+    public void test_whenClosed_thenWaitForNextReturns() {
+        master = new OpenLoopMetronome(HOURS.toNanos(1), false, true, null, "");
+        OpenLoopMetronome metronome = new OpenLoopMetronome(master);
+
+        master.close();
+
+        long before = System.nanoTime();
+        assertTrue(metronome.waitForNext() >= before);
+        assertEquals(0, master.claimedCount());
+    }
+
+    @Test
+    public void test_propertyBinding() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo")
+                .setProperty("arrivalDistribution", "poisson")
+                .setProperty("accountForCoordinatedOmission", false));
+
+        master = new OpenLoopMetronome(MILLISECONDS.toNanos(1), binding, "");
+
+        binding.ensureNoUnusedProperties();
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void test_invalidArrivalDistribution() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo").setProperty("arrivalDistribution", "foo"));
+
+        new OpenLoopMetronome(MILLISECONDS.toNanos(1), binding, "");
+    }
+}
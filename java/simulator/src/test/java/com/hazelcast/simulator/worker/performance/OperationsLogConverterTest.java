@@ -0,0 +1,175 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.createTmpDirectory;
+import static com.hazelcast.simulator.worker.performance.OperationsMonitor.TIMESTAMP_PATTERN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class OperationsLogConverterTest {
+
+    private static final long TIME_MILLIS = 1500000000123L;
+
+    private File dir;
+    private File binaryFile;
+    private File csvFile;
+
+    @Before
+    public void before() {
+        dir = createTmpDirectory();
+        binaryFile = new File(dir, "operations.bin");
+        csvFile = new File(dir, "operations.csv");
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testConvert() {
+        OperationsLogWriter binaryWriter = new BinaryOperationsLogWriter(binaryFile);
+        File expectedFile = new File(dir, "expected.csv");
+        OperationsLogWriter csvWriter = new CsvOperationsLogWriter(expectedFile);
+        write(binaryWriter, csvWriter, 3);
+        binaryWriter.close();
+        csvWriter.close();
+
+        int records = OperationsLogConverter.convert(binaryFile, csvFile);
+
+        assertEquals(3, records);
+        assertEquals(fileAsText(expectedFile), fileAsText(csvFile));
+    }
+
+    @Test
+    public void testConvert_whenWrittenOverMultipleFlushes() {
+        OperationsLogWriter binaryWriter = new BinaryOperationsLogWriter(binaryFile);
+        // enough records to exceed the buffer of the writer
+        for (int k = 0; k < 2000; k++) {
+            write(binaryWriter, k);
+            if (k % 100 == 0) {
+                binaryWriter.flush();
+            }
+        }
+        binaryWriter.close();
+
+        assertEquals(2000, OperationsLogConverter.convert(binaryFile, csvFile));
+        assertEquals(2001, fileAsText(csvFile).split("\n").length);
+    }
+
+    @Test
+    public void testConvert_whenLastRecordTruncated() throws IOException {
+        OperationsLogWriter binaryWriter = new BinaryOperationsLogWriter(binaryFile);
+        write(binaryWriter, 0);
+        write(binaryWriter, 1);
+        binaryWriter.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        assertEquals(1, OperationsLogConverter.convert(binaryFile, csvFile));
+    }
+
+    @Test
+    public void testConvert_whenRecordHasUnknownFields() throws IOException {
+        OperationsLogWriter binaryWriter = new BinaryOperationsLogWriter(binaryFile);
+        write(binaryWriter, 0);
+        binaryWriter.close();
+
+        // a record written by a newer version with an extra int field
+        byte[] record = new byte[Integer.BYTES + BinaryOperationsLogWriter.RECORD_LENGTH + Integer.BYTES];
+        ByteBuffer.wrap(record).putInt(BinaryOperationsLogWriter.RECORD_LENGTH + Integer.BYTES).putLong(TIME_MILLIS);
+        try (FileOutputStream out = new FileOutputStream(binaryFile, true)) {
+            out.write(record);
+        }
+
+        assertEquals(2, OperationsLogConverter.convert(binaryFile, csvFile));
+    }
+
+    @Test
+    public void testConvert_whenRecordWithoutLateOperations() throws IOException {
+        // a record written by an older version which doesn't contain the late operations
+        byte[] file = new byte[2 * Integer.BYTES + Integer.BYTES + BinaryOperationsLogWriter.MIN_RECORD_LENGTH];
+        ByteBuffer.wrap(file)
+                .putInt(BinaryOperationsLogWriter.MAGIC)
+                .putInt(BinaryOperationsLogWriter.VERSION)
+                .putInt(BinaryOperationsLogWriter.MIN_RECORD_LENGTH)
+                .putLong(TIME_MILLIS)
+                .putLong(100)
+                .putLong(10)
+                .putDouble(10)
+                .putDouble(-1)
+                .put((byte) 0);
+        try (FileOutputStream out = new FileOutputStream(binaryFile)) {
+            out.write(file);
+        }
+
+        assertEquals(1, OperationsLogConverter.convert(binaryFile, csvFile));
+        String[] lines = fileAsText(csvFile).split("\n");
+        assertEquals(",100,10,10,,,0", lines[1].substring(lines[1].indexOf(',', lines[1].indexOf(',') + 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConvert_whenNotBinaryOperationsLog() {
+        writeText(CsvOperationsLogWriter.HEADER, binaryFile);
+
+        OperationsLogConverter.convert(binaryFile, csvFile);
+    }
+
+    @Test
+    public void testClose_whenNothingWritten() {
+        new BinaryOperationsLogWriter(binaryFile).close();
+        new CsvOperationsLogWriter(csvFile).close();
+
+        assertFalse(binaryFile.exists());
+        assertFalse(csvFile.exists());
+    }
+
+    @Test
+    public void testCsvWriter() {
+        OperationsLogWriter writer = new CsvOperationsLogWriter(csvFile);
+        writer.write(TIME_MILLIS, "timestamp", 100, 10, 10.5, -1, -1, true);
+        writer.write(TIME_MILLIS + 1000, "timestamp", 120, 20, 20, 12.25, 3, false);
+        writer.flush();
+
+        assertEquals(CsvOperationsLogWriter.HEADER
+                + "1500000000.123,timestamp,100,10,10.5,,,1\n"
+                + "1500000001.123,timestamp,120,20,20,12.25,3,0\n", fileAsText(csvFile));
+        writer.close();
+    }
+
+    @Test
+    public void testToCsvFile() {
+        File csvFile = OperationsLogConverter.toCsvFile(new File(dir, "test.operations.bin"));
+
+        assertEquals(new File(dir, "test.operations.csv"), csvFile);
+    }
+
+    private static void write(OperationsLogWriter binaryWriter, OperationsLogWriter csvWriter, int count) {
+        for (int k = 0; k < count; k++) {
+            write(binaryWriter, k);
+            write(csvWriter, k);
+        }
+    }
+
+    private static void write(OperationsLogWriter writer, int k) {
+        long timeMillis = TIME_MILLIS + k * 1000L;
+        String timestamp = new SimpleDateFormat(TIMESTAMP_PATTERN).format(new Date(timeMillis));
+        writer.write(timeMillis, timestamp, 100L * (k + 1), 100, 100.25, k == 0 ? -1 : 8.5, k == 0 ? -1 : k, k == 0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OperationsLogFormatTest {
+
+    @Test
+    public void testFromString() {
+        assertEquals(OperationsLogFormat.CSV, OperationsLogFormat.fromString(null));
+        assertEquals(OperationsLogFormat.CSV, OperationsLogFormat.fromString(" "));
+        assertEquals(OperationsLogFormat.CSV, OperationsLogFormat.fromString("csv"));
+        assertEquals(OperationsLogFormat.BINARY, OperationsLogFormat.fromString("binary"));
+        assertEquals(OperationsLogFormat.BINARY, OperationsLogFormat.fromString(" BINARY "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromString_whenUnknown() {
+        OperationsLogFormat.fromString("parquet");
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -22,8 +23,10 @@ import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
 import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
@@ -37,13 +40,14 @@ public class PerformanceMonitorTest {
 
     private final ConcurrentMap<String, TestContainer> tests = new ConcurrentHashMap<String, TestContainer>();
 
+    private File userDir;
     private Server server;
     private OperationsMonitor performanceMonitor;
     private TestManager containerManager;
 
     @Before
     public void before() {
-        setupFakeUserDir();
+        userDir = setupFakeUserDir();
 
         server = mock(Server.class);
 
@@ -119,6 +123,61 @@ public class PerformanceMonitorTest {
         performanceMonitor.close();
     }
 
+    @Test
+    public void test_whenBinaryLogFormat_thenConvertedToCsvOnClose() {
+        performanceMonitor = new OperationsMonitor(server, containerManager, 1, OperationsLogFormat.BINARY, null);
+        performanceMonitor.start();
+
+        DummyTest test = new DummyTest();
+        TestContext testContext = addTest(test);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(new File(userDir, TEST_NAME + ".operations.bin").exists());
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+
+        performanceMonitor.close();
+
+        String csv = fileAsText(new File(userDir, TEST_NAME + ".operations.csv"));
+        assertTrue(csv.startsWith(CsvOperationsLogWriter.HEADER));
+        assertTrue(new File(userDir, "operations.csv").exists());
+    }
+
+    @Test
+    public void test_whenPrometheusEndpoint_thenTestMetricsExposed() throws Exception {
+        final PrometheusEndpoint endpoint = new PrometheusEndpoint(0);
+        performanceMonitor = new OperationsMonitor(server, containerManager, 1, OperationsLogFormat.CSV, endpoint);
+        performanceMonitor.start();
+
+        DummyTest test = new DummyTest();
+        TestContext testContext = addTest(test);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                String metrics = endpoint.render();
+                assertTrue(metrics, metrics.contains("simulator_test_operations_total{test=\"" + TEST_NAME + "\"}"));
+                assertTrue(metrics, metrics.contains("simulator_test_warmup{test=\"" + TEST_NAME + "\"} 0"));
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+
+        performanceMonitor.close();
+    }
+
     private TestContext addTest(Object test) {
         return addTest(test, 0);
     }
@@ -1,13 +1,94 @@
 package com.hazelcast.simulator.worker.performance;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class PerformanceStatsTest {
 
+    @Test
+    public void testIntervalHistograms() {
+        Histogram histogram = new Histogram(3);
+        for (int k = 1; k <= 1000; k++) {
+            histogram.recordValue(k * 1000);
+        }
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        histograms.put("probe", histogram);
+
+        PerformanceStats performanceStats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        performanceStats.setIntervalHistograms(histograms);
+        Map<String, Histogram> decoded = new PerformanceStats(performanceStats).getIntervalHistograms();
+
+        assertEquals(1, decoded.size());
+        assertEquals(histogram, decoded.get("probe"));
+    }
+
+    @Test
+    public void testIntervalHistograms_whenNotSet() {
+        assertTrue(new PerformanceStats().getIntervalHistograms().isEmpty());
+    }
+
+    @Test
+    public void testAllocatedBytesPerOperation() {
+        PerformanceStats performanceStats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        assertEquals(-1, performanceStats.getAllocatedBytesPerOperation(), 0.0001);
+
+        performanceStats.setTotalAllocatedBytes(1000);
+        assertEquals(10, performanceStats.getAllocatedBytesPerOperation(), 0.0001);
+    }
+
+    @Test
+    public void testAdd_allocatedBytes() {
+        PerformanceStats performanceStats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        performanceStats.setTotalAllocatedBytes(1000);
+        PerformanceStats other = new PerformanceStats(300, 5.0, 10.0, 175.0d, 150, 200);
+        other.setTotalAllocatedBytes(3000);
+
+        performanceStats.add(other);
+
+        assertEquals(4000, performanceStats.getTotalAllocatedBytes());
+        assertEquals(10, performanceStats.getAllocatedBytesPerOperation(), 0.0001);
+    }
+
+    @Test
+    public void testAdd_allocatedBytes_whenUnknown() {
+        PerformanceStats performanceStats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        performanceStats.setTotalAllocatedBytes(1000);
+
+        performanceStats.add(new PerformanceStats(300, 5.0, 10.0, 175.0d, 150, 200));
+
+        assertEquals(-1, performanceStats.getTotalAllocatedBytes());
+    }
+
+    @Test
+    public void testAdd_lateOperationCount() {
+        PerformanceStats performanceStats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        performanceStats.setLateOperationCount(10);
+        PerformanceStats other = new PerformanceStats(300, 5.0, 10.0, 175.0d, 150, 200);
+        other.setLateOperationCount(30);
+
+        performanceStats.add(other);
+
+        assertEquals(40, performanceStats.getLateOperationCount());
+    }
+
+    @Test
+    public void testAdd_lateOperationCount_whenNotTracked() {
+        PerformanceStats performanceStats = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+        performanceStats.setLateOperationCount(10);
+
+        performanceStats.add(new PerformanceStats(300, 5.0, 10.0, 175.0d, 150, 200));
+
+        assertEquals(10, performanceStats.getLateOperationCount());
+        assertEquals(-1, new PerformanceStats(300, 5.0, 10.0, 175.0d, 150, 200).getLateOperationCount());
+    }
+
     @Test
     public void testIsEmpty() {
         assertTrue(new PerformanceStats().isEmpty());
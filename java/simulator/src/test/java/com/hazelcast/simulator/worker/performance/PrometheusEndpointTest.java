@@ -0,0 +1,82 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusEndpointTest {
+
+    private PrometheusEndpoint endpoint;
+
+    @Before
+    public void before() throws IOException {
+        endpoint = new PrometheusEndpoint(0);
+        endpoint.start();
+    }
+
+    @After
+    public void after() {
+        endpoint.close();
+    }
+
+    @Test
+    public void testScrape() throws IOException {
+        endpoint.update(Collections.emptyList());
+
+        HttpURLConnection connection = openConnection();
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(PrometheusEndpoint.CONTENT_TYPE, connection.getContentType());
+        String body = read(connection.getInputStream());
+        assertTrue(body.contains("# TYPE simulator_test_operations_total counter\n"));
+        assertTrue(body.contains("# TYPE simulator_test_latency_seconds summary\n"));
+        assertTrue(body.contains("# TYPE jvm_gc_collections_total counter\n"));
+        assertTrue(body.contains("jvm_memory_heap_used_bytes "));
+        assertFalse(body.contains("{test="));
+    }
+
+    @Test
+    public void testScrape_whenNotGet() throws IOException {
+        HttpURLConnection connection = openConnection();
+        connection.setRequestMethod("DELETE");
+
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    @Test
+    public void testEscape() {
+        StringBuilder sb = new StringBuilder();
+        PrometheusEndpoint.escape(sb, "a\"b\\c\nd");
+
+        assertEquals("a\\\"b\\\\c\\nd", sb.toString());
+    }
+
+    private HttpURLConnection openConnection() throws IOException {
+        URL url = new URL("http://localhost:" + endpoint.getPort() + "/metrics");
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), UTF_8);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.worker.performance.WarmupPolicy.POLICY_AUTO;
+import static com.hazelcast.simulator.worker.performance.WarmupPolicy.POLICY_NONE;
+import static com.hazelcast.simulator.worker.performance.WarmupPolicy.coefficientOfVariation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WarmupPolicyTest {
+
+    @Test
+    public void testNone_isDefault() {
+        WarmupPolicy policy = load(new TestCase("foo"));
+
+        assertEquals(POLICY_NONE, policy.getPolicy());
+        assertTrue(policy.completesImmediately());
+        assertTrue(policy.isCompleted(0, 0, 0));
+    }
+
+    @Test
+    public void testDuration() {
+        WarmupPolicy policy = load(new TestCase("foo")
+                .setProperty("warmupPolicy", "duration")
+                .setProperty("warmupSeconds", 10));
+
+        assertFalse(policy.completesImmediately());
+        assertFalse(policy.isCompleted(9999, 100, 10));
+        assertNull(policy.getCompletionReason());
+        assertTrue(policy.isCompleted(10000, 100, 10));
+        assertNotNull(policy.getCompletionReason());
+    }
+
+    @Test
+    public void testIterations() {
+        WarmupPolicy policy = load(new TestCase("foo")
+                .setProperty("warmupPolicy", "iterations")
+                .setProperty("warmupIterations", 1000));
+
+        assertFalse(policy.isCompleted(100000, 999, 10));
+        assertTrue(policy.isCompleted(100000, 1000, 10));
+    }
+
+    @Test
+    public void testAuto_whenStable() {
+        WarmupPolicy policy = load(new TestCase("foo")
+                .setProperty("warmupPolicy", "auto")
+                .setProperty("warmupWindow", 3)
+                .setProperty("warmupMaxCov", 0.05));
+
+        assertFalse(policy.isCompleted(1000, 0, 100));
+        assertFalse(policy.isCompleted(2000, 0, 500));
+        assertFalse(policy.isCompleted(3000, 0, 1000));
+        assertFalse(policy.isCompleted(4000, 0, 1010));
+        assertTrue(policy.isCompleted(5000, 0, 1005));
+    }
+
+    @Test
+    public void testAuto_whenNeverStable_thenCompletesAfterMaxDuration() {
+        WarmupPolicy policy = load(new TestCase("foo")
+                .setProperty("warmupPolicy", "auto")
+                .setProperty("warmupSeconds", 3));
+
+        assertEquals(POLICY_AUTO, policy.getPolicy());
+        assertFalse(policy.isCompleted(1000, 0, 100));
+        assertFalse(policy.isCompleted(2000, 0, 1000));
+        assertTrue(policy.isCompleted(3000, 0, 100));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testInvalidPolicy() {
+        load(new TestCase("foo").setProperty("warmupPolicy", "foo"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testDuration_whenNoSeconds() {
+        load(new TestCase("foo").setProperty("warmupPolicy", "duration"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testIterations_whenNoIterations() {
+        load(new TestCase("foo").setProperty("warmupPolicy", "iterations"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNone_whenSecondsConfigured() {
+        load(new TestCase("foo").setProperty("warmupSeconds", 10));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testDuration_whenIterationsConfigured() {
+        load(new TestCase("foo")
+                .setProperty("warmupPolicy", "duration")
+                .setProperty("warmupSeconds", 10)
+                .setProperty("warmupIterations", 10));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testAuto_whenWindowTooSmall() {
+        load(new TestCase("foo")
+                .setProperty("warmupPolicy", "auto")
+                .setProperty("warmupWindow", 1));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testAuto_whenMaxCovNotPositive() {
+        load(new TestCase("foo")
+                .setProperty("warmupPolicy", "auto")
+                .setProperty("warmupMaxCov", 0));
+    }
+
+    @Test
+    public void testCoefficientOfVariation() {
+        assertEquals(0, coefficientOfVariation(new double[]{5, 5, 5}), 0);
+        assertEquals(0.5, coefficientOfVariation(new double[]{1, 3}), 0.0001);
+        assertEquals(Double.POSITIVE_INFINITY, coefficientOfVariation(new double[]{0, 0}), 0);
+    }
+
+    private static WarmupPolicy load(TestCase testCase) {
+        PropertyBinding binding = new PropertyBinding(testCase);
+        WarmupPolicy policy = WarmupPolicy.load(binding);
+        binding.ensureNoUnusedProperties();
+        return policy;
+    }
+}
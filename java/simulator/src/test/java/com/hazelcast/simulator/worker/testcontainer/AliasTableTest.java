@@ -0,0 +1,100 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.hazelcast.simulator.worker.testcontainer.AliasTable.COIN_RANGE;
+import static org.junit.Assert.assertEquals;
+
+public class AliasTableTest {
+
+    @Test(expected = NullPointerException.class)
+    public void testCreate_whenNull() {
+        AliasTable.create((double[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_whenEmpty() {
+        AliasTable.create();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_whenNegative() {
+        AliasTable.create(0.5, -0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_whenAllZero() {
+        AliasTable.create(0, 0);
+    }
+
+    @Test
+    public void testCreate_whenUniform() {
+        AliasTable table = AliasTable.create(0.25, 0.25, 0.25, 0.25);
+
+        assertEquals(4, table.getLength());
+        for (long threshold : table.getThresholds()) {
+            assertEquals(COIN_RANGE, threshold);
+        }
+    }
+
+    @Test
+    public void testSelect_whenZeroProbability() {
+        AliasTable table = AliasTable.create(0.5, 0, 0.5);
+
+        Random random = new Random();
+        for (int k = 0; k < 100000; k++) {
+            int index = table.select(random.nextLong());
+            if (index == 1) {
+                throw new AssertionError("method with probability 0 was selected");
+            }
+        }
+    }
+
+    @Test
+    public void testSelect_boundaries() {
+        AliasTable table = AliasTable.create(0.1, 0.9);
+
+        assertEquals(0, table.select(0));
+        assertEquals(1, table.select(-1));
+    }
+
+    @Test
+    public void testSelect_distribution() {
+        assertDistribution(0.1, 0.2, 0.1, 0.29, 0.21, 0.1);
+        assertDistribution(0.001, 0.999);
+        assertDistribution(1, 900, 100, 9, 99);
+    }
+
+    @Test
+    public void testSelect_finerThanOneInMillion() {
+        AliasTable table = AliasTable.create(1e-8, 1 - 1e-8);
+
+        // the table should not round the small probability to 0
+        long threshold = table.getThresholds()[0];
+        assertEquals(1e-8 * 2 * COIN_RANGE, threshold, 1);
+    }
+
+    private static void assertDistribution(double... probabilities) {
+        AliasTable table = AliasTable.create(probabilities);
+
+        double sum = 0;
+        for (double probability : probabilities) {
+            sum += probability;
+        }
+
+        int iterations = 1000000;
+        int[] counts = new int[probabilities.length];
+        Random random = new Random(42);
+        for (int k = 0; k < iterations; k++) {
+            counts[table.select(random.nextLong())]++;
+        }
+
+        for (int k = 0; k < probabilities.length; k++) {
+            double expected = probabilities[k] / sum;
+            double actual = counts[k] / (double) iterations;
+            assertEquals("index " + k, expected, actual, 0.005);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AsyncCallbackPoolTest {
+
+    private final Semaphore inFlightPermits = new Semaphore(0);
+    private final List<Long> completedStartNanos = new ArrayList<>();
+
+    private AsyncCallbackPool pool;
+
+    @Before
+    public void before() {
+        pool = new AsyncCallbackPool(inFlightPermits);
+    }
+
+    @Test
+    public void testTake_passesStartNanos() {
+        pool.offer(newCallback());
+
+        pool.take(10).accept("result", null);
+
+        assertEquals(1, completedStartNanos.size());
+        assertEquals(10L, (long) completedStartNanos.get(0));
+    }
+
+    @Test
+    public void testAccept_returnsCallbackAndReleasesPermit() {
+        AsyncCallbackPool.Callback callback = newCallback();
+        pool.offer(callback);
+
+        AsyncCallbackPool.Callback taken = pool.take(10);
+        taken.accept(null, new Exception());
+
+        assertSame(callback, taken);
+        assertEquals(1, inFlightPermits.availablePermits());
+        assertSame(callback, pool.take(20));
+    }
+
+    @Test
+    public void testTake_whenMultipleCallbacks() {
+        AsyncCallbackPool.Callback callback1 = newCallback();
+        AsyncCallbackPool.Callback callback2 = newCallback();
+        pool.offer(callback1);
+        pool.offer(callback2);
+
+        AsyncCallbackPool.Callback taken1 = pool.take(10);
+        AsyncCallbackPool.Callback taken2 = pool.take(20);
+        taken2.accept(null, null);
+        taken1.accept(null, null);
+
+        assertSame(callback2, taken1);
+        assertSame(callback1, taken2);
+        assertEquals(2, inFlightPermits.availablePermits());
+        assertEquals(20L, (long) completedStartNanos.get(0));
+        assertEquals(10L, (long) completedStartNanos.get(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTake_whenEmpty() {
+        pool.take(10);
+    }
+
+    private AsyncCallbackPool.Callback newCallback() {
+        return new AsyncCallbackPool.Callback(pool) {
+            @Override
+            protected void onComplete(long startNanos) {
+                completedStartNanos.add(startNanos);
+            }
+        };
+    }
+}
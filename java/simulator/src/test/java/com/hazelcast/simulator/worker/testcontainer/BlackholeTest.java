@@ -0,0 +1,38 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+
+public class BlackholeTest {
+
+    private final Blackhole blackhole = new Blackhole();
+
+    @Test
+    public void testConsumePrimitives() {
+        for (int k = 0; k < 1000; k++) {
+            blackhole.consume(k % 2 == 0);
+            blackhole.consume((byte) k);
+            blackhole.consume((short) k);
+            blackhole.consume((char) k);
+            blackhole.consume(k);
+            blackhole.consume((long) k);
+            blackhole.consume((float) k);
+            blackhole.consume((double) k);
+        }
+    }
+
+    @Test
+    public void testConsumeObject() {
+        for (int k = 0; k < 1000; k++) {
+            blackhole.consume("foo" + k);
+        }
+
+        assertNotNull(blackhole.lastObject());
+    }
+
+    @Test
+    public void testConsumeNull() {
+        blackhole.consume((Object) null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static com.hazelcast.simulator.worker.testcontainer.CpuAffinity.parseCpuList;
+import static com.hazelcast.simulator.worker.testcontainer.CpuAffinity.toCpuList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CpuAffinityTest {
+
+    @Test
+    public void testParseCpuList() {
+        BitSet cpus = parseCpuList("0-3, 6,8-9");
+
+        assertEquals(7, cpus.cardinality());
+        assertEquals("0-3,6,8-9", toCpuList(cpus));
+    }
+
+    @Test
+    public void testParseCpuList_singleCpu() {
+        assertEquals("5", toCpuList(parseCpuList("5")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseCpuList_whenEmpty() {
+        parseCpuList(" ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseCpuList_whenInvalidRange() {
+        parseCpuList("3-1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseCpuList_whenNotANumber() {
+        parseCpuList("0,a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_whenInvalidNumaNode() {
+        CpuAffinity.parse("numa:x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_whenNumaNodeDoesNotExist() {
+        CpuAffinity.parse("numa:100000");
+    }
+
+    @Test
+    public void testCpusForThread_whenThreadMode() {
+        CpuAffinity cpuAffinity = new CpuAffinity(parseCpuList("2,4"), true);
+
+        assertEquals("2", toCpuList(cpuAffinity.cpusForThread(0)));
+        assertEquals("4", toCpuList(cpuAffinity.cpusForThread(1)));
+        assertEquals("2", toCpuList(cpuAffinity.cpusForThread(2)));
+    }
+
+    @Test
+    public void testCpusForThread_whenGroupMode() {
+        CpuAffinity cpuAffinity = new CpuAffinity(parseCpuList("2,4"), false);
+
+        assertEquals("2,4", toCpuList(cpuAffinity.cpusForThread(0)));
+        assertEquals("2,4", toCpuList(cpuAffinity.cpusForThread(1)));
+    }
+
+    @Test
+    public void testLoad_whenNone() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo").setProperty("cpuAffinity", "none"));
+
+        assertNull(CpuAffinity.load(binding, ""));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testLoad_whenModeWithoutAffinity() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo").setProperty("cpuAffinityMode", "group"));
+
+        CpuAffinity.load(binding, "");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testLoad_whenInvalidMode() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo")
+                .setProperty("cpuAffinity", "0")
+                .setProperty("cpuAffinityMode", "foo"));
+
+        CpuAffinity.load(binding, "");
+    }
+
+    @Test
+    public void testLoad_executionGroup() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo")
+                .setProperty("producerCpuAffinity", "0")
+                .setProperty("producerCpuAffinityMode", "group"));
+
+        CpuAffinity cpuAffinity = CpuAffinity.load(binding, "producer");
+
+        assertEquals("cpus=0 mode=group", cpuAffinity.toString());
+        binding.ensureNoUnusedProperties();
+    }
+}
@@ -4,6 +4,7 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.OpenLoopMetronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 import org.junit.Test;
 
@@ -14,6 +15,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class MetronomeSupplierTest {
@@ -85,6 +87,21 @@ public class MetronomeSupplierTest {
         assertEquals(10, metronome.getIntervalNanos());
     }
 
+    @Test
+    public void withOpenLoopMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("interval", "10ms")
+                        .setProperty("metronomeClass", OpenLoopMetronome.class));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 4);
+
+        Metronome m = supplier.get();
+        assertEquals(OpenLoopMetronome.class, m.getClass());
+        assertEquals(MILLISECONDS.toNanos(10), ((OpenLoopMetronome) m).getIntervalNanos());
+        assertEquals(0, supplier.lateCount());
+        supplier.close();
+    }
+
     @Test
     public void whenZeroInterval() {
         PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo"));
@@ -92,5 +109,81 @@ public class MetronomeSupplierTest {
 
         Metronome m = supplier.get();
         assertEquals(EmptyMetronome.class, m.getClass());
+        assertEquals(-1, supplier.lateCount());
+    }
+
+    @Test
+    public void withRatePerSecondSweep() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecondSweep", "100, 200"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 2);
+
+        assertArrayEquals(new double[]{100, 200}, supplier.getSweepRates(), 0);
+        assertEquals(MILLISECONDS.toNanos(10), supplier.getIntervalNanos());
+
+        SleepingMetronome metronome = (SleepingMetronome) supplier.get();
+        assertEquals(MILLISECONDS.toNanos(20), metronome.getIntervalNanos());
+
+        supplier.setRatePerSecond(200);
+        assertEquals(MILLISECONDS.toNanos(5), supplier.getIntervalNanos());
+        assertEquals(MILLISECONDS.toNanos(10), metronome.getIntervalNanos());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRatePerSecondSweep_andRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo")
+                .setProperty("ratePerSecond", "100")
+                .setProperty("ratePerSecondSweep", "100,200"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRatePerSecondSweep_whenInvalidRate() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecondSweep", "100,0"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRatePerSecondSweep_whenNotNumeric() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecondSweep", "100,foo"));
+        new MetronomeSupplier("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setRatePerSecond_whenZeroInterval() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 1);
+
+        supplier.setRatePerSecond(100);
+    }
+
+    @Test
+    public void setActiveThreadCount() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecond", "100"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 4);
+        SleepingMetronome metronome = (SleepingMetronome) supplier.get();
+        assertEquals(MILLISECONDS.toNanos(40), metronome.getIntervalNanos());
+
+        // the rate of the execution group stays the same; so every active thread gets a smaller interval
+        supplier.setActiveThreadCount(2);
+        assertEquals(MILLISECONDS.toNanos(20), metronome.getIntervalNanos());
+        assertEquals(100, supplier.getRatePerSecond(), 0.0001);
+
+        supplier.setRatePerSecond(200);
+        assertEquals(MILLISECONDS.toNanos(10), metronome.getIntervalNanos());
+
+        supplier.setActiveThreadCount(4);
+        assertEquals(MILLISECONDS.toNanos(20), metronome.getIntervalNanos());
+        assertEquals(200, supplier.getRatePerSecond(), 0.0001);
+    }
+
+    @Test
+    public void setActiveThreadCount_whenZeroInterval() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo"));
+        MetronomeSupplier supplier = new MetronomeSupplier("", propertyBinding, 4);
+
+        supplier.setActiveThreadCount(2);
+
+        assertEquals(0, supplier.getRatePerSecond(), 0);
+        assertEquals(EmptyMetronome.class, supplier.get().getClass());
     }
 }
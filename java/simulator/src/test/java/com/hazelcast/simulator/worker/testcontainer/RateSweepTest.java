@@ -0,0 +1,91 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RateSweepTest {
+
+    private final TestCase testCase = new TestCase("foo");
+
+    @Test
+    public void testLoad_whenNotConfigured() {
+        assertNull(load("a"));
+    }
+
+    @Test
+    public void testLoad() {
+        testCase.setProperty("aRatePerSecondSweep", "100,200,400")
+                .setProperty("bRatePerSecondSweep", "10,20")
+                .setProperty("sweepStepSeconds", "10");
+
+        RateSweep rateSweep = load("a", "b", "c");
+
+        assertEquals(3, rateSweep.stepCount());
+        assertEquals(SECONDS.toMillis(10), rateSweep.getStepMillis());
+        assertEquals(110, rateSweep.ratePerSecond(0), 0);
+        assertEquals(220, rateSweep.ratePerSecond(1), 0);
+        // group b keeps its last rate
+        assertEquals(420, rateSweep.ratePerSecond(2), 0);
+    }
+
+    @Test
+    public void testStepAt() {
+        testCase.setProperty("ratePerSecondSweep", "100,200,400")
+                .setProperty("sweepStepSeconds", "10");
+
+        RateSweep rateSweep = load("");
+
+        assertEquals(0, rateSweep.stepAt(0));
+        assertEquals(0, rateSweep.stepAt(SECONDS.toMillis(10) - 1));
+        assertEquals(1, rateSweep.stepAt(SECONDS.toMillis(10)));
+        assertEquals(2, rateSweep.stepAt(SECONDS.toMillis(25)));
+        // after the last step, the sweep stays at the last step
+        assertEquals(2, rateSweep.stepAt(SECONDS.toMillis(1000)));
+    }
+
+    @Test
+    public void testApply() {
+        testCase.setProperty("ratePerSecondSweep", "100,200");
+        PropertyBinding binding = new PropertyBinding(testCase);
+        Map<String, MetronomeSupplier> suppliers = new LinkedHashMap<>();
+        suppliers.put("", new MetronomeSupplier("", binding, 1));
+        RateSweep rateSweep = RateSweep.load(binding, suppliers);
+
+        rateSweep.apply(1);
+
+        assertEquals(MILLISECONDS.toNanos(5), suppliers.get("").getIntervalNanos());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testLoad_whenInvalidStepSeconds() {
+        testCase.setProperty("ratePerSecondSweep", "100,200")
+                .setProperty("sweepStepSeconds", "0");
+
+        load("");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testLoad_whenNegativeSlo() {
+        testCase.setProperty("ratePerSecondSweep", "100,200")
+                .setProperty("sweepP99SloMs", "-1");
+
+        load("");
+    }
+
+    private RateSweep load(String... executionGroups) {
+        PropertyBinding binding = new PropertyBinding(testCase);
+        Map<String, MetronomeSupplier> suppliers = new LinkedHashMap<>();
+        for (String executionGroup : executionGroups) {
+            suppliers.put(executionGroup, new MetronomeSupplier(executionGroup, binding, 1));
+        }
+        return RateSweep.load(binding, suppliers);
+    }
+}
@@ -7,13 +7,17 @@ import com.hazelcast.simulator.test.BaseThreadState;
 import com.hazelcast.simulator.test.annotations.AfterRun;
 import com.hazelcast.simulator.test.annotations.BeforeRun;
 import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.utils.BindException;
+import com.hazelcast.simulator.utils.ThreadAllocationUtils;
 import org.junit.Test;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -22,6 +26,8 @@ import static com.hazelcast.simulator.common.TestPhase.RUN;
 import static com.hazelcast.simulator.common.TestPhase.SETUP;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.mock;
 
 public class TestContainer_TimeStepTest extends TestContainer_AbstractTest {
@@ -114,6 +120,165 @@ public class TestContainer_TimeStepTest extends TestContainer_AbstractTest {
         assertEquals(threadCount, threadStates.size());
     }
 
+    @Test
+    public void testWithVirtualThreads() throws Exception {
+        int threadCount = 100;
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", threadCount)
+                .setProperty("threadType", "virtual")
+                .setProperty("iterations", 50)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+
+        assertEquals(threadCount, testInstance.beforeRunCount.get());
+        assertEquals(threadCount, testInstance.afterRunCount.get());
+        assertEquals(threadCount * 50, testInstance.timeStepCount.get());
+        assertEquals(threadCount * 50, container.iteration());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testWithInvalidThreadType() {
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadType", "foo")
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    @Test
+    public void testWithCpuAffinity() throws Exception {
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("cpuAffinity", "0")
+                .setProperty("iterations", 10)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+
+        assertEquals(2 * 10, testInstance.timeStepCount.get());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testWithInvalidCpuAffinity() {
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("cpuAffinity", "foo")
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    @Test
+    public void testWithRatePerSecondSweep() throws Exception {
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("ratePerSecondSweep", "1000,2000")
+                .setProperty("sweepStepSeconds", 5)
+                .setProperty("sweepP99SloMs", 1.5)
+                .setProperty("iterations", 10)
+                .setProperty("class", testInstance.getClass());
+
+        TestContainer container = createTestContainer(testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+
+        assertEquals(2, container.getRateSweep().stepCount());
+        assertEquals(2 * 10, testInstance.timeStepCount.get());
+    }
+
+    @Test(expected = BindException.class)
+    public void testWithSweepStepSeconds_withoutRatePerSecondSweep() {
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("sweepStepSeconds", 5)
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    @Test
+    public void testWithRandomSeed() throws Exception {
+        List<Long> first = runWithRandomSeed(42);
+        List<Long> second = runWithRandomSeed(42);
+        List<Long> other = runWithRandomSeed(43);
+
+        assertEquals(10, first.size());
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    private List<Long> runWithRandomSeed(long randomSeed) throws Exception {
+        TestWithRandom testInstance = new TestWithRandom();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", 10)
+                .setProperty("randomSeed", randomSeed)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        return testInstance.values;
+    }
+
+    @Test
+    public void testAllocatedBytes() throws Exception {
+        assumeTrue(ThreadAllocationUtils.isThreadAllocatedBytesSupported());
+
+        TestWithAllocation testInstance = new TestWithAllocation();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("iterations", 1000)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+
+        // every iteration allocates at least 1 KB
+        assertTrue(container.allocatedBytes() >= 2 * 1000 * 1024);
+    }
+
+    public static class TestWithAllocation {
+
+        @TimeStep
+        public byte[] timeStep() {
+            return new byte[1024];
+        }
+    }
+
+    public static class TestWithRandom {
+
+        private final List<Long> values = new CopyOnWriteArrayList<Long>();
+
+        @TimeStep(prob = 0.5)
+        public void timeStep1(BaseThreadState state) {
+            values.add(state.randomLong());
+        }
+
+        @TimeStep(prob = 0.5)
+        public void timeStep2(BaseThreadState state) {
+            values.add(-state.randomLong(1000));
+        }
+    }
+
     public static class TestWithThreadState {
 
         private final Map<Thread, BaseThreadState> map = new ConcurrentHashMap<Thread, BaseThreadState>();
@@ -0,0 +1,238 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_MaxInFlightTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testThreadScope() throws Exception {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 200)
+                .setProperty("threadCount", 2)
+                .setProperty("maxInFlight", 3)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = run(testInstance, testCase);
+
+        assertTrueEventually(() -> assertEquals(400, testInstance.completedCount.get()));
+        assertTrue("maxPending was " + testInstance.maxPending.get(), testInstance.maxPending.get() <= 6);
+        assertNotNull(testContext.getLatencyProbes().get("inFlightWait"));
+    }
+
+    @Test
+    public void testGroupScope() throws Exception {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 200)
+                .setProperty("threadCount", 2)
+                .setProperty("maxInFlight", 3)
+                .setProperty("maxInFlightScope", "group")
+                .setProperty("class", testInstance.getClass());
+
+        run(testInstance, testCase);
+
+        assertTrueEventually(() -> assertEquals(400, testInstance.completedCount.get()));
+        assertTrue("maxPending was " + testInstance.maxPending.get(), testInstance.maxPending.get() <= 3);
+    }
+
+    @Test(timeout = 60000)
+    public void testGroupScope_whenSyncTimeStepThrows_thenPermitReleased() throws Exception {
+        ThrowingTest testInstance = new ThrowingTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 2)
+                .setProperty("maxInFlight", 1)
+                .setProperty("maxInFlightScope", "group")
+                .setProperty("class", testInstance.getClass());
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        // the thread that throws completes; the other thread would block forever on the permit if it leaked
+        container.invoke(RUN);
+
+        assertTrue(new File(userDir, "1.exception").exists());
+        assertTrue("callCount was " + testInstance.callCount.get(), testInstance.callCount.get() >= 101);
+    }
+
+    @Test
+    public void testLatencyRecordedForEveryCall() throws Exception {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 200)
+                .setProperty("threadCount", 2)
+                .setProperty("maxInFlight", 3)
+                .setProperty("maxInFlightScope", "group")
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = run(testInstance, testCase);
+
+        assertTrueEventually(() -> assertEquals(400, testInstance.completedCount.get()));
+        HdrLatencyProbe probe = (HdrLatencyProbe) testContext.getLatencyProbes().get("asyncTimeStep");
+        // the interval histogram is reset on every call; so the counts are summed
+        AtomicLong recordedCount = new AtomicLong();
+        assertTrueEventually(() -> assertEquals(400, recordedCount.addAndGet(probe.getIntervalHistogram().getTotalCount())));
+    }
+
+    @Test
+    public void testNoMeasureLatency() throws Exception {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("maxInFlight", 2)
+                .setProperty("measureLatency", false)
+                .setProperty("class", testInstance.getClass());
+
+        run(testInstance, testCase);
+
+        assertTrueEventually(() -> assertEquals(100, testInstance.completedCount.get()));
+        assertTrue("maxPending was " + testInstance.maxPending.get(), testInstance.maxPending.get() <= 2);
+    }
+
+    @Test
+    public void testInFlight() throws Exception {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 2)
+                .setProperty("maxInFlight", 3)
+                .setProperty("class", testInstance.getClass());
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+
+        assertEquals(-1, container.inFlight());
+
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        assertNoExceptions();
+
+        assertTrueEventually(() -> assertEquals(200, testInstance.completedCount.get()));
+        assertTrueEventually(() -> assertEquals(0, container.inFlight()));
+    }
+
+    @Test
+    public void testInFlight_whenNoMaxInFlight() throws Exception {
+        SyncTest testInstance = new SyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("iterations", 10)
+                .setProperty("class", testInstance.getClass());
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+
+        container.invoke(SETUP);
+        container.invoke(RUN);
+
+        assertEquals(-1, container.inFlight());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testInvalidScope() {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("maxInFlight", 3)
+                .setProperty("maxInFlightScope", "foo")
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNegativeMaxInFlight() {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("maxInFlight", -1)
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNoAsyncTimeStepMethods() {
+        SyncTest testInstance = new SyncTest();
+        TestCase testCase = new TestCase("maxInFlight")
+                .setProperty("maxInFlight", 3)
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    private static TestContextImpl run(Object testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        assertNoExceptions();
+        return testContext;
+    }
+
+    public static class AsyncTest {
+        private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger maxPending = new AtomicInteger();
+        private final AtomicInteger completedCount = new AtomicInteger();
+
+        @TimeStep
+        public CompletableFuture<Object> asyncTimeStep() {
+            int current = pending.incrementAndGet();
+            maxPending.accumulateAndGet(current, Math::max);
+
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                pending.decrementAndGet();
+                completedCount.incrementAndGet();
+                future.complete("1");
+            }, 1, MILLISECONDS);
+            return future;
+        }
+    }
+
+    public static class ThrowingTest {
+        private final AtomicBoolean thrown = new AtomicBoolean();
+        private final AtomicInteger callCount = new AtomicInteger();
+
+        @TimeStep(prob = 0.5)
+        public CompletableFuture<Object> asyncTimeStep() {
+            callCount.incrementAndGet();
+            return CompletableFuture.completedFuture("1");
+        }
+
+        @TimeStep(prob = 0.5)
+        public void syncTimeStep() {
+            callCount.incrementAndGet();
+            if (thrown.compareAndSet(false, true)) {
+                throw new IllegalStateException("expected");
+            }
+        }
+    }
+
+    public static class SyncTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.metronome.OpenLoopMetronome;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_OpenLoopTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testLateCount_whenExecutorsCantKeepUp() throws Exception {
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("openLoop")
+                .setProperty("iterations", 20)
+                .setProperty("threadCount", 1)
+                .setProperty("interval", "1ms")
+                .setProperty("metronomeClass", OpenLoopMetronome.class)
+                .setProperty("class", testInstance.getClass());
+        TestContainer container = run(testInstance, testCase);
+
+        // every arrival is executed, also when the executor is behind; so there is a late arrival for every timestep
+        assertEquals(20, container.iteration());
+        assertTrue("lateCount was " + container.lateCount(), container.lateCount() >= 15);
+    }
+
+    @Test
+    public void testLateCount_whenNoOpenLoopMetronome() throws Exception {
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("openLoop")
+                .setProperty("iterations", 2)
+                .setProperty("interval", "1ms")
+                .setProperty("class", testInstance.getClass());
+        TestContainer container = run(testInstance, testCase);
+
+        assertEquals(-1, container.lateCount());
+    }
+
+    private static TestContainer run(Object testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        assertNoExceptions();
+        return container;
+    }
+
+    public static class SlowTest {
+
+        @TimeStep
+        public void timeStep() {
+            sleepMillis(5);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.TestSupport.spawn;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestContainer_TimeStep_RetuneTest extends TestContainer_AbstractTest {
+
+    private Future runFuture;
+
+    @After
+    public void stopRun() throws Exception {
+        if (runFuture != null) {
+            testContext.stop();
+            runFuture.get();
+        }
+    }
+
+    @Test
+    public void testRetuneThreadCount() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = startRun(testInstance, new TestCase("id")
+                .setProperty("threadCount", 4)
+                .setProperty("ratePerSecond", 1000)
+                .setProperty("class", testInstance.getClass()));
+        assertTrueEventually(() -> assertEquals(4, testInstance.threads.size()));
+
+        container.retune(new RetuneMessage("id", "", 0, 0, 1, 0));
+        // gives the deactivated threads the time to complete their current timestep
+        Thread.sleep(500);
+        testInstance.threads.clear();
+        Thread.sleep(1000);
+        assertEquals(1, testInstance.threads.size());
+
+        container.retune(new RetuneMessage("id", "", 0, 0, 4, 0));
+        assertTrueEventually(() -> assertEquals(4, testInstance.threads.size()));
+    }
+
+    @Test
+    public void testRetuneThreadCount_withoutMetronome() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = startRun(testInstance, new TestCase("id")
+                .setProperty("threadCount", 4)
+                .setProperty("class", testInstance.getClass()));
+        assertTrueEventually(() -> assertEquals(4, testInstance.threads.size()));
+
+        container.retune(new RetuneMessage("id", "", 0, 0, 1, 0));
+        // the thread gate is checked every 1024 iterations; so the deactivated threads stop almost immediately
+        Thread.sleep(500);
+        testInstance.threads.clear();
+        Thread.sleep(1000);
+        assertEquals(1, testInstance.threads.size());
+
+        container.retune(new RetuneMessage("id", "", 0, 0, 4, 0));
+        assertTrueEventually(() -> assertEquals(4, testInstance.threads.size()));
+    }
+
+    @Test
+    public void testRetuneRate_withDuration() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = startRun(testInstance, new TestCase("id")
+                .setProperty("threadCount", 1)
+                .setProperty("ratePerSecond", 20)
+                .setProperty("class", testInstance.getClass()));
+        assertTrueEventually(() -> assertTrue(testInstance.count.get() > 0));
+
+        // a burst to 1000 per second for 2 seconds
+        container.retune(new RetuneMessage("id", "", 0, 50, 0, 2));
+        long burstCount = countDuringOneSecond(testInstance);
+        assertTrue("burstCount: " + burstCount, burstCount > 300);
+
+        // the rate is restored after the burst
+        Thread.sleep(2000);
+        long restoredCount = countDuringOneSecond(testInstance);
+        assertTrue("restoredCount: " + restoredCount, restoredCount < 100);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRetune_whenNotRunning() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = createTestContainer(testInstance, new TestCase("id")
+                .setProperty("ratePerSecond", 20)
+                .setProperty("class", testInstance.getClass()));
+        container.invoke(SETUP);
+
+        container.retune(new RetuneMessage("id", "", 100, 0, 0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRetune_whenUnknownExecutionGroup() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = startRun(testInstance, new TestCase("id")
+                .setProperty("ratePerSecond", 20)
+                .setProperty("class", testInstance.getClass()));
+
+        container.retune(new RetuneMessage("id", "unknown", 100, 0, 0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRetune_whenThreadCountLargerThanConfigured() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = startRun(testInstance, new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("ratePerSecond", 20)
+                .setProperty("class", testInstance.getClass()));
+
+        container.retune(new RetuneMessage("id", "", 0, 0, 3, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRetuneRate_whenNoRateConfigured() throws Exception {
+        RetuneTest testInstance = new RetuneTest();
+        TestContainer container = startRun(testInstance, new TestCase("id")
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass()));
+
+        container.retune(new RetuneMessage("id", "", 0, 2, 0, 0));
+    }
+
+    private TestContainer startRun(RetuneTest testInstance, TestCase testCase) throws Exception {
+        TestContainer container = createTestContainer(testInstance, testCase);
+        container.invoke(SETUP);
+        runFuture = spawn(() -> {
+            container.invoke(RUN);
+            return null;
+        });
+        assertTrueEventually(() -> assertTrue(testInstance.count.get() > 0));
+        return container;
+    }
+
+    private static long countDuringOneSecond(RetuneTest testInstance) throws InterruptedException {
+        long start = testInstance.count.get();
+        Thread.sleep(1000);
+        return testInstance.count.get() - start;
+    }
+
+    public static class RetuneTest {
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private final AtomicLong count = new AtomicLong();
+
+        @TimeStep
+        public void timeStep() {
+            threads.add(Thread.currentThread());
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.jfr.JfrRecording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_SlowTimeStepEventTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testSlowTimeStepEvents() throws Exception {
+        assumeTrue(JfrRecording.isAvailable());
+
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("slowTimeStep")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("recordJfr", true)
+                .setProperty("recordSlowTimeStepThresholdNs", 1)
+                .setProperty("class", testInstance.getClass());
+
+        run(testInstance, testCase);
+
+        Set<String> methods = new HashSet<>();
+        File file = new File(userDir, "slowTimeStep.warmup.jfr");
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            if (event.getEventType().getName().equals("com.hazelcast.simulator.SlowTimeStep")) {
+                assertEquals("", event.getString("executionGroup"));
+                methods.add(event.getString("method"));
+            }
+        }
+        assertEquals(new HashSet<>(asList("syncTimeStep", "asyncTimeStep")), methods);
+    }
+
+    @Test
+    public void testWithoutRecording() throws Exception {
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("slowTimeStep")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("recordSlowTimeStepThresholdNs", 1)
+                .setProperty("class", testInstance.getClass());
+
+        run(testInstance, testCase);
+    }
+
+    @Test
+    public void testWithMaxInFlight() throws Exception {
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("slowTimeStep")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("maxInFlight", 2)
+                .setProperty("recordSlowTimeStepThresholdNs", 1)
+                .setProperty("class", testInstance.getClass());
+
+        run(testInstance, testCase);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNegativeThreshold() {
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("slowTimeStep")
+                .setProperty("recordSlowTimeStepThresholdNs", -1)
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testWithoutMeasureLatency() {
+        SlowTest testInstance = new SlowTest();
+        TestCase testCase = new TestCase("slowTimeStep")
+                .setProperty("recordSlowTimeStepThresholdNs", 1)
+                .setProperty("measureLatency", false)
+                .setProperty("class", testInstance.getClass());
+
+        createTestContainer(testInstance, testCase);
+    }
+
+    private static void run(Object testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        assertNoExceptions();
+    }
+
+    public static class SlowTest {
+
+        @TimeStep(prob = 0.5)
+        public void syncTimeStep() throws Exception {
+            Thread.sleep(1);
+        }
+
+        @TimeStep(prob = 0.5)
+        public CompletableFuture<Object> asyncTimeStep() {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
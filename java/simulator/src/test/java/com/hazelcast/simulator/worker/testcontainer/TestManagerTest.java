@@ -15,6 +15,7 @@ import com.hazelcast.simulator.fake.FakeInstance;
 import com.hazelcast.simulator.drivers.Driver;
 import com.hazelcast.simulator.worker.messages.CreateTestMessage;
 import com.hazelcast.simulator.worker.messages.StartPhaseMessage;
+import com.hazelcast.simulator.worker.messages.RetuneMessage;
 import com.hazelcast.simulator.worker.messages.StopRunMessage;
 import org.junit.After;
 import org.junit.Before;
@@ -163,6 +164,11 @@ public class TestManagerTest {
         manager.stopRun(new StopRunMessage("foo"));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void test_retune_whenNotExistingTest() {
+        manager.retune(new RetuneMessage("foo", "", 100, 0, 0, 0));
+    }
+
     @Test
     public void test_startTestPhase() throws Exception {
         TestCase testCase = new TestCase("foo")
@@ -1,9 +1,24 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.impl.HdrLatencyProbe;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import org.junit.Test;
 
 import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 public class TimeStepLoopCodeGeneratorTest {
@@ -16,4 +31,106 @@ public class TimeStepLoopCodeGeneratorTest {
 
         codeGenerator.compile(null, javaFileObject, "className");
     }
+
+    @Test
+    public void testCompile_whenSameShape_thenLoopClassReused() {
+        TimeStepModel model = newModel();
+
+        Class loopClass1 = compile("test1", model, 0);
+        Class loopClass2 = compile("test2", model, 0);
+
+        assertSame(loopClass1, loopClass2);
+        assertTrue(TimeStepLoop.class.isAssignableFrom(loopClass1));
+        assertTrue(loopClass1.getSimpleName().startsWith("LoopTestLoop_"));
+    }
+
+    @Test
+    public void testCompile_concurrently_thenCompiledOnce() throws Exception {
+        TimeStepModel model = newModel();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Class>> futures = new ArrayList<>();
+            for (int k = 0; k < 4; k++) {
+                String testCaseId = "test" + k;
+                futures.add(executor.submit(() -> compile(testCaseId, model, 5000)));
+            }
+
+            Class loopClass = futures.get(0).get();
+            for (Future<Class> future : futures) {
+                assertSame(loopClass, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompile_whenDifferentShape_thenNewLoopClass() {
+        TimeStepModel model = newModel();
+
+        Class loopClass1 = compile("test1", model, 0);
+        Class loopClass2 = compile("test2", model, 1000);
+
+        assertNotSame(loopClass1, loopClass2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCompile_inMemory_withNestedClass() throws Exception {
+        String code = "public class InMemoryCallable implements java.util.concurrent.Callable<String> {\n"
+                + "    public String call() {\n"
+                + "        return new Nested().toString();\n"
+                + "    }\n"
+                + "    static class Nested {\n"
+                + "        public String toString() {\n"
+                + "            return \"nested\";\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n";
+        JavaFileObject file = new SimpleSource("InMemoryCallable", code);
+
+        Class clazz = codeGenerator.compile(ToolProvider.getSystemJavaCompiler(), file, "InMemoryCallable");
+
+        Callable<String> callable = (Callable<String>) clazz.newInstance();
+        assertEquals("nested", callable.call());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testCompile_whenCompilationFails() {
+        JavaFileObject file = new SimpleSource("Broken", "public class Broken {");
+
+        codeGenerator.compile(ToolProvider.getSystemJavaCompiler(), file, "Broken");
+    }
+
+    private Class compile(String testCaseId, TimeStepModel model, long logFrequency) {
+        return codeGenerator.compile(testCaseId, "", model, EmptyMetronome.class, HdrLatencyProbe.class, false,
+                logFrequency, 0, false, false, 0);
+    }
+
+    private static TimeStepModel newModel() {
+        TestCase testCase = new TestCase("foo").setProperty("class", LoopTest.class);
+        return new TimeStepModel(LoopTest.class, new PropertyBinding(testCase));
+    }
+
+    private static class SimpleSource extends javax.tools.SimpleJavaFileObject {
+
+        private final String code;
+
+        SimpleSource(String className, String code) {
+            super(java.net.URI.create("string:///" + className + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    public static class LoopTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
+    }
 }
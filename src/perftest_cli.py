@@ -4,7 +4,7 @@ import sys
 import argparse
 
 from simulator.perftest import PerftestCreateCli, PerftestCloneCli, PerftestRunCli, PerftestExecCli, \
-    PerftestKillJavaCli, PerftestCollectCli, PerftestCleanCli
+    PerftestKillJavaCli, PerftestCollectCli, PerftestCleanCli, PerftestRetuneCli
 from simulator.perftest_report import PerfTestReportCli
 
 
@@ -16,6 +16,7 @@ The available commands are:
     collect     Collects the performance test data and stores it in result.yaml.
     exec        Executes a performance test.
     run         Runs a tests.yaml which is a self contained set of tests
+    retune      Changes the rate and/or the number of threads of a running test
     kill_java   Kills all Java processes   
     report      Generate performance report 
 '''
@@ -53,6 +54,9 @@ class PerftestCli:
     def exec(self):
         PerftestExecCli(sys.argv[2:])
 
+    def retune(self):
+        PerftestRetuneCli(sys.argv[2:])
+
     def kill_java(self):
         PerftestKillJavaCli(sys.argv[2:])
 
@@ -260,6 +260,19 @@ class PerfTest:
 
         return exitcode, run_path
 
+    def retune(self, run_path, settings):
+        if not path.isdir(run_path):
+            exit_with_error(f"Run directory [{run_path}] doesn't exist")
+
+        # the file is written atomically since the coordinator polls for it
+        retune_file = f"{run_path}/retune.properties"
+        with tempfile.NamedTemporaryFile(mode="w", delete=False, dir=run_path, prefix="retune_", suffix=".tmp") as tmp:
+            for key, value in settings.items():
+                if value is not None:
+                    tmp.write(f"{key}={value}\n")
+        os.replace(tmp.name, retune_file)
+        info(f"Retune request written to {retune_file}")
+
     def clean(self):
         exitcode = self.__shell(f"{simulator_home}/bin/hidden/coordinator --clean")
         if exitcode != 0:
@@ -683,6 +696,42 @@ class PerftestCollectCli:
         log_header("perftest collect: done")
 
 
+class PerftestRetuneCli:
+
+    def __init__(self, argv):
+        parser = argparse.ArgumentParser(formatter_class=argparse.ArgumentDefaultsHelpFormatter,
+                                         description='Changes the rate and/or the number of threads of a running test. '
+                                                     'E.g. a 2x burst for 30 seconds: --rateFactor 2 --duration 30')
+        parser.add_argument("dir", help="The run directory of the running test")
+        parser.add_argument("--test", help="The id of the test. Only needed when multiple tests run in parallel.")
+        parser.add_argument("--executionGroup", help="The execution group to retune.", default="")
+        parser.add_argument("--ratePerSecond", type=float, help="The new rate per second of every worker.")
+        parser.add_argument("--rateFactor", type=float, help="The factor to multiply the current rate with.")
+        parser.add_argument("--threadCount", type=int,
+                            help="The new number of active threads of every worker; at most the configured threadCount.")
+        parser.add_argument("--duration", type=int,
+                            help="The number of seconds after which the previous settings are restored. "
+                                 "If not set, the change is permanent.")
+        args = parser.parse_args(argv)
+
+        if args.ratePerSecond is None and args.rateFactor is None and args.threadCount is None:
+            exit_with_error("One of --ratePerSecond, --rateFactor or --threadCount needs to be set")
+        if args.ratePerSecond is not None and args.rateFactor is not None:
+            exit_with_error("--ratePerSecond and --rateFactor can't be combined")
+
+        log_header("perftest retune")
+
+        perftest = PerfTest()
+        perftest.retune(args.dir, {"testId": args.test,
+                                   "executionGroup": args.executionGroup,
+                                   "ratePerSecond": args.ratePerSecond,
+                                   "rateFactor": args.rateFactor,
+                                   "threadCount": args.threadCount,
+                                   "durationSeconds": args.duration})
+
+        log_header("perftest retune: done")
+
+
 class PerftestCleanCli:
 
     def __init__(self, argv):
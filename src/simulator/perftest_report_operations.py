@@ -70,6 +70,12 @@ def __load_worker_operations_csv(run_dir, attributes):
             df = df.loc[~df.index.duplicated(keep='last')]
             df.drop(['epoch'], inplace=True, axis=1)
             df.drop(['timestamp'], inplace=True, axis=1)
+            # the warmup intervals are excluded from the report; files without a warmup column have no warmup intervals
+            if 'warmup' in df.columns:
+                df = df[df['warmup'] == 0].copy()
+                if len(df.index) == 0:
+                    continue
+            df.drop(['warmup'], inplace=True, axis=1, errors='ignore')
 
             new_attributes = attributes.copy()
             new_attributes["test_id"] = test_id
@@ -133,6 +139,12 @@ def __load_aggregated_operations_csv(run_dir, attributes):
         df = df.loc[~df.index.duplicated(keep='last')]
         df.drop(['epoch'], inplace=True, axis=1)
         df.drop(['timestamp'], inplace=True, axis=1)
+        # the warmup intervals are excluded from the report; files without a warmup column have no warmup intervals
+        if 'warmup' in df.columns:
+            df = df[df['warmup'] == 0].copy()
+            if len(df.index) == 0:
+                continue
+        df.drop(['warmup'], inplace=True, axis=1, errors='ignore')
 
         new_attributes = attributes.copy()
         new_attributes["test_id"] = test_id